@@ -0,0 +1,109 @@
+package com.example.ordersystem.config;
+
+import com.example.ordersystem.model.Currency;
+import com.example.ordersystem.model.CurrencyCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 匯率快取專用的二進位序列化器
+ * 以固定格式取代 JSON，每筆 21 bytes，讀取時不需要類別名稱與多型解析
+ *
+ * 格式（版本 1，big-endian）：
+ * <pre>
+ * offset  長度  欄位
+ * 0       1     格式版本（0x01）
+ * 1       3     幣別代碼（ASCII，如 USD）
+ * 4       1     匯率 scale
+ * 5       8     匯率 unscaled value（long）
+ * 13      8     最後更新時間（UTC epoch millis，null 時為 Long.MIN_VALUE）
+ * </pre>
+ *
+ * 無法辨識的版本（例如升級前寫入的 JSON）會視為快取未命中，由資料庫重新載入後覆寫
+ * 最後更新時間只保留到毫秒
+ */
+public class CurrencyRedisSerializer implements RedisSerializer<Currency> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CurrencyRedisSerializer.class);
+
+    static final byte FORMAT_VERSION = 1;
+    static final int ENCODED_LENGTH = 21;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    @Override
+    public byte[] serialize(Currency currency) throws SerializationException {
+        if (currency == null) {
+            return null;
+        }
+        if (currency.getCurrencyCode() == null || currency.getRateToTwd() == null) {
+            throw new SerializationException("幣別代碼與匯率不能為空: " + currency.getCurrencyCode());
+        }
+
+        BigDecimal rate = currency.getRateToTwd();
+        if (rate.unscaledValue().bitLength() > 63) {
+            rate = rate.stripTrailingZeros();
+        }
+        if (rate.unscaledValue().bitLength() > 63 || rate.scale() < Byte.MIN_VALUE || rate.scale() > Byte.MAX_VALUE) {
+            throw new SerializationException("匯率超出二進位格式可表示的範圍: " + currency.getRateToTwd());
+        }
+
+        LocalDateTime lastUpdate = currency.getLastUpdate();
+        long epochMillis = lastUpdate != null
+            ? lastUpdate.toInstant(ZoneOffset.UTC).toEpochMilli()
+            : NULL_TIMESTAMP;
+
+        return ByteBuffer.allocate(ENCODED_LENGTH)
+            .put(FORMAT_VERSION)
+            .put(currency.getCurrencyCode().name().getBytes(StandardCharsets.US_ASCII))
+            .put((byte) rate.scale())
+            .putLong(rate.unscaledValue().longValue())
+            .putLong(epochMillis)
+            .array();
+    }
+
+    @Override
+    public Currency deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != FORMAT_VERSION || bytes.length != ENCODED_LENGTH) {
+            logger.debug("無法辨識的匯率快取格式（版本 {}，長度 {}），視為未命中", bytes[0], bytes.length);
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, ENCODED_LENGTH - 1);
+        byte[] code = new byte[3];
+        buffer.get(code);
+        CurrencyCode currencyCode;
+        try {
+            currencyCode = CurrencyCode.valueOf(new String(code, StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("未知的幣別代碼: " + new String(code, StandardCharsets.US_ASCII), e);
+        }
+        int scale = buffer.get();
+        long unscaled = buffer.getLong();
+        long epochMillis = buffer.getLong();
+
+        Currency currency = new Currency();
+        currency.setCurrencyCode(currencyCode);
+        currency.setRateToTwd(BigDecimal.valueOf(unscaled, scale));
+        if (epochMillis != NULL_TIMESTAMP) {
+            currency.setLastUpdate(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC));
+        }
+        return currency;
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return Currency.class;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ordersystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * 讀寫分離資料來源配置類
+ * 啟用 app.datasource.replica.enabled 時建立主庫與備庫兩個連接池，
+ * 並以 ReplicaRoutingDataSource 依交易是否唯讀選擇連線
+ *
+ * - 主庫：沿用 spring.datasource.* 與 spring.datasource.hikari.*
+ * - 備庫：app.datasource.replica.*（HikariCP 屬性，如 jdbc-url、username、password、maximum-pool-size）
+ *
+ * 未啟用時由 Spring Boot 自動配置單一資料來源
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceRoutingConfig.class);
+
+    /**
+     * 主庫連接池
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary-pool");
+        return dataSource;
+    }
+
+    /**
+     * 備庫連接池
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica-pool");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * 應用程式使用的資料來源（JPA、SQL 初始化等）
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReadYourWritesGuard readYourWritesGuard) {
+        logger.info("已啟用讀寫分離：唯讀交易導向備庫，寫入及剛寫入的使用者導向主庫");
+        return routingDataSource(primaryDataSource, replicaDataSource, readYourWritesGuard);
+    }
+
+    /**
+     * 建立包在 LazyConnectionDataSourceProxy 內的路由資料來源
+     */
+    public static DataSource routingDataSource(DataSource primaryDataSource, DataSource replicaDataSource,
+                                               ReadYourWritesGuard readYourWritesGuard) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(readYourWritesGuard);
+        routing.setTargetDataSources(Map.of(
+            ReplicaRoutingDataSource.Route.PRIMARY, primaryDataSource,
+            ReplicaRoutingDataSource.Route.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
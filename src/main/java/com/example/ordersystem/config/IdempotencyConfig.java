@@ -0,0 +1,36 @@
+package com.example.ordersystem.config;
+
+import com.example.ordersystem.service.IdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Idempotency-Key 配置類
+ * 訂閱其他節點登記的新 key，加入本節點的 Bloom filter，
+ * 讓用戶端重送到不同節點時仍會查詢 Redis 而偵測到重複
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.idempotency.redis.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyConfig.class);
+
+    @Bean
+    public RedisMessageListenerContainer idempotencyListenerContainer(
+            RedisConnectionFactory connectionFactory, IdempotencyService idempotencyService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(idempotencyService, new ChannelTopic(IdempotencyService.SEEN_CHANNEL));
+        logger.info("訂閱 Idempotency-Key 通知 {}", IdempotencyService.SEEN_CHANNEL);
+        return container;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.ordersystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.UUID;
+
+/**
+ * 節點識別
+ * 多節點部署時用來區分各個應用程式實例（例如租約鎖的持有者）
+ *
+ * 未設定 app.node-id 時，使用「主機名稱-PID-隨機碼」自動產生
+ */
+@Component
+public class NodeIdentity {
+
+    private final String nodeId;
+
+    public NodeIdentity(@Value("${app.node-id:}") String configuredNodeId) {
+        this.nodeId = configuredNodeId != null && !configuredNodeId.isBlank()
+            ? configuredNodeId.trim()
+            : generateNodeId();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String generateNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        String pid = String.valueOf(ProcessHandle.current().pid());
+        return host + "-" + pid + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
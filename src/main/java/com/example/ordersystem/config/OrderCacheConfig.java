@@ -0,0 +1,38 @@
+package com.example.ordersystem.config;
+
+import com.example.ordersystem.service.OrderCache;
+import com.example.ordersystem.service.OrderSearchCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 訂單快取配置類
+ * 啟用 app.order-cache.redis.enabled 時訂閱訂單快取失效頻道，
+ * 讓其他節點更新或刪除訂單後本節點的 L1 與訂單搜尋結果快取立即失效
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.order-cache.redis.enabled", havingValue = "true")
+public class OrderCacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderCacheConfig.class);
+
+    @Bean
+    public RedisMessageListenerContainer orderCacheListenerContainer(
+            RedisConnectionFactory connectionFactory, OrderCache orderCache, OrderSearchCache orderSearchCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(orderCache, new ChannelTopic(OrderCache.INVALIDATION_CHANNEL));
+        container.addMessageListener(orderSearchCache, new ChannelTopic(OrderCache.INVALIDATION_CHANNEL));
+        logger.info("訂單快取 Redis L2 已啟用，訂閱 {}", OrderCache.INVALIDATION_CHANNEL);
+        return container;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ordersystem.config;
+
+import com.example.ordersystem.service.OrderChangeFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 訂單異動動態配置類
+ * 訂閱訂單異動通知（包含本節點發出的），各節點依全叢集的序號加入，長輪詢連到任一節點都能以同一個游標接續
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.order-feed.redis.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderChangeFeedConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderChangeFeedConfig.class);
+
+    @Bean
+    public RedisMessageListenerContainer orderChangeFeedListenerContainer(
+            RedisConnectionFactory connectionFactory, OrderChangeFeed orderChangeFeed) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(orderChangeFeed, new ChannelTopic(OrderChangeFeed.CHANGED_CHANNEL));
+        logger.info("訂閱訂單異動通知 {}", OrderChangeFeed.CHANGED_CHANNEL);
+        return container;
+    }
+}
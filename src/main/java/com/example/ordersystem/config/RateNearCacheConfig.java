@@ -0,0 +1,101 @@
+package com.example.ordersystem.config;
+
+import com.example.ordersystem.service.RateNearCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.util.StringUtils;
+
+import java.util.Properties;
+
+/**
+ * 匯率近端快取配置類
+ * 啟用 app.rate-cache.near-cache.enabled 時，訂閱匯率快取鍵的 Redis keyspace notification，
+ * 收到異動後讓 RateNearCache 失效
+ *
+ * Redis 需開啟 notify-keyspace-events（至少包含 K、$、g、x），啟動時會讀取伺服器目前的設定並在缺少時警告；
+ * 設定 app.rate-cache.near-cache.keyspace-events 時，只將缺少的旗標與伺服器目前的設定合併後以 CONFIG SET 套用，
+ * 不會覆蓋其他服務需要的旗標。雲端託管的 Redis 若禁止 CONFIG 指令，請改由服務商設定
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.rate-cache.near-cache.enabled", havingValue = "true")
+public class RateNearCacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateNearCacheConfig.class);
+    private static final String NOTIFY_KEYSPACE_EVENTS = "notify-keyspace-events";
+    /** 近端快取需要的旗標：K（keyspace 頻道）、$（字串指令）、g（DEL、EXPIRE 等）、x（過期） */
+    static final String REQUIRED_EVENTS = "K$gx";
+    /** 旗標 A 代表的事件類型 */
+    private static final String ALL_EVENT_TYPES = "g$lshzxetd";
+
+    @Value("${spring.data.redis.database:0}")
+    private int database;
+
+    @Value("${app.rate-cache.near-cache.keyspace-events:}")
+    private String keyspaceEvents;
+
+    @Bean
+    public RedisMessageListenerContainer rateNearCacheListenerContainer(
+            RedisConnectionFactory connectionFactory, RateNearCache rateNearCache) {
+        configureKeyspaceEvents(connectionFactory);
+
+        String pattern = "__keyspace@" + database + "__:currency:rate:*";
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(rateNearCache, new PatternTopic(pattern));
+        logger.info("匯率近端快取已啟用，訂閱 {}", pattern);
+        return container;
+    }
+
+    private void configureKeyspaceEvents(RedisConnectionFactory connectionFactory) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            Properties config = connection.serverCommands().getConfig(NOTIFY_KEYSPACE_EVENTS);
+            String current = config != null ? config.getProperty(NOTIFY_KEYSPACE_EVENTS, "") : "";
+            String wanted = StringUtils.hasText(keyspaceEvents) ? keyspaceEvents : REQUIRED_EVENTS;
+            String merged = mergeKeyspaceEvents(current, wanted);
+            if (merged.equals(current)) {
+                logger.info("Redis notify-keyspace-events={}，已包含近端快取需要的旗標", current);
+            } else if (StringUtils.hasText(keyspaceEvents)) {
+                connection.serverCommands().setConfig(NOTIFY_KEYSPACE_EVENTS, merged);
+                logger.info("已設定 Redis notify-keyspace-events: {} -> {}", current, merged);
+            } else {
+                logger.warn("Redis notify-keyspace-events={} 缺少近端快取需要的旗標 {}，其他節點的匯率異動不會即時失效",
+                    current, REQUIRED_EVENTS);
+            }
+        } catch (Exception e) {
+            logger.warn("無法讀取或設定 Redis notify-keyspace-events，請確認伺服器已開啟: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 將需要的旗標中目前沒有的部分加到目前的設定之後
+     *
+     * @param current 伺服器目前的設定
+     * @param wanted 需要的旗標
+     * @return 合併後的設定；已全部包含時返回 current
+     */
+    static String mergeKeyspaceEvents(String current, String wanted) {
+        StringBuilder merged = new StringBuilder(current);
+        for (char flag : wanted.toCharArray()) {
+            if (!hasFlag(merged, flag)) {
+                merged.append(flag);
+            }
+        }
+        return merged.toString();
+    }
+
+    private static boolean hasFlag(CharSequence events, char flag) {
+        String value = events.toString();
+        return value.indexOf(flag) >= 0 || (value.indexOf('A') >= 0 && ALL_EVENT_TYPES.indexOf(flag) >= 0);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ordersystem.config;
+
+import com.example.ordersystem.service.RateStreamBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 匯率串流配置類
+ * 訂閱其他節點的匯率異動通知，讓連線到任一節點的 SSE 訂閱者都能收到刷新節點寫入的匯率
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.rate-stream.redis.enabled", havingValue = "true", matchIfMissing = true)
+public class RateStreamConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateStreamConfig.class);
+
+    @Bean
+    public RedisMessageListenerContainer rateStreamListenerContainer(
+            RedisConnectionFactory connectionFactory, RateStreamBroadcaster rateStreamBroadcaster) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(rateStreamBroadcaster, new ChannelTopic(RateStreamBroadcaster.CHANGED_CHANNEL));
+        logger.info("訂閱匯率異動通知 {}", RateStreamBroadcaster.CHANGED_CHANNEL);
+        return container;
+    }
+}
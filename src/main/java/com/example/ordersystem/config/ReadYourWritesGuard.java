@@ -0,0 +1,128 @@
+package com.example.ordersystem.config;
+
+import com.example.ordersystem.service.OrderChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 讀己之寫（read-your-writes）保護
+ * 使用者寫入訂單後的一段時間內，其唯讀查詢仍導向主庫，避免因備庫複寫延遲而看不到剛寫入的資料
+ *
+ * 以登入使用者為單位記錄最後寫入（交易提交）時間；
+ * 保護時間 app.datasource.read-your-writes-window 應大於備庫正常情況下的最大複寫延遲
+ *
+ * 結果會寫入共用快取的查詢另以 {@link #readFromPrimary(Supplier)} 讀主庫，
+ * 避免備庫的舊資料被快取後，在複寫追上之後仍回應給所有使用者
+ */
+@Component
+public class ReadYourWritesGuard {
+
+    private static final int CLEANUP_THRESHOLD = 10_000; // 記錄數超過此值時清除已過期的紀錄
+
+    @Value("${app.datasource.read-your-writes-window:PT5S}")
+    private Duration window = Duration.ofSeconds(5);
+
+    private final Map<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+
+    // readFromPrimary 執行中的執行緒
+    private final ThreadLocal<Boolean> forcePrimary = new ThreadLocal<>();
+
+    /**
+     * 訂單寫入提交後記錄目前使用者的寫入（背景寫入沒有登入使用者，不記錄）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        String subject = currentSubject();
+        if (subject != null) {
+            stamp(subject);
+        }
+    }
+
+    /**
+     * 記錄目前使用者的寫入
+     * 在交易中呼叫時於提交後才開始計時，交易回滾則不記錄
+     */
+    public void recordWrite() {
+        String subject = currentSubject();
+        if (subject == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stamp(subject);
+                }
+            });
+        } else {
+            stamp(subject);
+        }
+    }
+
+    /**
+     * 在主庫上執行查詢
+     * 路由在取得連線時才決定，查詢需在此方法內取得連線（不可沿用外層唯讀交易已取得的備庫連線）
+     *
+     * @param query 查詢
+     * @return 查詢結果
+     */
+    public <T> T readFromPrimary(Supplier<T> query) {
+        Boolean previous = forcePrimary.get();
+        forcePrimary.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            if (previous == null) {
+                forcePrimary.remove();
+            }
+        }
+    }
+
+    /**
+     * 目前的查詢是否需讀取主庫：在 readFromPrimary 內，或目前使用者仍在寫入後的保護時間內
+     */
+    public boolean requiresPrimary() {
+        if (Boolean.TRUE.equals(forcePrimary.get())) {
+            return true;
+        }
+        String subject = currentSubject();
+        if (subject == null) {
+            return false;
+        }
+        Long writtenAt = lastWriteNanos.get(subject);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt < window.toNanos()) {
+            return true;
+        }
+        lastWriteNanos.remove(subject, writtenAt);
+        return false;
+    }
+
+    private void stamp(String subject) {
+        long now = System.nanoTime();
+        lastWriteNanos.put(subject, now);
+        if (lastWriteNanos.size() > CLEANUP_THRESHOLD) {
+            lastWriteNanos.values().removeIf(writtenAt -> now - writtenAt >= window.toNanos());
+        }
+    }
+
+    private String currentSubject() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.ordersystem.config;
 
+import com.example.ordersystem.model.Currency;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -11,12 +12,10 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
-import org.springframework.scheduling.TaskScheduler;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
  * Redis 配置類
- * 配置 RedisTemplate 用於匯率快取
+ * 配置通用的 RedisTemplate（JSON）與匯率快取專用的 RedisTemplate（二進位格式）
  * 
  * @author Order Currency System
  * @version 1.0
@@ -29,18 +28,7 @@ public class RedisConfig {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
-        // 配置 ObjectMapper 以支援 LocalDateTime
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        // 必須設置，否則無法將 JSON 轉化為物件，會出現型別轉換錯誤
-        objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
-        // 解決 LocalDateTime 序列化問題
-        objectMapper.registerModule(new JavaTimeModule());
-        // 禁用將日期寫為時間戳
-        objectMapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-        // 使用配置好的 ObjectMapper 創建序列化器
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        GenericJackson2JsonRedisSerializer serializer = jsonRedisSerializer();
 
         // 使用 StringRedisSerializer 來序列化和反序列化 Redis 的 key
         template.setKeySerializer(new StringRedisSerializer());
@@ -53,18 +41,37 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
-    
+
     /**
-     * 配置 TaskScheduler 用於動態排程任務
+     * 匯率快取專用的 RedisTemplate
+     * 值使用 CurrencyRedisSerializer 的固定長度二進位格式，比 JSON 小且不需多型解析
      */
     @Bean
-    public TaskScheduler taskScheduler() {
-        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(5);
-        scheduler.setThreadNamePrefix("currency-rate-scheduler-");
-        scheduler.setWaitForTasksToCompleteOnShutdown(true);
-        scheduler.setAwaitTerminationSeconds(60);
-        return scheduler;
+    public RedisTemplate<String, Currency> currencyRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, Currency> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new CurrencyRedisSerializer());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    /**
+     * 建立通用 RedisTemplate 使用的 JSON 序列化器
+     */
+    public static GenericJackson2JsonRedisSerializer jsonRedisSerializer() {
+        // 配置 ObjectMapper 以支援 LocalDateTime
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        // 必須設置，否則無法將 JSON 轉化為物件，會出現型別轉換錯誤
+        objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+        // 解決 LocalDateTime 序列化問題
+        objectMapper.registerModule(new JavaTimeModule());
+        // 禁用將日期寫為時間戳
+        objectMapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        // 使用配置好的 ObjectMapper 創建序列化器
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
     }
 }
 
@@ -0,0 +1,38 @@
+package com.example.ordersystem.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 讀寫分離路由資料來源
+ * 唯讀交易（@Transactional(readOnly = true)）導向備庫，其餘導向主庫；
+ * 使用者剛寫入資料時由 ReadYourWritesGuard 強制改讀主庫
+ *
+ * 必須包在 LazyConnectionDataSourceProxy 內使用，
+ * 才能在交易的唯讀旗標設定之後才決定要取得哪一個資料來源的連線
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * 路由鍵
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReadYourWritesGuard readYourWritesGuard;
+
+    public ReplicaRoutingDataSource(ReadYourWritesGuard readYourWritesGuard) {
+        this.readYourWritesGuard = readYourWritesGuard;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !readYourWritesGuard.requiresPrimary()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
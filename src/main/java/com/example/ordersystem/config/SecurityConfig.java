@@ -1,6 +1,7 @@
 package com.example.ordersystem.config;
 
 import com.example.ordersystem.filter.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -55,6 +56,8 @@ public class SecurityConfig {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                // 非同步請求（長輪詢、SSE）的結果分派：原請求已通過授權，分派時不再帶有 JWT 認證
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
                 // 匯率管理相關 API - 僅管理員
@@ -62,10 +65,13 @@ public class SecurityConfig {
                 .requestMatchers("/api/currencies/auto-update/**").hasRole("ADMIN") // 只有管理員可以管理自動更新
                 .requestMatchers("/api/currencies/{code}/rate").hasRole("ADMIN") // 只有管理員可以更新匯率
                 .requestMatchers("/api/currencies").permitAll() // 允許查看匯率（公開）
+                .requestMatchers("/api/currencies/stream").permitAll() // 匯率異動串流（公開）
                 .requestMatchers("/api/currencies/{code}").permitAll() // 允許查看單一匯率（公開）
                 .requestMatchers("/api/currencies/convert").permitAll() // 允許匯率轉換（公開）
                 .requestMatchers("/api/currencies/**").hasRole("ADMIN") // 其他幣別管理操作僅管理員
                 .requestMatchers("/api/orders/**").hasAnyRole("ADMIN", "USER") // 訂單操作需要登入
+                .requestMatchers("/api/reports/**").hasAnyRole("ADMIN", "USER") // 報表需要登入（一般用戶只看自己的訂單）
+                .requestMatchers("/api/admin/**").hasRole("ADMIN") // 系統管理（快取統計等）僅管理員
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session
@@ -8,8 +8,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Configuration;
 
-import javax.sql.DataSource;
-
 /**
  * 應用關閉配置
  * 確保在應用關閉時正確清理資源，避免內存洩漏
@@ -27,13 +25,11 @@ public class ShutdownConfig {
         logger.info("開始關閉應用程式，清理資源...");
         
         try {
-            // 關閉 HikariCP 連接池
+            // 關閉 HikariCP 連接池（啟用讀寫分離時包含主庫與備庫兩個連接池）
             if (applicationContext != null) {
                 try {
-                    DataSource dataSource = applicationContext.getBean(DataSource.class);
-                    if (dataSource instanceof HikariDataSource) {
-                        HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
-                        logger.info("正在關閉 HikariCP 連接池...");
+                    for (HikariDataSource hikariDataSource : applicationContext.getBeansOfType(HikariDataSource.class).values()) {
+                        logger.info("正在關閉 HikariCP 連接池 {}...", hikariDataSource.getPoolName());
                         hikariDataSource.close();
                         logger.info("HikariCP 連接池已關閉");
                     }
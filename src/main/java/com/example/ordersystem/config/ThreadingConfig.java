@@ -0,0 +1,103 @@
+package com.example.ordersystem.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 執行緒配置類
+ * 統一建立排程器與背景任務執行器，依 spring.threads.virtual.enabled 切換執行緒模式
+ *
+ * 執行緒模式：
+ * - 平台執行緒（預設）：固定大小的執行緒池，適用 Java 17
+ * - 虛擬執行緒：每個任務一條虛擬執行緒，需以 Java 21 以上執行（mvn -Pjava21）
+ *
+ * Tomcat 請求處理的虛擬執行緒由 Spring Boot 依同一個屬性自動配置，
+ * 這裡只負責應用程式自行建立的排程器和背景任務。
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${app.background.max-concurrency:4}")
+    private int backgroundMaxConcurrency;
+
+    private int javaVersion = Runtime.version().feature();
+
+    /**
+     * 配置 TaskScheduler 用於動態排程任務
+     */
+    @Bean
+    public TaskScheduler taskScheduler() {
+        if (isVirtualThreadsAvailable()) {
+            logger.info("排程器使用虛擬執行緒模式");
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix("currency-rate-scheduler-");
+            scheduler.setTaskTerminationTimeout(60_000);
+            return scheduler;
+        }
+
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(5);
+        scheduler.setThreadNamePrefix("currency-rate-scheduler-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(60);
+        return scheduler;
+    }
+
+    /**
+     * 配置背景任務執行器
+     * 取代 Controller 中直接 new Thread() 的做法，讓背景任務有上限且可在關閉時等待完成
+     */
+    @Bean
+    public TaskExecutor backgroundTaskExecutor() {
+        if (isVirtualThreadsAvailable()) {
+            logger.info("背景任務執行器使用虛擬執行緒模式，並行上限: {}", backgroundMaxConcurrency);
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("background-task-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(backgroundMaxConcurrency);
+            executor.setTaskTerminationTimeout(60_000);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(backgroundMaxConcurrency);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("background-task-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    /**
+     * 判斷是否啟用虛擬執行緒
+     * 屬性開啟但執行環境低於 Java 21 時，退回平台執行緒並記錄警告
+     */
+    boolean isVirtualThreadsAvailable() {
+        if (!virtualThreadsEnabled) {
+            return false;
+        }
+        if (javaVersion < 21) {
+            logger.warn("已設定 spring.threads.virtual.enabled=true，但目前 Java 版本為 {}，退回平台執行緒模式", javaVersion);
+            return false;
+        }
+        return true;
+    }
+}
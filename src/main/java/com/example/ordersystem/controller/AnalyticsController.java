@@ -0,0 +1,57 @@
+package com.example.ordersystem.controller;
+
+import com.example.ordersystem.dto.OrderAnalyticsFilter;
+import com.example.ordersystem.service.OrderAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 訂單分析 API
+ * 以記憶體內的欄式快照回答臨時的分析問題，不查詢資料庫，僅限管理員
+ */
+@RestController
+@RequestMapping("/api/admin/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private OrderAnalyticsService orderAnalyticsService;
+
+    /**
+     * 折扣分布：各折扣區間的訂單筆數與平均折扣
+     */
+    @GetMapping("/discounts")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<OrderAnalyticsService.DiscountDistribution> discountDistribution(
+            OrderAnalyticsFilter filter,
+            @RequestParam(defaultValue = "10") BigDecimal bucketWidth) {
+        return ResponseEntity.ok(orderAnalyticsService.discountDistribution(filter, bucketWidth));
+    }
+
+    /**
+     * 各幣別訂單金額的百分位數
+     */
+    @GetMapping("/amount-percentiles")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<OrderAnalyticsService.AmountPercentiles>> amountPercentiles(
+            OrderAnalyticsFilter filter,
+            @RequestParam(defaultValue = "50,90,99") List<BigDecimal> percentiles) {
+        return ResponseEntity.ok(orderAnalyticsService.amountPercentiles(filter, percentiles));
+    }
+
+    /**
+     * 訂單筆數或金額（需指定幣別）最多的使用者
+     */
+    @GetMapping("/top-users")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<OrderAnalyticsService.UserTotal>> topUsers(
+            OrderAnalyticsFilter filter,
+            @RequestParam(defaultValue = "COUNT") OrderAnalyticsService.Ranking by,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(orderAnalyticsService.topUsers(filter, by, limit));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.ordersystem.controller;
+
+import com.example.ordersystem.service.CacheStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 快取統計 API
+ * 提供 Hibernate 二級快取與查詢快取的命中率，僅限管理員
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+public class CacheStatisticsController {
+
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    /**
+     * 取得二級快取與查詢快取統計
+     */
+    @GetMapping("/statistics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getSecondLevelCacheStatistics());
+    }
+
+    /**
+     * 將統計數字歸零
+     */
+    @DeleteMapping("/statistics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> resetStatistics() {
+        cacheStatisticsService.resetStatistics();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,20 +1,36 @@
 package com.example.ordersystem.controller;
 
+import com.example.ordersystem.dto.RateRefreshJob;
+import com.example.ordersystem.dto.RateRefreshPolicy;
+import com.example.ordersystem.dto.RateSnapshot;
 import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.exception.ConflictException;
+import com.example.ordersystem.exception.ResourceNotFoundException;
+import com.example.ordersystem.exception.ServiceUnavailableException;
 import com.example.ordersystem.model.Currency;
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.scheduler.CurrencyRateUpdateScheduler;
+import com.example.ordersystem.scheduler.RateRefreshJobManager;
 import com.example.ordersystem.service.CurrencyService;
+import com.example.ordersystem.service.RateStreamBroadcaster;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,20 +48,49 @@ public class CurrencyController {
     @Autowired
     private CurrencyRateUpdateScheduler currencyRateUpdateScheduler;
     
+    @Autowired
+    private RateRefreshJobManager rateRefreshJobManager;
+    
+    @Autowired
+    private RateStreamBroadcaster rateStreamBroadcaster;
+    
+    @Autowired
+    @Qualifier("backgroundTaskExecutor")
+    private TaskExecutor backgroundTaskExecutor;
+    
     @GetMapping
     public ResponseEntity<List<Currency>> getAllCurrencies() {
         List<Currency> currencies = currencyService.getAllCurrencies();
         return ResponseEntity.ok(currencies);
     }
     
+    /**
+     * 匯率異動串流（Server-Sent Events）
+     * 連線後先送出所有幣別的快照，之後每次匯率寫入提交時只送出有變動的幣別（事件名稱 rates，id 為版本）；
+     * 訂閱者已達上限時回應 503 與 Retry-After（不帶內容：用戶端只接受 text/event-stream，無法回應 JSON 錯誤）
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRates() {
+        try {
+            return ResponseEntity.ok(rateStreamBroadcaster.subscribe());
+        } catch (ServiceUnavailableException e) {
+            logger.warn("拒絕匯率串流連線: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+        }
+    }
+    
     @GetMapping("/{code}")
     public ResponseEntity<Currency> getCurrencyByCode(@PathVariable String code) {
         CurrencyCode currencyCode = CurrencyCode.fromCode(code);
         if (currencyCode == null) {
             throw new BadRequestException("無效的幣別代碼: " + code);
         }
-        Optional<Currency> currency = currencyService.getCurrencyByCode(currencyCode);
-        return currency.map(ResponseEntity::ok)
+        Optional<RateSnapshot> snapshot = currencyService.getRateSnapshot(currencyCode);
+        return snapshot.map(s -> ResponseEntity.ok()
+                          .headers(freshnessHeaders(List.of(s)))
+                          .body(s.getCurrency()))
                       .orElse(ResponseEntity.notFound().build());
     }
     
@@ -107,40 +152,85 @@ public class CurrencyController {
                     sourceCurrency, targetCurrency));
         }
         BigDecimal convertedAmount = currencyService.convertCurrency(amount, source, target);
-        return ResponseEntity.ok(convertedAmount);
+        
+        // 換算時剛讀過的匯率已記錄在本節點快照中，這裡不會再呼叫 Redis 或資料庫
+        List<RateSnapshot> usedRates = new ArrayList<>();
+        if (source != target) {
+            for (CurrencyCode code : List.of(source, target)) {
+                if (code != CurrencyCode.TWD) {
+                    currencyService.peekRateSnapshot(code).ifPresent(usedRates::add);
+                }
+            }
+        }
+        return ResponseEntity.ok()
+            .headers(freshnessHeaders(usedRates))
+            .body(convertedAmount);
+    }
+    
+    /**
+     * 依使用到的匯率快照產生新鮮度回應標頭，多筆匯率時以最舊的一筆為準
+     * - X-Rate-Source：REDIS / DATABASE / SNAPSHOT（Redis 無法使用時的最後已知快照）
+     * - X-Rate-Freshness：fresh 或 stale（超過 app.rate-cache.fresh-for 未確認）
+     * - Age：距離最後一次由 Redis 或資料庫確認的秒數
+     */
+    private HttpHeaders freshnessHeaders(List<RateSnapshot> snapshots) {
+        HttpHeaders headers = new HttpHeaders();
+        snapshots.stream()
+            .max(Comparator.comparing(RateSnapshot::getAge))
+            .ifPresent(oldest -> {
+                Duration freshFor = currencyService.getFreshFor();
+                boolean stale = freshFor != null && oldest.isStale(freshFor);
+                headers.set("X-Rate-Source", oldest.getSource().name());
+                headers.set("X-Rate-Freshness", stale ? "stale" : "fresh");
+                headers.set(HttpHeaders.AGE, String.valueOf(oldest.getAge().toSeconds()));
+            });
+        return headers;
     }
 
     /**
      * 手動觸發匯率更新
      * 從 ExchangeRate-API 取得最新匯率並更新資料庫和 Redis
+     * 同時間的多個請求會合併為同一個刷新任務，回傳的 jobId 可用於查詢進度；
+     * 其他節點正在執行刷新時回應 409 與原因
      */
     @PostMapping("/refresh")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, String>> refreshRates() {
+    public ResponseEntity<Map<String, Object>> refreshRates() {
         logger.info("收到手動觸發匯率更新請求");
         try {
-            // 在背景執行緒中執行，避免阻塞 HTTP 請求
-            new Thread(() -> {
-                try {
-                    currencyRateUpdateScheduler.updateExchangeRates();
-                } catch (Exception e) {
-                    logger.error("手動觸發匯率更新時發生錯誤", e);
-                }
-            }).start();
+            RateRefreshJob job = rateRefreshJobManager.submit("MANUAL");
             
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "匯率更新任務已啟動，正在從 ExchangeRate-API 取得最新匯率");
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", job.getCoalescedRequests() > 1
+                ? "已有進行中的匯率更新任務，此請求已合併至該任務"
+                : "匯率更新任務已啟動，正在從 ExchangeRate-API 取得最新匯率");
             response.put("status", "processing");
+            response.put("jobId", job.getJobId());
+            response.put("coalesced", job.getCoalescedRequests() > 1);
             return ResponseEntity.ok(response);
+        } catch (ConflictException e) {
+            // 其他節點正在執行刷新，由 GlobalExceptionHandler 回應 409 與原因
+            throw e;
         } catch (Exception e) {
             logger.error("啟動匯率更新任務失敗", e);
-            Map<String, String> response = new HashMap<>();
+            Map<String, Object> response = new HashMap<>();
             response.put("message", "啟動匯率更新任務失敗: " + e.getMessage());
             response.put("status", "error");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
     
+    /**
+     * 查詢匯率刷新任務的進度、耗時與結果
+     */
+    @GetMapping("/refresh/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RateRefreshJob> getRefreshJob(@PathVariable String jobId) {
+        RateRefreshJob job = rateRefreshJobManager.getJob(jobId)
+            .orElseThrow(() -> new ResourceNotFoundException("匯率刷新任務", "jobId", jobId));
+        return ResponseEntity.ok(job);
+    }
+    
     /**
      * 取得自動更新狀態
      */
@@ -149,29 +239,59 @@ public class CurrencyController {
     public ResponseEntity<Map<String, Object>> getAutoUpdateStatus() {
         Map<String, Object> response = new HashMap<>();
         response.put("enabled", currencyRateUpdateScheduler.isAutoUpdateEnabled());
+        response.put("nextRunAt", currencyRateUpdateScheduler.getNextRunAt());
+        response.put("consecutiveFailures", currencyRateUpdateScheduler.getConsecutiveFailures());
+        response.put("policy", currencyRateUpdateScheduler.getPolicy());
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * 取得匯率刷新策略（間隔、抖動與退避設定）
+     */
+    @GetMapping("/auto-update/policy")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RateRefreshPolicy> getRefreshPolicy() {
+        return ResponseEntity.ok(currencyRateUpdateScheduler.getPolicy());
+    }
+    
+    /**
+     * 於執行期間調整匯率刷新策略
+     * 待執行的排程會依新策略重新安排（退避重試中則維持目前的重試時間）
+     */
+    @PutMapping("/auto-update/policy")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RateRefreshPolicy> updateRefreshPolicy(@Valid @RequestBody RateRefreshPolicy policy) {
+        if (policy.getJitterSeconds() >= policy.getIntervalSeconds()) {
+            throw new BadRequestException("抖動時間必須小於刷新間隔");
+        }
+        if (policy.getMaxBackoffSeconds() < policy.getInitialBackoffSeconds()) {
+            throw new BadRequestException("最大退避時間不能小於初始退避時間");
+        }
+        logger.info("收到更新刷新策略請求");
+        currencyRateUpdateScheduler.updatePolicy(policy);
+        return ResponseEntity.ok(currencyRateUpdateScheduler.getPolicy());
+    }
+    
     /**
      * 啟用自動更新
-     * 會立即執行一次更新，然後啟動每小時的排程任務
+     * 會立即執行一次更新，然後依刷新策略啟動排程任務
      */
     @PostMapping("/auto-update/enable")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, String>> enableAutoUpdate() {
         logger.info("收到啟用自動更新請求");
         try {
-            // 在背景執行緒中執行，避免阻塞 HTTP 請求
-            new Thread(() -> {
+            // 交給背景任務執行器執行，避免阻塞 HTTP 請求
+            backgroundTaskExecutor.execute(() -> {
                 try {
                     currencyRateUpdateScheduler.enableAutoUpdate();
                 } catch (Exception e) {
                     logger.error("啟用自動更新時發生錯誤", e);
                 }
-            }).start();
+            });
             
             Map<String, String> response = new HashMap<>();
-            response.put("message", "自動更新已啟用，正在執行一次更新，之後將每小時自動更新一次");
+            response.put("message", "自動更新已啟用，正在執行一次更新，之後將依刷新策略自動更新");
             response.put("status", "enabled");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -1,8 +1,22 @@
 package com.example.ordersystem.controller;
 
+import com.example.ordersystem.dto.OrderChangeBatch;
+import com.example.ordersystem.dto.OrderIdSearchResult;
+import com.example.ordersystem.dto.OrderPatchRequest;
+import com.example.ordersystem.dto.OrderSearchCriteria;
+import com.example.ordersystem.dto.OrderSearchResult;
+import com.example.ordersystem.dto.StatusTransitionRequest;
+import com.example.ordersystem.dto.StatusTransitionResult;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.exception.OrderNotFoundException;
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
+import com.example.ordersystem.service.IdempotencyService;
+import com.example.ordersystem.service.OrderChangeFeed;
+import com.example.ordersystem.service.OrderIdSearchService;
 import com.example.ordersystem.service.OrderService;
+import com.example.ordersystem.service.OrderStatusCounters;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -15,18 +29,39 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
     
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final int MAX_PAGE_SIZE = 100;
+    
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private OrderStatusCounters orderStatusCounters;
+    
+    @Autowired
+    private OrderIdSearchService orderIdSearchService;
+    
+    @Autowired
+    private OrderChangeFeed orderChangeFeed;
+    
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
     public ResponseEntity<Page<Order>> getAllOrders(
@@ -65,6 +100,62 @@ public class OrderController {
         }
     }
     
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<OrderSearchResult> searchOrders(@Valid OrderSearchCriteria criteria) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .anyMatch(auth -> auth.equals("ROLE_ADMIN"));
+        
+        // 一般用戶只能搜尋自己的訂單
+        if (!isAdmin) {
+            criteria.setUsername(authentication.getName());
+        }
+        return ResponseEntity.ok(orderService.searchOrders(criteria));
+    }
+    
+    @GetMapping("/id-search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<OrderIdSearchResult> searchOrderIds(
+            @RequestParam String term,
+            @RequestParam(required = false) String session,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("page 不能為負數，size 需介於 1 到 " + MAX_PAGE_SIZE);
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .anyMatch(auth -> auth.equals("ROLE_ADMIN"));
+        
+        // 一般用戶只能搜尋自己的訂單
+        String username = isAdmin ? null : authentication.getName();
+        return ResponseEntity.ok(orderIdSearchService.search(term, session, authentication.getName(), username, page, size));
+    }
+    
+    /**
+     * 長輪詢訂單異動：回應游標之後的訂單ID與新狀態，沒有異動時最多等待 wait 秒
+     * 一般用戶只收到自己的訂單，管理員收到所有訂單
+     */
+    @GetMapping("/changes")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public DeferredResult<OrderChangeBatch> getOrderChanges(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "25") int wait) {
+        if (wait < 0) {
+            throw new BadRequestException("wait 不能為負數");
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .anyMatch(auth -> auth.equals("ROLE_ADMIN"));
+        
+        String username = isAdmin ? null : authentication.getName();
+        return orderChangeFeed.poll(cursor, username, Duration.ofSeconds(wait));
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
@@ -83,14 +174,22 @@ public class OrderController {
     
     @GetMapping("/status/{status}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable String status) {
+    public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable OrderStatus status) {
         List<Order> orders = orderService.getOrdersByStatus(status);
         return ResponseEntity.ok(orders);
     }
     
+    @GetMapping("/status-counts")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<OrderStatus, Long>> getStatusCounts() {
+        return ResponseEntity.ok(orderStatusCounters.snapshot());
+    }
+    
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<Order> createOrder(@Valid @RequestBody Order order) {
+    public ResponseEntity<Order> createOrder(
+            @Valid @RequestBody Order order,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
         boolean isAdmin = authentication.getAuthorities().stream()
@@ -102,6 +201,45 @@ public class OrderController {
             order.setUsername(currentUsername);
         }
         
+        if (idempotencyKey == null) {
+            return submitOrder(order);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new BadRequestException(IDEMPOTENCY_KEY_HEADER + " 長度需介於 1 到 " + MAX_IDEMPOTENCY_KEY_LENGTH + " 個字元");
+        }
+        
+        // 重送的請求直接回應第一次建立的訂單
+        Optional<IdempotencyService.Outcome> previous = idempotencyService.begin(currentUsername, idempotencyKey);
+        if (previous.isPresent()) {
+            Order original = orderService.getOrderById(previous.get().orderId())
+                .orElseThrow(() -> new OrderNotFoundException(previous.get().orderId()));
+            return ResponseEntity.status(previous.get().status())
+                .header(IDEMPOTENT_REPLAYED_HEADER, "true")
+                .body(original);
+        }
+        try {
+            ResponseEntity<Order> response = submitOrder(order);
+            idempotencyService.complete(currentUsername, idempotencyKey,
+                response.getStatusCode().value(), response.getBody().getOrderId());
+            return response;
+        } catch (RuntimeException e) {
+            idempotencyService.abandon(currentUsername, idempotencyKey);
+            throw e;
+        }
+    }
+    
+    /**
+     * 建立訂單：啟用非同步接收時回應 202，否則同步寫入並回應 201
+     */
+    private ResponseEntity<Order> submitOrder(Order order) {
+        // 啟用非同步接收時先寫入日誌並回應 202，由背景批次寫入資料庫
+        Optional<Order> acceptedOrder = orderService.acceptOrder(order);
+        if (acceptedOrder.isPresent()) {
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/" + acceptedOrder.get().getOrderId()))
+                .body(acceptedOrder.get());
+        }
+        
         Order createdOrder = orderService.createOrder(order);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
     }
@@ -113,6 +251,21 @@ public class OrderController {
         return ResponseEntity.ok(updatedOrder);
     }
     
+    @PatchMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<Order> patchOrder(@PathVariable Long id, @Valid @RequestBody OrderPatchRequest patch) {
+        Order updatedOrder = orderService.patchOrder(id, patch);
+        return ResponseEntity.ok(updatedOrder);
+    }
+    
+    @PostMapping("/status-transitions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StatusTransitionResult> transitionStatus(@Valid @RequestBody StatusTransitionRequest request) {
+        StatusTransitionResult result = orderService.transitionStatus(
+            request.getOrderIds(), request.getFrom(), request.getTo());
+        return ResponseEntity.ok(result);
+    }
+    
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
@@ -134,7 +287,7 @@ public class OrderController {
             @PathVariable String targetCurrency) {
         CurrencyCode currencyCode = CurrencyCode.fromCode(targetCurrency);
         if (currencyCode == null) {
-            throw new com.example.ordersystem.exception.BadRequestException("無效的幣別代碼: " + targetCurrency);
+            throw new BadRequestException("無效的幣別代碼: " + targetCurrency);
         }
         BigDecimal convertedAmount = orderService.convertCurrency(id, currencyCode);
         return ResponseEntity.ok(convertedAmount);
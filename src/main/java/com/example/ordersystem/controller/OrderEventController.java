@@ -0,0 +1,71 @@
+package com.example.ordersystem.controller;
+
+import com.example.ordersystem.dto.OrderEventBatch;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.service.OrderEventSink;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 訂單異動事件串流 API
+ * 供無法直接連線 Redis 的服務讀取訂單異動事件並提交消費位置，取代輪詢訂單 API，僅限管理員
+ */
+@RestController
+@RequestMapping("/api/admin/order-events")
+public class OrderEventController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private OrderEventSink orderEventSink;
+
+    /**
+     * 讀取事件
+     * 未指定 after 時由消費者已提交的位置之後開始；消費者也沒有提交過位置時由串流保留的第一筆開始
+     * 讀取不會自動提交位置，處理完成後以 PUT /offsets/{consumer} 提交最後一筆的 offset；
+     * 位置之後的事件已被裁剪時 gap 為 true，消費者需先重新同步
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<OrderEventBatch> read(
+            @RequestParam(required = false) String consumer,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit 必須介於 1 到 " + MAX_LIMIT);
+        }
+        String from = after;
+        if (from == null && consumer != null) {
+            from = orderEventSink.committedOffset(consumer).orElse(null);
+        }
+        return ResponseEntity.ok(orderEventSink.read(from, limit));
+    }
+
+    /**
+     * 查詢消費者已提交的位置
+     */
+    @GetMapping("/offsets/{consumer}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, String>> committedOffset(@PathVariable String consumer) {
+        return orderEventSink.committedOffset(consumer)
+            .map(offset -> ResponseEntity.ok(Map.of("consumer", consumer, "offset", offset)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 提交消費者的位置
+     */
+    @PutMapping("/offsets/{consumer}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, String>> commitOffset(@PathVariable String consumer, @RequestParam String offset) {
+        if (offset.isBlank()) {
+            throw new BadRequestException("offset 不能為空");
+        }
+        orderEventSink.commitOffset(consumer, offset);
+        return ResponseEntity.ok(Map.of("consumer", consumer, "offset", offset));
+    }
+}
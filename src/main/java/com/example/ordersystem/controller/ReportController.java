@@ -0,0 +1,45 @@
+package com.example.ordersystem.controller;
+
+import com.example.ordersystem.dto.OrderReportCriteria;
+import com.example.ordersystem.dto.OrderReportRow;
+import com.example.ordersystem.service.OrderReportService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 報表 API
+ * 由每日彙總回答日期範圍的統計問題，不掃描訂單表；一般用戶只能查詢自己的訂單
+ */
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    @Autowired
+    private OrderReportService orderReportService;
+
+    /**
+     * 訂單每日報表：依 groupBy 分組的訂單筆數、金額合計、最終金額合計與平均折扣
+     */
+    @GetMapping("/orders/daily")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<List<OrderReportRow>> dailyOrders(@Valid OrderReportCriteria criteria) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .anyMatch(auth -> auth.equals("ROLE_ADMIN"));
+
+        // 一般用戶只能查詢自己的訂單
+        if (!isAdmin) {
+            criteria.setUsername(authentication.getName());
+        }
+        return ResponseEntity.ok(orderReportService.dailyOrders(criteria));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.OrderStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * 訂單分析的篩選條件（GET /api/admin/analytics/**）
+ * 皆可省略；日期範圍為訂單建立日期，包含兩端，提供的條件以 AND 組合
+ */
+public class OrderAnalyticsFilter {
+
+    private CurrencyCode currency;
+
+    private OrderStatus status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    public OrderAnalyticsFilter() {
+    }
+
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(CurrencyCode currency) {
+        this.currency = currency;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+}
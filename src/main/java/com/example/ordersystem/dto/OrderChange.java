@@ -0,0 +1,77 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.model.OrderStatus;
+
+/**
+ * 單筆訂單的異動（GET /api/orders/changes 的內容，也用於節點之間的異動通知）
+ * 只包含訂單ID、狀態與版本，前端據此更新列表中的訂單或重新載入該筆訂單
+ */
+public class OrderChange {
+
+    private Long orderId;
+    private String username;
+    private OrderEventType type;
+    private OrderStatus status;
+    private Long version;
+
+    public OrderChange() {
+    }
+
+    public OrderChange(Long orderId, String username, OrderEventType type, OrderStatus status, Long version) {
+        this.orderId = orderId;
+        this.username = username;
+        this.type = type;
+        this.status = status;
+        this.version = version;
+    }
+
+    public static OrderChange of(OrderEventType type, Order order) {
+        return new OrderChange(order.getOrderId(), order.getUsername(), type, order.getStatus(), order.getVersion());
+    }
+
+    public static OrderChange of(OrderEventType type, OrderView order) {
+        return new OrderChange(order.getOrderId(), order.getUsername(), type, order.getStatus(), order.getVersion());
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public OrderEventType getType() {
+        return type;
+    }
+
+    public void setType(OrderEventType type) {
+        this.type = type;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ordersystem.dto;
+
+import java.util.List;
+
+/**
+ * 訂單異動查詢結果（GET /api/orders/changes）
+ * 下一次查詢帶入 cursor 即可由此處接續；同一筆訂單在區間內多次異動時只保留最後一次
+ *
+ * reset 為 true 時表示無法由傳入的游標接續（游標來自其他節點或重新啟動前、已被新的異動覆蓋，或異動過多），
+ * 用戶端應重新載入訂單列表，再以新的 cursor 繼續查詢
+ */
+public class OrderChangeBatch {
+
+    private final String cursor;
+    private final boolean reset;
+    private final List<OrderChange> changes;
+
+    public OrderChangeBatch(String cursor, boolean reset, List<OrderChange> changes) {
+        this.cursor = cursor;
+        this.reset = reset;
+        this.changes = changes;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public List<OrderChange> getChanges() {
+        return changes;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.OrderEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已發布的訂單異動事件（GET /api/admin/order-events）
+ * 發布為至少一次（at-least-once）：同一個 eventId 可能重複出現，消費者應以 eventId 去重；
+ * 同一筆訂單的事件以 orderVersion 判斷先後，較舊的版本可略過
+ */
+public class OrderEvent {
+
+    /** 事件在串流中的位置，讀取時才有值；提交消費位置時使用 */
+    private String offset;
+    private Long eventId;
+    private OrderEventType type;
+    private Long orderId;
+    private String username;
+    private Long orderVersion;
+    private LocalDateTime occurredAt;
+    /** 事件發生後的訂單內容；刪除時為刪除前的內容 */
+    private OrderView order;
+
+    public OrderEvent() {
+    }
+
+    public OrderEvent(Long eventId, OrderEventType type, Long orderId, String username, Long orderVersion,
+                      LocalDateTime occurredAt, OrderView order) {
+        this.eventId = eventId;
+        this.type = type;
+        this.orderId = orderId;
+        this.username = username;
+        this.orderVersion = orderVersion;
+        this.occurredAt = occurredAt;
+        this.order = order;
+    }
+
+    public String getOffset() {
+        return offset;
+    }
+
+    public void setOffset(String offset) {
+        this.offset = offset;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public OrderEventType getType() {
+        return type;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getOrderVersion() {
+        return orderVersion;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public OrderView getOrder() {
+        return order;
+    }
+}
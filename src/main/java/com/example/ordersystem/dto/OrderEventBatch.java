@@ -0,0 +1,28 @@
+package com.example.ordersystem.dto;
+
+import java.util.List;
+
+/**
+ * 訂單異動事件讀取結果（GET /api/admin/order-events）
+ *
+ * gap 為 true 時表示傳入的位置早於串流保留的第一筆，中間的事件已被裁剪：
+ * events 由保留的第一筆開始，消費者應先由資料來源重新同步（例如重新載入訂單），再處理並提交 events
+ */
+public class OrderEventBatch {
+
+    private final boolean gap;
+    private final List<OrderEvent> events;
+
+    public OrderEventBatch(boolean gap, List<OrderEvent> events) {
+        this.gap = gap;
+        this.events = events;
+    }
+
+    public boolean isGap() {
+        return gap;
+    }
+
+    public List<OrderEvent> getEvents() {
+        return events;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.Order;
+
+import java.util.List;
+
+/**
+ * 訂單ID漸進式搜尋結果（GET /api/orders/id-search）
+ * 分頁欄位與 Spring Data 的 Page 相同（content、number、size、totalElements、totalPages）；
+ * session 為搜尋工作階段，延伸搜尋字串時帶回即可在伺服器記憶體中縮小範圍，未建立工作階段時為 null
+ */
+public class OrderIdSearchResult {
+
+    private final String session;
+    private final List<Order> content;
+    private final int number;
+    private final int size;
+    private final long totalElements;
+
+    public OrderIdSearchResult(String session, List<Order> content, int number, int size, long totalElements) {
+        this.session = session;
+        this.content = content;
+        this.number = number;
+        this.size = size;
+        this.totalElements = totalElements;
+    }
+
+    public String getSession() {
+        return session;
+    }
+
+    public List<Order> getContent() {
+        return content;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public int getTotalPages() {
+        return size == 0 ? 1 : (int) Math.ceil((double) totalElements / size);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.OrderStatus;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+/**
+ * 訂單部分更新請求（PATCH /api/orders/{id}）
+ * 只更新有提供（非 null）的欄位；提供 version 時，與目前版本不同即返回 409
+ */
+public class OrderPatchRequest {
+
+    @Positive(message = "金額必須大於0")
+    private BigDecimal amount;
+
+    private CurrencyCode currency;
+
+    private OrderStatus status;
+
+    private BigDecimal discount;
+
+    private Long version;
+
+    public OrderPatchRequest() {
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(CurrencyCode currency) {
+        this.currency = currency;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public BigDecimal getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(BigDecimal discount) {
+        this.discount = discount;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.OrderStatus;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 訂單每日報表條件（GET /api/reports/orders/daily）
+ * 日期範圍為訂單建立日期，包含兩端；幣別、狀態、使用者可省略，提供的條件以 AND 組合
+ * groupBy 為分組欄位，省略時依日期分組；未分組的欄位在結果中為 null（加總所有值）
+ */
+public class OrderReportCriteria {
+
+    /**
+     * 報表的分組欄位
+     */
+    public enum Dimension {
+        DATE,
+        CURRENCY,
+        STATUS,
+        USERNAME
+    }
+
+    @NotNull(message = "起日不能為空")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @NotNull(message = "迄日不能為空")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    private CurrencyCode currency;
+
+    private OrderStatus status;
+
+    private String username;
+
+    private List<Dimension> groupBy = List.of(Dimension.DATE);
+
+    public OrderReportCriteria() {
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(CurrencyCode currency) {
+        this.currency = currency;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public List<Dimension> getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(List<Dimension> groupBy) {
+        this.groupBy = groupBy;
+    }
+}
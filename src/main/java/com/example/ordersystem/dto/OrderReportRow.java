@@ -0,0 +1,68 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 訂單每日報表的一列
+ * date / currency / status / username 為分組欄位的值，未分組的欄位為 null；
+ * 金額為原幣別的合計，未依幣別分組時為不同幣別金額直接相加
+ */
+public class OrderReportRow {
+
+    private final LocalDate date;
+    private final CurrencyCode currency;
+    private final OrderStatus status;
+    private final String username;
+    private final long orderCount;
+    private final BigDecimal totalAmount;
+    private final BigDecimal totalFinalAmount;
+    private final BigDecimal averageDiscount;
+
+    public OrderReportRow(LocalDate date, CurrencyCode currency, OrderStatus status, String username, long orderCount,
+                          BigDecimal totalAmount, BigDecimal totalFinalAmount, BigDecimal averageDiscount) {
+        this.date = date;
+        this.currency = currency;
+        this.status = status;
+        this.username = username;
+        this.orderCount = orderCount;
+        this.totalAmount = totalAmount;
+        this.totalFinalAmount = totalFinalAmount;
+        this.averageDiscount = averageDiscount;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public BigDecimal getTotalFinalAmount() {
+        return totalFinalAmount;
+    }
+
+    public BigDecimal getAverageDiscount() {
+        return averageDiscount;
+    }
+}
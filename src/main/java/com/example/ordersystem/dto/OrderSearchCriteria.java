@@ -0,0 +1,141 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.OrderStatus;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 訂單多條件搜尋條件（GET /api/orders/search）
+ * 所有條件皆可省略，提供的條件以 AND 組合；金額與建立時間範圍包含兩端
+ * 台幣金額範圍以寫入時換算的 FINAL_AMOUNT_TWD 比較，尚未換算（NULL）的訂單不符合
+ * cursor 為上一頁回應的 nextCursor，省略時從最新的訂單開始
+ */
+public class OrderSearchCriteria {
+
+    private String username;
+
+    private OrderStatus status;
+
+    private CurrencyCode currency;
+
+    @PositiveOrZero(message = "最小金額不能小於0")
+    private BigDecimal minAmount;
+
+    @PositiveOrZero(message = "最大金額不能小於0")
+    private BigDecimal maxAmount;
+
+    @PositiveOrZero(message = "最小台幣金額不能小於0")
+    private BigDecimal minAmountTwd;
+
+    @PositiveOrZero(message = "最大台幣金額不能小於0")
+    private BigDecimal maxAmountTwd;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+    private String cursor;
+
+    @Min(value = 1, message = "每頁筆數至少為1")
+    @Max(value = 100, message = "每頁筆數最多為100")
+    private int size = 20;
+
+    public OrderSearchCriteria() {
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(CurrencyCode currency) {
+        this.currency = currency;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public BigDecimal getMinAmountTwd() {
+        return minAmountTwd;
+    }
+
+    public void setMinAmountTwd(BigDecimal minAmountTwd) {
+        this.minAmountTwd = minAmountTwd;
+    }
+
+    public BigDecimal getMaxAmountTwd() {
+        return maxAmountTwd;
+    }
+
+    public void setMaxAmountTwd(BigDecimal maxAmountTwd) {
+        this.maxAmountTwd = maxAmountTwd;
+    }
+
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(LocalDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(LocalDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.Order;
+
+import java.util.List;
+
+/**
+ * 訂單多條件搜尋結果
+ * nextCursor 為下一頁的游標，已是最後一頁時為 null；accessPath 為搜尋使用的索引（見 OrderSearchPlanner）
+ */
+public class OrderSearchResult {
+
+    private final List<Order> orders;
+    private final String nextCursor;
+    private final String accessPath;
+
+    public OrderSearchResult(List<Order> orders, String nextCursor, String accessPath) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+        this.accessPath = accessPath;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public String getAccessPath() {
+        return accessPath;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 訂單快取 DTO
+ * 只保存訂單顯示與幣別轉換需要的欄位，不持有 JPA 實體，
+ * 可放在本節點記憶體或以 JSON 寫入 Redis
+ */
+public class OrderView {
+
+    private Long orderId;
+    private String username;
+    private BigDecimal amount;
+    private CurrencyCode currency;
+    private OrderStatus status;
+    private BigDecimal discount;
+    private BigDecimal finalAmount;
+    private BigDecimal finalAmountTwd;
+    private LocalDateTime twdRateVersion;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version;
+
+    public OrderView() {
+    }
+
+    /**
+     * 由訂單實體建立
+     */
+    public static OrderView from(Order order) {
+        OrderView view = new OrderView();
+        view.orderId = order.getOrderId();
+        view.username = order.getUsername();
+        view.amount = order.getAmount();
+        view.currency = order.getCurrency();
+        view.status = order.getStatus();
+        view.discount = order.getDiscount();
+        view.finalAmount = order.getFinalAmount();
+        view.finalAmountTwd = order.getFinalAmountTwd();
+        view.twdRateVersion = order.getTwdRateVersion();
+        view.createdAt = order.getCreatedAt();
+        view.updatedAt = order.getUpdatedAt();
+        view.version = order.getVersion();
+        return view;
+    }
+
+    /**
+     * 轉為新的（未受 JPA 管理的）訂單物件，供 API 回應使用
+     */
+    public Order toOrder() {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setUsername(username);
+        order.setAmount(amount);
+        order.setCurrency(currency);
+        order.setStatus(status);
+        order.setDiscount(discount);
+        order.setFinalAmount(finalAmount);
+        order.setFinalAmountTwd(finalAmountTwd);
+        order.setTwdRateVersion(twdRateVersion);
+        order.setCreatedAt(createdAt);
+        order.setUpdatedAt(updatedAt);
+        order.setVersion(version);
+        return order;
+    }
+
+    // Getters
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public BigDecimal getDiscount() {
+        return discount;
+    }
+
+    public BigDecimal getFinalAmount() {
+        return finalAmount;
+    }
+
+    public BigDecimal getFinalAmountTwd() {
+        return finalAmountTwd;
+    }
+
+    public LocalDateTime getTwdRateVersion() {
+        return twdRateVersion;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
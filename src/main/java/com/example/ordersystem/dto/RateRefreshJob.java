@@ -0,0 +1,191 @@
+package com.example.ordersystem.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 匯率刷新任務狀態 DTO
+ * 記錄一次匯率刷新的進度、時間與結果，供 GET /api/currencies/refresh/{jobId} 查詢
+ *
+ * 任務由背景執行緒更新、由 HTTP 執行緒讀取，因此欄位皆為 volatile 或原子類別
+ */
+public class RateRefreshJob {
+
+    /**
+     * 任務狀態
+     */
+    public enum Status {
+        /** 已排入執行器，尚未開始 */
+        QUEUED,
+        /** 執行中 */
+        RUNNING,
+        /** 執行成功 */
+        SUCCEEDED,
+        /** 執行失敗 */
+        FAILED,
+        /** 未執行：其他節點持有刷新租約，匯率由該節點更新 */
+        SKIPPED
+    }
+
+    private final String jobId;
+    private final String trigger;
+    private final LocalDateTime requestedAt = LocalDateTime.now();
+    private final AtomicInteger coalescedRequests = new AtomicInteger(1);
+    private final AtomicInteger processedCurrencies = new AtomicInteger();
+    private final AtomicInteger updatedCount = new AtomicInteger();
+    private final AtomicInteger createdCount = new AtomicInteger();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String phase;
+    private volatile int totalCurrencies;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String message;
+    private volatile Long fencingToken;
+
+    public RateRefreshJob(String jobId, String trigger) {
+        this.jobId = jobId;
+        this.trigger = trigger;
+    }
+
+    /**
+     * 標記任務開始執行
+     */
+    public void markRunning() {
+        this.startedAt = LocalDateTime.now();
+        this.status = Status.RUNNING;
+    }
+
+    /**
+     * 標記任務成功完成
+     */
+    public void markSucceeded(String message) {
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.SUCCEEDED;
+    }
+
+    /**
+     * 標記任務失敗
+     */
+    public void markFailed(String message) {
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+    /**
+     * 標記任務未執行（由其他節點負責刷新）
+     */
+    public void markSkipped(String message) {
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.SKIPPED;
+    }
+
+    /**
+     * 任務是否仍在排隊或執行中（可合併新的刷新請求）
+     */
+    public boolean isInFlight() {
+        Status current = status;
+        return current == Status.QUEUED || current == Status.RUNNING;
+    }
+
+    public void incrementCoalescedRequests() {
+        coalescedRequests.incrementAndGet();
+    }
+
+    public void incrementProcessed() {
+        processedCurrencies.incrementAndGet();
+    }
+
+    public void incrementUpdated() {
+        updatedCount.incrementAndGet();
+    }
+
+    public void incrementCreated() {
+        createdCount.incrementAndGet();
+    }
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getTrigger() {
+        return trigger;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public void setPhase(String phase) {
+        this.phase = phase;
+    }
+
+    public int getTotalCurrencies() {
+        return totalCurrencies;
+    }
+
+    public void setTotalCurrencies(int totalCurrencies) {
+        this.totalCurrencies = totalCurrencies;
+    }
+
+    public int getProcessedCurrencies() {
+        return processedCurrencies.get();
+    }
+
+    public int getUpdatedCount() {
+        return updatedCount.get();
+    }
+
+    public int getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public int getCoalescedRequests() {
+        return coalescedRequests.get();
+    }
+
+    public LocalDateTime getRequestedAt() {
+        return requestedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * 執行耗時（毫秒），尚未開始時為 null，執行中則計算到目前為止
+     */
+    public Long getDurationMs() {
+        LocalDateTime start = startedAt;
+        if (start == null) {
+            return null;
+        }
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        return Duration.between(start, end).toMillis();
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(Long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+}
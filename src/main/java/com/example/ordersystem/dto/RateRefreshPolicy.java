@@ -0,0 +1,105 @@
+package com.example.ordersystem.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * 匯率刷新排程策略 DTO
+ * 控制自動刷新的間隔、隨機抖動與失敗重試的退避時間（單位皆為秒）
+ *
+ * 排程規則：
+ * - 成功：間隔 + 0 ~ 抖動 之間的隨機秒數，避免所有節點同時呼叫外部 API
+ * - 失敗：初始退避 × 倍數^(連續失敗次數-1)，不超過最大退避，並加上隨機抖動
+ * - 被限流（HTTP 429）：取失敗退避、限流退避與 API 的 Retry-After 中最長者
+ */
+public class RateRefreshPolicy {
+
+    @NotNull(message = "刷新間隔不能為空")
+    @Min(value = 60, message = "刷新間隔不能小於 60 秒")
+    private Long intervalSeconds;
+
+    @NotNull(message = "抖動時間不能為空")
+    @Min(value = 0, message = "抖動時間不能小於 0")
+    private Long jitterSeconds;
+
+    @NotNull(message = "初始退避時間不能為空")
+    @Min(value = 1, message = "初始退避時間不能小於 1 秒")
+    private Long initialBackoffSeconds;
+
+    @NotNull(message = "最大退避時間不能為空")
+    @Min(value = 1, message = "最大退避時間不能小於 1 秒")
+    private Long maxBackoffSeconds;
+
+    @NotNull(message = "退避倍數不能為空")
+    @DecimalMin(value = "1.0", message = "退避倍數不能小於 1")
+    @DecimalMax(value = "10.0", message = "退避倍數不能大於 10")
+    private Double backoffMultiplier;
+
+    @NotNull(message = "限流退避時間不能為空")
+    @Min(value = 1, message = "限流退避時間不能小於 1 秒")
+    private Long rateLimitedBackoffSeconds;
+
+    public RateRefreshPolicy() {
+    }
+
+    public RateRefreshPolicy(long intervalSeconds, long jitterSeconds, long initialBackoffSeconds,
+                             long maxBackoffSeconds, double backoffMultiplier, long rateLimitedBackoffSeconds) {
+        this.intervalSeconds = intervalSeconds;
+        this.jitterSeconds = jitterSeconds;
+        this.initialBackoffSeconds = initialBackoffSeconds;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+        this.backoffMultiplier = backoffMultiplier;
+        this.rateLimitedBackoffSeconds = rateLimitedBackoffSeconds;
+    }
+
+    // Getters and Setters
+    public Long getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    public void setIntervalSeconds(Long intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    public Long getJitterSeconds() {
+        return jitterSeconds;
+    }
+
+    public void setJitterSeconds(Long jitterSeconds) {
+        this.jitterSeconds = jitterSeconds;
+    }
+
+    public Long getInitialBackoffSeconds() {
+        return initialBackoffSeconds;
+    }
+
+    public void setInitialBackoffSeconds(Long initialBackoffSeconds) {
+        this.initialBackoffSeconds = initialBackoffSeconds;
+    }
+
+    public Long getMaxBackoffSeconds() {
+        return maxBackoffSeconds;
+    }
+
+    public void setMaxBackoffSeconds(Long maxBackoffSeconds) {
+        this.maxBackoffSeconds = maxBackoffSeconds;
+    }
+
+    public Double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    public void setBackoffMultiplier(Double backoffMultiplier) {
+        this.backoffMultiplier = backoffMultiplier;
+    }
+
+    public Long getRateLimitedBackoffSeconds() {
+        return rateLimitedBackoffSeconds;
+    }
+
+    public void setRateLimitedBackoffSeconds(Long rateLimitedBackoffSeconds) {
+        this.rateLimitedBackoffSeconds = rateLimitedBackoffSeconds;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.Currency;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 匯率快照 DTO
+ * 記錄一筆匯率最後一次由 Redis 或資料庫確認的時間與來源，
+ * Redis 故障時以此快照回應（stale-while-revalidate），並由 Controller 轉為新鮮度回應標頭
+ */
+public class RateSnapshot {
+
+    /**
+     * 匯率來源
+     */
+    public enum Source {
+        /** Redis 快取 */
+        REDIS,
+        /** 本節點近端快取（由 Redis 異動通知維持一致） */
+        NEAR_CACHE,
+        /** 資料庫 */
+        DATABASE,
+        /** 本節點記憶體中的最後已知快照（Redis/資料庫暫時無法使用） */
+        SNAPSHOT
+    }
+
+    private final Currency currency;
+    private final Source source;
+    private final Instant confirmedAt;
+
+    public RateSnapshot(Currency currency, Source source, Instant confirmedAt) {
+        this.currency = currency;
+        this.source = source;
+        this.confirmedAt = confirmedAt;
+    }
+
+    /**
+     * 以最後已知快照回應時使用：保留原確認時間，來源改為 SNAPSHOT
+     */
+    public RateSnapshot asServedFromSnapshot() {
+        return new RateSnapshot(currency, Source.SNAPSHOT, confirmedAt);
+    }
+
+    /**
+     * 距離最後一次確認的時間
+     */
+    public Duration getAge() {
+        Duration age = Duration.between(confirmedAt, Instant.now());
+        return age.isNegative() ? Duration.ZERO : age;
+    }
+
+    /**
+     * 是否已超過新鮮期限
+     *
+     * @param freshFor 新鮮期限
+     */
+    public boolean isStale(Duration freshFor) {
+        return getAge().compareTo(freshFor) > 0;
+    }
+
+    // Getters
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public Instant getConfirmedAt() {
+        return confirmedAt;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ordersystem.dto;
+
+import java.util.List;
+
+/**
+ * 匯率串流事件（GET /api/currencies/stream，SSE 事件名稱 rates）
+ * 連線後的第一個事件為所有幣別的快照（snapshot 為 true），之後只包含異動的幣別
+ *
+ * version 在同一個節點內遞增，並作為 SSE 的事件 id；
+ * 用戶端處理較慢時，中間的事件會合併為一個（只保留各幣別的最新匯率），因此 version 可能不連續
+ */
+public class RateStreamEvent {
+
+    private final long version;
+    private final boolean snapshot;
+    private final List<RateUpdate> rates;
+
+    public RateStreamEvent(long version, boolean snapshot, List<RateUpdate> rates) {
+        this.version = version;
+        this.snapshot = snapshot;
+        this.rates = rates;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public List<RateUpdate> getRates() {
+        return rates;
+    }
+}
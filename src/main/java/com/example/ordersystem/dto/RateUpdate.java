@@ -0,0 +1,79 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.Currency;
+import com.example.ordersystem.model.CurrencyCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 單一幣別的匯率異動（GET /api/currencies/stream 的事件內容，也用於節點之間的異動通知）
+ * lastUpdate 即匯率版本（CURRENCIES.LAST_UPDATE，與訂單的 TWD_RATE_VERSION 相同）；幣別被刪除時 deleted 為 true
+ */
+public class RateUpdate {
+
+    private CurrencyCode currencyCode;
+    private BigDecimal rateToTwd;
+    private LocalDateTime lastUpdate;
+    private boolean deleted;
+
+    public RateUpdate() {
+    }
+
+    public RateUpdate(CurrencyCode currencyCode, BigDecimal rateToTwd, LocalDateTime lastUpdate, boolean deleted) {
+        this.currencyCode = currencyCode;
+        this.rateToTwd = rateToTwd;
+        this.lastUpdate = lastUpdate;
+        this.deleted = deleted;
+    }
+
+    public static RateUpdate of(Currency currency) {
+        return new RateUpdate(currency.getCurrencyCode(), currency.getRateToTwd(), currency.getLastUpdate(), false);
+    }
+
+    public static RateUpdate deleted(CurrencyCode currencyCode) {
+        return new RateUpdate(currencyCode, null, null, true);
+    }
+
+    public CurrencyCode getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public void setCurrencyCode(CurrencyCode currencyCode) {
+        this.currencyCode = currencyCode;
+    }
+
+    public BigDecimal getRateToTwd() {
+        return rateToTwd;
+    }
+
+    public void setRateToTwd(BigDecimal rateToTwd) {
+        this.rateToTwd = rateToTwd;
+    }
+
+    public LocalDateTime getLastUpdate() {
+        return lastUpdate;
+    }
+
+    public void setLastUpdate(LocalDateTime lastUpdate) {
+        this.lastUpdate = lastUpdate;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    /**
+     * 匯率是否與另一筆相同（以數值比較，不比較小數位數與 lastUpdate）
+     */
+    public boolean sameRateAs(RateUpdate other) {
+        return other != null
+            && deleted == other.deleted
+            && (rateToTwd == null ? other.rateToTwd == null
+                : other.rateToTwd != null && rateToTwd.compareTo(other.rateToTwd) == 0);
+    }
+}
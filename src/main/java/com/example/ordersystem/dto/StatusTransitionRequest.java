@@ -0,0 +1,56 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * 批次變更訂單狀態請求（POST /api/orders/status-transitions）
+ * 只有目前狀態為 from 的訂單會改為 to
+ */
+public class StatusTransitionRequest {
+
+    @NotEmpty(message = "訂單ID不能為空")
+    private List<Long> orderIds;
+
+    @NotNull(message = "原狀態不能為空")
+    private OrderStatus from;
+
+    @NotNull(message = "新狀態不能為空")
+    private OrderStatus to;
+
+    public StatusTransitionRequest() {
+    }
+
+    public StatusTransitionRequest(List<Long> orderIds, OrderStatus from, OrderStatus to) {
+        this.orderIds = orderIds;
+        this.from = from;
+        this.to = to;
+    }
+
+    public List<Long> getOrderIds() {
+        return orderIds;
+    }
+
+    public void setOrderIds(List<Long> orderIds) {
+        this.orderIds = orderIds;
+    }
+
+    public OrderStatus getFrom() {
+        return from;
+    }
+
+    public void setFrom(OrderStatus from) {
+        this.from = from;
+    }
+
+    public OrderStatus getTo() {
+        return to;
+    }
+
+    public void setTo(OrderStatus to) {
+        this.to = to;
+    }
+}
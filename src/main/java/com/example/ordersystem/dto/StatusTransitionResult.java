@@ -0,0 +1,40 @@
+package com.example.ordersystem.dto;
+
+import com.example.ordersystem.model.OrderStatus;
+
+import java.util.List;
+
+/**
+ * 批次變更訂單狀態結果
+ * transitioned 為實際變更的訂單ID；skipped 為未變更的訂單ID（不存在或目前狀態不是 from）
+ */
+public class StatusTransitionResult {
+
+    private final OrderStatus from;
+    private final OrderStatus to;
+    private final List<Long> transitioned;
+    private final List<Long> skipped;
+
+    public StatusTransitionResult(OrderStatus from, OrderStatus to, List<Long> transitioned, List<Long> skipped) {
+        this.from = from;
+        this.to = to;
+        this.transitioned = transitioned;
+        this.skipped = skipped;
+    }
+
+    public OrderStatus getFrom() {
+        return from;
+    }
+
+    public OrderStatus getTo() {
+        return to;
+    }
+
+    public List<Long> getTransitioned() {
+        return transitioned;
+    }
+
+    public List<Long> getSkipped() {
+        return skipped;
+    }
+}
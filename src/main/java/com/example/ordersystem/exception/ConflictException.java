@@ -0,0 +1,12 @@
+package com.example.ordersystem.exception;
+
+/**
+ * 資源狀態衝突異常
+ * 當請求與資源目前的狀態衝突（如相同的 Idempotency-Key 仍在處理中）時拋出此異常
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ordersystem.exception;
+
+import java.time.Duration;
+
+/**
+ * 外部匯率 API 限流異常
+ * 當 ExchangeRate-API 回傳 HTTP 429 (Too Many Requests) 時拋出此異常
+ */
+public class ExchangeRateApiRateLimitedException extends RuntimeException {
+    
+    private final Duration retryAfter;
+    
+    public ExchangeRateApiRateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+    
+    /**
+     * 取得 API 建議的重試等待時間（Retry-After 標頭）
+     * 
+     * @return 等待時間，如果 API 未提供則為 null
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
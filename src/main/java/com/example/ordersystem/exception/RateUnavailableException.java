@@ -0,0 +1,21 @@
+package com.example.ordersystem.exception;
+
+import com.example.ordersystem.model.CurrencyCode;
+
+/**
+ * 匯率暫時無法取得異常
+ * Redis 與資料庫皆無法使用，且本節點沒有可用的最後已知快照時拋出
+ */
+public class RateUnavailableException extends RuntimeException {
+    
+    private final CurrencyCode currencyCode;
+    
+    public RateUnavailableException(CurrencyCode currencyCode, String reason) {
+        super(String.format("暫時無法取得 %s 匯率: %s", currencyCode, reason));
+        this.currencyCode = currencyCode;
+    }
+    
+    public CurrencyCode getCurrencyCode() {
+        return currencyCode;
+    }
+}
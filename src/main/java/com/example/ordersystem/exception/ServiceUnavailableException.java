@@ -0,0 +1,19 @@
+package com.example.ordersystem.exception;
+
+/**
+ * 服務暫時無法處理請求異常
+ * 依賴的資源暫時無法使用或已達上限時拋出，用戶端可在 retryAfterSeconds 秒後重試
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
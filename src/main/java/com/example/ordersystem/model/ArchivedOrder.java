@@ -0,0 +1,103 @@
+package com.example.ordersystem.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 已封存的訂單（ORDERS_ARCHIVE）
+ * 由 OrderArchiveJob 從 ORDERS 搬移的已結案訂單（COMPLETED / CANCELLED），欄位與 Order 相同，另加封存時間；
+ * 封存後不再修改，只供查詢
+ */
+@Entity
+@Immutable
+@Table(name = "ORDERS_ARCHIVE")
+public class ArchivedOrder {
+
+    @Id
+    @Column(name = "ORDER_ID")
+    private Long orderId;
+
+    @Column(name = "USERNAME", nullable = false, length = 50)
+    private String username;
+
+    @Column(name = "AMOUNT", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "CURRENCY", nullable = false, length = 3)
+    private CurrencyCode currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", length = 20)
+    private OrderStatus status;
+
+    @Column(name = "DISCOUNT", precision = 5, scale = 2)
+    private BigDecimal discount;
+
+    @Column(name = "FINAL_AMOUNT", precision = 19, scale = 2)
+    private BigDecimal finalAmount;
+
+    @Column(name = "FINAL_AMOUNT_TWD", precision = 19, scale = 2)
+    private BigDecimal finalAmountTwd;
+
+    @Column(name = "TWD_RATE_VERSION")
+    private LocalDateTime twdRateVersion;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "UPDATED_AT")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+
+    @Column(name = "ARCHIVED_AT", nullable = false)
+    private LocalDateTime archivedAt;
+
+    protected ArchivedOrder() {
+    }
+
+    /**
+     * 轉換為訂單，與封存前由 ORDERS 讀取的內容相同
+     */
+    public Order toOrder() {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setUsername(username);
+        order.setAmount(amount);
+        order.setCurrency(currency);
+        order.setStatus(status);
+        order.setDiscount(discount);
+        order.setFinalAmount(finalAmount);
+        order.setFinalAmountTwd(finalAmountTwd);
+        order.setTwdRateVersion(twdRateVersion);
+        order.setCreatedAt(createdAt);
+        order.setUpdatedAt(updatedAt);
+        order.setVersion(version);
+        return order;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
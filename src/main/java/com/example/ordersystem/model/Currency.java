@@ -1,5 +1,6 @@
 package com.example.ordersystem.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -8,6 +9,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "CURRENCIES")
+// 不使用 Hibernate 二級快取：二級快取只存在各節點本機，其他節點寫入匯率時不會失效；
+// 匯率讀取由 Redis、近端快取（以 keyspace notification 跨節點失效）與最後已知快照處理
 public class Currency {
     
     @Id
@@ -24,6 +27,14 @@ public class Currency {
     @Column(name = "LAST_UPDATE")
     private LocalDateTime lastUpdate;
     
+    /**
+     * 最後一次寫入此匯率的刷新租約 fencing token
+     * 只由 CurrencyRepository#updateRateIfNotFenced 更新，一般的儲存（如手動修改匯率）不會覆蓋
+     */
+    @JsonIgnore
+    @Column(name = "REFRESH_FENCE", updatable = false)
+    private Long refreshFence;
+    
     @PrePersist
     protected void onCreate() {
         lastUpdate = LocalDateTime.now();
@@ -58,6 +69,14 @@ public class Currency {
     public void setLastUpdate(LocalDateTime lastUpdate) {
         this.lastUpdate = lastUpdate;
     }
+    
+    public Long getRefreshFence() {
+        return refreshFence;
+    }
+    
+    public void setRefreshFence(Long refreshFence) {
+        this.refreshFence = refreshFence;
+    }
 }
 
 
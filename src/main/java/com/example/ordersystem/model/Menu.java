@@ -1,12 +1,16 @@
 package com.example.ordersystem.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotBlank;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "MENUS")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "menu")
 public class Menu {
     
     @Id
@@ -37,6 +41,7 @@ public class Menu {
     private Boolean enabled = true;
     
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "menu.requiredRoles")
     @JoinTable(
         name = "MENU_ROLES",
         joinColumns = @JoinColumn(name = "MENU_ID"),
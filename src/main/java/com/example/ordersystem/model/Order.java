@@ -4,11 +4,19 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * 訂單實體
+ * 以 VERSION 欄位做樂觀鎖，更新時只寫入有變更的欄位（@DynamicUpdate）；
+ * FINAL_AMOUNT_TWD 為寫入時依當時匯率換算的台幣金額，TWD_RATE_VERSION 記錄所用匯率的版本（CURRENCIES.LAST_UPDATE）
+ */
 @Entity
 @Table(name = "ORDERS")
+@DynamicUpdate
 public class Order {
     
     @Id
@@ -31,8 +39,9 @@ public class Order {
     @Column(name = "CURRENCY", nullable = false, length = 3)
     private CurrencyCode currency;
     
+    @Enumerated(EnumType.STRING)
     @Column(name = "STATUS", length = 20)
-    private String status = "PENDING";
+    private OrderStatus status = OrderStatus.PENDING;
     
     @Column(name = "DISCOUNT", precision = 5, scale = 2)
     private BigDecimal discount = BigDecimal.ZERO;
@@ -40,12 +49,23 @@ public class Order {
     @Column(name = "FINAL_AMOUNT", precision = 19, scale = 2)
     private BigDecimal finalAmount;
     
+    @Column(name = "FINAL_AMOUNT_TWD", precision = 19, scale = 2)
+    private BigDecimal finalAmountTwd;
+    
+    @Column(name = "TWD_RATE_VERSION")
+    private LocalDateTime twdRateVersion;
+    
     @Column(name = "CREATED_AT")
     private LocalDateTime createdAt;
     
     @Column(name = "UPDATED_AT")
     private LocalDateTime updatedAt;
     
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -90,11 +110,11 @@ public class Order {
         this.currency = currency;
     }
     
-    public String getStatus() {
+    public OrderStatus getStatus() {
         return status;
     }
     
-    public void setStatus(String status) {
+    public void setStatus(OrderStatus status) {
         this.status = status;
     }
     
@@ -114,6 +134,22 @@ public class Order {
         this.finalAmount = finalAmount;
     }
     
+    public BigDecimal getFinalAmountTwd() {
+        return finalAmountTwd;
+    }
+    
+    public void setFinalAmountTwd(BigDecimal finalAmountTwd) {
+        this.finalAmountTwd = finalAmountTwd;
+    }
+    
+    public LocalDateTime getTwdRateVersion() {
+        return twdRateVersion;
+    }
+    
+    public void setTwdRateVersion(LocalDateTime twdRateVersion) {
+        this.twdRateVersion = twdRateVersion;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -129,6 +165,14 @@ public class Order {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
 
 
@@ -0,0 +1,117 @@
+package com.example.ordersystem.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * 訂單每日彙總（ORDER_DAILY_ROLLUP）
+ * 每個 (建立日期, 幣別, 狀態, 使用者) 一列，記錄訂單筆數、金額、最終金額與折扣的合計；
+ * 只由 OrderRollupCompactionJob 合併 ORDER_ROLLUP_DELTA 寫入，報表由 OrderReportService 以 SQL 查詢
+ */
+@Entity
+@Immutable
+@Table(name = "ORDER_DAILY_ROLLUP")
+@IdClass(OrderDailyRollup.Key.class)
+public class OrderDailyRollup {
+
+    @Id
+    @Column(name = "ORDER_DATE")
+    private LocalDate orderDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "CURRENCY", length = 3)
+    private CurrencyCode currency;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", length = 20)
+    private OrderStatus status;
+
+    @Id
+    @Column(name = "USERNAME", length = 50)
+    private String username;
+
+    @Column(name = "ORDER_COUNT", nullable = false)
+    private long orderCount;
+
+    @Column(name = "TOTAL_AMOUNT", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "TOTAL_FINAL_AMOUNT", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalFinalAmount;
+
+    @Column(name = "TOTAL_DISCOUNT", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalDiscount;
+
+    protected OrderDailyRollup() {
+    }
+
+    public LocalDate getOrderDate() {
+        return orderDate;
+    }
+
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public BigDecimal getTotalFinalAmount() {
+        return totalFinalAmount;
+    }
+
+    public BigDecimal getTotalDiscount() {
+        return totalDiscount;
+    }
+
+    /**
+     * 複合主鍵
+     */
+    public static class Key implements Serializable {
+
+        private LocalDate orderDate;
+        private CurrencyCode currency;
+        private OrderStatus status;
+        private String username;
+
+        public Key() {
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(orderDate, key.orderDate) && currency == key.currency
+                && status == key.status && Objects.equals(username, key.username);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(orderDate, currency, status, username);
+        }
+    }
+}
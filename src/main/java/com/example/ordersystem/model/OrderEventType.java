@@ -0,0 +1,10 @@
+package com.example.ordersystem.model;
+
+/**
+ * 訂單異動事件類型
+ */
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_UPDATED,
+    ORDER_DELETED
+}
@@ -0,0 +1,84 @@
+package com.example.ordersystem.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 待發布的訂單異動事件（ORDER_OUTBOX，transactional outbox）
+ * 訂單寫入時由 OrderOutbox 在同一個交易中新增，交易回滾時事件一併消失；
+ * 由 OrderOutboxRelay 批次發布到 OrderEventSink 後刪除
+ */
+@Entity
+@Table(name = "ORDER_OUTBOX")
+public class OrderOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "ORDER_OUTBOX_SEQ", allocationSize = 50)
+    @Column(name = "EVENT_ID")
+    private Long eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "EVENT_TYPE", nullable = false, length = 20)
+    private OrderEventType eventType;
+
+    @Column(name = "ORDER_ID", nullable = false)
+    private Long orderId;
+
+    @Column(name = "USERNAME", nullable = false, length = 50)
+    private String username;
+
+    /** 事件發生後的訂單版本（刪除時為刪除前的版本），供消費者略過較舊的事件 */
+    @Column(name = "ORDER_VERSION")
+    private Long orderVersion;
+
+    /** 事件發生後的訂單內容（OrderView 的 JSON；刪除時為刪除前的內容） */
+    @Lob
+    @Column(name = "PAYLOAD", nullable = false)
+    private String payload;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private LocalDateTime createdAt;
+
+    protected OrderOutboxEvent() {
+    }
+
+    public OrderOutboxEvent(OrderEventType eventType, Long orderId, String username, Long orderVersion,
+                            String payload, LocalDateTime createdAt) {
+        this.eventType = eventType;
+        this.orderId = orderId;
+        this.username = username;
+        this.orderVersion = orderVersion;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public OrderEventType getEventType() {
+        return eventType;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getOrderVersion() {
+        return orderVersion;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.ordersystem.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 訂單每日彙總的增量（ORDER_ROLLUP_DELTA）
+ * 訂單寫入時由 OrderRollupRecorder 在同一個交易中新增，記錄 (日期, 幣別, 狀態, 使用者) 的筆數與金額變化；
+ * 只新增、不修改，由 OrderRollupCompactionJob 每晚合併到 ORDER_DAILY_ROLLUP 後刪除
+ */
+@Entity
+@Table(name = "ORDER_ROLLUP_DELTA")
+public class OrderRollupDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_rollup_delta_seq")
+    @SequenceGenerator(name = "order_rollup_delta_seq", sequenceName = "ORDER_ROLLUP_DELTA_SEQ", allocationSize = 50)
+    @Column(name = "DELTA_ID")
+    private Long deltaId;
+
+    @Column(name = "ORDER_DATE", nullable = false)
+    private LocalDate orderDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "CURRENCY", nullable = false, length = 3)
+    private CurrencyCode currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Column(name = "USERNAME", nullable = false, length = 50)
+    private String username;
+
+    @Column(name = "ORDER_COUNT", nullable = false)
+    private long orderCount;
+
+    @Column(name = "TOTAL_AMOUNT", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "TOTAL_FINAL_AMOUNT", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalFinalAmount;
+
+    @Column(name = "TOTAL_DISCOUNT", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalDiscount;
+
+    protected OrderRollupDelta() {
+    }
+
+    public OrderRollupDelta(LocalDate orderDate, CurrencyCode currency, OrderStatus status, String username,
+                            long orderCount, BigDecimal totalAmount, BigDecimal totalFinalAmount, BigDecimal totalDiscount) {
+        this.orderDate = orderDate;
+        this.currency = currency;
+        this.status = status;
+        this.username = username;
+        this.orderCount = orderCount;
+        this.totalAmount = totalAmount;
+        this.totalFinalAmount = totalFinalAmount;
+        this.totalDiscount = totalDiscount;
+    }
+
+    public Long getDeltaId() {
+        return deltaId;
+    }
+
+    public LocalDate getOrderDate() {
+        return orderDate;
+    }
+
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public BigDecimal getTotalFinalAmount() {
+        return totalFinalAmount;
+    }
+
+    public BigDecimal getTotalDiscount() {
+        return totalDiscount;
+    }
+}
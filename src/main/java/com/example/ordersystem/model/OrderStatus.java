@@ -0,0 +1,56 @@
+package com.example.ordersystem.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 訂單狀態枚舉
+ * 定義訂單的所有狀態與允許的狀態變更
+ * 
+ * PENDING → CONFIRMED / CANCELLED
+ * CONFIRMED → COMPLETED / CANCELLED
+ * CANCELLED、COMPLETED 為最終狀態
+ * 
+ * @author Order Currency System
+ * @version 1.0
+ */
+public enum OrderStatus {
+    /** 待確認 */
+    PENDING,
+    /** 已確認 */
+    CONFIRMED,
+    /** 已取消 */
+    CANCELLED,
+    /** 已完成 */
+    COMPLETED;
+    
+    /**
+     * 取得此狀態可變更的新狀態
+     * 
+     * @return 可變更的新狀態集合，最終狀態返回空集合
+     */
+    public Set<OrderStatus> nextStatuses() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(CONFIRMED, CANCELLED);
+            case CONFIRMED -> EnumSet.of(COMPLETED, CANCELLED);
+            case CANCELLED, COMPLETED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+    
+    /**
+     * 是否為最終狀態（不可再變更），最終狀態的訂單可由 OrderArchiveJob 封存
+     */
+    public boolean isFinal() {
+        return nextStatuses().isEmpty();
+    }
+    
+    /**
+     * 檢查是否允許由此狀態變更為指定狀態
+     * 
+     * @param target 新狀態
+     * @return 如果允許變更則返回 true；相同狀態視為未變更，返回 true
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        return this == target || nextStatuses().contains(target);
+    }
+}
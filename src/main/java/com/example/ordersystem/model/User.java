@@ -1,6 +1,8 @@
 package com.example.ordersystem.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -37,6 +39,7 @@ public class User {
     private Boolean enabled = true;
     
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user.roles")
     @JoinTable(
         name = "USER_ROLES",
         joinColumns = @JoinColumn(name = "USER_ID"),
@@ -0,0 +1,13 @@
+package com.example.ordersystem.repository;
+
+import com.example.ordersystem.model.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 已封存訂單（ORDERS_ARCHIVE）的查詢，由 OrderArchive 使用
+ */
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long>, JpaSpecificationExecutor<ArchivedOrder> {
+}
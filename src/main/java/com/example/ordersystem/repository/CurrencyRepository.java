@@ -3,14 +3,40 @@ package com.example.ordersystem.repository;
 import com.example.ordersystem.model.Currency;
 import com.example.ordersystem.model.CurrencyCode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface CurrencyRepository extends JpaRepository<Currency, CurrencyCode> {
     
     Optional<Currency> findByCurrencyCode(CurrencyCode currencyCode);
+    
+    /**
+     * 以刷新租約的 fencing token 條件更新匯率
+     * 只有 token 不小於最後一次刷新寫入的 token 時才更新，比對與寫入在同一個 UPDATE 中完成，
+     * 租約過期後仍在執行的舊持有者不會覆蓋新持有者已寫入的匯率
+     * 
+     * @return 更新筆數；0 表示幣別不存在或已由較新的刷新寫入
+     */
+    /**
+     * 已寫入的最大 fencing token，作為刷新租約 token 的下限（見 LeaseLock#tryAcquire(String, Duration, long)）
+     *
+     * @return 最大的 REFRESH_FENCE；沒有任何刷新寫入過時為 null
+     */
+    @Query("SELECT MAX(c.refreshFence) FROM Currency c")
+    Long findMaxRefreshFence();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Currency c SET c.rateToTwd = :rate, c.lastUpdate = :updatedAt, c.refreshFence = :fence "
+        + "WHERE c.currencyCode = :code AND (c.refreshFence IS NULL OR c.refreshFence <= :fence)")
+    int updateRateIfNotFenced(@Param("code") CurrencyCode code, @Param("rate") BigDecimal rate,
+                              @Param("updatedAt") LocalDateTime updatedAt, @Param("fence") long fence);
 }
 
 
@@ -1,8 +1,11 @@
 package com.example.ordersystem.repository;
 
 import com.example.ordersystem.model.Menu;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,9 +13,13 @@ import java.util.Optional;
 
 @Repository
 public interface MenuRepository extends JpaRepository<Menu, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Menu> findByMenuKey(String menuKey);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Menu> findByEnabledTrueOrderBySortOrderAsc();
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT m FROM Menu m WHERE m.enabled = true ORDER BY m.sortOrder ASC")
     List<Menu> findAllEnabledMenus();
 }
@@ -0,0 +1,12 @@
+package com.example.ordersystem.repository;
+
+import com.example.ordersystem.model.OrderOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 待發布訂單異動事件（ORDER_OUTBOX）的寫入，由 OrderOutbox 使用
+ */
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+}
@@ -2,9 +2,11 @@ package com.example.ordersystem.repository;
 
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,11 +15,20 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>,
+        OrderSearchRepository {
     
     List<Order> findByUsername(String username);
     
-    List<Order> findByStatus(String status);
+    List<Order> findByStatus(OrderStatus status);
+    
+    /**
+     * 各狀態的訂單筆數（STATUS 有索引，可只讀索引）
+     * 
+     * @return 每列為 [OrderStatus, Long]
+     */
+    @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
+    List<Object[]> countGroupByStatus();
     
     @Query("SELECT o FROM Order o WHERE o.currency = :currency")
     List<Order> findByCurrency(@Param("currency") CurrencyCode currency);
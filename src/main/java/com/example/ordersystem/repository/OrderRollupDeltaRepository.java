@@ -0,0 +1,12 @@
+package com.example.ordersystem.repository;
+
+import com.example.ordersystem.model.OrderRollupDelta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 訂單每日彙總增量（ORDER_ROLLUP_DELTA）的寫入，由 OrderRollupRecorder 使用
+ */
+@Repository
+public interface OrderRollupDeltaRepository extends JpaRepository<OrderRollupDelta, Long> {
+}
@@ -0,0 +1,27 @@
+package com.example.ordersystem.repository;
+
+import com.example.ordersystem.model.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * 訂單多條件搜尋（OrderRepository 的自訂片段）
+ * Specification 的條件順序不會影響 Oracle 的執行計畫，因此以索引提示指定 OrderSearchPlanner 選擇的索引
+ */
+public interface OrderSearchRepository {
+
+    /**
+     * Hibernate 6 為 Criteria 查詢的 Order 根實體產生的 SQL 別名；Oracle 的索引提示必須使用 SQL 中的別名
+     */
+    String ORDER_ALIAS = "o1_0";
+
+    /**
+     * 依 (CREATED_AT DESC, ORDER_ID DESC) 查詢符合條件的前 limit 筆訂單
+     *
+     * @param specification 搜尋條件
+     * @param indexHint Oracle 索引提示，例如 INDEX_DESC(o1_0 IDX_ORDERS_STATUS_CREATED)；只在 Oracle 加入
+     * @param limit 最多筆數
+     */
+    List<Order> findKeysetPage(Specification<Order> specification, String indexHint, int limit);
+}
@@ -0,0 +1,48 @@
+package com.example.ordersystem.repository;
+
+import com.example.ordersystem.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.dialect.OracleDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * {@link OrderSearchRepository} 的實作
+ * 只在 Oracle 加入提示（由 OracleDialect 以提示註解加在 SELECT 之後）；其他 Dialect 會把提示轉成各自的語法
+ * （例如 H2 的 USE INDEX），因此不加入
+ */
+class OrderSearchRepositoryImpl implements OrderSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Order> findKeysetPage(Specification<Order> specification, String indexHint, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Order> query = cb.createQuery(Order.class);
+        Root<Order> root = query.from(Order.class);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("orderId")));
+        TypedQuery<Order> typedQuery = entityManager.createQuery(query);
+        if (isOracle()) {
+            typedQuery.unwrap(org.hibernate.query.Query.class).addQueryHint(indexHint);
+        }
+        return typedQuery.setMaxResults(limit).getResultList();
+    }
+
+    private boolean isOracle() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect() instanceof OracleDialect;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ordersystem.repository;
+
+import com.example.ordersystem.model.ArchivedOrder;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 訂單搜尋條件（JPA Specification）
+ * 由 OrderSearchPlanner 組合，搭配 OrderRepository 的 JpaSpecificationExecutor 使用；
+ * 所有條件只以屬性名稱存取欄位，可透過 {@link #forArchive(Specification)} 套用到 ArchivedOrder
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> usernameEquals(String username) {
+        return (root, query, cb) -> cb.equal(root.get("username"), username);
+    }
+
+    public static Specification<Order> statusEquals(OrderStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Order> currencyEquals(CurrencyCode currency) {
+        return (root, query, cb) -> cb.equal(root.get("currency"), currency);
+    }
+
+    public static Specification<Order> createdAtOnOrAfter(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<Order> createdAtOnOrBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("createdAt"), to);
+    }
+
+    public static Specification<Order> amountAtLeast(BigDecimal min) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), min);
+    }
+
+    public static Specification<Order> amountAtMost(BigDecimal max) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("amount"), max);
+    }
+
+    public static Specification<Order> finalAmountTwdAtLeast(BigDecimal min) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("finalAmountTwd"), min);
+    }
+
+    public static Specification<Order> finalAmountTwdAtMost(BigDecimal max) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("finalAmountTwd"), max);
+    }
+
+    /**
+     * keyset 分頁：依 (CREATED_AT DESC, ORDER_ID DESC) 排在游標之後的訂單
+     * 額外加上 CREATED_AT <= 游標時間，讓資料庫可以用 CREATED_AT 做索引範圍掃描，OR 只作為過濾條件
+     */
+    public static Specification<Order> before(LocalDateTime createdAt, Long orderId) {
+        return (root, query, cb) -> cb.and(
+            cb.lessThanOrEqualTo(root.get("createdAt"), createdAt),
+            cb.or(
+                cb.lessThan(root.get("createdAt"), createdAt),
+                cb.lessThan(root.get("orderId"), orderId)));
+    }
+
+    /**
+     * 將訂單的搜尋條件套用到已封存的訂單
+     * ArchivedOrder 具有與 Order 相同名稱與型別的屬性，本類別的條件只以屬性名稱存取，因此可直接沿用
+     */
+    @SuppressWarnings("unchecked")
+    public static Specification<ArchivedOrder> forArchive(Specification<Order> specification) {
+        return (Specification<ArchivedOrder>) (Specification<?>) specification;
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.ordersystem.scheduler;
 
+import com.example.ordersystem.dto.RateRefreshJob;
+import com.example.ordersystem.dto.RateRefreshPolicy;
+import com.example.ordersystem.exception.ExchangeRateApiRateLimitedException;
 import com.example.ordersystem.model.Currency;
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.service.CurrencyService;
@@ -7,26 +10,39 @@ import com.example.ordersystem.service.ExchangeRateApiService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.lang.NonNull;
 import org.springframework.scheduling.TaskScheduler;
-import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
+
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 匯率更新排程任務
- * 每小時自動從 ExchangeRate-API 取得最新匯率並更新資料庫和 Redis
+ * 依刷新策略（預設每小時加上隨機抖動）自動從 ExchangeRate-API 取得最新匯率並更新資料庫和 Redis
+ * 多節點部署時透過 {@link LeaseLock} 確保同一時段只有一個節點執行刷新：
+ * - 排程時段租約（rate-refresh:schedule）：取得的節點負責本時段的刷新，成功後保留到自己下一次執行前；
+ *   其他節點依租約剩餘時間加上 follower-grace 安排下一次嘗試，持有者停止運作時由其中一個節點接手
+ * - 刷新租約（rate-refresh）：排程與手動刷新都需取得，確保同一時間只有一個刷新在寫入
  */
 @Component
 public class CurrencyRateUpdateScheduler implements ApplicationListener<ApplicationReadyEvent> {
     
     private static final Logger logger = LoggerFactory.getLogger(CurrencyRateUpdateScheduler.class);
-    private static final String CRON_EXPRESSION = "0 0 * * * ?"; // 每小時的 0 分 0 秒執行
+    private static final String LEASE_NAME = "rate-refresh";
+    private static final String SCHEDULE_LEASE_NAME = "rate-refresh:schedule";
     
     @Autowired
     private ExchangeRateApiService exchangeRateApiService;
@@ -37,44 +53,243 @@ public class CurrencyRateUpdateScheduler implements ApplicationListener<Applicat
     @Autowired
     private TaskScheduler taskScheduler;
     
+    @Autowired
+    private LeaseLock leaseLock;
+    
+    /** 刷新租約的有效時間，需大於一次刷新的最長耗時 */
+    @Value("${app.rate-refresh.lock.ttl:PT2M}")
+    private Duration leaseTtl;
+    
+    /**
+     * 未取得排程時段的節點在時段租約到期後再等待的時間
+     * 持有者在到期後 follower-grace/2 即執行下一次，因此正常情況下仍由同一節點負責
+     */
+    @Value("${app.rate-refresh.lock.follower-grace:PT2M}")
+    private Duration followerGrace;
+    
+    @Value("${app.rate-refresh.interval:PT1H}")
+    private Duration defaultInterval;
+    
+    @Value("${app.rate-refresh.jitter:PT5M}")
+    private Duration defaultJitter;
+    
+    @Value("${app.rate-refresh.retry.initial-backoff:PT30S}")
+    private Duration defaultInitialBackoff;
+    
+    @Value("${app.rate-refresh.retry.max-backoff:PT30M}")
+    private Duration defaultMaxBackoff;
+    
+    @Value("${app.rate-refresh.retry.multiplier:2.0}")
+    private double defaultBackoffMultiplier;
+    
+    @Value("${app.rate-refresh.retry.rate-limited-backoff:PT15M}")
+    private Duration defaultRateLimitedBackoff;
+    
     private ScheduledFuture<?> scheduledTask;
     private volatile boolean autoUpdateEnabled = true; // 預設啟用自動更新
     
+    /** 目前的刷新策略，可透過 {@link #updatePolicy(RateRefreshPolicy)} 於執行期間調整 */
+    private volatile RateRefreshPolicy policy = new RateRefreshPolicy(3600, 300, 30, 1800, 2.0, 900);
+    private volatile Instant nextRunAt;
+    private int consecutiveFailures; // 受 scheduleLock 保護
+    
+    /**
+     * 保護 scheduledTask、autoUpdateEnabled 與 consecutiveFailures 的鎖
+     * 使用 ReentrantLock 而非 synchronized：虛擬執行緒在 synchronized 區塊內阻塞時會釘住（pin）載體執行緒，
+     * ReentrantLock 則可讓虛擬執行緒正常卸載。鎖內只做排程操作，不呼叫外部 API 或資料庫。
+     */
+    private final ReentrantLock scheduleLock = new ReentrantLock();
+    
+    /**
+     * 一次刷新的結果與 API 建議的重試等待時間（僅限流時有值）
+     */
+    private record RefreshResult(RefreshOutcome outcome, Duration retryAfter) {
+    }
+    
+    /**
+     * 一次刷新的結果，用於決定下一次執行的時間
+     */
+    enum RefreshOutcome {
+        /** 更新成功 */
+        SUCCEEDED,
+        /** 其他節點負責刷新，本節點跳過 */
+        SKIPPED,
+        /** 更新失敗（API 錯誤、無資料、租約失效等） */
+        FAILED,
+        /** 外部 API 限流（HTTP 429） */
+        RATE_LIMITED
+    }
+    
     /**
-     * 更新匯率的核心方法
+     * 以 application.properties 的設定建立初始刷新策略
+     */
+    @PostConstruct
+    void initPolicy() {
+        policy = new RateRefreshPolicy(
+            defaultInterval.toSeconds(),
+            defaultJitter.toSeconds(),
+            defaultInitialBackoff.toSeconds(),
+            defaultMaxBackoff.toSeconds(),
+            defaultBackoffMultiplier,
+            defaultRateLimitedBackoff.toSeconds());
+    }
+    
+    /**
+     * 排程、啟動與啟用自動更新時執行的匯率更新
      * 會自動更新資料庫和 Redis 快取
      * 
-     * 重要：執行完後會自動重新安排下一次執行（如果自動更新已啟用）
+     * 多節點部署時只有取得排程時段租約的節點會呼叫外部 API，其他節點跳過並依持有者的時段安排下一次嘗試。
+     * 重要：執行完後會依結果自動重新安排下一次執行（如果自動更新已啟用）
      */
     public void updateExchangeRates() {
+        Optional<LeaseLock.Lease> slotOpt = leaseLock.tryAcquire(SCHEDULE_LEASE_NAME, leaseTtl);
+        if (slotOpt.isEmpty()) {
+            logger.info("其他節點負責本時段的匯率刷新，本節點跳過");
+            scheduleAfterHolder(SCHEDULE_LEASE_NAME);
+            return;
+        }
+        
+        LeaseLock.Lease slot = slotOpt.get();
+        Duration holdFor = Duration.ZERO;
+        try {
+            RefreshResult result = refresh(null);
+            if (result.outcome() == RefreshOutcome.SKIPPED) {
+                // 手動刷新正在執行，待其完成後再嘗試
+                scheduleAfterHolder(LEASE_NAME);
+                return;
+            }
+            // 依結果重新安排下一次執行（成功：間隔 + 抖動；失敗：指數退避；限流：更長的退避）
+            Duration delay = scheduleNext(result.outcome(), result.retryAfter());
+            if (result.outcome() == RefreshOutcome.SUCCEEDED) {
+                holdFor = scheduleHold(delay);
+            }
+        } finally {
+            // 成功時保留時段到本節點下一次執行前；失敗時立即釋放，讓其他節點可以接手
+            leaseLock.release(slot, holdFor);
+        }
+    }
+    
+    /**
+     * 手動刷新匯率，並將進度與結果記錄到刷新任務中
+     * 
+     * 只需取得刷新租約，不受排程時段影響；結果不計入連續失敗次數，也不改變自動更新的排程
+     * 
+     * @param job 刷新任務（為 null 時等同排程觸發的 {@link #updateExchangeRates()}）
+     */
+    public void updateExchangeRates(RateRefreshJob job) {
+        if (job == null) {
+            updateExchangeRates();
+            return;
+        }
+        RefreshOutcome outcome = refresh(job).outcome();
+        logger.info("手動刷新結果: {}（觸發來源: {}），自動更新排程不變，下一次執行時間: {}",
+            outcome, job.getTrigger(), nextRunAt);
+    }
+    
+    /**
+     * 取得刷新租約後更新匯率，完成後立即釋放租約
+     * 
+     * @param job 刷新任務（排程觸發時為 null，不記錄進度）
+     * @return 更新結果；其他刷新正在執行時為 SKIPPED
+     */
+    private RefreshResult refresh(RateRefreshJob job) {
+        String trigger = job != null ? job.getTrigger() : "SCHEDULED";
+        Optional<LeaseLock.Lease> leaseOpt = leaseLock.tryAcquire(LEASE_NAME, leaseTtl, fencingTokenFloor());
+        if (leaseOpt.isEmpty()) {
+            logger.info("其他節點正在執行匯率刷新，本節點跳過（觸發來源: {}）", trigger);
+            if (job != null) {
+                job.markSkipped("其他節點正在執行匯率刷新，匯率將由該節點更新");
+            }
+            return new RefreshResult(RefreshOutcome.SKIPPED, null);
+        }
+        
+        LeaseLock.Lease lease = leaseOpt.get();
+        if (job != null) {
+            job.setFencingToken(lease.getFencingToken());
+        }
+        try {
+            return new RefreshResult(doUpdateExchangeRates(job, lease), null);
+        } catch (ExchangeRateApiRateLimitedException e) {
+            logger.warn("外部 API 限流，延長下一次刷新的等待時間，Retry-After: {}", e.getRetryAfter());
+            if (job != null) {
+                job.markFailed("ExchangeRate-API 限流（HTTP 429），稍後自動重試");
+            }
+            return new RefreshResult(RefreshOutcome.RATE_LIMITED, e.getRetryAfter());
+        } finally {
+            leaseLock.release(lease, Duration.ZERO);
+        }
+    }
+    
+    /**
+     * 刷新租約 fencing token 的下限：資料庫中已寫入的最大 token
+     * 租約計數器遺失後由此接續，新的刷新不會因 token 較小而被條件更新拒絕
+     */
+    private long fencingTokenFloor() {
+        try {
+            return currencyService.getMaxRefreshFence();
+        } catch (DataAccessException e) {
+            logger.warn("無法讀取已寫入的 fencing token，以 0 作為下限: {}", e.getMessage());
+            return 0L;
+        }
+    }
+    
+    /**
+     * 排程時段租約的保留時間：保留到本節點下一次執行前 follower-grace/2，
+     * 讓本節點下一次能再取得時段，而其他節點在到期後 follower-grace 才嘗試接手
+     */
+    private Duration scheduleHold(Duration delay) {
+        Duration hold = delay.minus(followerGrace.dividedBy(2));
+        return hold.isNegative() ? Duration.ZERO : hold;
+    }
+    
+    /**
+     * 實際執行匯率更新（需持有租約）
+     * 
+     * @return 更新結果
+     * @throws ExchangeRateApiRateLimitedException 如果外部 API 回傳 HTTP 429
+     */
+    private RefreshOutcome doUpdateExchangeRates(RateRefreshJob job, LeaseLock.Lease lease) {
         logger.info("========================================");
         logger.info("開始執行排程任務：匯率自動更新");
         logger.info("執行時間: {}", java.time.LocalDateTime.now());
         logger.info("========================================");
         
         long startTime = System.currentTimeMillis();
+        if (job != null) {
+            job.markRunning();
+            job.setTotalCurrencies(CurrencyCode.values().length);
+        }
         
         try {
             // 從 API 取得最新匯率
             logger.info("步驟 1/3: 呼叫外部 API 取得最新匯率");
+            setPhase(job, "FETCHING");
             Map<String, BigDecimal> latestRates = exchangeRateApiService.fetchLatestRates();
             
             if (latestRates.isEmpty()) {
                 logger.warn("未取得任何匯率資料，跳過更新");
-                // 即使失敗，如果自動更新啟用，也要重新安排下一次執行
-                rescheduleIfEnabled();
-                return;
+                if (job != null) {
+                    job.markFailed("未取得任何匯率資料，跳過更新");
+                }
+                return RefreshOutcome.FAILED;
             }
             
             logger.info("步驟 2/3: 開始更新資料庫和 Redis");
+            setPhase(job, "UPDATING");
             final int[] updatedCount = {0};
             final int[] createdCount = {0};
+            final boolean[] fenced = {false};
             
             // 更新系統支援的幣別
             for (CurrencyCode currencyCode : CurrencyCode.values()) {
                 String code = currencyCode.getCode();
                 BigDecimal newRate = latestRates.get(code);
                 
+                // 租約已過期或被其他節點取得時提早停止；真正的保護由寫入時的 fencing token 比對負責
+                if (!leaseLock.isHeld(lease)) {
+                    throw new IllegalStateException("刷新租約已失效（fencing token: " + lease.getFencingToken() + "），停止寫入");
+                }
+                
                 if (newRate != null && newRate.compareTo(BigDecimal.ZERO) > 0) {
                     try {
                         logger.info("處理幣別: {}, 新匯率: {}", code, newRate);
@@ -84,8 +299,14 @@ public class CurrencyRateUpdateScheduler implements ApplicationListener<Applicat
                             // 如果存在，更新匯率
                             existingCurrency -> {
                                 logger.info("幣別 {} 已存在，更新匯率: {} -> {}", code, existingCurrency.getRateToTwd(), newRate);
-                                currencyService.updateRate(currencyCode, newRate);
+                                if (currencyService.updateRefreshedRate(currencyCode, newRate, lease.getFencingToken()).isEmpty()) {
+                                    fenced[0] = true;
+                                    return;
+                                }
                                 updatedCount[0]++;
+                                if (job != null) {
+                                    job.incrementUpdated();
+                                }
                             },
                             // 如果不存在，建立新的幣別
                             () -> {
@@ -93,16 +314,28 @@ public class CurrencyRateUpdateScheduler implements ApplicationListener<Applicat
                                 Currency newCurrency = new Currency();
                                 newCurrency.setCurrencyCode(currencyCode);
                                 newCurrency.setRateToTwd(newRate);
+                                if (lease.getFencingToken() >= 0) {
+                                    newCurrency.setRefreshFence(lease.getFencingToken());
+                                }
                                 currencyService.createOrUpdateCurrency(newCurrency);
                                 createdCount[0]++;
+                                if (job != null) {
+                                    job.incrementCreated();
+                                }
                             }
                         );
                     } catch (Exception e) {
                         logger.error("更新幣別 {} 時發生錯誤: {}", code, e.getMessage(), e);
                     }
+                    if (fenced[0]) {
+                        throw new IllegalStateException("已有較新的刷新寫入匯率（fencing token: " + lease.getFencingToken() + "），停止寫入");
+                    }
                 } else {
                     logger.warn("幣別 {} 的匯率無效或不存在於 API 回應中", code);
                 }
+                if (job != null) {
+                    job.incrementProcessed();
+                }
             }
             
             long totalTime = System.currentTimeMillis() - startTime;
@@ -113,10 +346,15 @@ public class CurrencyRateUpdateScheduler implements ApplicationListener<Applicat
             logger.info("新增幣別數: {}", createdCount[0]);
             logger.info("總耗時: {} ms", totalTime);
             logger.info("========================================");
+            if (job != null) {
+                setPhase(job, "DONE");
+                job.markSucceeded(String.format("更新 %d 種幣別，新增 %d 種幣別", updatedCount[0], createdCount[0]));
+            }
             
-            // 執行完後，如果自動更新啟用，重新安排下一次執行
-            rescheduleIfEnabled();
+            return RefreshOutcome.SUCCEEDED;
             
+        } catch (ExchangeRateApiRateLimitedException e) {
+            throw e;
         } catch (Exception e) {
             long totalTime = System.currentTimeMillis() - startTime;
             logger.error("========================================");
@@ -124,56 +362,145 @@ public class CurrencyRateUpdateScheduler implements ApplicationListener<Applicat
             logger.error("錯誤訊息: {}", e.getMessage());
             logger.error("總耗時: {} ms", totalTime);
             logger.error("========================================", e);
-            
-            // 即使失敗，如果自動更新啟用，也要重新安排下一次執行
-            rescheduleIfEnabled();
+            if (job != null) {
+                job.markFailed("匯率更新失敗: " + e.getMessage());
+            }
+            return RefreshOutcome.FAILED;
+        }
+    }
+    
+    private void setPhase(RateRefreshJob job, String phase) {
+        if (job != null) {
+            job.setPhase(phase);
         }
     }
     
     /**
-     * 如果自動更新已啟用，重新安排下一次執行
+     * 如果自動更新已啟用，依本次結果重新安排下一次執行
+     * 
+     * 每次只排一個單次任務（schedule(task, Instant)），執行完後再由此方法排下一次，
+     * 因此間隔與退避時間可以每次不同，也不會累積多個重複的排程。
      * 
-     * 原理：
-     * 1. TaskScheduler.schedule() 使用 CronTrigger 時，只會執行一次
-     * 2. 所以需要在每次執行完後，重新調用 schedule() 來安排下一次執行
-     * 3. CronTrigger 會自動計算下一次執行時間（例如：下一個整點）
-     * 4. 線程會進入等待狀態，直到下一次執行時間到達，不消耗 CPU
+     * 執行流程（預設策略）：
+     * 14:03:12 - 執行 updateExchangeRates() 成功
+     * 14:03:15 - 下一次 = 1 小時 + 0~5 分鐘隨機抖動 → 15:06:40（排程時段保留到 15:05:40）
+     * 15:06:40 - 執行失敗 → 下一次 = 30 秒後（之後 60 秒、120 秒…最多 30 分鐘）
+     * 15:07:10 - 執行成功 → 連續失敗次數歸零，恢復正常間隔
      * 
-     * 執行流程：
-     * 14:00:00 - 執行 updateExchangeRates()
-     * 14:00:05 - 執行完畢，調用 rescheduleIfEnabled()
-     * 14:00:05 - CronTrigger 計算：下一次是 15:00:00
-     * 14:00:05 - 線程進入等待狀態（不消耗 CPU）
-     * 15:00:00 - 時間到達，執行 updateExchangeRates()
-     * 15:00:05 - 執行完畢，再次調用 rescheduleIfEnabled()
-     * ...（無限循環）
+     * @param outcome 本次刷新結果（SUCCEEDED、FAILED 或 RATE_LIMITED）
+     * @param retryAfter API 建議的重試等待時間（僅限流時使用，可為 null）
+     * @return 下一次執行前的等待時間（自動更新停用時仍會計算，用於決定時段保留時間）
      */
-    private synchronized void rescheduleIfEnabled() {
-        if (!autoUpdateEnabled) {
-            logger.debug("自動更新已停用，不重新安排下一次執行");
-            return;
-        }
-        
+    private Duration scheduleNext(RefreshOutcome outcome, Duration retryAfter) {
+        scheduleLock.lock();
         try {
-            // 清理舊的任務引用
-            scheduledTask = null;
+            if (outcome == RefreshOutcome.SUCCEEDED) {
+                consecutiveFailures = 0;
+            } else {
+                consecutiveFailures++;
+            }
             
-            // 重新安排下一次執行
-            // CronTrigger 會自動根據當前時間計算下一次執行時間
-            CronTrigger trigger = new CronTrigger(CRON_EXPRESSION);
-            scheduledTask = taskScheduler.schedule(this::updateExchangeRates, trigger);
+            Duration delay = computeDelay(policy, outcome, consecutiveFailures, retryAfter);
+            if (!autoUpdateEnabled) {
+                logger.debug("自動更新已停用，不重新安排下一次執行");
+                return delay;
+            }
             
-            if (scheduledTask != null) {
-                logger.info("下一次執行已安排，將在每小時整點自動執行");
-                logger.debug("線程將進入等待狀態，直到下一次執行時間到達（不消耗 CPU）");
-            } else {
-                logger.error("重新安排下一次執行失敗，scheduledTask 為 null");
+            try {
+                scheduleAt(Instant.now().plus(delay));
+                logger.info("本次刷新結果: {}，連續失敗次數: {}，下一次執行時間: {}（{} 秒後）",
+                    outcome, consecutiveFailures, nextRunAt, delay.toSeconds());
+            } catch (Exception e) {
+                logger.error("重新安排下一次執行時發生錯誤", e);
+            }
+            return delay;
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+    
+    /**
+     * 其他節點持有租約時，在租約到期後再等待 follower-grace 才嘗試
+     * 各節點因此跟隨持有者的時段，而不是各自依間隔 + 抖動執行而逐漸錯開
+     * 
+     * @param leaseName 未能取得的租約
+     */
+    private void scheduleAfterHolder(String leaseName) {
+        Duration delay = leaseLock.remaining(leaseName).orElse(Duration.ZERO).plus(followerGrace);
+        scheduleLock.lock();
+        try {
+            // 由其他節點負責刷新，本節點的退避不再適用
+            consecutiveFailures = 0;
+            if (!autoUpdateEnabled) {
+                return;
             }
+            scheduleAt(Instant.now().plus(delay));
+            logger.info("租約 {} 由其他節點持有，下一次嘗試時間: {}（{} 秒後）", leaseName, nextRunAt, delay.toSeconds());
         } catch (Exception e) {
             logger.error("重新安排下一次執行時發生錯誤", e);
+        } finally {
+            scheduleLock.unlock();
         }
     }
     
+    /**
+     * 取消尚未執行的排程並在指定時間安排下一次執行（需持有 scheduleLock）
+     */
+    private void scheduleAt(Instant runAt) {
+        if (scheduledTask != null && !scheduledTask.isDone()) {
+            scheduledTask.cancel(false);
+        }
+        scheduledTask = taskScheduler.schedule(this::updateExchangeRates, runAt);
+        nextRunAt = scheduledTask != null ? runAt : null;
+        if (scheduledTask == null) {
+            logger.error("安排下一次執行失敗，scheduledTask 為 null");
+        }
+    }
+    
+    /**
+     * 依刷新策略計算下一次執行前的等待時間
+     * 
+     * @param policy 刷新策略
+     * @param outcome 本次刷新結果
+     * @param consecutiveFailures 連續失敗次數（包含本次）
+     * @param retryAfter API 建議的重試等待時間，可為 null；不超過最大退避與限流退避的較大者，
+     *                   避免異常的 Retry-After 讓刷新停擺
+     * @return 等待時間
+     */
+    static Duration computeDelay(RateRefreshPolicy policy, RefreshOutcome outcome,
+                                 int consecutiveFailures, Duration retryAfter) {
+        long jitter = policy.getJitterSeconds();
+        switch (outcome) {
+            case FAILED: {
+                long backoff = backoffSeconds(policy, consecutiveFailures);
+                return Duration.ofSeconds(backoff + randomSeconds(Math.min(jitter, backoff)));
+            }
+            case RATE_LIMITED: {
+                long backoff = Math.max(backoffSeconds(policy, consecutiveFailures), policy.getRateLimitedBackoffSeconds());
+                if (retryAfter != null) {
+                    long cap = Math.max(policy.getMaxBackoffSeconds(), policy.getRateLimitedBackoffSeconds());
+                    backoff = Math.max(backoff, Math.min(retryAfter.toSeconds(), cap));
+                }
+                return Duration.ofSeconds(backoff + randomSeconds(jitter));
+            }
+            default:
+                return Duration.ofSeconds(policy.getIntervalSeconds() + randomSeconds(jitter));
+        }
+    }
+    
+    /**
+     * 指數退避：初始退避 × 倍數^(連續失敗次數-1)，不超過最大退避
+     */
+    private static long backoffSeconds(RateRefreshPolicy policy, int consecutiveFailures) {
+        double backoff = policy.getInitialBackoffSeconds()
+            * Math.pow(policy.getBackoffMultiplier(), Math.max(0, consecutiveFailures - 1));
+        return (long) Math.min(backoff, policy.getMaxBackoffSeconds());
+    }
+    
+    private static long randomSeconds(long bound) {
+        return bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0L;
+    }
+    
     /**
      * 應用程式啟動完成後立即執行一次匯率更新
      * 確保應用程式完全啟動（包括資料庫連接、Redis 連接等）後才執行
@@ -185,90 +512,92 @@ public class CurrencyRateUpdateScheduler implements ApplicationListener<Applicat
         logger.info("啟動時間: {}", java.time.LocalDateTime.now());
         logger.info("========================================");
         updateExchangeRates();
-        logger.info("初始匯率更新完成，自動更新狀態: {}", autoUpdateEnabled ? "已啟用（每小時更新一次）" : "已停用");
+        logger.info("初始匯率更新完成，自動更新狀態: {}", autoUpdateEnabled ? "已啟用" : "已停用");
         
-        // 如果啟用自動更新，啟動排程任務
+        // 如果啟用自動更新，確保排程任務已啟動（正常情況下 updateExchangeRates 已安排下一次執行）
         if (autoUpdateEnabled) {
             startScheduledTask();
         }
     }
     
     /**
-     * 啟動排程任務（每小時更新一次）
-     * 
-     * 原理說明：
-     * 1. TaskScheduler.schedule() 使用 CronTrigger 時，只會執行一次
-     * 2. 所以在 updateExchangeRates() 執行完後，需要重新調用 schedule() 來安排下一次執行
-     * 3. CronTrigger 會自動計算下一次執行時間（例如：下一個整點）
-     * 4. 線程會進入等待狀態，直到下一次執行時間到達，不消耗 CPU
+     * 啟動排程任務
+     * 如果尚未有待執行的排程，依刷新策略（間隔 + 抖動）安排下一次執行
      */
-    private synchronized void startScheduledTask() {
-        // 檢查是否已經有運行中的任務
-        if (scheduledTask != null && !scheduledTask.isCancelled()) {
-            logger.warn("排程任務已在運行中，跳過重複啟動");
-            return;
-        }
-        
-        // 如果任務已取消但 reference 還在，先清理
-        if (scheduledTask != null) {
-            scheduledTask = null;
-        }
-        
-        logger.info("啟動自動更新排程任務（每小時更新一次）");
-        logger.info("Cron 表達式: {} (每小時的 0 分 0 秒執行)", CRON_EXPRESSION);
-        
+    private void startScheduledTask() {
+        scheduleLock.lock();
         try {
-            // CronTrigger 會自動根據當前時間計算下一次執行時間
-            CronTrigger trigger = new CronTrigger(CRON_EXPRESSION);
-            scheduledTask = taskScheduler.schedule(this::updateExchangeRates, trigger);
+            // 檢查是否已經有待執行的任務
+            if (scheduledTask != null && !scheduledTask.isDone()) {
+                logger.debug("排程任務已安排，下一次執行時間: {}", nextRunAt);
+                return;
+            }
+            
+            Duration delay = computeDelay(policy, RefreshOutcome.SUCCEEDED, 0, null);
+            logger.info("啟動自動更新排程任務，間隔: {} 秒，抖動: 0~{} 秒",
+                policy.getIntervalSeconds(), policy.getJitterSeconds());
+            scheduleAt(Instant.now().plus(delay));
             
             if (scheduledTask != null) {
-                logger.info("排程任務啟動成功，將在每小時整點自動執行");
-                logger.info("執行完後會自動重新安排下一次執行（每小時重複）");
+                logger.info("排程任務啟動成功，下一次執行時間: {}", nextRunAt);
                 logger.debug("線程將進入等待狀態，直到下一次執行時間到達（不消耗 CPU）");
-            } else {
-                logger.error("排程任務啟動失敗，scheduledTask 為 null");
             }
         } catch (Exception e) {
             logger.error("啟動排程任務時發生錯誤", e);
             scheduledTask = null;
+            nextRunAt = null;
+        } finally {
+            scheduleLock.unlock();
         }
     }
     
     /**
      * 停止排程任務
      */
-    private synchronized void stopScheduledTask() {
-        if (scheduledTask != null && !scheduledTask.isCancelled()) {
-            logger.info("停止自動更新排程任務");
-            boolean cancelled = scheduledTask.cancel(false);
-            if (cancelled) {
-                logger.info("排程任務已成功取消");
+    private void stopScheduledTask() {
+        scheduleLock.lock();
+        try {
+            if (scheduledTask != null && !scheduledTask.isDone()) {
+                logger.info("停止自動更新排程任務");
+                boolean cancelled = scheduledTask.cancel(false);
+                if (cancelled) {
+                    logger.info("排程任務已成功取消");
+                } else {
+                    logger.warn("排程任務取消失敗（可能正在執行中）");
+                }
+                scheduledTask = null;
             } else {
-                logger.warn("排程任務取消失敗（可能正在執行中）");
+                logger.info("沒有運行中的排程任務需要停止");
             }
-            scheduledTask = null;
-        } else {
-            logger.info("沒有運行中的排程任務需要停止");
+            nextRunAt = null;
+        } finally {
+            scheduleLock.unlock();
         }
     }
     
     /**
      * 啟用自動更新
-     * 會立即執行一次更新，然後啟動每小時的排程任務
+     * 會立即執行一次更新，然後依刷新策略啟動排程任務
+     * 
+     * 匯率更新（外部 API 與資料庫 I/O）在鎖外執行，避免長時間持有鎖
      */
-    public synchronized void enableAutoUpdate() {
-        if (autoUpdateEnabled) {
-            logger.info("自動更新已經啟用");
-            return;
+    public void enableAutoUpdate() {
+        scheduleLock.lock();
+        try {
+            if (autoUpdateEnabled) {
+                logger.info("自動更新已經啟用");
+                return;
+            }
+            
+            logger.info("========================================");
+            logger.info("啟用自動更新匯率功能");
+            logger.info("========================================");
+            
+            autoUpdateEnabled = true;
+        } finally {
+            scheduleLock.unlock();
         }
         
-        logger.info("========================================");
-        logger.info("啟用自動更新匯率功能");
-        logger.info("========================================");
-        
-        autoUpdateEnabled = true;
-        
         // 立即執行一次更新
         logger.info("立即執行一次匯率更新...");
         updateExchangeRates();
@@ -276,25 +605,30 @@ public class CurrencyRateUpdateScheduler implements ApplicationListener<Applicat
         // 啟動排程任務
         startScheduledTask();
         
-        logger.info("自動更新已啟用，將每小時自動更新一次");
+        logger.info("自動更新已啟用，刷新間隔: {} 秒", policy.getIntervalSeconds());
     }
     
     /**
      * 停用自動更新
      */
-    public synchronized void disableAutoUpdate() {
-        if (!autoUpdateEnabled) {
-            logger.info("自動更新已經停用");
-            return;
+    public void disableAutoUpdate() {
+        scheduleLock.lock();
+        try {
+            if (!autoUpdateEnabled) {
+                logger.info("自動更新已經停用");
+                return;
+            }
+            
+            logger.info("========================================");
+            logger.info("停用自動更新匯率功能");
+            logger.info("========================================");
+            
+            autoUpdateEnabled = false;
+            stopScheduledTask();
+        } finally {
+            scheduleLock.unlock();
         }
         
-        logger.info("========================================");
-        logger.info("停用自動更新匯率功能");
-        logger.info("========================================");
-        
-        autoUpdateEnabled = false;
-        stopScheduledTask();
-        
         logger.info("自動更新已停用");
     }
     
@@ -304,5 +638,64 @@ public class CurrencyRateUpdateScheduler implements ApplicationListener<Applicat
     public boolean isAutoUpdateEnabled() {
         return autoUpdateEnabled;
     }
+    
+    /**
+     * 取得目前的刷新策略
+     */
+    public RateRefreshPolicy getPolicy() {
+        return policy;
+    }
+    
+    /**
+     * 於執行期間調整刷新策略
+     * 沒有連續失敗時，待執行的排程會依新策略重新安排；退避中則維持目前的重試時間
+     * 
+     * @param newPolicy 新的刷新策略（需已驗證）
+     */
+    public void updatePolicy(RateRefreshPolicy newPolicy) {
+        scheduleLock.lock();
+        try {
+            policy = newPolicy;
+            logger.info("刷新策略已更新: 間隔 {} 秒，抖動 {} 秒，初始退避 {} 秒，最大退避 {} 秒，倍數 {}，限流退避 {} 秒",
+                newPolicy.getIntervalSeconds(), newPolicy.getJitterSeconds(), newPolicy.getInitialBackoffSeconds(),
+                newPolicy.getMaxBackoffSeconds(), newPolicy.getBackoffMultiplier(), newPolicy.getRateLimitedBackoffSeconds());
+            
+            if (autoUpdateEnabled && consecutiveFailures == 0 && scheduledTask != null && !scheduledTask.isDone()) {
+                scheduleAt(Instant.now().plus(computeDelay(newPolicy, RefreshOutcome.SUCCEEDED, 0, null)));
+                logger.info("已依新策略重新安排下一次執行: {}", nextRunAt);
+            }
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+    
+    /**
+     * 任一節點正在執行刷新時，刷新租約的剩餘有效時間
+     * 
+     * @return 剩餘時間，沒有刷新正在執行時返回空 Optional
+     */
+    public Optional<Duration> getRunningRefreshRemaining() {
+        return leaseLock.remaining(LEASE_NAME);
+    }
+    
+    /**
+     * 取得下一次排程執行時間
+     * 
+     * @return 下一次執行時間，如果沒有待執行的排程則為 null
+     */
+    public Instant getNextRunAt() {
+        return nextRunAt;
+    }
+    
+    /**
+     * 取得連續失敗次數
+     */
+    public int getConsecutiveFailures() {
+        scheduleLock.lock();
+        try {
+            return consecutiveFailures;
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
 }
-
@@ -0,0 +1,85 @@
+package com.example.ordersystem.scheduler;
+
+import com.example.ordersystem.config.NodeIdentity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 以記憶體實作的租約鎖
+ * 僅在單一 JVM 內有效，用於測試或單節點部署（app.rate-refresh.lock.type=memory）
+ * fencing token 計數器在重新啟動後由 0 開始，需與已保存的 token 比對時由呼叫端傳入下限
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-refresh.lock.type", havingValue = "memory")
+public class InMemoryLeaseLock implements LeaseLock {
+
+    private final Map<String, Holder> holders = new ConcurrentHashMap<>();
+    private final AtomicLong fencingSequence = new AtomicLong();
+    private final String owner;
+
+    @Autowired
+    public InMemoryLeaseLock(NodeIdentity nodeIdentity) {
+        this(nodeIdentity.getNodeId());
+    }
+
+    InMemoryLeaseLock(String owner) {
+        this.owner = owner;
+    }
+
+    @Override
+    public Optional<Lease> tryAcquire(String name, Duration ttl, long minFencingToken) {
+        Lease lease = new Lease(name, owner, fencingSequence.updateAndGet(current -> Math.max(current, minFencingToken) + 1));
+        long expiresAt = System.nanoTime() + ttl.toNanos();
+        Holder result = holders.compute(name, (key, current) ->
+            current == null || current.isExpired() ? new Holder(lease.value(), expiresAt) : current);
+        return result.value.equals(lease.value()) ? Optional.of(lease) : Optional.empty();
+    }
+
+    @Override
+    public boolean isHeld(Lease lease) {
+        Holder current = holders.get(lease.getName());
+        return current != null && !current.isExpired() && current.value.equals(lease.value());
+    }
+
+    @Override
+    public void release(Lease lease, Duration holdFor) {
+        holders.computeIfPresent(lease.getName(), (key, current) -> {
+            if (!current.value.equals(lease.value())) {
+                return current;
+            }
+            return holdFor.isZero() || holdFor.isNegative()
+                ? null
+                : new Holder(current.value, System.nanoTime() + holdFor.toNanos());
+        });
+    }
+
+    @Override
+    public Optional<Duration> remaining(String name) {
+        Holder current = holders.get(name);
+        if (current == null || current.isExpired()) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofNanos(current.expiresAtNanos - System.nanoTime()));
+    }
+
+    private static final class Holder {
+        private final String value;
+        private final long expiresAtNanos;
+
+        private Holder(String value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos >= 0;
+        }
+    }
+}
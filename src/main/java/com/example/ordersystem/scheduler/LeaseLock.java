@@ -0,0 +1,104 @@
+package com.example.ordersystem.scheduler;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 叢集租約鎖
+ * 確保多個應用程式節點中同一時間只有一個節點執行指定工作（如匯率刷新）
+ *
+ * 每次取得租約都會配發一個單調遞增的 fencing token。要避免租約過期後的舊持有者覆蓋新持有者的寫入，
+ * 需將 token 連同寫入交給儲存端比對（如 CurrencyRepository#updateRateIfNotFenced 的條件更新）；
+ * {@link #isHeld(Lease)} 與之後的寫入之間仍可能失去租約，只能用於提早停止。
+ */
+public interface LeaseLock {
+
+    /**
+     * 嘗試取得租約
+     *
+     * @param name 租約名稱
+     * @param ttl 租約有效時間，持有者異常終止時租約會在此時間後自動釋放
+     * @return 取得成功時返回租約，已被其他節點持有時返回空 Optional
+     */
+    default Optional<Lease> tryAcquire(String name, Duration ttl) {
+        return tryAcquire(name, ttl, 0L);
+    }
+
+    /**
+     * 嘗試取得租約，配發的 fencing token 一定大於 minFencingToken
+     * token 由儲存端永久保存並比對時，以儲存端目前最大的 token 作為下限：
+     * 計數器遺失（Redis 資料清除、沒有持久化的容錯移轉、單節點重新啟動）後由該值接續，
+     * 不會配發比已寫入者更小的 token 而使之後的寫入全部被拒絕
+     *
+     * @param name 租約名稱
+     * @param ttl 租約有效時間
+     * @param minFencingToken fencing token 的下限（不含）
+     * @return 取得成功時返回租約，已被其他節點持有時返回空 Optional
+     */
+    Optional<Lease> tryAcquire(String name, Duration ttl, long minFencingToken);
+
+    /**
+     * 確認租約是否仍由此持有者持有
+     *
+     * @param lease 租約
+     * @return 如果租約仍有效且 fencing token 相符則返回 true
+     */
+    boolean isHeld(Lease lease);
+
+    /**
+     * 釋放租約
+     *
+     * @param lease 租約
+     * @param holdFor 釋放後仍保留的時間（用於避免其他節點在短時間內重複執行），Duration.ZERO 表示立即釋放
+     */
+    void release(Lease lease, Duration holdFor);
+
+    /**
+     * 查詢租約目前持有者（包含釋放後保留中的租約）剩餘的有效時間
+     * 未取得租約的節點依此安排下一次嘗試，而不是各自依固定間隔重試
+     *
+     * @param name 租約名稱
+     * @return 剩餘時間，租約未被持有或無法查詢時返回空 Optional
+     */
+    Optional<Duration> remaining(String name);
+
+    /**
+     * 租約
+     */
+    final class Lease {
+
+        private final String name;
+        private final String owner;
+        private final long fencingToken;
+
+        public Lease(String name, String owner, long fencingToken) {
+            this.name = name;
+            this.owner = owner;
+            this.fencingToken = fencingToken;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
+        /**
+         * 存放在鎖中的值：持有者與 fencing token
+         */
+        String value() {
+            return owner + ":" + fencingToken;
+        }
+
+        @Override
+        public String toString() {
+            return name + "[" + value() + "]";
+        }
+    }
+}
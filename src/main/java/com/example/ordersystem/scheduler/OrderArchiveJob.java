@@ -0,0 +1,200 @@
+package com.example.ordersystem.scheduler;
+
+import com.example.ordersystem.model.OrderStatus;
+import com.example.ordersystem.service.OrderAnalyticsService;
+import com.example.ordersystem.service.OrderArchive;
+import com.example.ordersystem.service.OrderCache;
+import com.example.ordersystem.service.OrderSearchCache;
+import com.example.ordersystem.service.OrderStatusCounters;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 訂單封存排程任務
+ * 每隔 app.order-archive.interval 將建立時間早於封存界線（見 OrderArchive）的已結案訂單（最終狀態）
+ * 由 ORDERS 搬移到 ORDERS_ARCHIVE，讓 ORDERS 與其索引只保留近期與未結案的訂單
+ *
+ * - 每批最多 app.order-archive.batch-size 筆（不超過 1000，Oracle IN 清單上限），一批一個交易：
+ *   鎖定（SKIP LOCKED，不等待正在修改的訂單）→ INSERT ... SELECT 複製 → DELETE
+ * - 多節點部署時透過 {@link LeaseLock} 確保同一時段只有一個節點執行，每批開始前確認租約仍有效
+ * - 每批提交後更新 OrderStatusCounters 與 OrderAnalyticsService（只計算 ORDERS 中的訂單）、使訂單快取與訂單ID搜尋結果失效
+ */
+@Component
+public class OrderArchiveJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveJob.class);
+    private static final String LEASE_NAME = "order-archive";
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final String LOCK_SQL =
+        "SELECT ORDER_ID, STATUS FROM ORDERS WHERE STATUS IN (:statuses) AND CREATED_AT < :cutoff "
+            + "AND ROWNUM <= :limit FOR UPDATE SKIP LOCKED";
+
+    private static final String COPY_SQL =
+        "INSERT INTO ORDERS_ARCHIVE (ORDER_ID, USERNAME, AMOUNT, CURRENCY, STATUS, DISCOUNT, FINAL_AMOUNT, "
+            + "FINAL_AMOUNT_TWD, TWD_RATE_VERSION, CREATED_AT, UPDATED_AT, VERSION, ARCHIVED_AT) "
+            + "SELECT ORDER_ID, USERNAME, AMOUNT, CURRENCY, STATUS, DISCOUNT, FINAL_AMOUNT, "
+            + "FINAL_AMOUNT_TWD, TWD_RATE_VERSION, CREATED_AT, UPDATED_AT, VERSION, :now FROM ORDERS WHERE ORDER_ID IN (:ids)";
+
+    private static final String DELETE_SQL = "DELETE FROM ORDERS WHERE ORDER_ID IN (:ids)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private LeaseLock leaseLock;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private OrderStatusCounters orderStatusCounters;
+
+    @Autowired
+    private OrderAnalyticsService orderAnalyticsService;
+
+    @Autowired
+    private OrderCache orderCache;
+
+    @Autowired
+    private OrderSearchCache orderSearchCache;
+
+    @Value("${app.order-archive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.order-archive.interval:PT1H}")
+    private Duration interval = Duration.ofHours(1);
+
+    @Value("${app.order-archive.batch-size:1000}")
+    private int batchSize = 1000;
+
+    /** 封存租約的有效時間，需大於一次封存的最長耗時 */
+    @Value("${app.order-archive.lock.ttl:PT30M}")
+    private Duration leaseTtl = Duration.ofMinutes(30);
+
+    private ScheduledFuture<?> archiveTask;
+
+    private record LockedOrder(long orderId, OrderStatus status) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            archiveTask = taskScheduler.scheduleWithFixedDelay(this::archive, Instant.now().plus(interval), interval);
+            logger.info("訂單封存已啟用：每 {} 封存 {} 之前建立的已結案訂單", interval, orderArchive.boundary());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (archiveTask != null) {
+            archiveTask.cancel(false);
+        }
+    }
+
+    /**
+     * 執行一次封存，直到沒有符合條件的訂單或租約失效
+     *
+     * @return 封存的訂單筆數；其他節點正在執行時返回 0
+     */
+    public int archive() {
+        Optional<LeaseLock.Lease> leaseOpt = leaseLock.tryAcquire(LEASE_NAME, leaseTtl);
+        if (leaseOpt.isEmpty()) {
+            logger.debug("其他節點正在執行訂單封存，本節點跳過");
+            return 0;
+        }
+        LeaseLock.Lease lease = leaseOpt.get();
+        LocalDateTime cutoff = orderArchive.boundary();
+        int limit = Math.min(batchSize, MAX_BATCH_SIZE);
+        int archived = 0;
+        long startTime = System.currentTimeMillis();
+        try {
+            while (leaseLock.isHeld(lease)) {
+                List<LockedOrder> moved = new TransactionTemplate(transactionManager).execute(status -> archiveBatch(cutoff, limit));
+                applyArchived(moved);
+                archived += moved.size();
+                if (moved.size() < limit) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("訂單封存失敗，已封存 {} 筆，下次排程繼續", archived, e);
+        } finally {
+            leaseLock.release(lease, Duration.ZERO);
+        }
+        if (archived > 0) {
+            logger.info("訂單封存完成：{} 筆（建立時間早於 {}），耗時 {} ms", archived, cutoff, System.currentTimeMillis() - startTime);
+        }
+        return archived;
+    }
+
+    /**
+     * 封存一批訂單（需在交易中呼叫）
+     *
+     * @return 本批封存的訂單
+     */
+    private List<LockedOrder> archiveBatch(LocalDateTime cutoff, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("statuses", Arrays.stream(OrderStatus.values()).filter(OrderStatus::isFinal).map(Enum::name).toList())
+            .addValue("cutoff", Timestamp.valueOf(cutoff))
+            .addValue("limit", limit);
+        List<LockedOrder> locked = namedParameterJdbcTemplate.query(LOCK_SQL, params,
+            (rs, rowNum) -> new LockedOrder(rs.getLong("ORDER_ID"), OrderStatus.valueOf(rs.getString("STATUS"))));
+        if (locked.isEmpty()) {
+            return locked;
+        }
+        MapSqlParameterSource batch = new MapSqlParameterSource()
+            .addValue("ids", locked.stream().map(LockedOrder::orderId).toList())
+            .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        namedParameterJdbcTemplate.update(COPY_SQL, batch);
+        namedParameterJdbcTemplate.update(DELETE_SQL, batch);
+        return locked;
+    }
+
+    /**
+     * 一批封存提交後更新計數器與分析快照、使快取失效
+     */
+    private void applyArchived(List<LockedOrder> archived) {
+        if (archived.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(archived.size());
+        Map<OrderStatus, Long> countByStatus = new EnumMap<>(OrderStatus.class);
+        for (LockedOrder order : archived) {
+            ids.add(order.orderId());
+            countByStatus.merge(order.status(), 1L, Long::sum);
+        }
+        countByStatus.forEach((status, count) -> orderStatusCounters.record(status, null, count));
+        orderAnalyticsService.recordRemoved(ids);
+        orderCache.invalidateAll(ids);
+        orderSearchCache.bumpEpoch();
+    }
+}
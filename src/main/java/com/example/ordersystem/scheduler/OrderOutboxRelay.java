@@ -0,0 +1,151 @@
+package com.example.ordersystem.scheduler;
+
+import com.example.ordersystem.dto.OrderEvent;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.service.OrderEventSink;
+import com.example.ordersystem.service.OrderOutbox;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 訂單異動事件的發布排程任務
+ * 每隔 app.order-outbox.relay.interval 依 EVENT_ID 順序讀取 ORDER_OUTBOX，批次發布到 {@link OrderEventSink} 後刪除
+ *
+ * - 一批一個交易：讀取 → 發布 → DELETE；發布失敗時交易回滾，事件留在 outbox 下次重送
+ * - 發布成功但刪除未提交（例如節點當機）時，下次會再發布同一批，因此為至少一次（at-least-once），
+ *   消費者以 eventId 去重
+ * - 以「發布後刪除」而非記錄已發布的最大 EVENT_ID：序列一次配置 50 個號碼，多節點寫入時 EVENT_ID 不保證依提交順序遞增，
+ *   以最大值為界會漏掉較晚提交的較小 EVENT_ID
+ * - 多節點部署時透過 {@link LeaseLock} 確保同一時段只有一個節點發布，串流中的事件順序與 outbox 一致
+ */
+@Component
+public class OrderOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderOutboxRelay.class);
+    private static final String LEASE_NAME = "order-outbox-relay";
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final String SELECT_SQL =
+        "SELECT EVENT_ID, EVENT_TYPE, ORDER_ID, USERNAME, ORDER_VERSION, PAYLOAD, CREATED_AT FROM ORDER_OUTBOX "
+            + "ORDER BY EVENT_ID FETCH FIRST :limit ROWS ONLY";
+
+    private static final String DELETE_SQL = "DELETE FROM ORDER_OUTBOX WHERE EVENT_ID IN (:ids)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private LeaseLock leaseLock;
+
+    @Autowired
+    private OrderEventSink orderEventSink;
+
+    @Value("${app.order-outbox.relay.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.order-outbox.relay.interval:PT1S}")
+    private Duration interval = Duration.ofSeconds(1);
+
+    @Value("${app.order-outbox.relay.batch-size:500}")
+    private int batchSize = 500;
+
+    /** 發布租約的有效時間，需大於一次發布的最長耗時 */
+    @Value("${app.order-outbox.relay.lock.ttl:PT1M}")
+    private Duration leaseTtl = Duration.ofMinutes(1);
+
+    private ScheduledFuture<?> relayTask;
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            relayTask = taskScheduler.scheduleWithFixedDelay(this::relay, Instant.now().plus(interval), interval);
+            logger.info("訂單異動事件發布已啟用：每 {} 發布一次，每批最多 {} 筆", interval, Math.min(batchSize, MAX_BATCH_SIZE));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (relayTask != null) {
+            relayTask.cancel(false);
+        }
+    }
+
+    /**
+     * 執行一次發布，直到 outbox 清空或租約失效
+     *
+     * @return 發布的事件數；其他節點正在執行時返回 0
+     */
+    public int relay() {
+        Optional<LeaseLock.Lease> leaseOpt = leaseLock.tryAcquire(LEASE_NAME, leaseTtl);
+        if (leaseOpt.isEmpty()) {
+            logger.debug("其他節點正在發布訂單異動事件，本節點跳過");
+            return 0;
+        }
+        LeaseLock.Lease lease = leaseOpt.get();
+        int limit = Math.min(batchSize, MAX_BATCH_SIZE);
+        int published = 0;
+        try {
+            while (leaseLock.isHeld(lease)) {
+                Integer relayed = new TransactionTemplate(transactionManager).execute(status -> relayBatch(limit));
+                published += relayed;
+                if (relayed < limit) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("訂單異動事件發布失敗，已發布 {} 筆，未發布的事件保留到下次排程", published, e);
+        } finally {
+            leaseLock.release(lease, Duration.ZERO);
+        }
+        if (published > 0) {
+            logger.debug("已發布 {} 筆訂單異動事件", published);
+        }
+        return published;
+    }
+
+    /**
+     * 發布一批事件（需在交易中呼叫）
+     *
+     * @return 本批發布的事件數
+     */
+    private int relayBatch(int limit) {
+        List<OrderEvent> events = namedParameterJdbcTemplate.query(SELECT_SQL,
+            new MapSqlParameterSource("limit", limit), (rs, rowNum) -> OrderOutbox.toEvent(
+                rs.getLong("EVENT_ID"),
+                OrderEventType.valueOf(rs.getString("EVENT_TYPE")),
+                rs.getLong("ORDER_ID"),
+                rs.getString("USERNAME"),
+                rs.getObject("ORDER_VERSION") != null ? rs.getLong("ORDER_VERSION") : null,
+                rs.getTimestamp("CREATED_AT").toLocalDateTime(),
+                rs.getString("PAYLOAD")));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        orderEventSink.publish(events);
+        namedParameterJdbcTemplate.update(DELETE_SQL,
+            new MapSqlParameterSource("ids", events.stream().map(OrderEvent::getEventId).toList()));
+        return events.size();
+    }
+}
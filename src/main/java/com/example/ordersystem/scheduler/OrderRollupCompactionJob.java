@@ -0,0 +1,124 @@
+package com.example.ordersystem.scheduler;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 訂單每日彙總壓縮排程任務
+ * 每晚（app.order-rollup.compaction.cron，預設 02:30）將 ORDER_ROLLUP_DELTA 的增量依彙總鍵加總後
+ * MERGE 到 ORDER_DAILY_ROLLUP，再刪除已合併的增量與筆數歸零的彙總列
+ *
+ * - 以 SERIALIZABLE 交易執行：MERGE 與 DELETE 看到同一個時間點的增量，執行期間新提交的增量不會被刪除而遺漏，留待下次合併
+ * - 多節點部署時透過 {@link LeaseLock} 確保同一時段只有一個節點執行
+ * - 合併前後報表結果相同（OrderReportService 同時加總兩張表），壓縮只是讓報表查詢讀取的列數維持在每日每個彙總鍵一列
+ */
+@Component
+public class OrderRollupCompactionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRollupCompactionJob.class);
+    private static final String LEASE_NAME = "order-rollup-compaction";
+
+    private static final String MERGE_SQL =
+        "MERGE INTO ORDER_DAILY_ROLLUP r "
+            + "USING (SELECT ORDER_DATE, CURRENCY, STATUS, USERNAME, SUM(ORDER_COUNT) AS ORDER_COUNT, "
+            + "SUM(TOTAL_AMOUNT) AS TOTAL_AMOUNT, SUM(TOTAL_FINAL_AMOUNT) AS TOTAL_FINAL_AMOUNT, "
+            + "SUM(TOTAL_DISCOUNT) AS TOTAL_DISCOUNT "
+            + "FROM ORDER_ROLLUP_DELTA GROUP BY ORDER_DATE, CURRENCY, STATUS, USERNAME) d "
+            + "ON (r.ORDER_DATE = d.ORDER_DATE AND r.CURRENCY = d.CURRENCY AND r.STATUS = d.STATUS AND r.USERNAME = d.USERNAME) "
+            + "WHEN MATCHED THEN UPDATE SET r.ORDER_COUNT = r.ORDER_COUNT + d.ORDER_COUNT, "
+            + "r.TOTAL_AMOUNT = r.TOTAL_AMOUNT + d.TOTAL_AMOUNT, "
+            + "r.TOTAL_FINAL_AMOUNT = r.TOTAL_FINAL_AMOUNT + d.TOTAL_FINAL_AMOUNT, "
+            + "r.TOTAL_DISCOUNT = r.TOTAL_DISCOUNT + d.TOTAL_DISCOUNT "
+            + "WHEN NOT MATCHED THEN INSERT (ORDER_DATE, CURRENCY, STATUS, USERNAME, ORDER_COUNT, TOTAL_AMOUNT, "
+            + "TOTAL_FINAL_AMOUNT, TOTAL_DISCOUNT) VALUES (d.ORDER_DATE, d.CURRENCY, d.STATUS, d.USERNAME, d.ORDER_COUNT, "
+            + "d.TOTAL_AMOUNT, d.TOTAL_FINAL_AMOUNT, d.TOTAL_DISCOUNT)";
+
+    private static final String DELETE_DELTAS_SQL = "DELETE FROM ORDER_ROLLUP_DELTA";
+
+    private static final String DELETE_EMPTY_SQL = "DELETE FROM ORDER_DAILY_ROLLUP WHERE ORDER_COUNT = 0";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private LeaseLock leaseLock;
+
+    @Value("${app.order-rollup.compaction.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.order-rollup.compaction.cron:0 30 2 * * *}")
+    private String cron = "0 30 2 * * *";
+
+    /** 壓縮租約的有效時間，需大於一次壓縮的最長耗時 */
+    @Value("${app.order-rollup.compaction.lock.ttl:PT1H}")
+    private Duration leaseTtl = Duration.ofHours(1);
+
+    private ScheduledFuture<?> compactionTask;
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            compactionTask = taskScheduler.schedule(this::compact, new CronTrigger(cron));
+            logger.info("訂單每日彙總壓縮已啟用：{}", cron);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (compactionTask != null) {
+            compactionTask.cancel(false);
+        }
+    }
+
+    /**
+     * 執行一次壓縮
+     *
+     * @return 合併的增量筆數；其他節點正在執行或壓縮失敗時返回 0
+     */
+    public int compact() {
+        Optional<LeaseLock.Lease> leaseOpt = leaseLock.tryAcquire(LEASE_NAME, leaseTtl);
+        if (leaseOpt.isEmpty()) {
+            logger.debug("其他節點正在執行訂單每日彙總壓縮，本節點跳過");
+            return 0;
+        }
+        long startTime = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+        try {
+            Integer compacted = transactionTemplate.execute(status -> {
+                jdbcTemplate.update(MERGE_SQL);
+                int deltas = jdbcTemplate.update(DELETE_DELTAS_SQL);
+                jdbcTemplate.update(DELETE_EMPTY_SQL);
+                return deltas;
+            });
+            logger.info("訂單每日彙總壓縮完成：合併 {} 筆增量，耗時 {} ms", compacted, System.currentTimeMillis() - startTime);
+            return compacted;
+        } catch (Exception e) {
+            logger.error("訂單每日彙總壓縮失敗，增量保留到下次壓縮（報表結果不受影響）", e);
+            return 0;
+        } finally {
+            leaseLock.release(leaseOpt.get(), Duration.ZERO);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.ordersystem.scheduler;
+
+import com.example.ordersystem.exception.RateUnavailableException;
+import com.example.ordersystem.model.Currency;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.service.CurrencyService;
+import com.example.ordersystem.service.OrderCache;
+import com.example.ordersystem.service.OrderSearchCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 訂單台幣金額補值排程任務
+ * 每隔 app.order-twd-backfill.interval 為 FINAL_AMOUNT_TWD 為 NULL 的訂單補上台幣金額與匯率版本：
+ * 欄位新增前的既有訂單、寫入時取不到匯率的訂單，以及非同步接收（OrderIngestionService）重啟後由舊日誌重新寫入的訂單
+ *
+ * - 依幣別分批，每批最多 app.order-twd-backfill.batch-size 筆（不超過 1000，Oracle IN 清單上限），一批一個交易：
+ *   鎖定（SKIP LOCKED，不等待正在修改的訂單）→ 以目前匯率 UPDATE；換算與 OrderService 相同（四捨五入到 2 位小數）
+ * - 取不到匯率的幣別本次略過，下次排程再補
+ * - 不變更 VERSION 與 UPDATED_AT：台幣金額由既有欄位推導，不應讓持有目前版本的更新請求發生衝突
+ * - 多節點部署時透過 {@link LeaseLock} 確保同一時段只有一個節點執行，每批開始前確認租約仍有效
+ * - 每批提交後使訂單快取與訂單ID搜尋結果失效
+ */
+@Component
+public class OrderTwdBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderTwdBackfillJob.class);
+    private static final String LEASE_NAME = "order-twd-backfill";
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final String LOCK_SQL =
+        "SELECT ORDER_ID FROM ORDERS WHERE FINAL_AMOUNT_TWD IS NULL AND FINAL_AMOUNT IS NOT NULL "
+            + "AND CURRENCY = :currency AND ROWNUM <= :limit FOR UPDATE SKIP LOCKED";
+
+    private static final String UPDATE_SQL =
+        "UPDATE ORDERS SET FINAL_AMOUNT_TWD = ROUND(FINAL_AMOUNT * :rate, 2), TWD_RATE_VERSION = :rateVersion "
+            + "WHERE ORDER_ID IN (:ids) AND FINAL_AMOUNT_TWD IS NULL";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private LeaseLock leaseLock;
+
+    @Autowired
+    private CurrencyService currencyService;
+
+    @Autowired
+    private OrderCache orderCache;
+
+    @Autowired
+    private OrderSearchCache orderSearchCache;
+
+    @Value("${app.order-twd-backfill.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.order-twd-backfill.interval:PT5M}")
+    private Duration interval = Duration.ofMinutes(5);
+
+    @Value("${app.order-twd-backfill.batch-size:1000}")
+    private int batchSize = 1000;
+
+    /** 補值租約的有效時間，需大於一次補值的最長耗時 */
+    @Value("${app.order-twd-backfill.lock.ttl:PT30M}")
+    private Duration leaseTtl = Duration.ofMinutes(30);
+
+    private ScheduledFuture<?> backfillTask;
+
+    /**
+     * 補值所用的匯率；台幣的匯率固定為 1、沒有版本
+     */
+    private record Rate(BigDecimal rateToTwd, Timestamp version) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            backfillTask = taskScheduler.scheduleWithFixedDelay(this::backfill, Instant.now().plus(interval), interval);
+            logger.info("訂單台幣金額補值已啟用：每 {} 執行一次", interval);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (backfillTask != null) {
+            backfillTask.cancel(false);
+        }
+    }
+
+    /**
+     * 執行一次補值，直到各幣別都沒有待補的訂單或租約失效
+     *
+     * @return 補值的訂單筆數；其他節點正在執行時返回 0
+     */
+    public int backfill() {
+        Optional<LeaseLock.Lease> leaseOpt = leaseLock.tryAcquire(LEASE_NAME, leaseTtl);
+        if (leaseOpt.isEmpty()) {
+            logger.debug("其他節點正在執行訂單台幣金額補值，本節點跳過");
+            return 0;
+        }
+        LeaseLock.Lease lease = leaseOpt.get();
+        int limit = Math.min(batchSize, MAX_BATCH_SIZE);
+        int filled = 0;
+        long startTime = System.currentTimeMillis();
+        try {
+            for (CurrencyCode currencyCode : CurrencyCode.values()) {
+                Optional<Rate> rate = rateOf(currencyCode);
+                if (rate.isEmpty()) {
+                    continue;
+                }
+                while (leaseLock.isHeld(lease)) {
+                    List<Long> updated = new TransactionTemplate(transactionManager)
+                        .execute(status -> backfillBatch(currencyCode, rate.get(), limit));
+                    if (!updated.isEmpty()) {
+                        // 提交後使快取失效
+                        orderCache.invalidateAll(updated);
+                        orderSearchCache.bumpEpoch();
+                    }
+                    filled += updated.size();
+                    if (updated.size() < limit) {
+                        break;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("訂單台幣金額補值失敗，已補值 {} 筆，下次排程繼續", filled, e);
+        } finally {
+            leaseLock.release(lease, Duration.ZERO);
+        }
+        if (filled > 0) {
+            logger.info("訂單台幣金額補值完成：{} 筆，耗時 {} ms", filled, System.currentTimeMillis() - startTime);
+        }
+        return filled;
+    }
+
+    private Optional<Rate> rateOf(CurrencyCode currencyCode) {
+        if (currencyCode == CurrencyCode.TWD) {
+            return Optional.of(new Rate(BigDecimal.ONE, null));
+        }
+        try {
+            Optional<Currency> currency = currencyService.getCurrencyByCode(currencyCode)
+                .filter(found -> found.getRateToTwd() != null);
+            if (currency.isEmpty()) {
+                logger.debug("幣別 {} 沒有匯率，略過台幣金額補值", currencyCode);
+            }
+            return currency.map(found -> new Rate(found.getRateToTwd(),
+                found.getLastUpdate() != null ? Timestamp.valueOf(found.getLastUpdate()) : null));
+        } catch (RateUnavailableException e) {
+            logger.warn("幣別 {} 的匯率暫時無法取得，略過台幣金額補值: {}", currencyCode, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 補值一批同幣別的訂單（需在交易中呼叫）
+     *
+     * @return 本批補值的訂單ID
+     */
+    private List<Long> backfillBatch(CurrencyCode currencyCode, Rate rate, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("currency", currencyCode.name())
+            .addValue("limit", limit);
+        List<Long> ids = namedParameterJdbcTemplate.query(LOCK_SQL, params, (rs, rowNum) -> rs.getLong("ORDER_ID"));
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        MapSqlParameterSource batch = new MapSqlParameterSource()
+            .addValue("ids", ids)
+            .addValue("rate", rate.rateToTwd())
+            .addValue("rateVersion", rate.version(), Types.TIMESTAMP);
+        namedParameterJdbcTemplate.update(UPDATE_SQL, batch);
+        return ids;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.ordersystem.scheduler;
+
+import com.example.ordersystem.dto.RateRefreshJob;
+import com.example.ordersystem.exception.ConflictException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 匯率刷新任務管理器
+ * 將同時間多個刷新請求合併為同一個執行中的任務，並保留最近的任務紀錄供查詢
+ *
+ * 合併規則：
+ * - 已有排隊中或執行中的任務時，新的請求直接取得該任務（不會再次呼叫外部 API）
+ * - 其他節點正在執行刷新時拒絕請求（409），而不是建立一個稍後才標記為 SKIPPED 的任務
+ * - 沒有進行中的任務時，建立新任務並交給背景任務執行器執行
+ */
+@Component
+public class RateRefreshJobManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateRefreshJobManager.class);
+    private static final int MAX_RETAINED_JOBS = 50; // 最多保留的任務紀錄數
+
+    @Autowired
+    private CurrencyRateUpdateScheduler currencyRateUpdateScheduler;
+
+    @Autowired
+    @Qualifier("backgroundTaskExecutor")
+    private TaskExecutor backgroundTaskExecutor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private RateRefreshJob currentJob;
+
+    private final Map<String, RateRefreshJob> recentJobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RateRefreshJob> eldest) {
+            return size() > MAX_RETAINED_JOBS;
+        }
+    };
+
+    /**
+     * 提交刷新請求
+     * 如果已有進行中的任務則合併，否則建立新任務
+     *
+     * @param trigger 觸發來源（如：MANUAL）
+     * @return 處理此請求的任務（可能是既有任務）
+     * @throws ConflictException 如果其他節點正在執行刷新
+     * @throws TaskRejectedException 如果背景任務執行器已滿
+     */
+    public RateRefreshJob submit(String trigger) {
+        RateRefreshJob job;
+        lock.lock();
+        try {
+            if (currentJob != null && currentJob.isInFlight()) {
+                currentJob.incrementCoalescedRequests();
+                logger.info("已有進行中的匯率刷新任務 {}，合併此請求（累計 {} 次）",
+                    currentJob.getJobId(), currentJob.getCoalescedRequests());
+                return currentJob;
+            }
+
+            Optional<Duration> running = currencyRateUpdateScheduler.getRunningRefreshRemaining();
+            if (running.isPresent()) {
+                throw new ConflictException(String.format(
+                    "其他節點正在執行匯率刷新，租約於 %d 秒內到期，請稍後再試", Math.max(1, running.get().toSeconds())));
+            }
+
+            job = new RateRefreshJob(UUID.randomUUID().toString(), trigger);
+            currentJob = job;
+            recentJobs.put(job.getJobId(), job);
+        } finally {
+            lock.unlock();
+        }
+
+        logger.info("建立匯率刷新任務: {}（觸發來源: {}）", job.getJobId(), trigger);
+        try {
+            backgroundTaskExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            job.markFailed("背景任務執行器已滿，無法執行匯率刷新");
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * 根據任務ID取得任務狀態
+     *
+     * @param jobId 任務ID
+     * @return 任務的 Optional 物件，如果不存在（或已被淘汰）則返回空 Optional
+     */
+    public Optional<RateRefreshJob> getJob(String jobId) {
+        lock.lock();
+        try {
+            return Optional.ofNullable(recentJobs.get(jobId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run(RateRefreshJob job) {
+        try {
+            currencyRateUpdateScheduler.updateExchangeRates(job);
+        } catch (Exception e) {
+            logger.error("匯率刷新任務 {} 執行時發生錯誤", job.getJobId(), e);
+            job.markFailed("匯率更新失敗: " + e.getMessage());
+        } finally {
+            // 防止任務狀態停在執行中而導致之後的請求一直被合併
+            if (job.isInFlight()) {
+                job.markFailed("任務未回報結果");
+            }
+        }
+    }
+}
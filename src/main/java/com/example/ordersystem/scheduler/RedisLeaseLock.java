@@ -0,0 +1,135 @@
+package com.example.ordersystem.scheduler;
+
+import com.example.ordersystem.config.NodeIdentity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以 Redis 實作的租約鎖
+ *
+ * 實作方式：
+ * - fencing token：Lua 腳本 INCR lock:{name}:fence，每次取得租約都會遞增；
+ *   結果不大於呼叫端傳入的下限時（Redis 資料清除或容錯移轉後計數器重新起算）先 SET 為下限再 INCR
+ * - 取得租約：SET lock:{name} {owner}:{token} NX PX {ttl}
+ * - 釋放租約：Lua 腳本比對值相符才 DEL（或 PEXPIRE 保留一段時間），避免誤刪其他節點的租約
+ * - 剩餘時間：PTTL lock:{name}
+ *
+ * Redis 無法連線時，依 app.rate-refresh.lock.fail-open 決定是否仍在本節點執行（預設為 true，
+ * 與「沒有 Redis 系統仍可運行」的行為一致）
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-refresh.lock.type", havingValue = "redis", matchIfMissing = true)
+public class RedisLeaseLock implements LeaseLock {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisLeaseLock.class);
+    private static final String KEY_PREFIX = "lock:";
+
+    /**
+     * 值相符時：holdFor > 0 則改為 PEXPIRE holdFor，否則 DEL
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+            + "if tonumber(ARGV[2]) > 0 then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end "
+            + "return redis.call('DEL', KEYS[1]) "
+            + "end return 0",
+        Long.class);
+
+    /**
+     * INCR fencing token，結果不大於 ARGV[1] 時由 ARGV[1] 接續
+     */
+    private static final DefaultRedisScript<Long> NEXT_FENCE_SCRIPT = new DefaultRedisScript<>(
+        "local token = redis.call('INCR', KEYS[1]) "
+            + "if token <= tonumber(ARGV[1]) then "
+            + "redis.call('SET', KEYS[1], ARGV[1]) "
+            + "token = redis.call('INCR', KEYS[1]) "
+            + "end return token",
+        Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
+    @Value("${app.rate-refresh.lock.fail-open:true}")
+    private boolean failOpen;
+
+    @Override
+    public Optional<Lease> tryAcquire(String name, Duration ttl, long minFencingToken) {
+        String key = KEY_PREFIX + name;
+        try {
+            Long token = stringRedisTemplate.execute(NEXT_FENCE_SCRIPT, List.of(key + ":fence"), String.valueOf(minFencingToken));
+            Lease lease = new Lease(name, nodeIdentity.getNodeId(), token != null ? token : 0L);
+            Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(key, lease.value(), ttl);
+            if (Boolean.TRUE.equals(acquired)) {
+                logger.info("取得租約 {}，有效時間: {} 秒", lease, ttl.toSeconds());
+                return Optional.of(lease);
+            }
+            logger.info("租約 {} 已由其他節點持有: {}", name, stringRedisTemplate.opsForValue().get(key));
+            return Optional.empty();
+        } catch (DataAccessException e) {
+            if (failOpen) {
+                logger.warn("Redis 無法連線，無法取得租約 {}，依設定在本節點執行: {}", name, e.getMessage());
+                return Optional.of(new Lease(name, nodeIdentity.getNodeId(), -1L));
+            }
+            logger.error("Redis 無法連線，無法取得租約 {}，跳過執行: {}", name, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean isHeld(Lease lease) {
+        if (lease.getFencingToken() < 0) {
+            // fail-open 時配發的租約沒有 fencing 保護
+            return true;
+        }
+        try {
+            return lease.value().equals(stringRedisTemplate.opsForValue().get(KEY_PREFIX + lease.getName()));
+        } catch (DataAccessException e) {
+            logger.warn("Redis 無法連線，無法確認租約 {}: {}", lease, e.getMessage());
+            return failOpen;
+        }
+    }
+
+    @Override
+    public void release(Lease lease, Duration holdFor) {
+        if (lease.getFencingToken() < 0) {
+            return;
+        }
+        try {
+            Long result = stringRedisTemplate.execute(RELEASE_SCRIPT,
+                List.of(KEY_PREFIX + lease.getName()), lease.value(), String.valueOf(holdFor.toMillis()));
+            if (result == null || result == 0L) {
+                logger.warn("釋放租約 {} 時發現租約已不屬於本節點（可能已過期）", lease);
+            } else {
+                logger.info("已釋放租約 {}，保留時間: {} 秒", lease, holdFor.toSeconds());
+            }
+        } catch (DataAccessException e) {
+            logger.warn("釋放租約 {} 時 Redis 無法連線，租約將於過期後自動釋放: {}", lease, e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<Duration> remaining(String name) {
+        try {
+            Long millis = stringRedisTemplate.getExpire(KEY_PREFIX + name, TimeUnit.MILLISECONDS);
+            // -2：租約不存在；-1：沒有設定過期時間（不會發生於本類別建立的租約）
+            return millis != null && millis > 0 ? Optional.of(Duration.ofMillis(millis)) : Optional.empty();
+        } catch (DataAccessException e) {
+            logger.warn("Redis 無法連線，無法查詢租約 {} 的剩餘時間: {}", name, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ordersystem.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 快取統計服務
+ * 彙整 Hibernate 二級快取與查詢快取的命中、未命中與寫入次數，用於確認正式環境的命中率
+ */
+@Service
+public class CacheStatisticsService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * 取得二級快取各區域與查詢快取的統計資訊
+     *
+     * @return 統計資訊（statisticsEnabled、regions、queryCache、updateTimestamps）
+     */
+    public Map<String, Object> getSecondLevelCacheStatistics() {
+        Statistics statistics = getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            Map<String, Object> regionStats = counters(region.getHitCount(), region.getMissCount(), region.getPutCount());
+            regionStats.put("elementsInMemory", region.getElementCountInMemory());
+            regions.put(regionName, regionStats);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("statisticsSince", statistics.getStart());
+        result.put("regions", regions);
+        result.put("queryCache", counters(statistics.getQueryCacheHitCount(),
+            statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        result.put("updateTimestamps", counters(statistics.getUpdateTimestampsCacheHitCount(),
+            statistics.getUpdateTimestampsCacheMissCount(), statistics.getUpdateTimestampsCachePutCount()));
+        return result;
+    }
+
+    /**
+     * 將統計數字歸零，方便在調整設定後重新觀察命中率
+     */
+    public void resetStatistics() {
+        getStatistics().clear();
+    }
+
+    private Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Map<String, Object> counters(long hits, long misses, long puts) {
+        Map<String, Object> counters = new LinkedHashMap<>();
+        counters.put("hits", hits);
+        counters.put("misses", misses);
+        counters.put("puts", puts);
+        long lookups = hits + misses;
+        counters.put("hitRatio", lookups == 0 ? null : (double) hits / lookups);
+        return counters;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.model.Currency;
+import com.example.ordersystem.model.CurrencyCode;
+
+/**
+ * 幣別寫入事件，由 CurrencyService 在寫入匯率的交易中發布，RateStreamBroadcaster 於提交後推送
+ *
+ * @param currencyCode 幣別代碼
+ * @param currency 寫入後的幣別（LAST_UPDATE 在 flush 時才設定，提交後再讀取）；刪除時為 null
+ */
+public record CurrencyChangedEvent(CurrencyCode currencyCode, Currency currency) {
+
+    public static CurrencyChangedEvent saved(Currency currency) {
+        return new CurrencyChangedEvent(currency.getCurrencyCode(), currency);
+    }
+
+    public static CurrencyChangedEvent deleted(CurrencyCode currencyCode) {
+        return new CurrencyChangedEvent(currencyCode, null);
+    }
+}
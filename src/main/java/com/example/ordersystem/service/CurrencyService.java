@@ -1,21 +1,37 @@
 package com.example.ordersystem.service;
 
+import com.example.ordersystem.dto.RateSnapshot;
 import com.example.ordersystem.exception.CurrencyNotFoundException;
+import com.example.ordersystem.exception.RateUnavailableException;
 import com.example.ordersystem.model.Currency;
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.repository.CurrencyRepository;
+import com.example.ordersystem.util.CircuitBreaker;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 /**
@@ -24,6 +40,7 @@ import org.slf4j.LoggerFactory;
  * 
  * 本服務用於管理系統支援的各種幣別與兌台幣（TWD）的匯率，
  * 並支援金額的幣別轉換功能。
+ * 匯率寫入與刪除時發布 CurrencyChangedEvent，提交後由 RateStreamBroadcaster 推送給 GET /api/currencies/stream 的訂閱者。
  * 
  * @author Order Currency System
  * @version 1.0
@@ -41,7 +58,65 @@ public class CurrencyService {
     private CurrencyRepository currencyRepository;
     
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private RedisTemplate<String, Currency> currencyRedisTemplate;
+    
+    @Autowired
+    @Qualifier("backgroundTaskExecutor")
+    private TaskExecutor backgroundTaskExecutor;
+    
+    @Autowired
+    private RateNearCache rateNearCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.rate-cache.fresh-for:PT30S}")
+    private Duration freshFor = Duration.ofSeconds(30);
+    
+    @Value("${app.rate-cache.max-stale:PT24H}")
+    private Duration maxStale = Duration.ofHours(24);
+    
+    @Value("${app.rate-cache.redis-breaker.failure-threshold:3}")
+    private int redisFailureThreshold = 3;
+    
+    @Value("${app.rate-cache.redis-breaker.open-duration:PT30S}")
+    private Duration redisOpenDuration = Duration.ofSeconds(30);
+    
+    @Value("${app.rate-cache.redis-breaker.slow-call-threshold:PT0.2S}")
+    private Duration redisSlowCallThreshold = Duration.ofMillis(200);
+    
+    @Value("${app.rate-cache.db-breaker.failure-threshold:5}")
+    private int dbFailureThreshold = 5;
+    
+    @Value("${app.rate-cache.db-breaker.open-duration:PT30S}")
+    private Duration dbOpenDuration = Duration.ofSeconds(30);
+    
+    @Value("${app.rate-cache.db-fallback.max-concurrency:4}")
+    private int dbFallbackMaxConcurrency = 4;
+    
+    @Value("${app.rate-cache.db-fallback.wait:PT0.5S}")
+    private Duration dbFallbackWait = Duration.ofMillis(500);
+    
+    private CircuitBreaker redisBreaker = new CircuitBreaker("redis", 3, Duration.ofSeconds(30), Duration.ofMillis(200));
+    private CircuitBreaker dbBreaker = new CircuitBreaker("database", 5, Duration.ofSeconds(30), Duration.ZERO);
+    private Semaphore dbFallbackPermits = new Semaphore(4);
+    
+    // 最後已知匯率快照（Redis 無法使用時的回應來源）
+    private final Map<CurrencyCode, RateSnapshot> snapshots = new ConcurrentHashMap<>();
+    // 背景重新驗證中的幣別
+    private final Set<CurrencyCode> revalidating = ConcurrentHashMap.newKeySet();
+    // Redis 斷線期間寫入失敗、恢復後需刪除的快取
+    private final Set<CurrencyCode> pendingEvictions = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * 依設定建立斷路器與資料庫備援並行上限
+     */
+    @PostConstruct
+    public void initResilience() {
+        redisBreaker = new CircuitBreaker("redis", redisFailureThreshold, redisOpenDuration, redisSlowCallThreshold);
+        dbBreaker = new CircuitBreaker("database", dbFailureThreshold, dbOpenDuration, Duration.ZERO);
+        dbFallbackPermits = new Semaphore(dbFallbackMaxConcurrency);
+    }
 
 
     /**
@@ -56,43 +131,222 @@ public class CurrencyService {
     
     /**
      * 根據幣別代碼取得幣別資訊
-     * 優先從 Redis 快取讀取，如果快取不存在則從資料庫查詢並寫入快取
+     * 優先從 Redis 快取讀取，如果快取不存在則從資料庫查詢並寫入快取；
+     * Redis 無法使用時改用最後已知快照或資料庫，詳見 {@link #getRateSnapshot(CurrencyCode)}
      * 
      * @param currencyCode 幣別代碼 Enum（如：USD, EUR, JPY, TWD）
      * @return 幣別的 Optional 物件，如果不存在則返回空 Optional
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Currency> getCurrencyByCode(CurrencyCode currencyCode) {
+        return getRateSnapshot(currencyCode).map(RateSnapshot::getCurrency);
+    }
+    
+    /**
+     * 根據幣別代碼取得匯率快照（含來源與最後確認時間）
+     * 
+     * 讀取順序：
+     * 1. Redis 斷路器關閉時讀 Redis，未命中則查資料庫並寫回快取
+     * 2. Redis 失敗或斷路器開啟時，若有未超過 max-stale 的最後已知快照則直接回應，
+     *    快照超過 fresh-for 時在背景向資料庫重新驗證（stale-while-revalidate）
+     * 3. 沒有可用快照時才同步查資料庫，並以並行上限保護資料庫不被大量備援查詢壓垮
+     * 
+     * 不開啟交易（SUPPORTS），Redis 命中時不會佔用資料庫連線
+     * 
+     * @param currencyCode 幣別代碼 Enum
+     * @return 匯率快照的 Optional 物件，如果幣別不存在則返回空 Optional
+     * @throws RateUnavailableException 如果 Redis 與資料庫皆無法提供匯率
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<RateSnapshot> getRateSnapshot(CurrencyCode currencyCode) {
         String cacheKey = REDIS_KEY_PREFIX + currencyCode.name();
         
-        // 先從 Redis 快取讀取
-        logger.debug("嘗試從 Redis 讀取幣別快取: {}", cacheKey);
-        Currency cachedCurrency = (Currency) redisTemplate.opsForValue().get(cacheKey);
-        if (cachedCurrency != null) {
-            logger.debug("Redis 快取命中: {} = {}", cacheKey, cachedCurrency.getRateToTwd());
-            return Optional.of(cachedCurrency);
+        // 近端快取命中時不經過網路（啟用 app.rate-cache.near-cache.enabled 時）
+        RateSnapshot nearCached = rateNearCache != null ? rateNearCache.get(currencyCode) : null;
+        if (nearCached != null) {
+            logger.debug("近端快取命中: {} = {}", currencyCode, nearCached.getCurrency().getRateToTwd());
+            // 同樣記錄為最後已知快照（保留由 Redis 確認的時間），peekRateSnapshot 回應的新鮮度才不會停在較早的讀取
+            snapshots.put(currencyCode, copyOf(nearCached));
+            return Optional.of(copyOf(nearCached));
         }
         
-        logger.debug("Redis 快取未命中，從資料庫查詢: {}", currencyCode);
-        // 快取不存在，從資料庫查詢
-        Optional<Currency> currencyOpt = currencyRepository.findByCurrencyCode(currencyCode);
+        if (redisBreaker.isCallPermitted()) {
+            // 先從 Redis 快取讀取
+            logger.debug("嘗試從 Redis 讀取幣別快取: {}", cacheKey);
+            long nearCacheGeneration = rateNearCache != null ? rateNearCache.currentGeneration() : 0;
+            Currency cachedCurrency = null;
+            boolean redisAvailable = true;
+            try {
+                cachedCurrency = redisBreaker.execute(() -> currencyRedisTemplate.opsForValue().get(cacheKey));
+            } catch (RuntimeException e) {
+                redisAvailable = false;
+                logger.warn("Redis 讀取失敗，改用最後已知快照或資料庫: {} ({})", cacheKey, e.getMessage());
+            }
+            
+            if (redisAvailable) {
+                flushPendingEvictions();
+                if (cachedCurrency != null) {
+                    logger.debug("Redis 快取命中: {} = {}", cacheKey, cachedCurrency.getRateToTwd());
+                    if (rateNearCache != null) {
+                        rateNearCache.put(copyOf(cachedCurrency), nearCacheGeneration);
+                    }
+                    return Optional.of(remember(cachedCurrency, RateSnapshot.Source.REDIS));
+                }
+                
+                // 快取不存在，從資料庫查詢並寫入快取
+                logger.debug("Redis 快取未命中，從資料庫查詢: {}", currencyCode);
+                Optional<RateSnapshot> loaded = loadFromDatabase(currencyCode);
+                loaded.ifPresent(snapshot -> updateCache(snapshot.getCurrency()));
+                return loaded;
+            }
+        }
+        
+        RateSnapshot lastKnown = snapshots.get(currencyCode);
+        if (lastKnown != null && !lastKnown.isStale(maxStale)) {
+            if (lastKnown.isStale(freshFor)) {
+                revalidateAsync(currencyCode);
+            }
+            logger.debug("Redis 無法使用，以最後已知快照回應: {}（已 {} 秒未確認）",
+                currencyCode, lastKnown.getAge().toSeconds());
+            return Optional.of(copyOf(lastKnown).asServedFromSnapshot());
+        }
+        
+        return loadFromDatabaseBounded(currencyCode);
+    }
+    
+    /**
+     * 取得本節點記憶體中的最後已知快照（不會呼叫 Redis 或資料庫）
+     * 供 Controller 在換算後附上匯率新鮮度
+     * 
+     * @param currencyCode 幣別代碼 Enum
+     * @return 快照的 Optional 物件，如果本節點尚未讀過此幣別則返回空 Optional
+     */
+    public Optional<RateSnapshot> peekRateSnapshot(CurrencyCode currencyCode) {
+        return Optional.ofNullable(snapshots.get(currencyCode));
+    }
+    
+    /**
+     * 匯率新鮮期限，超過則視為過期（stale）
+     */
+    public Duration getFreshFor() {
+        return freshFor;
+    }
+    
+    /**
+     * Redis 無法使用時的資料庫備援查詢
+     * 以信號量限制同時查詢數，等不到名額時拋出 RateUnavailableException
+     */
+    private Optional<RateSnapshot> loadFromDatabaseBounded(CurrencyCode currencyCode) {
+        boolean acquired;
+        try {
+            acquired = dbFallbackPermits.tryAcquire(dbFallbackWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RateUnavailableException(currencyCode, "等待資料庫備援時被中斷");
+        }
+        if (!acquired) {
+            throw new RateUnavailableException(currencyCode, "資料庫備援查詢已達並行上限");
+        }
+        try {
+            return loadFromDatabase(currencyCode);
+        } catch (CircuitBreaker.OpenException e) {
+            throw new RateUnavailableException(currencyCode, e.getMessage());
+        } finally {
+            dbFallbackPermits.release();
+        }
+    }
+    
+    /**
+     * 從資料庫查詢幣別並更新最後已知快照
+     */
+    private Optional<RateSnapshot> loadFromDatabase(CurrencyCode currencyCode) {
+        Optional<Currency> currencyOpt = dbBreaker.execute(() -> currencyRepository.findByCurrencyCode(currencyCode));
         if (currencyOpt.isPresent()) {
             Currency currency = currencyOpt.get();
             logger.debug("從資料庫取得幣別: {} = {}", currencyCode, currency.getRateToTwd());
-            // 寫入 Redis 快取
-            logger.info("寫入 Redis 快取: {} = {}, TTL: {} 小時", cacheKey, currency.getRateToTwd(), CACHE_TTL.toHours());
-            redisTemplate.opsForValue().set(cacheKey, currency, CACHE_TTL);
-            logger.debug("Redis 快取寫入完成: {}", cacheKey);
-            return Optional.of(currency);
+            return Optional.of(remember(currency, RateSnapshot.Source.DATABASE));
         }
         
         logger.debug("資料庫中找不到幣別: {}", currencyCode);
+        snapshots.remove(currencyCode);
+        invalidateNearCache(currencyCode);
         return Optional.empty();
     }
     
-
-
-
-
+    /**
+     * 在背景向資料庫重新驗證快照，同一幣別同時只會有一個驗證任務
+     */
+    private void revalidateAsync(CurrencyCode currencyCode) {
+        if (backgroundTaskExecutor == null || !revalidating.add(currencyCode)) {
+            return;
+        }
+        try {
+            backgroundTaskExecutor.execute(() -> {
+                try {
+                    loadFromDatabase(currencyCode);
+                    logger.debug("已於背景重新驗證匯率快照: {}", currencyCode);
+                } catch (RuntimeException e) {
+                    logger.warn("背景重新驗證匯率快照失敗: {} ({})", currencyCode, e.getMessage());
+                } finally {
+                    revalidating.remove(currencyCode);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            revalidating.remove(currencyCode);
+            logger.debug("背景任務執行器已滿，略過本次快照重新驗證: {}", currencyCode);
+        }
+    }
+    
+    /**
+     * 記錄最後已知快照，並回傳呼叫端專用的副本
+     * 快照內保存獨立的物件，避免呼叫端修改（如 updateRate）影響其他執行緒讀到的值
+     */
+    private RateSnapshot remember(Currency currency, RateSnapshot.Source source) {
+        RateSnapshot snapshot = new RateSnapshot(copyOf(currency), source, Instant.now());
+        snapshots.put(currency.getCurrencyCode(), snapshot);
+        return new RateSnapshot(currency, source, snapshot.getConfirmedAt());
+    }
+    
+    private RateSnapshot copyOf(RateSnapshot snapshot) {
+        return new RateSnapshot(copyOf(snapshot.getCurrency()), snapshot.getSource(), snapshot.getConfirmedAt());
+    }
+    
+    private Currency copyOf(Currency currency) {
+        Currency copy = new Currency();
+        copy.setCurrencyCode(currency.getCurrencyCode());
+        copy.setRateToTwd(currency.getRateToTwd());
+        copy.setLastUpdate(currency.getLastUpdate());
+        return copy;
+    }
+    
+    /**
+     * 使本節點近端快取失效；其他節點由 Redis keyspace notification 得知
+     */
+    private void invalidateNearCache(CurrencyCode currencyCode) {
+        if (rateNearCache != null) {
+            rateNearCache.invalidate(currencyCode);
+        }
+    }
+    
+    /**
+     * Redis 恢復後，刪除斷線期間未能更新的快取鍵，讓下一次讀取重新由資料庫載入
+     */
+    private void flushPendingEvictions() {
+        if (pendingEvictions.isEmpty()) {
+            return;
+        }
+        for (CurrencyCode code : pendingEvictions) {
+            try {
+                redisBreaker.execute(() -> currencyRedisTemplate.delete(REDIS_KEY_PREFIX + code.name()));
+                pendingEvictions.remove(code);
+                logger.info("Redis 已恢復，清除斷線期間未同步的快取: {}", code);
+            } catch (RuntimeException e) {
+                logger.warn("清除未同步的快取失敗: {} ({})", code, e.getMessage());
+                return;
+            }
+        }
+    }
+    
     /**
      * 建立或更新幣別資訊
      * 如果幣別代碼已存在則更新，不存在則建立
@@ -107,6 +361,7 @@ public class CurrencyService {
         
         Currency savedCurrency = currencyRepository.save(currency);
         logger.info("幣別已存入資料庫: {}", savedCurrency.getCurrencyCode());
+        eventPublisher.publishEvent(CurrencyChangedEvent.saved(savedCurrency));
         
         // 更新 Redis 快取
         updateCache(savedCurrency);
@@ -123,9 +378,17 @@ public class CurrencyService {
      */
     public void deleteCurrency(CurrencyCode currencyCode) {
         currencyRepository.deleteById(currencyCode);
-        // 清除 Redis 快取
+        eventPublisher.publishEvent(CurrencyChangedEvent.deleted(currencyCode));
+        snapshots.remove(currencyCode);
+        invalidateNearCache(currencyCode);
+        // 清除 Redis 快取（Redis 無法使用時留待恢復後清除）
         String cacheKey = REDIS_KEY_PREFIX + currencyCode.name();
-        redisTemplate.delete(cacheKey);
+        try {
+            redisBreaker.execute(() -> currencyRedisTemplate.delete(cacheKey));
+        } catch (RuntimeException e) {
+            pendingEvictions.add(currencyCode);
+            logger.warn("Redis 無法使用，快取將於恢復後清除: {} ({})", cacheKey, e.getMessage());
+        }
     }
     
     /**
@@ -138,6 +401,7 @@ public class CurrencyService {
      * @throws CurrencyNotFoundException 如果找不到指定的幣別
      * @apiNote 故意留一個小 bug：沒有處理匯率為 null 的情況
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public BigDecimal convertToTwd(BigDecimal amount, CurrencyCode sourceCurrency) {
         if (sourceCurrency == CurrencyCode.TWD) {
             return amount;
@@ -165,6 +429,7 @@ public class CurrencyService {
      * @throws CurrencyNotFoundException 如果找不到指定的幣別
      * @apiNote 故意留一個不優化的地方：除法運算可能會有精度問題
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public BigDecimal convertCurrency(BigDecimal amount, CurrencyCode sourceCurrency, CurrencyCode targetCurrency) {
         if (sourceCurrency == targetCurrency) {
             return amount;
@@ -212,6 +477,7 @@ public class CurrencyService {
             logger.info("正在更新資料庫中的匯率...");
             Currency savedCurrency = currencyRepository.save(currency);
             logger.info("資料庫更新完成: {} = {}", currencyCode, savedCurrency.getRateToTwd());
+            eventPublisher.publishEvent(CurrencyChangedEvent.saved(savedCurrency));
             
             // 更新 Redis 快取
             updateCache(savedCurrency);
@@ -224,7 +490,49 @@ public class CurrencyService {
     }
     
     /**
-     * 更新 Redis 快取
+     * 已寫入匯率的最大 fencing token，刷新取得租約時以此作為 token 下限
+     * 
+     * @return 最大的 fencing token；沒有任何刷新寫入過時為 0
+     */
+    @Transactional(readOnly = true)
+    public long getMaxRefreshFence() {
+        Long fence = currencyRepository.findMaxRefreshFence();
+        return fence != null ? fence : 0L;
+    }
+    
+    /**
+     * 由匯率刷新寫入新匯率，以刷新租約的 fencing token 保護
+     * 由資料庫以條件更新比對 token（見 {@link CurrencyRepository#updateRateIfNotFenced}），
+     * 較新的刷新已寫入時不更新；token 為負數（Redis 無法連線時 fail-open 配發的租約）時不做比對
+     * 
+     * @param currencyCode 幣別代碼 Enum
+     * @param newRate 新的匯率（相對於 TWD 的匯率）
+     * @param fencingToken 刷新租約的 fencing token
+     * @return 更新後的幣別物件；已由較新的刷新寫入時為空 Optional
+     * @throws CurrencyNotFoundException 如果找不到指定的幣別
+     */
+    public Optional<Currency> updateRefreshedRate(CurrencyCode currencyCode, BigDecimal newRate, long fencingToken) {
+        if (fencingToken < 0) {
+            return Optional.of(updateRate(currencyCode, newRate));
+        }
+        if (currencyRepository.updateRateIfNotFenced(currencyCode, newRate, LocalDateTime.now(), fencingToken) == 0) {
+            if (!currencyRepository.existsById(currencyCode)) {
+                throw new CurrencyNotFoundException(currencyCode);
+            }
+            logger.warn("匯率寫入被拒絕：{} 已由較新的刷新寫入（fencing token: {}）", currencyCode, fencingToken);
+            return Optional.empty();
+        }
+        Currency savedCurrency = currencyRepository.findById(currencyCode)
+            .orElseThrow(() -> new CurrencyNotFoundException(currencyCode));
+        logger.info("資料庫更新完成: {} = {}（fencing token: {}）", currencyCode, newRate, fencingToken);
+        eventPublisher.publishEvent(CurrencyChangedEvent.saved(savedCurrency));
+        updateCache(savedCurrency);
+        return Optional.of(savedCurrency);
+    }
+    
+    /**
+     * 更新 Redis 快取與最後已知快照
+     * Redis 無法使用時只記錄待清除，不影響資料庫更新
      * 
      * @param currency 要快取的幣別物件
      */
@@ -235,21 +543,36 @@ public class CurrencyService {
         logger.info("幣別資料: currencyCode={}, rateToTwd={}, lastUpdate={}", 
             currency.getCurrencyCode(), currency.getRateToTwd(), currency.getLastUpdate());
         
-        redisTemplate.opsForValue().set(cacheKey, currency, CACHE_TTL);
+        snapshots.put(currency.getCurrencyCode(), new RateSnapshot(copyOf(currency), RateSnapshot.Source.DATABASE, Instant.now()));
+        invalidateNearCache(currency.getCurrencyCode());
+        try {
+            redisBreaker.execute(() -> {
+                currencyRedisTemplate.opsForValue().set(cacheKey, currency, CACHE_TTL);
+                return null;
+            });
+            pendingEvictions.remove(currency.getCurrencyCode());
+        } catch (RuntimeException e) {
+            // 資料庫已更新，不因快取失敗而回滾；Redis 恢復後刪除舊快取
+            pendingEvictions.add(currency.getCurrencyCode());
+            logger.warn("Redis 無法使用，快取將於恢復後清除: {} ({})", cacheKey, e.getMessage());
+            return;
+        }
         
         logger.info("Redis 快取更新完成: {} (TTL: {} 小時)", cacheKey, CACHE_TTL.toHours());
         logger.info("=== Redis 快取更新完成 ===");
     }
     
     /**
-     * 清除指定幣別的 Redis 快取
+     * 清除指定幣別的 Redis 快取、近端快取與最後已知快照
      * 當資料庫資料被直接修改時，可以手動清除快取以強制重新從資料庫讀取
      * 
      * @param currencyCode 幣別代碼 Enum
      */
     public void evictCache(CurrencyCode currencyCode) {
+        snapshots.remove(currencyCode);
+        invalidateNearCache(currencyCode);
         String cacheKey = REDIS_KEY_PREFIX + currencyCode.name();
-        redisTemplate.delete(cacheKey);
+        currencyRedisTemplate.delete(cacheKey);
     }
     
     /**
@@ -257,11 +580,15 @@ public class CurrencyService {
      * 當資料庫資料被大量修改時，可以清除所有快取
      */
     public void evictAllCache() {
+        snapshots.clear();
+        if (rateNearCache != null) {
+            rateNearCache.invalidateAll();
+        }
         // 使用 Redis 的 KEYS 命令找到所有相關的快取鍵
         String pattern = REDIS_KEY_PREFIX + "*";
-        Set<String> keys = redisTemplate.keys(pattern);
+        Set<String> keys = currencyRedisTemplate.keys(pattern);
         if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
+            currencyRedisTemplate.delete(keys);
         }
     }
 
@@ -1,15 +1,18 @@
 package com.example.ordersystem.service;
 
 import com.example.ordersystem.dto.ExchangeRateResponse;
+import com.example.ordersystem.exception.ExchangeRateApiRateLimitedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.RestClientException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -30,6 +33,7 @@ public class ExchangeRateApiService {
      * 從 ExchangeRate-API 取得最新匯率
      * 
      * @return 匯率 Map，key 為幣別代碼，value 為對 USD 的匯率
+     * @throws ExchangeRateApiRateLimitedException 如果 API 回傳 HTTP 429（呼叫端應延長重試間隔）
      */
     public Map<String, BigDecimal> fetchLatestRates() {
         logger.info("=== 開始呼叫外部 API 取得匯率 ===");
@@ -95,6 +99,12 @@ public class ExchangeRateApiService {
                 logger.error("API 呼叫失敗，HTTP 狀態碼: {}", response.getStatusCode());
                 return new HashMap<>();
             }
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            long totalTime = System.currentTimeMillis() - startTime;
+            Duration retryAfter = parseRetryAfter(e.getResponseHeaders() != null
+                ? e.getResponseHeaders().getFirst("Retry-After") : null);
+            logger.warn("=== 外部 API 限流（HTTP 429），Retry-After: {}，總耗時: {} ms ===", retryAfter, totalTime);
+            throw new ExchangeRateApiRateLimitedException("ExchangeRate-API 限流（HTTP 429）", retryAfter);
         } catch (RestClientException e) {
             long totalTime = System.currentTimeMillis() - startTime;
             logger.error("=== 外部 API 呼叫發生錯誤 ===");
@@ -103,5 +113,22 @@ public class ExchangeRateApiService {
             return new HashMap<>();
         }
     }
+    
+    /**
+     * 解析 Retry-After 標頭（只支援秒數格式）
+     * 
+     * @param value 標頭值
+     * @return 等待時間，無法解析時返回 null
+     */
+    private Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            logger.debug("無法解析 Retry-After 標頭: {}", value);
+            return null;
+        }
+    }
 }
-
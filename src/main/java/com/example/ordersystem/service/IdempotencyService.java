@@ -0,0 +1,340 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.exception.ConflictException;
+import com.example.ordersystem.util.BloomFilter;
+import com.example.ordersystem.util.CircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 建立訂單的 Idempotency-Key 服務
+ * 用戶端逾時重送 POST /api/orders 時，以相同的 Idempotency-Key 回應第一次建立的訂單，不重複建立
+ *
+ * 儲存：
+ * - Redis：idempotency:order:{使用者}:{key}，值為 PENDING（處理中，保留 app.idempotency.pending-ttl，
+ *   避免節點中止後相同的 key 一直無法使用）或「狀態碼:訂單ID」（保留 app.idempotency.ttl）
+ * - 本節點：最近使用的 key 與結果（LRU），以及 Bloom filter
+ *
+ * 新的 key 在返回前以 SET NX 同步登記為處理中，SET NX 失敗即表示其他請求已登記：
+ * 已完成時回應第一次的結果，仍在處理中時回應 409，不依賴節點之間的通知
+ *
+ * Bloom filter 只用來省略 SET NX 之前的查詢：判斷「一定沒看過」的 key 時直接登記，
+ * 否則先查詢 Redis，讓重送的請求一次往返即可取得結果；
+ * 各節點透過 Redis 頻道 idempotency:order:seen 互相通知新的 key（通知遺失只會多一次 SET NX），
+ * 啟動時先以 SCAN 載入既有的 key，完成前一律先查詢
+ *
+ * Redis 無法使用時只依本節點的紀錄判斷
+ */
+@Service
+public class IdempotencyService implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final String REDIS_KEY_PREFIX = "idempotency:order:";
+    private static final String PENDING = "PENDING";
+    public static final String SEEN_CHANNEL = "idempotency:order:seen";
+
+    /**
+     * 第一次請求的結果
+     *
+     * @param status 回應狀態碼（201 或 202）
+     * @param orderId 建立的訂單ID
+     */
+    public record Outcome(int status, Long orderId) {
+    }
+
+    /**
+     * 本節點紀錄
+     */
+    private record LocalEntry(String value, long expiresAtNanos) {
+    }
+
+    @Autowired(required = false)
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    @Qualifier("backgroundTaskExecutor")
+    private TaskExecutor backgroundTaskExecutor;
+
+    @Value("${app.idempotency.ttl:PT24H}")
+    private Duration ttl = Duration.ofHours(24);
+
+    @Value("${app.idempotency.pending-ttl:PT1M}")
+    private Duration pendingTtl = Duration.ofMinutes(1);
+
+    @Value("${app.idempotency.redis.enabled:true}")
+    private boolean redisEnabled = true;
+
+    @Value("${app.idempotency.local-max-size:10000}")
+    private int localMaxSize = 10_000;
+
+    @Value("${app.idempotency.bloom.expected-insertions:1000000}")
+    private long bloomExpectedInsertions = 1_000_000;
+
+    @Value("${app.idempotency.bloom.false-positive-probability:0.01}")
+    private double bloomFalsePositiveProbability = 0.01;
+
+    private final CircuitBreaker redisBreaker = new CircuitBreaker("idempotency-redis", 3, Duration.ofSeconds(30), Duration.ofMillis(200));
+
+    private final Map<String, LocalEntry> local = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LocalEntry> eldest) {
+            return size() > localMaxSize;
+        }
+    };
+
+    // Bloom filter 無法刪除元素，每經過 ttl 輪替一次：查詢時檢查目前與上一代，加入時只寫入目前這一代
+    private BloomFilter currentBloom;
+    private BloomFilter previousBloom;
+    private long bloomRotatedAtNanos;
+
+    // 啟動載入完成前，Bloom filter 不完整，一律查詢 Redis
+    private volatile boolean bloomWarm;
+
+    @PostConstruct
+    public void init() {
+        currentBloom = newBloom();
+        previousBloom = newBloom();
+        bloomRotatedAtNanos = System.nanoTime();
+        if (!isRedisUsable()) {
+            bloomWarm = true;
+            return;
+        }
+        try {
+            backgroundTaskExecutor.execute(this::warmUp);
+        } catch (TaskRejectedException e) {
+            logger.warn("無法載入既有的 Idempotency-Key，建立訂單時將一律查詢 Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 開始處理帶有 Idempotency-Key 的請求
+     *
+     * @param username 目前登入的使用者（key 以使用者為範圍）
+     * @param key Idempotency-Key
+     * @return 重複請求時返回第一次請求的結果；新的 key 返回空 Optional（已登記為處理中）
+     * @throws ConflictException 如果相同 key 的請求仍在處理中（本節點或其他節點）
+     */
+    public Optional<Outcome> begin(String username, String key) {
+        String scopedKey = username + ":" + key;
+        String known = localGet(scopedKey);
+        if (known == null && (!bloomWarm || bloomMightContain(scopedKey))) {
+            known = redisGet(scopedKey);
+        }
+
+        synchronized (local) {
+            if (known == null) {
+                // 同一節點同時收到相同 key 的請求
+                known = localGet(scopedKey);
+            }
+            if (known == null) {
+                local.put(scopedKey, new LocalEntry(PENDING, System.nanoTime() + pendingTtl.toNanos()));
+            }
+        }
+        if (known != null) {
+            return Optional.of(resolve(known));
+        }
+
+        String existing = claimInRedis(scopedKey);
+        if (existing != null) {
+            synchronized (local) {
+                local.remove(scopedKey);
+            }
+            return Optional.of(resolve(existing));
+        }
+        bloomPut(scopedKey);
+        notifySeen(scopedKey);
+        return Optional.empty();
+    }
+
+    /**
+     * 請求成功後記錄結果
+     */
+    public void complete(String username, String key, int status, Long orderId) {
+        String scopedKey = username + ":" + key;
+        String value = status + ":" + orderId;
+        localPut(scopedKey, value);
+        if (!isRedisUsable()) {
+            return;
+        }
+        try {
+            redisBreaker.execute(() -> {
+                stringRedisTemplate.opsForValue().set(REDIS_KEY_PREFIX + scopedKey, value, ttl);
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("寫入 Idempotency-Key 結果失敗，僅保留在本節點: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 請求失敗時移除處理中的紀錄，讓用戶端可以用相同的 key 重試
+     */
+    public void abandon(String username, String key) {
+        String scopedKey = username + ":" + key;
+        synchronized (local) {
+            local.remove(scopedKey);
+        }
+        if (!isRedisUsable()) {
+            return;
+        }
+        try {
+            redisBreaker.execute(() -> stringRedisTemplate.delete(REDIS_KEY_PREFIX + scopedKey));
+        } catch (Exception e) {
+            logger.warn("移除 Idempotency-Key 失敗，將在 {} 後過期: {}", ttl, e.getMessage());
+        }
+    }
+
+    /**
+     * 處理其他節點的新 key 通知，訊息內容為「使用者:key」
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        bloomPut(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private Outcome resolve(String value) {
+        if (PENDING.equals(value)) {
+            throw new ConflictException("相同 Idempotency-Key 的請求仍在處理中，請稍後再試");
+        }
+        int separator = value.indexOf(':');
+        return new Outcome(Integer.parseInt(value.substring(0, separator)), Long.valueOf(value.substring(separator + 1)));
+    }
+
+    /**
+     * 在 Redis 登記處理中（SET NX，不覆寫已登記或已完成的 key）
+     *
+     * @return 登記成功或 Redis 無法使用時為 null；key 已存在時為目前的值（在兩次操作之間過期時視為處理中）
+     */
+    private String claimInRedis(String scopedKey) {
+        if (!isRedisUsable()) {
+            return null;
+        }
+        Boolean claimed;
+        try {
+            claimed = redisBreaker.execute(() ->
+                stringRedisTemplate.opsForValue().setIfAbsent(REDIS_KEY_PREFIX + scopedKey, PENDING, pendingTtl));
+        } catch (Exception e) {
+            logger.debug("登記 Idempotency-Key 失敗，僅依本節點紀錄判斷: {}", e.getMessage());
+            return null;
+        }
+        if (Boolean.TRUE.equals(claimed)) {
+            return null;
+        }
+        String existing = redisGet(scopedKey);
+        return existing != null ? existing : PENDING;
+    }
+
+    /**
+     * 通知其他節點加入 Bloom filter；只影響是否先查詢，在背景執行，不增加回應時間
+     */
+    private void notifySeen(String scopedKey) {
+        if (!isRedisUsable()) {
+            return;
+        }
+        try {
+            backgroundTaskExecutor.execute(() -> {
+                try {
+                    redisBreaker.execute(() -> {
+                        stringRedisTemplate.convertAndSend(SEEN_CHANNEL, scopedKey);
+                        return null;
+                    });
+                } catch (Exception e) {
+                    logger.debug("通知 Idempotency-Key 失敗: {}", e.getMessage());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            logger.debug("背景任務執行器已滿，略過通知 Idempotency-Key: {}", e.getMessage());
+        }
+    }
+
+    private String redisGet(String scopedKey) {
+        if (!isRedisUsable()) {
+            return null;
+        }
+        try {
+            return redisBreaker.execute(() -> stringRedisTemplate.opsForValue().get(REDIS_KEY_PREFIX + scopedKey));
+        } catch (Exception e) {
+            logger.debug("查詢 Idempotency-Key 失敗，僅依本節點紀錄判斷: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void warmUp() {
+        ScanOptions options = ScanOptions.scanOptions().match(REDIS_KEY_PREFIX + "*").count(1000).build();
+        long loaded = 0;
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                bloomPut(cursor.next().substring(REDIS_KEY_PREFIX.length()));
+                loaded++;
+            }
+            bloomWarm = true;
+            logger.info("已載入 {} 個 Idempotency-Key", loaded);
+        } catch (Exception e) {
+            logger.warn("無法載入既有的 Idempotency-Key，建立訂單時將一律查詢 Redis: {}", e.getMessage());
+        }
+    }
+
+    private String localGet(String scopedKey) {
+        synchronized (local) {
+            LocalEntry entry = local.get(scopedKey);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAtNanos() > 0) {
+                local.remove(scopedKey);
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    private void localPut(String scopedKey, String value) {
+        synchronized (local) {
+            local.put(scopedKey, new LocalEntry(value, System.nanoTime() + ttl.toNanos()));
+        }
+    }
+
+    private synchronized void bloomPut(String scopedKey) {
+        rotateBloomIfDue();
+        currentBloom.put(scopedKey);
+    }
+
+    private synchronized boolean bloomMightContain(String scopedKey) {
+        rotateBloomIfDue();
+        return currentBloom.mightContain(scopedKey) || previousBloom.mightContain(scopedKey);
+    }
+
+    private void rotateBloomIfDue() {
+        if (System.nanoTime() - bloomRotatedAtNanos >= ttl.toNanos()) {
+            previousBloom = currentBloom;
+            currentBloom = newBloom();
+            bloomRotatedAtNanos = System.nanoTime();
+        }
+    }
+
+    private BloomFilter newBloom() {
+        return new BloomFilter(bloomExpectedInsertions, bloomFalsePositiveProbability);
+    }
+
+    private boolean isRedisUsable() {
+        return redisEnabled && stringRedisTemplate != null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderEvent;
+import com.example.ordersystem.dto.OrderEventBatch;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 記憶體內的訂單異動事件串流
+ * 僅在單一 JVM 內有效，用於測試或單機開發環境；位置為事件的序號（由 1 開始）
+ */
+@Component
+@ConditionalOnProperty(name = "app.order-outbox.sink.type", havingValue = "memory")
+public class InMemoryOrderEventSink implements OrderEventSink {
+
+    private final List<OrderEvent> events = new ArrayList<>();
+    private final Map<String, String> offsets = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized void publish(List<OrderEvent> batch) {
+        for (OrderEvent event : batch) {
+            OrderEvent stored = new OrderEvent(event.getEventId(), event.getType(), event.getOrderId(),
+                event.getUsername(), event.getOrderVersion(), event.getOccurredAt(), event.getOrder());
+            stored.setOffset(String.valueOf(events.size() + 1));
+            events.add(stored);
+        }
+    }
+
+    @Override
+    public synchronized OrderEventBatch read(String afterOffset, int limit) {
+        int from = afterOffset != null ? Math.max(0, Integer.parseInt(afterOffset)) : 0;
+        // 不裁剪，不會有缺口
+        return new OrderEventBatch(false,
+            new ArrayList<>(events.subList(Math.min(from, events.size()), Math.min(from + limit, events.size()))));
+    }
+
+    @Override
+    public Optional<String> committedOffset(String consumer) {
+        return Optional.ofNullable(offsets.get(consumer));
+    }
+
+    @Override
+    public void commitOffset(String consumer, String offset) {
+        offsets.put(consumer, offset);
+    }
+}
@@ -0,0 +1,570 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderAnalyticsFilter;
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.OrderStatus;
+import com.example.ordersystem.util.OrderColumns;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * 訂單記憶體內分析（折扣分布、各幣別金額百分位數、使用者排名）
+ * 將 ORDERS 載入為欄式快照（{@link OrderColumns}），查詢以專用的 ForkJoinPool 平行走訪所有列後合併，不查詢資料庫
+ *
+ * - 第一次查詢時才載入，之後每隔 app.order-analytics.reload-interval 重新載入一次，修正直接修改資料庫或其他節點的異動
+ * - 載入後，本節點的訂單寫入在交易提交後排入異動佇列，每隔 app.order-analytics.apply-interval 及每次查詢前
+ *   以寫入鎖套用到快照，不重新載入整張表；查詢持有讀取鎖，套用異動不會與查詢交錯
+ * - 重新載入期間暫停套用，異動留在佇列中，載入完成後依序重播到新快照（異動皆為冪等：整列取代、設定狀態、移除）
+ * - 只包含 ORDERS：已封存的訂單由封存時的異動移除，與 status-counts 一致
+ *
+ * 同一筆訂單的兩個交易幾乎同時提交時，異動排入佇列的順序可能與提交順序不同，誤差會在下次重新載入時修正
+ */
+@Service
+public class OrderAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderAnalyticsService.class);
+
+    private static final String LOAD_SQL =
+        "SELECT ORDER_ID, USERNAME, AMOUNT, CURRENCY, STATUS, DISCOUNT, CREATED_AT FROM ORDERS";
+
+    private static final int LOAD_FETCH_SIZE = 5000;
+    private static final int MAX_PERCENTILES = 20;
+    private static final int MAX_TOP_USERS = 100;
+    /** 使用者數不超過此值時，每段以陣列累計（每段 16 bytes × 使用者數），否則只記錄該段出現過的使用者 */
+    static final int DENSE_USER_LIMIT = 65_536;
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    /** 分析查詢的平行度，0 表示 CPU 核心數 */
+    @Value("${app.order-analytics.parallelism:0}")
+    private int parallelism = 0;
+
+    @Value("${app.order-analytics.reload-interval:PT1H}")
+    private Duration reloadInterval = Duration.ofHours(1);
+
+    @Value("${app.order-analytics.apply-interval:PT1S}")
+    private Duration applyInterval = Duration.ofSeconds(1);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Queue<Consumer<OrderColumns>> changes = new ConcurrentLinkedQueue<>();
+    /** 載入快照的鎖；載入期間會執行全表查詢，使用 ReentrantLock 避免虛擬執行緒在 synchronized 中阻塞而釘住載體執行緒 */
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    /** 目前的快照，第一次載入前為 null；只在寫入鎖內替換 */
+    private volatile OrderColumns columns;
+    /** 是否記錄寫入異動：第一次載入開始後才記錄，未使用分析時不佔用記憶體 */
+    private volatile boolean tracking;
+    /** 是否正在重新載入（只在寫入鎖內變更） */
+    private boolean loading;
+    private volatile Instant loadedAt;
+
+    private ForkJoinPool pool;
+    private ScheduledFuture<?> reloadTask;
+    private ScheduledFuture<?> applyTask;
+
+    /**
+     * 折扣分布的一個區間（百分比，包含起點、不含終點；最後一個區間沒有終點）
+     */
+    public record DiscountBucket(BigDecimal fromPercent, BigDecimal toPercent, long orderCount) {
+    }
+
+    public record DiscountDistribution(long orderCount, BigDecimal averageDiscount, List<DiscountBucket> buckets) {
+    }
+
+    /**
+     * 單一幣別的訂單金額（AMOUNT）分布；百分位數以最近排名法（nearest-rank）計算，鍵為 "p50"、"p99.9" 等
+     */
+    public record AmountPercentiles(CurrencyCode currency, long orderCount, BigDecimal min, BigDecimal max,
+                                    Map<String, BigDecimal> percentiles) {
+    }
+
+    /**
+     * 使用者的訂單筆數與金額合計；未指定幣別時不加總金額（null）
+     */
+    public record UserTotal(String username, long orderCount, BigDecimal totalAmount) {
+    }
+
+    /**
+     * 使用者排名依據
+     */
+    public enum Ranking {
+        COUNT,
+        AMOUNT
+    }
+
+    @PostConstruct
+    public void start() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reloadTask != null) {
+            reloadTask.cancel(false);
+        }
+        if (applyTask != null) {
+            applyTask.cancel(false);
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    // ---------------------------------------------------------------- 寫入異動
+
+    /**
+     * 訂單寫入提交後排入異動：寫入後的訂單整列取代，刪除的訂單移除
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (tracking) {
+            List<OrderChangedEvent.Change> written = List.copyOf(event.changes());
+            changes.add(snapshot -> written.forEach(change -> {
+                OrderView order = change.after();
+                if (order == null) {
+                    snapshot.remove(change.orderId());
+                } else {
+                    snapshot.upsert(order.getOrderId(), order.getUsername(), order.getAmount(), order.getDiscount(),
+                        order.getCurrency(), order.getStatus(), order.getCreatedAt());
+                }
+            }));
+        }
+    }
+
+    /**
+     * 記錄已封存的訂單（需在封存提交之後呼叫）
+     */
+    public void recordRemoved(Collection<Long> orderIds) {
+        if (tracking && !orderIds.isEmpty()) {
+            List<Long> ids = List.copyOf(orderIds);
+            changes.add(snapshot -> ids.forEach(snapshot::remove));
+        }
+    }
+
+    /**
+     * 將佇列中的異動套用到快照；重新載入期間不套用
+     */
+    public void applyPendingChanges() {
+        if (changes.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (columns != null && !loading) {
+                Consumer<OrderColumns> change;
+                while ((change = changes.poll()) != null) {
+                    change.accept(columns);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------- 載入
+
+    /**
+     * 由資料庫重新載入快照；失敗時保留原快照
+     */
+    public void reload() {
+        try {
+            load();
+        } catch (Exception e) {
+            logger.warn("訂單分析快照重新載入失敗，沿用原快照: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 快照最後一次載入完成的時間，尚未載入時返回 null
+     */
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    private void load() {
+        loadLock.lock();
+        try {
+            long startTime = System.currentTimeMillis();
+            tracking = true;
+            lock.writeLock().lock();
+            try {
+                loading = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            OrderColumns loaded;
+            try {
+                // 使用讀寫交易，讓查詢在啟用讀寫分離時也由主庫回應，不會讀到比佇列中的異動更舊的資料
+                loaded = new TransactionTemplate(transactionManager).execute(status -> {
+                    OrderColumns snapshot = new OrderColumns(columns != null ? columns.size() + 1024 : 1024);
+                    jdbcTemplate.query(connection -> {
+                        PreparedStatement statement = connection.prepareStatement(LOAD_SQL);
+                        statement.setFetchSize(LOAD_FETCH_SIZE);
+                        return statement;
+                    }, rs -> {
+                        String orderStatus = rs.getString("STATUS");
+                        Timestamp createdAt = rs.getTimestamp("CREATED_AT");
+                        snapshot.upsert(rs.getLong("ORDER_ID"), rs.getString("USERNAME"), rs.getBigDecimal("AMOUNT"),
+                            rs.getBigDecimal("DISCOUNT"), CurrencyCode.valueOf(rs.getString("CURRENCY")),
+                            orderStatus != null ? OrderStatus.valueOf(orderStatus) : null,
+                            createdAt != null ? createdAt.toLocalDateTime() : null);
+                    });
+                    return snapshot;
+                });
+            } catch (RuntimeException e) {
+                if (columns == null) {
+                    // 尚未有快照時停止記錄，下次載入會直接讀到這些寫入
+                    tracking = false;
+                    changes.clear();
+                }
+                throw e;
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    loading = false;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            lock.writeLock().lock();
+            try {
+                columns = loaded;
+                loadedAt = Instant.now();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            applyPendingChanges();
+            logger.info("訂單分析快照已載入：{} 筆，耗時 {} ms", loaded.size(), System.currentTimeMillis() - startTime);
+
+            if (reloadTask == null) {
+                reloadTask = taskScheduler.scheduleWithFixedDelay(this::reload,
+                    Instant.now().plus(reloadInterval), reloadInterval);
+                applyTask = taskScheduler.scheduleWithFixedDelay(this::applyPendingChanges,
+                    Instant.now().plus(applyInterval), applyInterval);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * 取得已套用所有異動的快照並持有讀取鎖，呼叫端需釋放
+     */
+    private OrderColumns acquireSnapshot() {
+        if (columns == null) {
+            loadLock.lock();
+            try {
+                if (columns == null) {
+                    load();
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        applyPendingChanges();
+        lock.readLock().lock();
+        return columns;
+    }
+
+    // ---------------------------------------------------------------- 查詢
+
+    /**
+     * 折扣分布：將 0–100% 依 bucketWidth 切成區間計算筆數，超過最後一個區間起點的折扣都計入最後一個區間
+     *
+     * @param filter 篩選條件
+     * @param bucketWidth 區間寬度（百分比，最多 2 位小數）
+     * @throws BadRequestException 如果條件或區間寬度不合法
+     */
+    public DiscountDistribution discountDistribution(OrderAnalyticsFilter filter, BigDecimal bucketWidth) {
+        OrderColumns.Filter rowFilter = toRowFilter(filter);
+        if (bucketWidth == null || bucketWidth.signum() <= 0 || bucketWidth.compareTo(HUNDRED) > 0
+            || bucketWidth.stripTrailingZeros().scale() > 2) {
+            throw new BadRequestException("區間寬度需介於 0.01 與 100 之間，最多 2 位小數");
+        }
+        int width = (int) OrderColumns.toCents(bucketWidth);
+        int bucketCount = (10_000 + width - 1) / width;
+
+        long[] totals;
+        OrderColumns snapshot = acquireSnapshot();
+        try {
+            // 前 bucketCount 格為各區間筆數，接著為總筆數與折扣合計
+            totals = snapshot.reduce(pool, rowFilter, () -> new long[bucketCount + 2], (partial, row) -> {
+                int discount = snapshot.discountBasisPoints(row);
+                partial[Math.min(Math.max(discount, 0) / width, bucketCount - 1)]++;
+                partial[bucketCount]++;
+                partial[bucketCount + 1] += discount;
+            }, OrderAnalyticsService::addInto);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<DiscountBucket> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new DiscountBucket(BigDecimal.valueOf((long) i * width, 2),
+                i < bucketCount - 1 ? BigDecimal.valueOf((long) (i + 1) * width, 2) : null, totals[i]));
+        }
+        long orderCount = totals[bucketCount];
+        BigDecimal average = orderCount > 0
+            ? BigDecimal.valueOf(totals[bucketCount + 1], 2).divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP)
+            : null;
+        return new DiscountDistribution(orderCount, average, buckets);
+    }
+
+    /**
+     * 各幣別訂單金額的百分位數：平行收集符合條件的金額後，在同一個 ForkJoinPool 中平行排序
+     *
+     * @param filter 篩選條件
+     * @param percentiles 要計算的百分位數（大於 0、不超過 100）
+     * @return 依幣別排列，沒有訂單的幣別不列出
+     * @throws BadRequestException 如果條件或百分位數不合法
+     */
+    public List<AmountPercentiles> amountPercentiles(OrderAnalyticsFilter filter, List<BigDecimal> percentiles) {
+        OrderColumns.Filter rowFilter = toRowFilter(filter);
+        if (percentiles == null || percentiles.isEmpty() || percentiles.size() > MAX_PERCENTILES
+            || percentiles.stream().anyMatch(p -> p == null || p.signum() <= 0 || p.compareTo(HUNDRED) > 0)) {
+            throw new BadRequestException("百分位數需介於 0（不含）與 100 之間，最多 " + MAX_PERCENTILES + " 個");
+        }
+
+        AmountSamples samples;
+        OrderColumns snapshot = acquireSnapshot();
+        try {
+            samples = snapshot.reduce(pool, rowFilter, AmountSamples::new,
+                (partial, row) -> partial.add(snapshot.currencyOrdinal(row), snapshot.amountCents(row)),
+                AmountSamples::addAll);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<AmountPercentiles> result = new ArrayList<>();
+        for (CurrencyCode currency : CurrencyCode.values()) {
+            int n = samples.sizes[currency.ordinal()];
+            if (n == 0) {
+                continue;
+            }
+            long[] amounts = samples.values[currency.ordinal()];
+            pool.invoke(ForkJoinTask.adapt(() -> Arrays.parallelSort(amounts, 0, n)));
+            Map<String, BigDecimal> values = new LinkedHashMap<>();
+            for (BigDecimal p : percentiles) {
+                int rank = p.multiply(BigDecimal.valueOf(n)).divide(HUNDRED, 0, RoundingMode.CEILING).intValue();
+                values.put("p" + p.stripTrailingZeros().toPlainString(), BigDecimal.valueOf(amounts[Math.max(rank, 1) - 1], 2));
+            }
+            result.add(new AmountPercentiles(currency, n, BigDecimal.valueOf(amounts[0], 2),
+                BigDecimal.valueOf(amounts[n - 1], 2), values));
+        }
+        return result;
+    }
+
+    /**
+     * 訂單筆數或金額最多的使用者
+     *
+     * @param filter 篩選條件；依金額排名時需指定幣別
+     * @param ranking 排名依據
+     * @param limit 返回的使用者數（1–100）
+     * @throws BadRequestException 如果條件不合法，或依金額排名但未指定幣別
+     */
+    public List<UserTotal> topUsers(OrderAnalyticsFilter filter, Ranking ranking, int limit) {
+        OrderColumns.Filter rowFilter = toRowFilter(filter);
+        if (limit < 1 || limit > MAX_TOP_USERS) {
+            throw new BadRequestException("使用者數需介於 1 與 " + MAX_TOP_USERS + " 之間");
+        }
+        boolean withAmount = filter.getCurrency() != null;
+        if (ranking == Ranking.AMOUNT && !withAmount) {
+            throw new BadRequestException("依金額排名需指定幣別");
+        }
+
+        List<UserTotal> result = new ArrayList<>(limit);
+        OrderColumns snapshot = acquireSnapshot();
+        try {
+            int userCount = snapshot.userCount();
+            UserTotals totals = snapshot.reduce(pool, rowFilter, () -> new UserTotals(userCount),
+                (partial, row) -> partial.add(snapshot.user(row), snapshot.amountCents(row)), UserTotals::addAll);
+            Comparator<Integer> order = (ranking == Ranking.AMOUNT
+                ? Comparator.<Integer>comparingLong(totals::cents) : Comparator.<Integer>comparingLong(totals::count))
+                .thenComparingLong(totals::count);
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, order);
+            totals.forEachUser(user -> {
+                top.add(user);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            });
+            List<Integer> users = new ArrayList<>(top);
+            users.sort(order.reversed());
+            for (int user : users) {
+                result.add(new UserTotal(snapshot.username(user), totals.count(user),
+                    withAmount ? BigDecimal.valueOf(totals.cents(user), 2) : null));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private static OrderColumns.Filter toRowFilter(OrderAnalyticsFilter filter) {
+        if (filter.getFrom() != null && filter.getTo() != null && filter.getFrom().isAfter(filter.getTo())) {
+            throw new BadRequestException("起日不能晚於迄日");
+        }
+        return OrderColumns.Filter.of(filter.getCurrency(), filter.getStatus(), filter.getFrom(), filter.getTo());
+    }
+
+    private static long[] addInto(long[] left, long[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i] += right[i];
+        }
+        return left;
+    }
+
+    /**
+     * 依幣別收集的金額（分）
+     */
+    private static final class AmountSamples {
+        private final long[][] values = new long[CurrencyCode.values().length][];
+        private final int[] sizes = new int[CurrencyCode.values().length];
+
+        void add(int currency, long amount) {
+            long[] array = values[currency];
+            if (array == null) {
+                array = values[currency] = new long[64];
+            } else if (sizes[currency] == array.length) {
+                array = values[currency] = Arrays.copyOf(array, array.length * 2);
+            }
+            array[sizes[currency]++] = amount;
+        }
+
+        AmountSamples addAll(AmountSamples other) {
+            for (int currency = 0; currency < values.length; currency++) {
+                int n = other.sizes[currency];
+                if (n == 0) {
+                    continue;
+                }
+                int size = sizes[currency];
+                long[] array = values[currency];
+                if (array == null || size + n > array.length) {
+                    array = values[currency] = Arrays.copyOf(array != null ? array : new long[0], Math.max(size + n, size * 2));
+                }
+                System.arraycopy(other.values[currency], 0, array, size, n);
+                sizes[currency] = size + n;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * 每位使用者的筆數與金額合計（分）
+     * 使用者數不超過 DENSE_USER_LIMIT 時以陣列累計；否則以 map 只記錄出現過的使用者，
+     * 每段的大小受該段的列數限制，不隨使用者數成長
+     */
+    static final class UserTotals {
+        private final long[] counts;
+        private final long[] cents;
+        private final Map<Integer, long[]> sparse;
+
+        UserTotals(int userCount) {
+            boolean dense = userCount <= DENSE_USER_LIMIT;
+            counts = dense ? new long[userCount] : null;
+            cents = dense ? new long[userCount] : null;
+            sparse = dense ? null : new HashMap<>();
+        }
+
+        void add(int user, long amountCents) {
+            if (sparse == null) {
+                counts[user]++;
+                cents[user] += amountCents;
+            } else {
+                long[] total = sparse.computeIfAbsent(user, key -> new long[2]);
+                total[0]++;
+                total[1] += amountCents;
+            }
+        }
+
+        UserTotals addAll(UserTotals other) {
+            if (sparse == null) {
+                addInto(counts, other.counts);
+                addInto(cents, other.cents);
+                return this;
+            }
+            UserTotals larger = sparse.size() >= other.sparse.size() ? this : other;
+            UserTotals smaller = larger == this ? other : this;
+            smaller.sparse.forEach((user, total) -> larger.sparse.merge(user, total, (left, right) -> {
+                left[0] += right[0];
+                left[1] += right[1];
+                return left;
+            }));
+            return larger;
+        }
+
+        long count(int user) {
+            if (sparse == null) {
+                return counts[user];
+            }
+            long[] total = sparse.get(user);
+            return total != null ? total[0] : 0;
+        }
+
+        long cents(int user) {
+            if (sparse == null) {
+                return cents[user];
+            }
+            long[] total = sparse.get(user);
+            return total != null ? total[1] : 0;
+        }
+
+        /** 依序處理至少有一筆訂單的使用者 */
+        void forEachUser(IntConsumer action) {
+            if (sparse != null) {
+                sparse.keySet().forEach(action::accept);
+                return;
+            }
+            for (int user = 0; user < counts.length; user++) {
+                if (counts[user] != 0) {
+                    action.accept(user);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.model.ArchivedOrder;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.repository.ArchivedOrderRepository;
+import com.example.ordersystem.repository.OrderSpecifications;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 已封存訂單的查詢
+ * OrderArchiveJob 只封存建立時間早於封存界線的已結案訂單，界線為 app.order-archive.retention-months 個月前的月初
+ * （與 ORDERS 的月份分區對齊）；查詢範圍全部在界線之後時不需查詢封存表
+ *
+ * 界線只由設定與目前時間決定，各節點不需共用狀態即可判斷；
+ * 調大保留月數不會把已封存的訂單搬回 ORDERS，界線之後的已封存訂單只能以訂單ID查詢
+ */
+@Component
+public class OrderArchive {
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Value("${app.order-archive.retention-months:6}")
+    private int retentionMonths = 6;
+
+    /**
+     * 封存界線：建立時間早於此時間的已結案訂單會被封存
+     */
+    public LocalDateTime boundary() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths).atStartOfDay();
+    }
+
+    /**
+     * 建立時間不早於 createdFrom 的訂單是否可能已被封存
+     *
+     * @param createdFrom 查詢範圍的起點，null 表示不限
+     */
+    public boolean mayContain(LocalDateTime createdFrom) {
+        return createdFrom == null || createdFrom.isBefore(boundary());
+    }
+
+    /**
+     * 依訂單ID查詢已封存的訂單
+     */
+    public Optional<Order> findById(Long orderId) {
+        return archivedOrderRepository.findById(orderId).map(ArchivedOrder::toOrder);
+    }
+
+    /**
+     * 以訂單的搜尋條件查詢已封存的訂單，依 OrderSearchPlanner.KEYSET_SORT 排序
+     *
+     * @param specification 訂單的搜尋條件（含 keyset 游標）
+     * @param limit 最多筆數
+     */
+    public List<Order> search(Specification<Order> specification, int limit) {
+        return archivedOrderRepository.findBy(OrderSpecifications.forArchive(specification),
+                query -> query.limit(limit).sortBy(OrderSearchPlanner.KEYSET_SORT).all())
+            .stream()
+            .map(ArchivedOrder::toOrder)
+            .toList();
+    }
+}
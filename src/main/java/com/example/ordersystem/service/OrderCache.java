@@ -0,0 +1,312 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.util.CircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 訂單讀取快取
+ * 讓頻繁輪詢的單筆訂單查詢與金額轉換不必每次查詢資料庫
+ *
+ * - L1：本節點記憶體，依最近使用順序淘汰（app.order-cache.max-size），每筆最多保留 app.order-cache.ttl
+ * - L2：Redis（app.order-cache.redis.enabled），以斷路器保護，故障時只使用 L1
+ *
+ * 一致性：
+ * - 更新、刪除訂單的交易提交後失效，提交前被其他請求讀回的舊值一併清除
+ * - 與 RateNearCache 相同以世代號避免「讀取途中發生失效」後仍寫入舊值
+ * - 啟用 L2 時，失效會透過 Redis 頻道 order:cache:invalidate 通知其他節點清除 L1
+ *   （訊息內容為訂單ID，批次失效時以逗號分隔）
+ * - L2 每筆訂單為一個 hash（v：可寫入的最低版本，d：訂單），寫入由 Lua 腳本比對 OrderView.version，
+ *   版本低於 v 時不寫入；失效時不直接刪除，而是留下只有 v 的墓碑（保留 app.order-cache.redis.tombstone-ttl）。
+ *   其他節點在失效通知送達前從資料庫讀到的舊值因此不會寫回 L2；
+ *   不帶版本的失效（如補寫台幣金額不會遞增版本）在墓碑保留期間拒絕所有寫入
+ */
+@Component
+public class OrderCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderCache.class);
+    private static final String REDIS_KEY_PREFIX = "order:view:";
+    public static final String INVALIDATION_CHANNEL = "order:cache:invalidate";
+    private static final String VERSION_FIELD = "v";
+    private static final String VIEW_FIELD = "d";
+
+    /** 不帶版本的失效：墓碑保留期間拒絕所有寫入（Lua 以 double 比較，使用 2^53） */
+    static final long ANY_VERSION = 1L << 53;
+
+    /** 每次失效腳本處理的訂單筆數上限 */
+    private static final int TOMBSTONE_BATCH_SIZE = 500;
+
+    /**
+     * 寫入 L2：版本不低於 v 時才寫入
+     * KEYS: 訂單；ARGV: 訂單, 版本, 保留毫秒數
+     */
+    static final DefaultRedisScript<Long> FILL_SCRIPT = new DefaultRedisScript<>(
+        "local floor = redis.call('HGET', KEYS[1], 'v') "
+            + "if floor and tonumber(ARGV[2]) < tonumber(floor) then return 0 end "
+            + "redis.call('HSET', KEYS[1], 'v', ARGV[2], 'd', ARGV[1]) "
+            + "redis.call('PEXPIRE', KEYS[1], ARGV[3]) "
+            + "return 1",
+        Long.class);
+
+    /**
+     * 失效：刪除訂單並留下墓碑，可寫入的最低版本不低於原本的 v
+     * KEYS: 訂單；ARGV: 各訂單可寫入的最低版本, 墓碑保留毫秒數
+     */
+    static final DefaultRedisScript<Long> TOMBSTONE_SCRIPT = new DefaultRedisScript<>(
+        "for i, key in ipairs(KEYS) do "
+            + "local floor = tonumber(ARGV[i]) "
+            + "local current = tonumber(redis.call('HGET', key, 'v') or '-1') "
+            + "if current > floor then floor = current end "
+            + "redis.call('DEL', key) "
+            + "redis.call('HSET', key, 'v', string.format('%d', floor)) "
+            + "redis.call('PEXPIRE', key, ARGV[#ARGV]) "
+            + "end return #KEYS",
+        Long.class);
+
+    @Autowired(required = false)
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${app.order-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.order-cache.max-size:10000}")
+    private int maxSize = 10_000;
+
+    @Value("${app.order-cache.ttl:PT30S}")
+    private Duration ttl = Duration.ofSeconds(30);
+
+    @Value("${app.order-cache.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${app.order-cache.redis.ttl:PT10M}")
+    private Duration redisTtl = Duration.ofMinutes(10);
+
+    /** 失效墓碑的保留時間，需大於其他節點從資料庫讀取到寫入 L2 的最長時間 */
+    @Value("${app.order-cache.redis.tombstone-ttl:PT30S}")
+    private Duration tombstoneTtl = Duration.ofSeconds(30);
+
+    private CircuitBreaker redisBreaker = new CircuitBreaker("order-cache-redis", 3, Duration.ofSeconds(30), Duration.ofMillis(200));
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    /**
+     * L1 中的一筆資料
+     */
+    private record Entry(OrderView view, long loadedAtNanos) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            logger.info("訂單讀取快取已啟用：L1 上限 {} 筆、保留 {}，Redis L2 {}", maxSize, ttl, redisEnabled ? "已啟用" : "未啟用");
+        }
+    }
+
+    /**
+     * 從 L1 或 L2 取得訂單
+     *
+     * @param orderId 訂單ID
+     * @return 訂單快取資料，未命中時返回 null
+     */
+    public OrderView get(Long orderId) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(orderId);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAtNanos() < ttl.toNanos()) {
+                    return entry.view();
+                }
+                entries.remove(orderId);
+            }
+        }
+        if (!isRedisUsable()) {
+            return null;
+        }
+        long expectedGeneration = generation.get();
+        try {
+            Object cached = redisBreaker.execute(() -> redisTemplate.opsForHash().get(REDIS_KEY_PREFIX + orderId, VIEW_FIELD));
+            if (cached instanceof OrderView view) {
+                putLocal(view, expectedGeneration);
+                return view;
+            }
+        } catch (Exception e) {
+            logger.debug("從 Redis 讀取訂單快取失敗 {}: {}", orderId, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 從資料庫讀取前呼叫，取得目前的世代號
+     */
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * 寫入 L1 與 L2；若讀取期間已有失效（世代號變更）則不寫入
+     * L2 另以版本比對：版本低於 L2 中的訂單或墓碑時不寫入
+     *
+     * @param view 從資料庫讀到的訂單
+     * @param expectedGeneration 讀取前取得的世代號
+     */
+    public void put(OrderView view, long expectedGeneration) {
+        if (!enabled || !putLocal(view, expectedGeneration) || !isRedisUsable() || view.getVersion() == null) {
+            return;
+        }
+        try {
+            Long written = redisBreaker.execute(() -> redisTemplate.execute(FILL_SCRIPT,
+                List.of(REDIS_KEY_PREFIX + view.getOrderId()), view, view.getVersion(), redisTtl.toMillis()));
+            if (written != null && written == 0L) {
+                logger.debug("訂單 {} 的版本 {} 較 Redis 中的舊，不寫入", view.getOrderId(), view.getVersion());
+            }
+        } catch (Exception e) {
+            logger.debug("寫入 Redis 訂單快取失敗 {}: {}", view.getOrderId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 訂單更新或刪除提交後使其失效（新增的訂單不在快取中）
+     * L2 墓碑的最低版本：更新為寫入後的版本，刪除為刪除前的版本 + 1
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.type() == OrderEventType.ORDER_CREATED) {
+            return;
+        }
+        Map<Long, Long> minVersions = new LinkedHashMap<>();
+        for (OrderChangedEvent.Change change : event.changes()) {
+            Long version = change.after() != null ? change.after().getVersion()
+                : change.before().getVersion() != null ? Long.valueOf(change.before().getVersion() + 1) : null;
+            minVersions.put(change.orderId(), version != null ? version : ANY_VERSION);
+        }
+        invalidate(minVersions);
+    }
+
+    /**
+     * 使訂單失效並通知其他節點（需在寫入提交之後呼叫）
+     * 不帶版本：L2 墓碑保留期間拒絕所有寫入
+     */
+    public void invalidateAll(Collection<Long> orderIds) {
+        Map<Long, Long> minVersions = new LinkedHashMap<>();
+        orderIds.forEach(orderId -> minVersions.put(orderId, ANY_VERSION));
+        invalidate(minVersions);
+    }
+
+    /**
+     * L2 以墓碑腳本、通知以一則訊息處理
+     *
+     * @param minVersions 訂單ID與 L2 之後可寫入的最低版本
+     */
+    private void invalidate(Map<Long, Long> minVersions) {
+        if (!enabled || minVersions.isEmpty()) {
+            return;
+        }
+        evictAll(minVersions);
+        publishInvalidation(minVersions.keySet().stream().map(String::valueOf).collect(Collectors.joining(",")));
+    }
+
+    /**
+     * 處理其他節點的失效通知，訊息內容為訂單ID（多筆以逗號分隔）
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8).replace("\"", "");
+        try {
+            for (String orderId : body.split(",")) {
+                evictLocal(Long.valueOf(orderId.trim()));
+            }
+        } catch (NumberFormatException e) {
+            // 無法辨識的訊息，保守起見全部失效
+            generation.incrementAndGet();
+            synchronized (entries) {
+                entries.clear();
+            }
+        }
+    }
+
+    private boolean putLocal(OrderView view, long expectedGeneration) {
+        synchronized (entries) {
+            if (generation.get() != expectedGeneration) {
+                return false;
+            }
+            entries.put(view.getOrderId(), new Entry(view, System.nanoTime()));
+            return true;
+        }
+    }
+
+    private void evictAll(Map<Long, Long> minVersions) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            minVersions.keySet().forEach(entries::remove);
+        }
+        if (!isRedisUsable()) {
+            return;
+        }
+        List<Map.Entry<Long, Long>> pending = List.copyOf(minVersions.entrySet());
+        for (int from = 0; from < pending.size(); from += TOMBSTONE_BATCH_SIZE) {
+            List<Map.Entry<Long, Long>> batch = pending.subList(from, Math.min(from + TOMBSTONE_BATCH_SIZE, pending.size()));
+            List<String> keys = batch.stream().map(entry -> REDIS_KEY_PREFIX + entry.getKey()).toList();
+            Object[] args = new Object[batch.size() + 1];
+            for (int i = 0; i < batch.size(); i++) {
+                args[i] = batch.get(i).getValue();
+            }
+            args[batch.size()] = tombstoneTtl.toMillis();
+            try {
+                redisBreaker.execute(() -> redisTemplate.execute(TOMBSTONE_SCRIPT, keys, args));
+            } catch (Exception e) {
+                // L2 最多保留 app.order-cache.redis.ttl
+                logger.warn("使 Redis 訂單快取失效失敗（{} 筆）: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void evictLocal(Long orderId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(orderId);
+        }
+    }
+
+    private void publishInvalidation(String message) {
+        if (!isRedisUsable()) {
+            return;
+        }
+        try {
+            redisBreaker.execute(() -> redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message));
+        } catch (Exception e) {
+            logger.warn("發送訂單快取失效通知失敗 {}: {}", message, e.getMessage());
+        }
+    }
+
+    private boolean isRedisUsable() {
+        return redisEnabled && redisTemplate != null;
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderChange;
+import com.example.ordersystem.dto.OrderChangeBatch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 訂單異動動態（GET /api/orders/changes）
+ * 以長輪詢取代前端重新載入整頁訂單來偵測狀態變更：用戶端帶著游標查詢，
+ * 有自己的訂單異動時立即回應，否則等待到有異動或逾時；等待與查詢都不存取資料庫
+ *
+ * 流程：
+ * - 訂單寫入的交易提交後處理 OrderChangedEvent 並發布
+ * - 啟用 Redis 時（app.order-feed.redis.enabled）以指令稿在同一個原子操作中 INCRBY 全叢集的序號
+ *   並發布到頻道 order:changes，所有節點（包含寫入的節點）都只由訂閱依序號加入各自的環狀緩衝區
+ *   （app.order-feed.capacity 筆），因此各節點的序號一致，游標可以在任一節點接續，不需要固定連到同一個節點
+ * - 未啟用 Redis 時（單一節點）直接以本節點的序號加入緩衝區
+ * - 游標為「代號-序號」；啟用 Redis 時代號存於 Redis，由所有節點共用（Redis 資料被清除時重新產生），
+ *   否則每次啟動時重新產生。代號不符、其後的異動已被覆蓋或遺失時回應 reset，用戶端重新載入列表後由新的游標繼續
+ * - 一般用戶只收到自己的訂單異動，管理員收到所有訂單的異動
+ *
+ * 遺失的通知不會補送：收到的序號不連續時，早於缺口的游標都回應 reset（用戶端重新載入列表時即為最新狀態）；
+ * Redis 無法連線時異動不會出現在動態中
+ */
+@Service
+public class OrderChangeFeed implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderChangeFeed.class);
+    public static final String CHANGED_CHANNEL = "order:changes";
+    private static final String SEQUENCE_KEY = "{order:changes}:seq";
+    private static final String EPOCH_KEY = "{order:changes}:epoch";
+
+    /**
+     * 取得全叢集的序號並發布；序號與發布順序一致，訂閱者依序收到
+     * KEYS: 序號, 代號；ARGV: 異動筆數, 頻道, 尚未有代號時使用的代號, 異動的 JSON 陣列
+     */
+    private static final DefaultRedisScript<Long> PUBLISH_SCRIPT = new DefaultRedisScript<>(
+        "local epoch = redis.call('GET', KEYS[2]) "
+            + "if not epoch then epoch = ARGV[3] redis.call('SET', KEYS[2], epoch) end "
+            + "local n = tonumber(ARGV[1]) "
+            + "local last = redis.call('INCRBY', KEYS[1], n) "
+            + "redis.call('PUBLISH', ARGV[2], '{\"epoch\":\"' .. epoch .. '\",\"seq\":' .. "
+            + "string.format('%d', last - n + 1) .. ',\"changes\":' .. ARGV[4] .. '}') "
+            + "return last",
+        Long.class);
+
+    /**
+     * 異動通知
+     *
+     * @param epoch 序號的代號
+     * @param seq 第一筆異動的序號，其後依序遞增
+     * @param changes 一次交易中的異動
+     */
+    private record ChangeMessage(String epoch, long seq, List<OrderChange> changes) {
+    }
+
+    /**
+     * 等待中的長輪詢
+     *
+     * @param username 只接收此用戶的訂單異動；null 表示所有訂單（管理員）
+     * @param after 已收到的最後一個序號
+     */
+    private record Waiter(String username, long after, DeferredResult<OrderChangeBatch> result) {
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${app.order-feed.redis.enabled:true}")
+    private boolean redisEnabled = true;
+
+    /** 緩衝區保留的異動筆數；用戶端落後超過此筆數時需重新載入列表 */
+    @Value("${app.order-feed.capacity:10000}")
+    private int capacity = 10000;
+
+    /** 長輪詢最長等待時間 */
+    @Value("${app.order-feed.max-wait:PT30S}")
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    /** 單次回應最多的訂單數，超過時回應 reset */
+    @Value("${app.order-feed.max-changes:500}")
+    private int maxChanges = 500;
+
+    private final Object lock = new Object();
+    // 以下由 lock 保護
+    private String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private OrderChange[] ring;
+    private long head;
+    /** 早於此序號的游標無法接續（啟動前或缺口前的異動） */
+    private long floor;
+    private final List<Waiter> waiters = new ArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        ring = new OrderChange[capacity];
+        if (isRedisEnabled()) {
+            // 由目前的序號開始，讓其他節點發出的游標可以直接接續
+            try {
+                String clusterEpoch = stringRedisTemplate.opsForValue().get(EPOCH_KEY);
+                String sequence = stringRedisTemplate.opsForValue().get(SEQUENCE_KEY);
+                synchronized (lock) {
+                    if (clusterEpoch != null) {
+                        epoch = clusterEpoch;
+                    }
+                    head = sequence != null ? Long.parseLong(sequence) : 0;
+                    floor = head;
+                }
+            } catch (Exception e) {
+                logger.warn("無法讀取訂單異動的序號，收到第一筆通知前的游標都會回應 reset: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        List<Runnable> completions = new ArrayList<>();
+        synchronized (lock) {
+            for (Waiter waiter : waiters) {
+                OrderChangeBatch batch = read(waiter.after(), waiter.username());
+                completions.add(() -> waiter.result().setResult(batch));
+            }
+            waiters.clear();
+        }
+        completions.forEach(Runnable::run);
+    }
+
+    /**
+     * 查詢游標之後的訂單異動
+     * 沒有游標時立即回應目前的游標；沒有異動時等待到有異動或 wait 逾時（最長 app.order-feed.max-wait）
+     *
+     * @param cursor 上一次回應的 cursor
+     * @param username 只查詢此用戶的訂單；null 表示所有訂單
+     * @param wait 沒有異動時的等待時間，0 表示立即回應
+     */
+    public DeferredResult<OrderChangeBatch> poll(String cursor, String username, Duration wait) {
+        Duration timeout = wait.compareTo(maxWait) > 0 ? maxWait : wait;
+        DeferredResult<OrderChangeBatch> result = new DeferredResult<>(Math.max(timeout.toMillis(), 1));
+        Waiter waiter;
+        synchronized (lock) {
+            Long after = parseCursor(cursor);
+            if (after == null) {
+                result.setResult(new OrderChangeBatch(currentCursor(), cursor != null && !cursor.isBlank(), List.of()));
+                return result;
+            }
+            OrderChangeBatch batch = read(after, username);
+            if (batch.isReset() || !batch.getChanges().isEmpty() || timeout.isZero() || timeout.isNegative()) {
+                result.setResult(batch);
+                return result;
+            }
+            waiter = new Waiter(username, after, result);
+            waiters.add(waiter);
+        }
+        result.onTimeout(() -> complete(waiter));
+        result.onCompletion(() -> {
+            synchronized (lock) {
+                waiters.remove(waiter);
+            }
+        });
+        return result;
+    }
+
+    /** 等待中的長輪詢數 */
+    public int getWaiterCount() {
+        synchronized (lock) {
+            return waiters.size();
+        }
+    }
+
+    /**
+     * 訂單寫入提交後加入異動
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        publish(event.changes().stream().map(change -> OrderChange.of(event.type(), change.current())).toList());
+    }
+
+    /**
+     * 啟用 Redis 時取得全叢集的序號並發布（由訂閱加入緩衝區），否則直接以本節點的序號加入
+     */
+    private void publish(List<OrderChange> changes) {
+        if (!isRedisEnabled()) {
+            List<Runnable> completions;
+            synchronized (lock) {
+                completions = append(epoch, head + 1, changes);
+            }
+            completions.forEach(Runnable::run);
+            return;
+        }
+        String fallbackEpoch;
+        synchronized (lock) {
+            fallbackEpoch = epoch;
+        }
+        try {
+            stringRedisTemplate.execute(PUBLISH_SCRIPT, List.of(SEQUENCE_KEY, EPOCH_KEY),
+                String.valueOf(changes.size()), CHANGED_CHANNEL, fallbackEpoch, objectMapper.writeValueAsString(changes));
+        } catch (Exception e) {
+            logger.warn("無法發布訂單異動，{} 筆異動不會出現在動態中: {}", changes.size(), e.getMessage());
+        }
+    }
+
+    private boolean isRedisEnabled() {
+        return redisEnabled && stringRedisTemplate != null;
+    }
+
+    /**
+     * 處理異動通知（包含本節點發出的），訊息內容為 ChangeMessage 的 JSON
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        ChangeMessage change;
+        try {
+            change = objectMapper.readValue(message.getBody(), ChangeMessage.class);
+        } catch (Exception e) {
+            logger.warn("無法解析訂單異動通知: {}", e.getMessage());
+            return;
+        }
+        List<Runnable> completions;
+        synchronized (lock) {
+            completions = append(change.epoch(), change.seq(), change.changes());
+        }
+        // 在 lock 外完成，避免在持有 lock 時分派非同步請求
+        completions.forEach(Runnable::run);
+    }
+
+    /**
+     * 依序號加入緩衝區（需持有 lock）
+     * 代號改變（Redis 資料被清除）或序號不連續（通知遺失）時，之前的游標都無法接續
+     *
+     * @return 回應有相關異動或已無法接續的長輪詢，由呼叫端在 lock 外執行
+     */
+    private List<Runnable> append(String changeEpoch, long seq, List<OrderChange> changes) {
+        boolean epochChanged = !changeEpoch.equals(epoch);
+        if (epochChanged) {
+            logger.info("訂單異動的代號由 {} 改為 {}，之前的游標都需要重新載入", epoch, changeEpoch);
+            epoch = changeEpoch;
+            head = seq - 1;
+            floor = head;
+        } else if (seq <= head) {
+            logger.warn("略過重複的訂單異動通知，序號 {}（目前為 {}）", seq, head);
+            return List.of();
+        } else if (seq > head + 1) {
+            logger.warn("訂單異動通知遺失，序號 {} 到 {}", head + 1, seq - 1);
+            head = seq - 1;
+            floor = head;
+        }
+        for (OrderChange change : changes) {
+            head++;
+            ring[(int) (head % capacity)] = change;
+        }
+        List<Runnable> completions = new ArrayList<>();
+        waiters.removeIf(waiter -> {
+            if (!epochChanged && waiter.after() >= floor
+                    && changes.stream().noneMatch(change -> matches(change, waiter.username()))) {
+                return false;
+            }
+            OrderChangeBatch batch = epochChanged
+                ? new OrderChangeBatch(currentCursor(), true, List.of())
+                : read(waiter.after(), waiter.username());
+            completions.add(() -> waiter.result().setResult(batch));
+            return true;
+        });
+        return completions;
+    }
+
+    /**
+     * 逾時：回應目前的游標（期間沒有相關異動）
+     */
+    private void complete(Waiter waiter) {
+        OrderChangeBatch batch;
+        synchronized (lock) {
+            if (!waiters.remove(waiter)) {
+                return;
+            }
+            batch = read(waiter.after(), waiter.username());
+        }
+        waiter.result().setResult(batch);
+    }
+
+    /**
+     * 讀取序號 after 之後的異動，同一筆訂單只保留最後一次（需持有 lock）
+     */
+    private OrderChangeBatch read(long after, String username) {
+        // 序號 after+1 之後的異動都還在緩衝區中才能接續
+        if (after < floor || after > head || after < head - capacity) {
+            return new OrderChangeBatch(currentCursor(), true, List.of());
+        }
+        Map<Long, OrderChange> changes = new LinkedHashMap<>();
+        for (long seq = after + 1; seq <= head; seq++) {
+            OrderChange change = ring[(int) (seq % capacity)];
+            if (matches(change, username)) {
+                changes.remove(change.getOrderId());
+                changes.put(change.getOrderId(), change);
+            }
+        }
+        if (changes.size() > maxChanges) {
+            return new OrderChangeBatch(currentCursor(), true, List.of());
+        }
+        return new OrderChangeBatch(currentCursor(), false, List.copyOf(changes.values()));
+    }
+
+    private static boolean matches(OrderChange change, String username) {
+        return username == null || username.equals(change.getUsername());
+    }
+
+    private String currentCursor() {
+        return epoch + "-" + head;
+    }
+
+    /**
+     * @return 游標的序號；沒有游標、格式不符或代號不符時為 null
+     */
+    private Long parseCursor(String cursor) {
+        if (cursor == null || !cursor.startsWith(epoch + "-")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
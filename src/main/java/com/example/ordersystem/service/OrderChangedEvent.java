@@ -0,0 +1,79 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.model.OrderStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 訂單寫入事件，由 OrderService 與 OrderIngestionService 在寫入訂單的交易中發布
+ * OrderRollupRecorder 與 OrderOutbox 以 @EventListener 在同一個交易中處理，與訂單一起提交或回滾；
+ * 計數器、分析快照、異動串流、快取與 ReadYourWritesGuard 以 @TransactionalEventListener 在提交後處理
+ *
+ * @param type 異動類型（批次變更狀態為 ORDER_UPDATED）
+ * @param changes 每筆訂單寫入前後的內容
+ */
+public record OrderChangedEvent(OrderEventType type, List<Change> changes) {
+
+    /**
+     * 單筆訂單寫入前後的內容；新增時 before 為 null，刪除時 after 為 null
+     */
+    public record Change(OrderView before, OrderView after) {
+
+        public Long orderId() {
+            return current().getOrderId();
+        }
+
+        /** 寫入後的訂單；刪除時為刪除前的訂單 */
+        public OrderView current() {
+            return after != null ? after : before;
+        }
+
+        public OrderStatus beforeStatus() {
+            return before != null ? before.getStatus() : null;
+        }
+
+        public OrderStatus afterStatus() {
+            return after != null ? after.getStatus() : null;
+        }
+    }
+
+    /**
+     * 新增訂單（需在 flush 之後建立，事件帶有寫入後的 VERSION 與 UPDATED_AT）
+     */
+    public static OrderChangedEvent created(Order order) {
+        return created(List.of(OrderView.from(order)));
+    }
+
+    /**
+     * 批次新增的訂單
+     */
+    public static OrderChangedEvent created(Collection<OrderView> orders) {
+        return new OrderChangedEvent(OrderEventType.ORDER_CREATED,
+            orders.stream().map(order -> new Change(null, order)).toList());
+    }
+
+    /**
+     * 更新訂單（需在 flush 之後建立）
+     *
+     * @param before 修改前由實體建立的內容
+     * @param order 寫入後的訂單
+     */
+    public static OrderChangedEvent updated(OrderView before, Order order) {
+        return new OrderChangedEvent(OrderEventType.ORDER_UPDATED, List.of(new Change(before, OrderView.from(order))));
+    }
+
+    /**
+     * 刪除訂單
+     */
+    public static OrderChangedEvent deleted(Order order) {
+        return new OrderChangedEvent(OrderEventType.ORDER_DELETED, List.of(new Change(OrderView.from(order), null)));
+    }
+
+    public List<Long> orderIds() {
+        return changes.stream().map(Change::orderId).toList();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderEvent;
+import com.example.ordersystem.dto.OrderEventBatch;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 訂單異動事件的發布目的地（事件串流）與消費位置
+ * 依 app.order-outbox.sink.type 選擇實作：redis（Redis Streams，預設）或 memory（單一 JVM，測試用）
+ *
+ * 位置（offset）為不透明的字串，只能由 {@link #read} 返回的事件取得；
+ * 消費者處理完一批事件後提交最後一筆的位置，重啟後由提交的位置之後繼續讀取（至少一次）
+ */
+public interface OrderEventSink {
+
+    /**
+     * 依序附加一批事件；正常返回時事件已寫入串流，拋出例外時可能已寫入部分事件（由 relay 重送）
+     */
+    void publish(List<OrderEvent> events);
+
+    /**
+     * 讀取位置之後的事件
+     *
+     * @param afterOffset 起始位置（不含），null 表示由串流保留的第一筆開始
+     * @param limit 最多筆數
+     * @return 依序排列、帶有位置的事件；起始位置之後的事件已被裁剪時 gap 為 true，由保留的第一筆開始
+     */
+    OrderEventBatch read(String afterOffset, int limit);
+
+    /**
+     * 消費者已提交的位置
+     */
+    Optional<String> committedOffset(String consumer);
+
+    /**
+     * 提交消費者的位置
+     */
+    void commitOffset(String consumer, String offset);
+}
@@ -0,0 +1,85 @@
+package com.example.ordersystem.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.OracleDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 訂單ID配置器
+ * 一次向 ORDER_SEQ 取得一批序號保存在記憶體中，非同步接收訂單時不必每筆都取用資料庫連線
+ *
+ * - Oracle：以單一查詢（CONNECT BY LEVEL）取得整批序號
+ * - 其他資料庫（測試用 H2）：在同一條連線上逐筆取得
+ *
+ * 程序重啟時記憶體中未使用的序號會被跳過，訂單ID因此可能不連續
+ */
+@Component
+public class OrderIdAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIdAllocator.class);
+    private static final String SEQUENCE_NAME = "ORDER_SEQ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.order-ingestion.id-block-size:50}")
+    private int blockSize = 50;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Long> available = new ArrayDeque<>();
+
+    /**
+     * 取得下一個訂單ID
+     */
+    public long next() {
+        lock.lock();
+        try {
+            if (available.isEmpty()) {
+                available.addAll(fetchBlock());
+                logger.debug("已取得 {} 個訂單ID", available.size());
+            }
+            return available.poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Long> fetchBlock() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        if (dialect instanceof OracleDialect) {
+            return jdbcTemplate.queryForList(
+                "SELECT " + SEQUENCE_NAME + ".NEXTVAL FROM DUAL CONNECT BY LEVEL <= ?", Long.class, blockSize);
+        }
+        String sql = dialect.getSequenceSupport().getSequenceNextValString(SEQUENCE_NAME);
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            List<Long> ids = new ArrayList<>(blockSize);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < blockSize; i++) {
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        resultSet.next();
+                        ids.add(resultSet.getLong(1));
+                    }
+                }
+            }
+            return ids;
+        });
+    }
+}
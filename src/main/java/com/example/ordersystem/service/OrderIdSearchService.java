@@ -0,0 +1,232 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderIdSearchResult;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.repository.OrderRepository;
+import com.example.ordersystem.util.OrderIdBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 訂單ID漸進式搜尋
+ * 搜尋框輸入從 "12" 延伸為 "123" 時，"123" 的結果必為 "12" 的子集；
+ * 伺服器以搜尋工作階段保存符合目前搜尋字串的訂單ID集合（OrderIdBitmap），延伸時在記憶體中過濾，
+ * 每次只依主鍵讀取要顯示的那一頁訂單
+ *
+ * - 第一次搜尋（或搜尋字串不是上次的延伸）時，以 IDX_ORDERS_ORDER_ID_STR 只讀取符合的訂單ID
+ * - 結果依訂單ID降序（訂單ID由序號配置，大致等於建立順序，但不保證與建立時間的順序相同）；
+ *   搜尋字串即為某筆訂單的ID時只返回該筆
+ * - 搜尋字串短於 app.order-id-search.min-term-length（1、2 位數幾乎符合所有訂單）時不讀取訂單ID，
+ *   直接使用 OrderService 的分頁搜尋
+ * - 工作階段保存在本節點記憶體，閒置 app.order-id-search.session-ttl 後失效，最多保留
+ *   app.order-id-search.max-sessions 個；未知或已失效的工作階段視為新的搜尋
+ * - 符合的訂單超過 app.order-id-search.max-candidates 筆時不建立工作階段，
+ *   改用 OrderService 的分頁搜尋（依建立時間降序）；讀取最多 max-candidates + 1 筆後即停止
+ * - 工作階段建立後新增的訂單不會出現在該工作階段中；已刪除的訂單在讀取該頁時略過
+ */
+@Service
+public class OrderIdSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIdSearchService.class);
+
+    private static final String CANDIDATES_SQL =
+        "SELECT ORDER_ID FROM ORDERS WHERE TO_CHAR(ORDER_ID) LIKE ? FETCH FIRST ? ROWS ONLY";
+
+    private static final String CANDIDATES_BY_USERNAME_SQL =
+        "SELECT ORDER_ID FROM ORDERS WHERE TO_CHAR(ORDER_ID) LIKE ? AND USERNAME = ? FETCH FIRST ? ROWS ONLY";
+
+    /** 讀取訂單ID時每次取回的筆數（Oracle 驅動預設為 10 筆） */
+    static final int CANDIDATE_FETCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${app.order-id-search.session-ttl:PT2M}")
+    private Duration sessionTtl = Duration.ofMinutes(2);
+
+    @Value("${app.order-id-search.max-sessions:1000}")
+    private int maxSessions = 1000;
+
+    @Value("${app.order-id-search.min-term-length:3}")
+    private int minTermLength = 3;
+
+    @Value("${app.order-id-search.max-candidates:50000}")
+    private int maxCandidates = 50_000;
+
+    private final Map<String, Session> sessions = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+            return size() > maxSessions;
+        }
+    };
+
+    /**
+     * 搜尋工作階段
+     *
+     * @param owner 建立者（登入使用者），其他使用者帶入相同的 token 時視為新的搜尋
+     * @param username 搜尋範圍，null 表示所有使用者
+     * @param term 目前的搜尋字串
+     * @param candidates 符合目前搜尋字串的訂單ID
+     */
+    private record Session(String owner, String username, String term, OrderIdBitmap candidates, long touchedAtNanos) {
+    }
+
+    /**
+     * 搜尋訂單ID包含搜尋字串的訂單
+     *
+     * @param term 搜尋字串
+     * @param sessionToken 上一次搜尋返回的工作階段，可為 null
+     * @param owner 目前登入的使用者
+     * @param username 搜尋範圍，null 表示所有使用者
+     * @param page 頁碼（從 0 開始）
+     * @param size 每頁筆數
+     * @return 一頁的訂單與工作階段
+     * @throws BadRequestException 如果搜尋字串為空
+     */
+    @Transactional(readOnly = true)
+    public OrderIdSearchResult search(String term, String sessionToken, String owner, String username, int page, int size) {
+        String normalized = term == null ? "" : term.trim();
+        if (normalized.isEmpty()) {
+            throw new BadRequestException("搜尋字串不能為空");
+        }
+
+        Session previous = sessionToken == null ? null : findSession(sessionToken, owner, username);
+        OrderIdBitmap candidates;
+        String token;
+        if (previous != null && normalized.contains(previous.term())) {
+            // 延伸的搜尋字串：結果必為上次結果的子集
+            candidates = normalized.equals(previous.term())
+                ? previous.candidates()
+                : previous.candidates().filter(id -> Long.toString(id).contains(normalized));
+            token = sessionToken;
+        } else {
+            candidates = normalized.length() < minTermLength ? null : loadCandidates(normalized, username);
+            if (candidates == null) {
+                PageRequest pageable = PageRequest.of(page, size);
+                Page<Order> fallback = username == null
+                    ? orderService.searchOrdersByOrderId(normalized, pageable)
+                    : orderService.searchOrdersByOrderIdAndUsername(normalized, username, pageable);
+                return new OrderIdSearchResult(null, fallback.getContent(), page, size, fallback.getTotalElements());
+            }
+            token = UUID.randomUUID().toString();
+        }
+        synchronized (sessions) {
+            sessions.put(token, new Session(owner, username, normalized, candidates, System.nanoTime()));
+        }
+
+        long[] ids;
+        long total;
+        Long exactId = parseOrderId(normalized);
+        if (exactId != null && candidates.contains(exactId)) {
+            ids = page == 0 ? new long[] {exactId} : new long[0];
+            total = 1;
+        } else {
+            ids = candidates.descending((long) page * size, size);
+            total = candidates.cardinality();
+        }
+        return new OrderIdSearchResult(token, loadOrders(ids), page, size, total);
+    }
+
+    private Session findSession(String token, String owner, String username) {
+        synchronized (sessions) {
+            Session session = sessions.get(token);
+            if (session == null) {
+                return null;
+            }
+            if (System.nanoTime() - session.touchedAtNanos() >= sessionTtl.toNanos()) {
+                sessions.remove(token);
+                return null;
+            }
+            if (!session.owner().equals(owner) || !Objects.equals(session.username(), username)) {
+                return null;
+            }
+            return session;
+        }
+    }
+
+    /**
+     * 讀取訂單ID包含搜尋字串的所有訂單ID
+     *
+     * @return 訂單ID集合；搜尋字串太短或超過 max-candidates 筆時返回 null
+     */
+    private OrderIdBitmap loadCandidates(String term, String username) {
+        if (!term.chars().allMatch(Character::isDigit)) {
+            // 訂單ID只由數字組成
+            return OrderIdBitmap.EMPTY;
+        }
+        long[][] buffer = {new long[1024]};
+        int[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                username == null ? CANDIDATES_SQL : CANDIDATES_BY_USERNAME_SQL);
+            statement.setFetchSize(CANDIDATE_FETCH_SIZE);
+            int index = 1;
+            statement.setString(index++, "%" + term + "%");
+            if (username != null) {
+                statement.setString(index++, username);
+            }
+            statement.setInt(index, maxCandidates + 1);
+            return statement;
+        }, rs -> {
+            if (count[0] == buffer[0].length) {
+                buffer[0] = Arrays.copyOf(buffer[0], buffer[0].length * 2);
+            }
+            buffer[0][count[0]++] = rs.getLong(1);
+        });
+        if (count[0] > maxCandidates) {
+            logger.debug("訂單ID搜尋 \"{}\" 符合超過 {} 筆，不建立搜尋工作階段", term, maxCandidates);
+            return null;
+        }
+        OrderIdBitmap candidates = OrderIdBitmap.of(Arrays.copyOf(buffer[0], count[0]));
+        logger.debug("訂單ID搜尋 \"{}\" 建立工作階段：{} 筆，約 {} bytes", term, candidates.cardinality(), candidates.sizeInBytes());
+        return candidates;
+    }
+
+    /**
+     * 依主鍵讀取訂單，保持傳入的順序；已刪除的訂單略過
+     */
+    private List<Order> loadOrders(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        List<Long> orderIds = Arrays.stream(ids).boxed().toList();
+        Map<Long, Order> found = orderRepository.findAllById(orderIds).stream()
+            .collect(Collectors.toMap(Order::getOrderId, Function.identity()));
+        return orderIds.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * 搜尋字串為完整的訂單ID（不含前導 0 的數字）時返回該ID
+     */
+    private static Long parseOrderId(String term) {
+        if (term.startsWith("0") || term.length() > 18 || !term.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            return null;
+        }
+        return Long.valueOf(term);
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.exception.ServiceUnavailableException;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.util.OrderJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 非同步訂單接收服務（write-behind）
+ * 啟用 app.order-ingestion.mode=async 時，新訂單在驗證、配置ID並寫入本機日誌後即回應，
+ * 由背景工作批次寫入 ORDERS，尖峰時不必每筆訂單都佔用一條資料庫連線等待提交
+ *
+ * 流程：
+ * - submit：OrderIdAllocator 配置ID → OrderJournal 寫入 → 加入待寫入佇列
+ * - flushPending：每 app.order-ingestion.flush-interval 依序取出最多 batch-size 筆，以單一交易批次 INSERT
+ *   （同一個交易中發布 OrderChangedEvent），提交後才更新日誌 checkpoint；
+ *   寫入一律使用獨立的交易（REQUIRES_NEW），更新/刪除訂單前的 ensureFlushed 在呼叫端的交易中執行時，
+ *   呼叫端之後回滾也不會帶走已回應 202 的訂單
+ * - 批次寫入失敗時改為逐筆寫入：重複的訂單ID略過；資料庫無法使用時停止並稍後重試；
+ *   其他原因無法寫入的訂單移到日誌目錄的 quarantine.jsonl 並記錄錯誤，不會讓後續的訂單一直卡住
+ * - 寫入資料庫前，單筆查詢由 findPending 從記憶體回應（read-your-writes）
+ * - 重啟時由日誌讀回尚未寫入的訂單；重複的訂單ID（已寫入但 checkpoint 未更新）會被略過
+ *
+ * 待寫入筆數達到 app.order-ingestion.max-pending 時 submit 返回 null，由呼叫端改走同步寫入
+ */
+@Service
+public class OrderIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIngestionService.class);
+    private static final String INSERT_SQL =
+        "INSERT INTO ORDERS (ORDER_ID, USERNAME, AMOUNT, CURRENCY, STATUS, DISCOUNT, FINAL_AMOUNT, "
+            + "FINAL_AMOUNT_TWD, TWD_RATE_VERSION, CREATED_AT, UPDATED_AT, VERSION) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String QUARANTINE_FILE = "quarantine.jsonl";
+
+    @Autowired
+    private OrderIdAllocator orderIdAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private OrderCache orderCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.order-ingestion.mode:sync}")
+    private String mode = "sync";
+
+    @Value("${app.order-ingestion.journal.dir:./data/order-journal}")
+    private String journalDirectory = "./data/order-journal";
+
+    @Value("${app.order-ingestion.journal.segment-size:67108864}")
+    private int segmentSize = 64 * 1024 * 1024;
+
+    @Value("${app.order-ingestion.journal.force-on-append:true}")
+    private boolean forceOnAppend = true;
+
+    @Value("${app.order-ingestion.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${app.order-ingestion.flush-interval:PT0.2S}")
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    @Value("${app.order-ingestion.max-pending:10000}")
+    private int maxPending = 10_000;
+
+    /**
+     * 待寫入的訂單與其在日誌中的位置
+     */
+    private record PendingOrder(OrderView order, OrderJournal.Position position) {
+    }
+
+    /**
+     * 寫入結果
+     *
+     * @param completed 批次開頭已處理完成（新增、已存在而略過或隔離）的筆數
+     * @param inserted 實際新增的訂單
+     */
+    private record InsertResult(int completed, List<OrderView> inserted) {
+    }
+
+    private OrderJournal journal;
+    private ScheduledFuture<?> flushTask;
+    private TransactionTemplate transactionTemplate;
+
+    // 寫入日誌與加入佇列必須同順序，checkpoint 才能依佇列順序前進
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ConcurrentLinkedQueue<PendingOrder> queue = new ConcurrentLinkedQueue<>();
+    private final Map<Long, OrderView> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 開啟日誌、讀回未完成的訂單並啟動背景寫入
+     */
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        journal = new OrderJournal(Path.of(journalDirectory), segmentSize, forceOnAppend);
+        for (OrderJournal.Entry entry : journal.open()) {
+            queue.add(new PendingOrder(entry.order(), entry.position()));
+            pending.put(entry.order().getOrderId(), entry.order());
+        }
+        flushTask = taskScheduler.scheduleWithFixedDelay(this::flushPending, flushInterval);
+        logger.info("已啟用非同步訂單接收，日誌目錄: {}，批次大小: {}", Path.of(journalDirectory).toAbsolutePath(), batchSize);
+    }
+
+    /**
+     * 關閉時寫入剩餘的訂單；寫入失敗的訂單保留在日誌中，下次啟動時再寫入
+     */
+    @PreDestroy
+    public void stop() {
+        if (journal == null) {
+            return;
+        }
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        flushPending();
+        journal.close();
+        journal = null;
+        logger.info("非同步訂單接收已停止，剩餘 {} 筆待寫入訂單保留在日誌中", queue.size());
+    }
+
+    public boolean isEnabled() {
+        return "async".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * 接收訂單：配置ID並寫入日誌
+     *
+     * @param order 已驗證且已計算最終金額的訂單
+     * @return 含訂單ID的訂單資料；未啟用或待寫入筆數已滿時返回 null
+     */
+    public OrderView submit(Order order) {
+        if (journal == null || pending.size() >= maxPending) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        order.setOrderId(orderIdAllocator.next());
+        order.setCreatedAt(now);
+        order.setUpdatedAt(now);
+        order.setVersion(0L);
+        OrderView view = OrderView.from(order);
+
+        appendLock.lock();
+        try {
+            OrderJournal.Position position = journal.append(view);
+            pending.put(view.getOrderId(), view);
+            queue.add(new PendingOrder(view, position));
+        } finally {
+            appendLock.unlock();
+        }
+        return view;
+    }
+
+    /**
+     * 取得尚未寫入資料庫的訂單
+     *
+     * @param orderId 訂單ID
+     * @return 待寫入的訂單，已寫入或不存在時返回 null
+     */
+    public OrderView findPending(Long orderId) {
+        return pending.isEmpty() ? null : pending.get(orderId);
+    }
+
+    /**
+     * 如果訂單仍待寫入，立即寫入資料庫（更新、刪除訂單前呼叫）
+     *
+     * @throws ServiceUnavailableException 如果訂單仍無法寫入資料庫（可稍後重試）
+     */
+    public void ensureFlushed(Long orderId) {
+        if (pending.containsKey(orderId)) {
+            flushPending();
+            if (pending.containsKey(orderId)) {
+                throw new ServiceUnavailableException("訂單 " + orderId + " 尚未寫入資料庫，請稍後再試", 5);
+            }
+        }
+    }
+
+    /**
+     * 將佇列中的訂單批次寫入資料庫，直到佇列清空或寫入失敗
+     */
+    public void flushPending() {
+        if (journal == null) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            while (!queue.isEmpty()) {
+                List<PendingOrder> batch = new ArrayList<>(batchSize);
+                Iterator<PendingOrder> iterator = queue.iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    batch.add(iterator.next());
+                }
+                InsertResult result = insertBatch(batch);
+                // 以下都在寫入的交易提交之後
+                Set<Long> inserted = new HashSet<>();
+                result.inserted().forEach(order -> inserted.add(order.getOrderId()));
+                long generation = orderCache.currentGeneration();
+                for (PendingOrder entry : batch.subList(0, result.completed())) {
+                    queue.poll();
+                    // 先放入訂單快取再移除，讀取端不會在兩者之間查不到；隔離的訂單不放入快取
+                    if (inserted.contains(entry.order().getOrderId())) {
+                        orderCache.put(entry.order(), generation);
+                    }
+                    pending.remove(entry.order().getOrderId());
+                }
+                if (result.completed() > 0) {
+                    journal.checkpoint(batch.get(result.completed() - 1).position());
+                    logger.debug("已批次寫入 {} 筆訂單", result.completed());
+                }
+                if (result.completed() < batch.size()) {
+                    // 資料庫無法使用，剩餘的訂單留在佇列中稍後重試
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 以單一交易寫入整批；失敗時改為逐筆寫入
+     */
+    private InsertResult insertBatch(List<PendingOrder> batch) {
+        List<OrderView> orders = batch.stream().map(PendingOrder::order).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, orders.stream().map(OrderIngestionService::toParameters).toList());
+                eventPublisher.publishEvent(OrderChangedEvent.created(orders));
+            });
+            return new InsertResult(orders.size(), orders);
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                logger.error("批次寫入 {} 筆訂單失敗，稍後重試: {}", batch.size(), e.getMessage());
+                return new InsertResult(0, List.of());
+            }
+            // 重啟後重新寫入已寫入過的訂單（checkpoint 未更新），或批次中有無法寫入的訂單
+            return insertEach(orders);
+        }
+    }
+
+    /**
+     * 逐筆寫入：略過已存在的訂單、隔離無法寫入的訂單；資料庫無法使用時停止
+     */
+    private InsertResult insertEach(List<OrderView> orders) {
+        List<OrderView> inserted = new ArrayList<>();
+        int completed = 0;
+        for (OrderView order : orders) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update(INSERT_SQL, toParameters(order));
+                    eventPublisher.publishEvent(OrderChangedEvent.created(List.of(order)));
+                });
+                inserted.add(order);
+            } catch (DuplicateKeyException duplicate) {
+                logger.info("訂單 {} 已存在，略過", order.getOrderId());
+            } catch (RuntimeException e) {
+                if (isUnavailable(e) || !quarantine(order, e)) {
+                    logger.error("寫入訂單 {} 失敗，稍後重試: {}", order.getOrderId(), e.getMessage());
+                    break;
+                }
+            }
+            completed++;
+        }
+        return new InsertResult(completed, inserted);
+    }
+
+    /**
+     * 資料庫暫時無法使用（連線、交易或暫時性錯誤），重試可能成功
+     */
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+            || e instanceof RecoverableDataAccessException
+            || e instanceof DataAccessResourceFailureException
+            || e instanceof TransactionException;
+    }
+
+    /**
+     * 將無法寫入的訂單附加到日誌目錄的 quarantine.jsonl，供人工處理
+     *
+     * @return 是否已保存；無法保存時訂單留在佇列中
+     */
+    private boolean quarantine(OrderView order, RuntimeException cause) {
+        try {
+            Files.writeString(Path.of(journalDirectory, QUARANTINE_FILE),
+                OrderOutbox.JSON.writeValueAsString(order) + System.lineSeparator(),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.error("無法隔離訂單 {}: {}", order.getOrderId(), e.getMessage());
+            return false;
+        }
+        logger.error("訂單 {} 無法寫入資料庫，已移到 {}: {}", order.getOrderId(), QUARANTINE_FILE, cause.getMessage());
+        return true;
+    }
+
+    private static Object[] toParameters(OrderView order) {
+        return new Object[] {
+            order.getOrderId(),
+            order.getUsername(),
+            order.getAmount(),
+            order.getCurrency().name(),
+            order.getStatus() != null ? order.getStatus().name() : null,
+            order.getDiscount(),
+            order.getFinalAmount(),
+            order.getFinalAmountTwd(),
+            order.getTwdRateVersion() != null ? Timestamp.valueOf(order.getTwdRateVersion()) : null,
+            order.getCreatedAt() != null ? Timestamp.valueOf(order.getCreatedAt()) : null,
+            order.getUpdatedAt() != null ? Timestamp.valueOf(order.getUpdatedAt()) : null
+        };
+    }
+}
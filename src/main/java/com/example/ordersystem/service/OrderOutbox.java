@@ -0,0 +1,80 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderEvent;
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.model.OrderOutboxEvent;
+import com.example.ordersystem.repository.OrderOutboxRepository;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 訂單異動事件的 transactional outbox
+ * 訂單寫入時在同一個交易中處理 OrderChangedEvent，新增 ORDER_OUTBOX 列，事件與訂單異動一起提交或一起回滾，
+ * 不會有「訂單已寫入但事件遺失」或「事件已發出但訂單回滾」的情況；
+ * 由 OrderOutboxRelay 批次發布到 OrderEventSink，其他服務改為讀取事件串流，不必輪詢訂單 API
+ */
+@Component
+public class OrderOutbox {
+
+    /**
+     * 訂單內容與事件的 JSON 格式：直接對應欄位（OrderView、OrderEvent 沒有 setter），日期為 ISO 字串；
+     * outbox 的 PAYLOAD 與 Redis 串流共用
+     */
+    static final ObjectMapper JSON = new ObjectMapper()
+        .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    /**
+     * 記錄訂單寫入事件（在寫入訂單的交易中發布），事件內容為寫入後的訂單；刪除時為刪除前的訂單
+     */
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        orderOutboxRepository.saveAll(event.changes().stream()
+            .map(change -> toOutboxEvent(event.type(), change.current()))
+            .toList());
+    }
+
+    /**
+     * 將 outbox 列轉為要發布的事件
+     */
+    public static OrderEvent toEvent(long eventId, OrderEventType type, long orderId, String username, Long orderVersion,
+                                     LocalDateTime occurredAt, String payload) {
+        try {
+            return new OrderEvent(eventId, type, orderId, username, orderVersion, occurredAt,
+                JSON.readValue(payload, OrderView.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("無法解析訂單異動事件 " + eventId + " 的內容", e);
+        }
+    }
+
+    private static OrderOutboxEvent toOutboxEvent(OrderEventType type, OrderView order) {
+        Long version = order.getVersion();
+        if (version == null && type == OrderEventType.ORDER_CREATED) {
+            // 非同步接收的訂單由資料庫預設值設定 VERSION
+            version = 0L;
+        }
+        try {
+            return new OrderOutboxEvent(type, order.getOrderId(), order.getUsername(), version,
+                JSON.writeValueAsString(order), LocalDateTime.now());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("無法序列化訂單 " + order.getOrderId(), e);
+        }
+    }
+}
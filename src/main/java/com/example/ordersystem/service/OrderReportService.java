@@ -0,0 +1,137 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderReportCriteria;
+import com.example.ordersystem.dto.OrderReportRow;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 訂單每日報表
+ * 只讀取每日彙總（ORDER_DAILY_ROLLUP）與尚未壓縮的增量（ORDER_ROLLUP_DELTA），不掃描 ORDERS；
+ * 兩者以 UNION ALL 合併後依分組欄位加總，結果與壓縮與否無關
+ *
+ * 唯讀交易，啟用讀寫分離時導向備庫
+ */
+@Service
+public class OrderReportService {
+
+    private static final String COLUMNS =
+        "ORDER_DATE, CURRENCY, STATUS, USERNAME, ORDER_COUNT, TOTAL_AMOUNT, TOTAL_FINAL_AMOUNT, TOTAL_DISCOUNT";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /** 單次查詢的日期範圍上限（天） */
+    @Value("${app.reports.max-days:366}")
+    private int maxDays = 366;
+
+    /** 單次查詢的結果列數上限 */
+    @Value("${app.reports.max-rows:10000}")
+    private int maxRows = 10000;
+
+    /**
+     * 依條件查詢訂單每日報表，依分組欄位排序
+     *
+     * @param criteria 報表條件
+     * @return 報表列；範圍內沒有訂單時為空列表
+     * @throws BadRequestException 如果起日晚於迄日、日期範圍超過上限，或結果超過列數上限
+     */
+    @Transactional(readOnly = true)
+    public List<OrderReportRow> dailyOrders(OrderReportCriteria criteria) {
+        if (criteria.getFrom().isAfter(criteria.getTo())) {
+            throw new BadRequestException("起日不能晚於迄日");
+        }
+        if (ChronoUnit.DAYS.between(criteria.getFrom(), criteria.getTo()) >= maxDays) {
+            throw new BadRequestException("日期範圍最多 " + maxDays + " 天");
+        }
+        Set<OrderReportCriteria.Dimension> groupBy = criteria.getGroupBy() == null || criteria.getGroupBy().isEmpty()
+            ? EnumSet.noneOf(OrderReportCriteria.Dimension.class)
+            : EnumSet.copyOf(criteria.getGroupBy());
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("from", Date.valueOf(criteria.getFrom()))
+            .addValue("to", Date.valueOf(criteria.getTo()))
+            .addValue("limit", maxRows + 1);
+        StringBuilder where = new StringBuilder("ORDER_DATE BETWEEN :from AND :to");
+        if (criteria.getCurrency() != null) {
+            where.append(" AND CURRENCY = :currency");
+            params.addValue("currency", criteria.getCurrency().name());
+        }
+        if (criteria.getStatus() != null) {
+            where.append(" AND STATUS = :status");
+            params.addValue("status", criteria.getStatus().name());
+        }
+        if (criteria.getUsername() != null && !criteria.getUsername().isBlank()) {
+            where.append(" AND USERNAME = :username");
+            params.addValue("username", criteria.getUsername().trim());
+        }
+
+        String dimensions = groupBy.stream().map(OrderReportService::columnOf).collect(Collectors.joining(", "));
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (!groupBy.isEmpty()) {
+            sql.append(dimensions).append(", ");
+        }
+        sql.append("SUM(ORDER_COUNT) AS ORDER_COUNT, SUM(TOTAL_AMOUNT) AS TOTAL_AMOUNT, ")
+            .append("SUM(TOTAL_FINAL_AMOUNT) AS TOTAL_FINAL_AMOUNT, SUM(TOTAL_DISCOUNT) AS TOTAL_DISCOUNT ")
+            .append("FROM (SELECT ").append(COLUMNS).append(" FROM ORDER_DAILY_ROLLUP WHERE ").append(where)
+            .append(" UNION ALL SELECT ").append(COLUMNS).append(" FROM ORDER_ROLLUP_DELTA WHERE ").append(where)
+            .append(") t ");
+        if (!groupBy.isEmpty()) {
+            sql.append("GROUP BY ").append(dimensions).append(' ');
+        }
+        sql.append("HAVING SUM(ORDER_COUNT) <> 0 ");
+        if (!groupBy.isEmpty()) {
+            sql.append("ORDER BY ").append(dimensions).append(' ');
+        }
+        sql.append("FETCH FIRST :limit ROWS ONLY");
+
+        List<OrderReportRow> rows = new ArrayList<>(namedParameterJdbcTemplate.query(sql.toString(), params,
+            (rs, rowNum) -> toRow(rs, groupBy)));
+        if (rows.size() > maxRows) {
+            throw new BadRequestException("報表超過 " + maxRows + " 列，請縮小日期範圍或減少分組欄位");
+        }
+        return rows;
+    }
+
+    private static String columnOf(OrderReportCriteria.Dimension dimension) {
+        return switch (dimension) {
+            case DATE -> "ORDER_DATE";
+            case CURRENCY -> "CURRENCY";
+            case STATUS -> "STATUS";
+            case USERNAME -> "USERNAME";
+        };
+    }
+
+    private static OrderReportRow toRow(ResultSet rs, Set<OrderReportCriteria.Dimension> groupBy) throws SQLException {
+        long orderCount = rs.getLong("ORDER_COUNT");
+        BigDecimal totalDiscount = rs.getBigDecimal("TOTAL_DISCOUNT");
+        return new OrderReportRow(
+            groupBy.contains(OrderReportCriteria.Dimension.DATE) ? rs.getDate("ORDER_DATE").toLocalDate() : null,
+            groupBy.contains(OrderReportCriteria.Dimension.CURRENCY) ? CurrencyCode.valueOf(rs.getString("CURRENCY")) : null,
+            groupBy.contains(OrderReportCriteria.Dimension.STATUS) ? OrderStatus.valueOf(rs.getString("STATUS")) : null,
+            groupBy.contains(OrderReportCriteria.Dimension.USERNAME) ? rs.getString("USERNAME") : null,
+            orderCount,
+            rs.getBigDecimal("TOTAL_AMOUNT").setScale(2, RoundingMode.HALF_UP),
+            rs.getBigDecimal("TOTAL_FINAL_AMOUNT").setScale(2, RoundingMode.HALF_UP),
+            totalDiscount.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.OrderRollupDelta;
+import com.example.ordersystem.model.OrderStatus;
+import com.example.ordersystem.repository.OrderRollupDeltaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 訂單每日彙總的增量記錄
+ * 訂單寫入時在同一個交易中處理 OrderChangedEvent，將寫入前後對 (建立日期, 幣別, 狀態, 使用者) 彙總的影響
+ * 依彙總鍵合併後新增到 ORDER_ROLLUP_DELTA：新增訂單只有寫入後、刪除只有寫入前，
+ * 更新則為兩者的差（彙總鍵與金額皆未變更時不新增）
+ *
+ * 每次寫入只新增列、不更新共用的彙總列，熱門的彙總鍵不會成為鎖競爭點；
+ * 增量由 OrderRollupCompactionJob 每晚合併到 ORDER_DAILY_ROLLUP，報表查詢時兩者一併加總（見 OrderReportService）
+ * 已封存的訂單仍保留在彙總中：封存只是搬移，不是刪除
+ */
+@Component
+public class OrderRollupRecorder {
+
+    @Autowired
+    private OrderRollupDeltaRepository orderRollupDeltaRepository;
+
+    /**
+     * 訂單對彙總的貢獻；訂單沒有狀態或建立時間時不計入彙總
+     */
+    public record Snapshot(LocalDate orderDate, CurrencyCode currency, OrderStatus status, String username,
+                           BigDecimal amount, BigDecimal discount, BigDecimal finalAmount) {
+
+        public static Snapshot of(OrderView order) {
+            return of(order.getCreatedAt(), order.getCurrency(), order.getStatus(), order.getUsername(),
+                order.getAmount(), order.getDiscount(), order.getFinalAmount());
+        }
+
+        private static Snapshot of(LocalDateTime createdAt, CurrencyCode currency, OrderStatus status, String username,
+                                   BigDecimal amount, BigDecimal discount, BigDecimal finalAmount) {
+            if (createdAt == null || status == null) {
+                return null;
+            }
+            return new Snapshot(createdAt.toLocalDate(), currency, status, username,
+                orZero(amount), orZero(discount), orZero(finalAmount));
+        }
+
+        public Snapshot withStatus(OrderStatus newStatus) {
+            return new Snapshot(orderDate, currency, newStatus, username, amount, discount, finalAmount);
+        }
+    }
+
+    private record Key(LocalDate orderDate, CurrencyCode currency, OrderStatus status, String username) {
+    }
+
+    private static final class Accumulator {
+        private long count;
+        private BigDecimal amount = BigDecimal.ZERO;
+        private BigDecimal finalAmount = BigDecimal.ZERO;
+        private BigDecimal discount = BigDecimal.ZERO;
+
+        void add(Snapshot snapshot, int sign) {
+            BigDecimal factor = BigDecimal.valueOf(sign);
+            count += sign;
+            amount = amount.add(snapshot.amount().multiply(factor));
+            finalAmount = finalAmount.add(snapshot.finalAmount().multiply(factor));
+            discount = discount.add(snapshot.discount().multiply(factor));
+        }
+
+        boolean isZero() {
+            return count == 0 && amount.signum() == 0 && finalAmount.signum() == 0 && discount.signum() == 0;
+        }
+    }
+
+    /**
+     * 記錄單筆訂單的寫入（需在寫入訂單的交易中呼叫）
+     *
+     * @param before 寫入前的貢獻，新增訂單時為 null
+     * @param after 寫入後的貢獻，刪除訂單時為 null
+     */
+    public void record(Snapshot before, Snapshot after) {
+        record(before != null ? List.of(before) : List.of(), after != null ? List.of(after) : List.of());
+    }
+
+    /**
+     * 記錄多筆訂單的寫入（需在寫入訂單的交易中呼叫）
+     *
+     * @param removed 寫入前的貢獻
+     * @param added 寫入後的貢獻
+     */
+    public void record(Collection<Snapshot> removed, Collection<Snapshot> added) {
+        Map<Key, Accumulator> deltas = new LinkedHashMap<>();
+        removed.stream().filter(Objects::nonNull).forEach(snapshot -> accumulatorOf(deltas, snapshot).add(snapshot, -1));
+        added.stream().filter(Objects::nonNull).forEach(snapshot -> accumulatorOf(deltas, snapshot).add(snapshot, 1));
+        List<OrderRollupDelta> rows = deltas.entrySet().stream()
+            .filter(entry -> !entry.getValue().isZero())
+            .map(entry -> new OrderRollupDelta(entry.getKey().orderDate(), entry.getKey().currency(),
+                entry.getKey().status(), entry.getKey().username(), entry.getValue().count,
+                entry.getValue().amount, entry.getValue().finalAmount, entry.getValue().discount))
+            .toList();
+        if (!rows.isEmpty()) {
+            orderRollupDeltaRepository.saveAll(rows);
+        }
+    }
+
+    /**
+     * 記錄訂單寫入事件（在寫入訂單的交易中發布）
+     */
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        List<Snapshot> removed = new ArrayList<>();
+        List<Snapshot> added = new ArrayList<>();
+        for (OrderChangedEvent.Change change : event.changes()) {
+            if (change.before() != null) {
+                removed.add(Snapshot.of(change.before()));
+            }
+            if (change.after() != null) {
+                added.add(Snapshot.of(change.after()));
+            }
+        }
+        record(removed, added);
+    }
+
+    private static Accumulator accumulatorOf(Map<Key, Accumulator> deltas, Snapshot snapshot) {
+        return deltas.computeIfAbsent(
+            new Key(snapshot.orderDate(), snapshot.currency(), snapshot.status(), snapshot.username()),
+            key -> new Accumulator());
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.model.Order;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 訂單ID搜尋結果快取
+ * 前端搜尋框每次輸入都會查詢 GET /api/orders?searchOrderId=...，相同或延伸的查詢在短時間內由記憶體回應，
+ * 不必每次執行 LIKE 查詢與 COUNT
+ *
+ * - 以（搜尋字串、使用者範圍、頁碼、每頁筆數）為 key，依最近使用順序淘汰（app.order-search-cache.max-size），
+ *   每筆最多保留 app.order-search-cache.ttl
+ * - 延伸查詢：較短的搜尋字串第一頁已包含全部結果時，在其後加字的搜尋結果必為其子集，直接由該結果過濾
+ *
+ * 一致性：
+ * - 任何訂單寫入在交易提交後遞增寫入世代（epoch）並清除所有結果，提交前被其他請求讀回的舊結果一併清除
+ * - 與 OrderCache 相同，查詢前取得世代號，寫入快取時世代已變更則放棄
+ * - 啟用 Redis L2 時訂閱 order:cache:invalidate，其他節點更新或刪除訂單時同樣遞增世代；
+ *   其他節點新建的訂單最多在 ttl 後出現在搜尋結果中
+ */
+@Component
+public class OrderSearchCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchCache.class);
+
+    @Value("${app.order-search-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.order-search-cache.max-size:1000}")
+    private int maxSize = 1000;
+
+    @Value("${app.order-search-cache.ttl:PT5S}")
+    private Duration ttl = Duration.ofSeconds(5);
+
+    private final AtomicLong epoch = new AtomicLong();
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    /**
+     * @param username 使用者範圍，null 表示所有使用者
+     */
+    private record Key(String query, String username, int page, int size) {
+    }
+
+    /**
+     * @param complete 第一頁且已包含全部結果（可供延伸查詢過濾）
+     */
+    private record Entry(Page<Order> result, boolean complete, long loadedAtNanos) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            logger.info("訂單搜尋結果快取已啟用：上限 {} 筆、保留 {}", maxSize, ttl);
+        }
+    }
+
+    /**
+     * 取得快取的搜尋結果
+     *
+     * @param query 搜尋字串（已去除前後空白）
+     * @param username 使用者範圍，null 表示所有使用者
+     * @param pageable 分頁參數
+     * @return 搜尋結果，未命中時返回 null
+     */
+    public Page<Order> get(String query, String username, Pageable pageable) {
+        if (!enabled) {
+            return null;
+        }
+        Key key = new Key(query, username, pageable.getPageNumber(), pageable.getPageSize());
+        synchronized (entries) {
+            Entry entry = fresh(key);
+            if (entry != null) {
+                return entry.result();
+            }
+            if (!isCanonical(query)) {
+                return null;
+            }
+            for (int length = query.length() - 1; length > 0; length--) {
+                Entry shorter = fresh(new Key(query.substring(0, length), username, 0, pageable.getPageSize()));
+                if (shorter != null && shorter.complete()) {
+                    Page<Order> narrowed = narrow(shorter.result().getContent(), query, pageable);
+                    // 保留原本的載入時間，不延長資料的保留時間
+                    entries.put(key, new Entry(narrowed, isComplete(query, narrowed), shorter.loadedAtNanos()));
+                    return narrowed;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查詢資料庫前呼叫，取得目前的寫入世代號
+     */
+    public long currentEpoch() {
+        return epoch.get();
+    }
+
+    /**
+     * 寫入搜尋結果；若查詢期間已有訂單寫入（世代號變更）則不寫入
+     *
+     * @param expectedEpoch 查詢前取得的世代號
+     */
+    public void put(String query, String username, Pageable pageable, Page<Order> result, long expectedEpoch) {
+        if (!enabled) {
+            return;
+        }
+        Key key = new Key(query, username, pageable.getPageNumber(), pageable.getPageSize());
+        synchronized (entries) {
+            if (epoch.get() != expectedEpoch) {
+                return;
+            }
+            entries.put(key, new Entry(result, isCanonical(query) && isComplete(query, result), System.nanoTime()));
+        }
+    }
+
+    /**
+     * 訂單寫入提交後使所有搜尋結果失效
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        bumpEpoch();
+    }
+
+    /**
+     * 使所有搜尋結果失效（需在寫入提交之後呼叫）
+     */
+    public void bumpEpoch() {
+        if (enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * 其他節點更新或刪除訂單的通知（訂單快取失效頻道），內容不需解析
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        clear();
+    }
+
+    private Entry fresh(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.loadedAtNanos() >= ttl.toNanos()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private void clear() {
+        synchronized (entries) {
+            epoch.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    /**
+     * 由較短搜尋字串的完整結果過濾出延伸查詢的結果，規則與 OrderService 的訂單ID搜尋相同：
+     * 訂單ID字串包含搜尋字串；搜尋字串即為某筆訂單的ID時只返回該筆
+     */
+    private static Page<Order> narrow(List<Order> candidates, String query, Pageable pageable) {
+        List<Order> matches = candidates.stream()
+            .filter(order -> String.valueOf(order.getOrderId()).contains(query))
+            .toList();
+        Long exactId = Long.valueOf(query);
+        List<Order> exact = matches.stream().filter(order -> exactId.equals(order.getOrderId())).toList();
+        if (!exact.isEmpty()) {
+            return new PageImpl<>(exact, pageable, 1);
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(matches.subList(from, to), pageable, matches.size());
+    }
+
+    /**
+     * 第一頁已包含全部結果，且不是「搜尋字串即為訂單ID」只返回該筆的結果
+     */
+    private static boolean isComplete(String query, Page<Order> result) {
+        if (result.getNumber() != 0 || result.getTotalElements() != result.getNumberOfElements()) {
+            return false;
+        }
+        return !(result.getNumberOfElements() == 1
+            && query.equals(String.valueOf(result.getContent().get(0).getOrderId())));
+    }
+
+    /**
+     * 只處理不含前導 0 的數字字串：此時「訂單ID字串包含搜尋字串」與資料庫的 LIKE 及精確比對結果一致
+     */
+    private static boolean isCanonical(String query) {
+        if (query.isEmpty() || query.length() > 18 || query.startsWith("0")) {
+            return false;
+        }
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
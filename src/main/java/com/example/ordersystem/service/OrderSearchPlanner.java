@@ -0,0 +1,223 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderSearchCriteria;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
+import com.example.ordersystem.repository.OrderSearchRepository;
+import com.example.ordersystem.repository.OrderSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 訂單多條件搜尋的查詢規劃
+ *
+ * 每種搜尋都由一個索引帶頭（AccessPath），並一律以 (CREATED_AT DESC, ORDER_ID DESC) 做 keyset 分頁；
+ * 選擇的索引以提示交給 OrderRepository.findKeysetPage，不依賴條件順序或最佳化器自行選擇：
+ * - 有 USERNAME / STATUS / CURRENCY 相等條件時，選估計選擇率最低者，由對應的 (欄位, CREATED_AT, ORDER_ID)
+ *   複合索引帶頭；相等條件下索引順序即為排序，建立時間範圍與游標成為同一索引上的範圍，讀到一頁即可停止
+ * - 都沒有時由 IDX_ORDERS_CREATED_AT 帶頭，依索引順序讀取並過濾，同樣讀到一頁即停止
+ * 因此不會為了排序或分頁讀取整張表；金額範圍與其餘相等條件只作為過濾條件
+ *
+ * 選擇率估計：使用者名稱固定視為 1%；狀態依 OrderStatusCounters 的各狀態筆數；幣別視為平均分佈
+ */
+@Component
+public class OrderSearchPlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchPlanner.class);
+
+    /** 單一使用者的訂單佔全部訂單的估計比例 */
+    private static final double USERNAME_SELECTIVITY = 0.01;
+
+    /** keyset 分頁的排序，與 AccessPath 各索引的欄位順序一致 */
+    public static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "createdAt", "orderId");
+
+    /**
+     * 搜尋帶頭的索引與掃描方向
+     * 複合索引為遞增，反向掃描即為 CREATED_AT、ORDER_ID 降序；IDX_ORDERS_CREATED_AT 本身為降序索引，正向掃描
+     */
+    public enum AccessPath {
+        USERNAME("IDX_ORDERS_USERNAME_CREATED", "INDEX_DESC"),
+        STATUS("IDX_ORDERS_STATUS_CREATED", "INDEX_DESC"),
+        CURRENCY("IDX_ORDERS_CURRENCY_CREATED", "INDEX_DESC"),
+        CREATED_AT("IDX_ORDERS_CREATED_AT", "INDEX_ASC");
+
+        private final String indexName;
+        private final String scanHint;
+
+        AccessPath(String indexName, String scanHint) {
+            this.indexName = indexName;
+            this.scanHint = scanHint;
+        }
+
+        public String getIndexName() {
+            return indexName;
+        }
+
+        /**
+         * @return Oracle 索引提示，例如 INDEX_DESC(o1_0 IDX_ORDERS_STATUS_CREATED)
+         */
+        public String getIndexHint() {
+            return scanHint + "(" + OrderSearchRepository.ORDER_ALIAS + " " + indexName + ")";
+        }
+    }
+
+    /**
+     * 查詢計畫
+     *
+     * @param accessPath 帶頭的索引
+     * @param specification 搜尋條件
+     * @param size 每頁筆數
+     */
+    public record Plan(AccessPath accessPath, Specification<Order> specification, int size) {
+    }
+
+    /**
+     * keyset 分頁游標：上一頁最後一筆訂單的建立時間與訂單ID
+     */
+    public record Cursor(LocalDateTime createdAt, Long orderId) {
+
+        public static Cursor of(Order order) {
+            return new Cursor(order.getCreatedAt(), order.getOrderId());
+        }
+
+        public String encode() {
+            String raw = createdAt + "," + orderId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @throws BadRequestException 如果游標格式不正確
+         */
+        public static Cursor decode(String value) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(',');
+                if (separator < 0) {
+                    throw new BadRequestException("無效的搜尋游標");
+                }
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new BadRequestException("無效的搜尋游標");
+            }
+        }
+    }
+
+    @Autowired
+    private OrderStatusCounters orderStatusCounters;
+
+    /**
+     * 依搜尋條件選擇帶頭的索引並組合搜尋條件
+     *
+     * @param criteria 搜尋條件
+     * @return 查詢計畫
+     * @throws BadRequestException 如果範圍條件的下限大於上限或游標格式不正確
+     */
+    public Plan plan(OrderSearchCriteria criteria) {
+        if (criteria.getMinAmount() != null && criteria.getMaxAmount() != null
+                && criteria.getMinAmount().compareTo(criteria.getMaxAmount()) > 0) {
+            throw new BadRequestException("最小金額不能大於最大金額");
+        }
+        if (criteria.getMinAmountTwd() != null && criteria.getMaxAmountTwd() != null
+                && criteria.getMinAmountTwd().compareTo(criteria.getMaxAmountTwd()) > 0) {
+            throw new BadRequestException("最小台幣金額不能大於最大台幣金額");
+        }
+        if (criteria.getCreatedFrom() != null && criteria.getCreatedTo() != null
+                && criteria.getCreatedFrom().isAfter(criteria.getCreatedTo())) {
+            throw new BadRequestException("建立時間起日不能晚於迄日");
+        }
+        String username = criteria.getUsername() == null || criteria.getUsername().isBlank()
+            ? null : criteria.getUsername().trim();
+
+        AccessPath accessPath = chooseAccessPath(username, criteria.getStatus(), criteria.getCurrency());
+
+        // 條件順序只為了閱讀：帶頭索引的相等條件、同一索引上的建立時間範圍與游標，最後是其餘過濾條件
+        List<Specification<Order>> predicates = new ArrayList<>();
+        switch (accessPath) {
+            case USERNAME -> predicates.add(OrderSpecifications.usernameEquals(username));
+            case STATUS -> predicates.add(OrderSpecifications.statusEquals(criteria.getStatus()));
+            case CURRENCY -> predicates.add(OrderSpecifications.currencyEquals(criteria.getCurrency()));
+            case CREATED_AT -> {
+            }
+        }
+        if (criteria.getCreatedFrom() != null) {
+            predicates.add(OrderSpecifications.createdAtOnOrAfter(criteria.getCreatedFrom()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            predicates.add(OrderSpecifications.createdAtOnOrBefore(criteria.getCreatedTo()));
+        }
+        if (criteria.getCursor() != null && !criteria.getCursor().isBlank()) {
+            Cursor cursor = Cursor.decode(criteria.getCursor().trim());
+            predicates.add(OrderSpecifications.before(cursor.createdAt(), cursor.orderId()));
+        }
+        if (username != null && accessPath != AccessPath.USERNAME) {
+            predicates.add(OrderSpecifications.usernameEquals(username));
+        }
+        if (criteria.getStatus() != null && accessPath != AccessPath.STATUS) {
+            predicates.add(OrderSpecifications.statusEquals(criteria.getStatus()));
+        }
+        if (criteria.getCurrency() != null && accessPath != AccessPath.CURRENCY) {
+            predicates.add(OrderSpecifications.currencyEquals(criteria.getCurrency()));
+        }
+        if (criteria.getMinAmount() != null) {
+            predicates.add(OrderSpecifications.amountAtLeast(criteria.getMinAmount()));
+        }
+        if (criteria.getMaxAmount() != null) {
+            predicates.add(OrderSpecifications.amountAtMost(criteria.getMaxAmount()));
+        }
+        if (criteria.getMinAmountTwd() != null) {
+            predicates.add(OrderSpecifications.finalAmountTwdAtLeast(criteria.getMinAmountTwd()));
+        }
+        if (criteria.getMaxAmountTwd() != null) {
+            predicates.add(OrderSpecifications.finalAmountTwdAtMost(criteria.getMaxAmountTwd()));
+        }
+
+        logger.debug("訂單搜尋由 {} 帶頭，共 {} 個條件", accessPath.getIndexName(), predicates.size());
+        return new Plan(accessPath, Specification.allOf(predicates), criteria.getSize());
+    }
+
+    private AccessPath chooseAccessPath(String username, OrderStatus status, CurrencyCode currency) {
+        // 估計值相同時依 USERNAME、STATUS、CURRENCY 的順序
+        AccessPath best = AccessPath.CREATED_AT;
+        double bestSelectivity = Double.MAX_VALUE;
+        if (username != null) {
+            best = AccessPath.USERNAME;
+            bestSelectivity = USERNAME_SELECTIVITY;
+        }
+        if (status != null) {
+            double selectivity = statusSelectivity(status);
+            if (selectivity < bestSelectivity) {
+                best = AccessPath.STATUS;
+                bestSelectivity = selectivity;
+            }
+        }
+        if (currency != null && 1.0 / CurrencyCode.values().length < bestSelectivity) {
+            best = AccessPath.CURRENCY;
+        }
+        return best;
+    }
+
+    private double statusSelectivity(OrderStatus status) {
+        Map<OrderStatus, Long> counts = orderStatusCounters.snapshot();
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        if (total <= 0) {
+            // 尚未對帳，視為平均分佈
+            return 1.0 / OrderStatus.values().length;
+        }
+        return (double) counts.getOrDefault(status, 0L) / total;
+    }
+}
@@ -1,25 +1,62 @@
 package com.example.ordersystem.service;
 
+import com.example.ordersystem.config.ReadYourWritesGuard;
+import com.example.ordersystem.dto.OrderPatchRequest;
+import com.example.ordersystem.dto.OrderSearchCriteria;
+import com.example.ordersystem.dto.OrderSearchResult;
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.dto.StatusTransitionResult;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.exception.ConflictException;
 import com.example.ordersystem.exception.OrderNotFoundException;
+import com.example.ordersystem.exception.RateUnavailableException;
+import com.example.ordersystem.model.Currency;
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.model.OrderStatus;
 import com.example.ordersystem.repository.OrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 訂單服務類
  * 提供訂單相關的業務邏輯處理，包括訂單的 CRUD 操作、搜尋、幣別轉換等功能
  * 
+ * 查詢方法標記為唯讀交易，啟用讀寫分離時導向備庫；
+ * 寫入後透過 ReadYourWritesGuard 讓該使用者在保護時間內改讀主庫；
+ * 單筆訂單查詢與金額轉換優先讀取 OrderCache，命中時不存取資料庫；
+ * 訂單ID搜尋結果由 OrderSearchCache 短暫快取，任何訂單寫入都會使其全部失效；
+ * 啟用非同步接收時，尚未寫入資料庫的訂單由 OrderIngestionService 回應；
+ * 更新以訂單的 VERSION 欄位做樂觀鎖，請求帶有的版本與目前版本不同時拋出 ConflictException；
+ * 狀態變更須符合 OrderStatus 的狀態變更規則；
+ * 已封存的訂單（OrderArchive）可依訂單ID與多條件搜尋查詢，但不可修改；
+ * 寫入時以當時的匯率快照一併計算台幣金額（FINAL_AMOUNT_TWD），取不到匯率時留待 OrderTwdBackfillJob 補上；
+ * 每次寫入在交易中發布 OrderChangedEvent，彙總增量、outbox、計數器與各快取由事件的監聽者處理
+ * 
  * @author Order Currency System
  * @version 1.0
  */
@@ -27,11 +64,55 @@ import java.util.Optional;
 @Transactional
 public class OrderService {
     
+    /** 批次變更狀態時每次 IN 清單的筆數（Oracle 上限 1000） */
+    private static final int STATUS_TRANSITION_CHUNK_SIZE = 1000;
+    
+    /** 多條件搜尋的排序（與 OrderSearchPlanner.KEYSET_SORT 相同），合併 ORDERS 與封存表的結果時使用 */
+    private static final Comparator<Order> KEYSET_ORDER = Comparator
+        .comparing(Order::getCreatedAt, Comparator.reverseOrder())
+        .thenComparing(Order::getOrderId, Comparator.reverseOrder());
+    
+    /** 批次變更狀態單次請求的訂單數上限 */
+    private static final int STATUS_TRANSITION_MAX_ORDERS = 10_000;
+    
+    private static final String LOCK_BY_STATUS_SQL =
+        "SELECT ORDER_ID, USERNAME, AMOUNT, CURRENCY, STATUS, DISCOUNT, FINAL_AMOUNT, FINAL_AMOUNT_TWD, "
+            + "TWD_RATE_VERSION, CREATED_AT, UPDATED_AT, VERSION FROM ORDERS "
+            + "WHERE STATUS = :from AND ORDER_ID IN (:ids) FOR UPDATE";
+    
+    private static final String UPDATE_STATUS_SQL =
+        "UPDATE ORDERS SET STATUS = :to, UPDATED_AT = :now, VERSION = VERSION + 1 "
+            + "WHERE STATUS = :from AND ORDER_ID IN (:ids)";
+    
     @Autowired
     private OrderRepository orderRepository;
     
     @Autowired
     private CurrencyService currencyService;
+    
+    @Autowired
+    private ReadYourWritesGuard readYourWritesGuard;
+    
+    @Autowired
+    private OrderCache orderCache;
+    
+    @Autowired
+    private OrderIngestionService orderIngestionService;
+    
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    
+    @Autowired
+    private OrderSearchPlanner orderSearchPlanner;
+    
+    @Autowired
+    private OrderSearchCache orderSearchCache;
+    
+    @Autowired
+    private OrderArchive orderArchive;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * 取得所有訂單列表
@@ -39,6 +120,7 @@ public class OrderService {
      * 
      * @return 所有訂單的列表，按建立時間降序排列
      */
+    @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
         return orderRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"));
     }
@@ -50,6 +132,7 @@ public class OrderService {
      * @param pageable 分頁參數
      * @return 分頁的訂單列表，按建立時間降序排列
      */
+    @Transactional(readOnly = true)
     public Page<Order> getAllOrders(Pageable pageable) {
         // 創建帶排序的 Pageable，按建立時間降序
         Pageable sortedPageable = org.springframework.data.domain.PageRequest.of(
@@ -68,6 +151,7 @@ public class OrderService {
      * @param pageable 分頁參數
      * @return 分頁的訂單列表，按建立時間降序排列
      */
+    @Transactional(readOnly = true)
     public Page<Order> getOrdersByUsername(String username, Pageable pageable) {
         // 創建帶排序的 Pageable，按建立時間降序
         Pageable sortedPageable = org.springframework.data.domain.PageRequest.of(
@@ -80,12 +164,14 @@ public class OrderService {
     
     /**
      * 根據訂單ID取得訂單
+     * 優先從訂單快取讀取，未命中時查詢資料庫並寫入快取
      * 
      * @param orderId 訂單ID
      * @return 訂單的 Optional 物件，如果不存在則返回空 Optional
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Order> getOrderById(Long orderId) {
-        return orderRepository.findById(orderId);
+        return findOrderView(orderId).map(OrderView::toOrder);
     }
     
     /**
@@ -94,6 +180,7 @@ public class OrderService {
      * @param username 使用者名稱
      * @return 該使用者的所有訂單列表
      */
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByUsername(String username) {
         return orderRepository.findByUsername(username);
     }
@@ -101,10 +188,11 @@ public class OrderService {
     /**
      * 根據訂單狀態取得訂單列表
      * 
-     * @param status 訂單狀態（如：PENDING, CONFIRMED, CANCELLED, COMPLETED）
+     * @param status 訂單狀態
      * @return 符合該狀態的所有訂單列表
      */
-    public List<Order> getOrdersByStatus(String status) {
+    @Transactional(readOnly = true)
+    public List<Order> getOrdersByStatus(OrderStatus status) {
         return orderRepository.findByStatus(status);
     }
     
@@ -118,6 +206,7 @@ public class OrderService {
      * @param orderId 訂單ID（可以是完整ID或部分ID字串）
      * @return 符合搜尋條件的訂單列表，按建立時間降序排列
      */
+    @Transactional(readOnly = true)
     public List<Order> searchOrdersByOrderId(String orderId) {
         if (orderId == null || orderId.trim().isEmpty()) {
             return getAllOrders();
@@ -145,17 +234,25 @@ public class OrderService {
      * - 如果輸入的是完整數字，先嘗試精確匹配
      * - 如果精確匹配失敗或輸入不是數字，則進行模糊搜尋（部分匹配）
      * - 如果搜尋條件為空，返回所有訂單（分頁）
+     * 搜尋結果由 OrderSearchCache 短暫快取，命中時不開啟交易也不存取資料庫
      * 
      * @param orderId 訂單ID（可以是完整ID或部分ID字串）
      * @param pageable 分頁參數
      * @return 符合搜尋條件的分頁訂單列表，按建立時間降序排列
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<Order> searchOrdersByOrderId(String orderId, Pageable pageable) {
         if (orderId == null || orderId.trim().isEmpty()) {
             return getAllOrders(pageable);
         }
         String trimmedId = orderId.trim();
+        Page<Order> cached = orderSearchCache.get(trimmedId, null, pageable);
+        if (cached != null) {
+            return cached;
+        }
+        long epoch = orderSearchCache.currentEpoch();
         
+        Page<Order> result = null;
         // 先嘗試精確匹配（如果是完整數字）
         try {
             Long exactId = Long.parseLong(trimmedId);
@@ -163,7 +260,7 @@ public class OrderService {
             if (exactOrder.isPresent()) {
                 // 返回單一結果的分頁物件
                 List<Order> singleOrder = List.of(exactOrder.get());
-                return new org.springframework.data.domain.PageImpl<>(
+                result = new org.springframework.data.domain.PageImpl<>(
                     singleOrder, 
                     pageable, 
                     1
@@ -173,24 +270,36 @@ public class OrderService {
             // 如果不是數字，使用模糊搜尋
         }
         
-        // 模糊搜尋（部分匹配）
-        return orderRepository.searchByOrderIdContaining(trimmedId, pageable);
+        if (result == null) {
+            // 模糊搜尋（部分匹配）
+            result = orderRepository.searchByOrderIdContaining(trimmedId, pageable);
+        }
+        orderSearchCache.put(trimmedId, null, pageable, result, epoch);
+        return result;
     }
     
     /**
      * 根據訂單ID和用戶名搜尋訂單（分頁）
+     * 搜尋結果由 OrderSearchCache 短暫快取，命中時不開啟交易也不存取資料庫
      * 
      * @param orderId 訂單ID（可以是部分匹配）
      * @param username 用戶名
      * @param pageable 分頁參數
      * @return 分頁的訂單列表
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<Order> searchOrdersByOrderIdAndUsername(String orderId, String username, Pageable pageable) {
         String trimmedId = orderId.trim();
         if (trimmedId.isEmpty()) {
             return getOrdersByUsername(username, pageable);
         }
+        Page<Order> cached = orderSearchCache.get(trimmedId, username, pageable);
+        if (cached != null) {
+            return cached;
+        }
+        long epoch = orderSearchCache.currentEpoch();
         
+        Page<Order> result = null;
         // 先嘗試精確匹配（如果是完整數字）
         try {
             Long exactId = Long.parseLong(trimmedId);
@@ -198,7 +307,7 @@ public class OrderService {
             if (exactOrder.isPresent() && exactOrder.get().getUsername().equals(username)) {
                 // 返回單一結果的分頁物件
                 List<Order> singleOrder = List.of(exactOrder.get());
-                return new org.springframework.data.domain.PageImpl<>(
+                result = new org.springframework.data.domain.PageImpl<>(
                     singleOrder, 
                     pageable, 
                     1
@@ -208,13 +317,46 @@ public class OrderService {
             // 如果不是數字，使用模糊搜尋
         }
         
-        // 模糊搜尋（部分匹配），並過濾用戶名
-        return orderRepository.searchByOrderIdContainingAndUsername(trimmedId, username, pageable);
+        if (result == null) {
+            // 模糊搜尋（部分匹配），並過濾用戶名
+            result = orderRepository.searchByOrderIdContainingAndUsername(trimmedId, username, pageable);
+        }
+        orderSearchCache.put(trimmedId, username, pageable, result, epoch);
+        return result;
+    }
+    
+    /**
+     * 多條件搜尋訂單（keyset 分頁）
+     * 由 OrderSearchPlanner 選擇帶頭的索引並以索引提示查詢，依建立時間降序（相同時依訂單ID降序）返回一頁；
+     * 多讀一筆判斷是否還有下一頁，不計算總筆數。
+     * 只有查詢範圍早於封存界線、且 ORDERS 讀到的一頁未完全落在界線之後時，才以相同條件查詢封存表並合併
+     * 
+     * @param criteria 搜尋條件
+     * @return 一頁的訂單、下一頁的游標與使用的索引
+     * @throws BadRequestException 如果搜尋條件不正確
+     */
+    @Transactional(readOnly = true)
+    public OrderSearchResult searchOrders(OrderSearchCriteria criteria) {
+        OrderSearchPlanner.Plan plan = orderSearchPlanner.plan(criteria);
+        List<Order> orders = orderRepository.findKeysetPage(plan.specification(),
+            plan.accessPath().getIndexHint(), plan.size() + 1);
+        if (needsArchive(criteria, orders, plan.size() + 1)) {
+            List<Order> merged = new ArrayList<>(orders);
+            merged.addAll(orderArchive.search(plan.specification(), plan.size() + 1));
+            merged.sort(KEYSET_ORDER);
+            orders = merged.subList(0, Math.min(merged.size(), plan.size() + 1));
+        }
+        String nextCursor = null;
+        if (orders.size() > plan.size()) {
+            orders = orders.subList(0, plan.size());
+            nextCursor = OrderSearchPlanner.Cursor.of(orders.get(orders.size() - 1)).encode();
+        }
+        return new OrderSearchResult(orders, nextCursor, plan.accessPath().getIndexName());
     }
     
     /**
      * 建立新訂單
-     * 會自動計算最終金額（包含折扣）
+     * 會自動計算最終金額（包含折扣）與台幣金額
      * 
      * @param order 要建立的訂單物件
      * @return 建立成功後的訂單物件（包含自動產生的訂單ID和計算後的最終金額）
@@ -223,7 +365,31 @@ public class OrderService {
     public Order createOrder(Order order) {
         // 計算折扣後的價格（故意留一個小 bug：沒有檢查 discount 是否超過 100%）
         calculateFinalAmount(order);
-        return orderRepository.save(order);
+        // 先 flush，事件帶有資料庫設定的 VERSION 與 UPDATED_AT
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        eventPublisher.publishEvent(OrderChangedEvent.created(savedOrder));
+        return savedOrder;
+    }
+    
+    /**
+     * 非同步接收新訂單
+     * 計算最終金額並配置訂單ID後寫入本機日誌，由背景批次寫入資料庫
+     * 
+     * @param order 要建立的訂單物件（已通過驗證）
+     * @return 含訂單ID的訂單物件；未啟用非同步接收或待寫入筆數已滿時返回空 Optional，呼叫端應改用 createOrder
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Order> acceptOrder(Order order) {
+        if (!orderIngestionService.isEnabled()) {
+            return Optional.empty();
+        }
+        calculateFinalAmount(order);
+        OrderView accepted = orderIngestionService.submit(order);
+        if (accepted == null) {
+            return Optional.empty();
+        }
+        readYourWritesGuard.recordWrite();
+        return Optional.of(accepted.toOrder());
     }
     
     /**
@@ -231,23 +397,118 @@ public class OrderService {
      * 會更新訂單的所有欄位並重新計算最終金額
      * 
      * @param orderId 要更新的訂單ID
-     * @param orderDetails 包含更新資料的訂單物件
+     * @param orderDetails 包含更新資料的訂單物件（帶有 version 時檢查是否為目前版本）
      * @return 更新後的訂單物件
      * @throws OrderNotFoundException 如果訂單不存在
+     * @throws ConflictException 如果訂單已被其他請求修改、不允許變更為新狀態，或訂單已封存
      */
     public Order updateOrder(Long orderId, Order orderDetails) {
+        orderIngestionService.ensureFlushed(orderId);
         Optional<Order> optionalOrder = orderRepository.findById(orderId);
         if (optionalOrder.isPresent()) {
             Order order = optionalOrder.get();
+            checkVersion(order, orderDetails.getVersion());
+            OrderView before = OrderView.from(order);
             order.setUsername(orderDetails.getUsername());
             order.setAmount(orderDetails.getAmount());
             order.setCurrency(orderDetails.getCurrency());
-            order.setStatus(orderDetails.getStatus());
+            changeStatus(order, orderDetails.getStatus());
             order.setDiscount(orderDetails.getDiscount());
             calculateFinalAmount(order);
-            return orderRepository.save(order);
+            Order savedOrder = orderRepository.saveAndFlush(order);
+            eventPublisher.publishEvent(OrderChangedEvent.updated(before, savedOrder));
+            return savedOrder;
         }
-        throw new OrderNotFoundException(orderId);
+        throw notFoundOrArchived(orderId);
+    }
+    
+    /**
+     * 部分更新訂單
+     * 只修改請求中有提供的欄位，金額、折扣或幣別變更時重新計算最終金額與台幣金額；
+     * 實體使用 @DynamicUpdate，UPDATE 只包含有變更的欄位與 VERSION
+     * 
+     * @param orderId 要更新的訂單ID
+     * @param patch 要更新的欄位（帶有 version 時檢查是否為目前版本）
+     * @return 更新後的訂單物件
+     * @throws OrderNotFoundException 如果訂單不存在
+     * @throws ConflictException 如果訂單已被其他請求修改、不允許變更為新狀態，或訂單已封存
+     */
+    public Order patchOrder(Long orderId, OrderPatchRequest patch) {
+        orderIngestionService.ensureFlushed(orderId);
+        Order order = orderRepository.findById(orderId)
+            .orElseThrow(() -> notFoundOrArchived(orderId));
+        checkVersion(order, patch.getVersion());
+        OrderView before = OrderView.from(order);
+        if (patch.getCurrency() != null) {
+            order.setCurrency(patch.getCurrency());
+        }
+        changeStatus(order, patch.getStatus());
+        if (patch.getAmount() != null || patch.getDiscount() != null || patch.getCurrency() != null) {
+            if (patch.getAmount() != null) {
+                order.setAmount(patch.getAmount());
+            }
+            if (patch.getDiscount() != null) {
+                order.setDiscount(patch.getDiscount());
+            }
+            calculateFinalAmount(order);
+        }
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        eventPublisher.publishEvent(OrderChangedEvent.updated(before, savedOrder));
+        return savedOrder;
+    }
+    
+    /**
+     * 批次變更訂單狀態
+     * 在同一個交易中分段（每段最多 1000 筆）鎖定目前狀態為 from 的訂單並以單一 UPDATE 變更，
+     * 不逐筆載入實體；VERSION 同時加 1，讓持有舊版本的 PUT/PATCH 返回衝突
+     * 
+     * @param orderIds 要變更的訂單ID（重複的ID只處理一次）
+     * @param from 原狀態
+     * @param to 新狀態
+     * @return 實際變更與略過的訂單ID
+     * @throws BadRequestException 如果不允許由 from 變更為 to，或訂單數超過上限
+     */
+    public StatusTransitionResult transitionStatus(List<Long> orderIds, OrderStatus from, OrderStatus to) {
+        if (from == to || !from.canTransitionTo(to)) {
+            throw new BadRequestException("不允許將訂單狀態由 " + from + " 變更為 " + to);
+        }
+        List<Long> ids = orderIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.size() > STATUS_TRANSITION_MAX_ORDERS) {
+            throw new BadRequestException("單次最多變更 " + STATUS_TRANSITION_MAX_ORDERS + " 筆訂單");
+        }
+        ids.forEach(orderIngestionService::ensureFlushed);
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderChangedEvent.Change> changes = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += STATUS_TRANSITION_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + STATUS_TRANSITION_CHUNK_SIZE, ids.size()));
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", from.name())
+                .addValue("to", to.name())
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("ids", chunk);
+            // 先鎖定符合條件的列（一併讀取寫入前的內容），UPDATE 影響的列即為鎖定的這些訂單
+            List<Order> locked = namedParameterJdbcTemplate.query(LOCK_BY_STATUS_SQL, params, OrderService::mapOrder);
+            if (!locked.isEmpty()) {
+                namedParameterJdbcTemplate.update(UPDATE_STATUS_SQL,
+                    params.addValue("ids", locked.stream().map(Order::getOrderId).toList()));
+                for (Order order : locked) {
+                    OrderView before = OrderView.from(order);
+                    order.setStatus(to);
+                    order.setUpdatedAt(now);
+                    order.setVersion(order.getVersion() + 1);
+                    changes.add(new OrderChangedEvent.Change(before, OrderView.from(order)));
+                }
+            }
+        }
+        
+        List<Long> transitioned = changes.stream().map(OrderChangedEvent.Change::orderId).toList();
+        Set<Long> transitionedSet = new HashSet<>(transitioned);
+        List<Long> skipped = ids.stream().filter(id -> !transitionedSet.contains(id)).toList();
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new OrderChangedEvent(OrderEventType.ORDER_UPDATED, changes));
+        }
+        return new StatusTransitionResult(from, to, transitioned, skipped);
     }
     
     /**
@@ -256,7 +517,11 @@ public class OrderService {
      * @param orderId 要刪除的訂單ID
      */
     public void deleteOrder(Long orderId) {
-        orderRepository.deleteById(orderId);
+        orderIngestionService.ensureFlushed(orderId);
+        orderRepository.findById(orderId).ifPresent(order -> {
+            orderRepository.delete(order);
+            eventPublisher.publishEvent(OrderChangedEvent.deleted(order));
+        });
     }
     
     /**
@@ -276,6 +541,65 @@ public class OrderService {
         // 計算最終金額
         BigDecimal finalAmount = amount.subtract(discountAmount);
         order.setFinalAmount(finalAmount);
+        calculateFinalAmountTwd(order);
+    }
+    
+    /**
+     * 以目前的匯率快照計算訂單的台幣金額，並記錄所用匯率的版本（CURRENCIES.LAST_UPDATE）
+     * 與 CurrencyService.convertToTwd 相同：台幣訂單直接使用最終金額，其他幣別乘上匯率後四捨五入到 2 位小數；
+     * 取不到匯率時不阻擋寫入，台幣金額設為 NULL，由 OrderTwdBackfillJob 之後以當時的匯率補上
+     * 
+     * @param order 已計算最終金額的訂單物件
+     */
+    private void calculateFinalAmountTwd(Order order) {
+        order.setFinalAmountTwd(null);
+        order.setTwdRateVersion(null);
+        if (order.getCurrency() == CurrencyCode.TWD) {
+            order.setFinalAmountTwd(order.getFinalAmount());
+            return;
+        }
+        Optional<Currency> rate;
+        try {
+            rate = currencyService.getCurrencyByCode(order.getCurrency());
+        } catch (RateUnavailableException e) {
+            return;
+        }
+        rate.filter(currency -> currency.getRateToTwd() != null).ifPresent(currency -> {
+            order.setFinalAmountTwd(order.getFinalAmount().multiply(currency.getRateToTwd()).setScale(2, RoundingMode.HALF_UP));
+            order.setTwdRateVersion(currency.getLastUpdate());
+        });
+    }
+    
+    /**
+     * 變更訂單狀態；新狀態為 null 或與目前相同時不變更
+     * 
+     * @param order 目前的訂單
+     * @param target 新狀態
+     * @throws ConflictException 如果不允許由目前狀態變更為新狀態
+     */
+    private void changeStatus(Order order, OrderStatus target) {
+        if (target == null || target == order.getStatus()) {
+            return;
+        }
+        if (order.getStatus() != null && !order.getStatus().canTransitionTo(target)) {
+            throw new ConflictException("訂單狀態不能由 " + order.getStatus() + " 變更為 " + target);
+        }
+        order.setStatus(target);
+    }
+    
+    /**
+     * 檢查請求帶有的版本是否為訂單目前的版本；未帶版本時不檢查
+     * 同時送出的更新在寫入時仍由 @Version 檢查，衝突時拋出 OptimisticLockingFailureException
+     * 
+     * @param order 目前的訂單
+     * @param expectedVersion 請求帶有的版本
+     * @throws ConflictException 如果版本不同
+     */
+    private void checkVersion(Order order, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(order.getVersion())) {
+            throw new ConflictException("訂單已被其他請求修改（目前版本 " + order.getVersion()
+                + "），請重新讀取後再更新");
+        }
     }
     
     /**
@@ -286,10 +610,11 @@ public class OrderService {
      * @return 轉換後的新台幣金額（保留2位小數）
      * @throws OrderNotFoundException 如果訂單不存在
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public BigDecimal convertToTwd(Long orderId) {
-        Optional<Order> optionalOrder = orderRepository.findById(orderId);
+        Optional<OrderView> optionalOrder = findOrderView(orderId);
         if (optionalOrder.isPresent()) {
-            Order order = optionalOrder.get();
+            OrderView order = optionalOrder.get();
             return currencyService.convertToTwd(order.getFinalAmount(), order.getCurrency());
         }
         throw new OrderNotFoundException(orderId);
@@ -304,16 +629,90 @@ public class OrderService {
      * @return 轉換後的目標幣別金額（保留2位小數）
      * @throws OrderNotFoundException 如果訂單不存在
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public BigDecimal convertCurrency(Long orderId, CurrencyCode targetCurrency) {
-        Optional<Order> optionalOrder = orderRepository.findById(orderId);
+        Optional<OrderView> optionalOrder = findOrderView(orderId);
         if (optionalOrder.isPresent()) {
-            Order order = optionalOrder.get();
+            OrderView order = optionalOrder.get();
             BigDecimal amount = order.getFinalAmount();
             CurrencyCode sourceCurrency = order.getCurrency();
             return currencyService.convertCurrency(amount, sourceCurrency, targetCurrency);
         }
         throw new OrderNotFoundException(orderId);
     }
+    
+    private static Order mapOrder(ResultSet rs, int rowNum) throws SQLException {
+        Order order = new Order();
+        order.setOrderId(rs.getLong("ORDER_ID"));
+        order.setUsername(rs.getString("USERNAME"));
+        order.setAmount(rs.getBigDecimal("AMOUNT"));
+        order.setCurrency(CurrencyCode.valueOf(rs.getString("CURRENCY")));
+        order.setStatus(OrderStatus.valueOf(rs.getString("STATUS")));
+        order.setDiscount(rs.getBigDecimal("DISCOUNT"));
+        order.setFinalAmount(rs.getBigDecimal("FINAL_AMOUNT"));
+        order.setFinalAmountTwd(rs.getBigDecimal("FINAL_AMOUNT_TWD"));
+        order.setTwdRateVersion(toLocalDateTime(rs.getTimestamp("TWD_RATE_VERSION")));
+        order.setCreatedAt(toLocalDateTime(rs.getTimestamp("CREATED_AT")));
+        order.setUpdatedAt(toLocalDateTime(rs.getTimestamp("UPDATED_AT")));
+        order.setVersion(rs.getLong("VERSION"));
+        return order;
+    }
+    
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+    
+    /**
+     * 多條件搜尋是否需要查詢封存表：已封存的訂單建立時間都早於封存界線，
+     * 範圍起點不早於界線，或 ORDERS 已讀滿且最後一筆不早於界線時，這一頁不會包含已封存的訂單
+     */
+    private boolean needsArchive(OrderSearchCriteria criteria, List<Order> liveOrders, int limit) {
+        if (!orderArchive.mayContain(criteria.getCreatedFrom())) {
+            return false;
+        }
+        return liveOrders.size() < limit
+            || liveOrders.get(liveOrders.size() - 1).getCreatedAt().isBefore(orderArchive.boundary());
+    }
+    
+    /**
+     * 訂單不在 ORDERS 時的例外：已封存的訂單不可修改
+     */
+    private RuntimeException notFoundOrArchived(Long orderId) {
+        if (orderArchive.findById(orderId).isPresent()) {
+            return new ConflictException("訂單 " + orderId + " 已封存，不可修改");
+        }
+        return new OrderNotFoundException(orderId);
+    }
+    
+    /**
+     * 從待寫入訂單、訂單快取或資料庫取得訂單的顯示與轉換欄位
+     * 快取由所有節點與使用者共用，未命中時一律讀主庫再寫入快取，不會把備庫複寫延遲中的舊資料放進快取；
+     * 已在實際的唯讀交易中時（連線可能已導向備庫）只回應、不寫入快取
+     * 
+     * @param orderId 訂單ID
+     * @return 訂單快取資料的 Optional 物件，如果不存在則返回空 Optional
+     */
+    private Optional<OrderView> findOrderView(Long orderId) {
+        OrderView pending = orderIngestionService.findPending(orderId);
+        if (pending != null) {
+            return Optional.of(pending);
+        }
+        OrderView cached = orderCache.get(orderId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = orderCache.currentGeneration();
+        boolean cacheable = !TransactionSynchronizationManager.isActualTransactionActive()
+            || !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        // ORDERS 沒有時查詢封存表，已封存的訂單不再變更，同樣寫入快取
+        Optional<OrderView> loaded = readYourWritesGuard.readFromPrimary(() -> orderRepository.findById(orderId)
+            .or(() -> orderArchive.findById(orderId))
+            .map(OrderView::from));
+        if (cacheable) {
+            loaded.ifPresent(view -> orderCache.put(view, generation));
+        }
+        return loaded;
+    }
 
 
 }
@@ -0,0 +1,150 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.model.OrderStatus;
+import com.example.ordersystem.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 各訂單狀態的即時筆數
+ * 讓儀表板取得各狀態筆數時不必掃描 ORDERS 表
+ *
+ * - 每個狀態一個 LongAdder（內部分段計數），建立、更新、刪除訂單時在交易提交後增減
+ * - 每隔 app.order-status-counters.reconcile-interval 以 GROUP BY STATUS（可只讀 IDX_ORDERS_STATUS_CREATED）
+ *   重新對帳，修正直接修改資料庫或節點間的差異；啟動時立即對帳一次
+ * - 多節點部署時各節點只記錄自己的異動，由對帳同步其他節點的異動
+ *
+ * 對帳查詢期間提交的異動可能被重複計入或遺漏，誤差會在下次對帳時修正
+ */
+@Component
+public class OrderStatusCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusCounters.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Value("${app.order-status-counters.reconcile-interval:PT5M}")
+    private Duration reconcileInterval = Duration.ofMinutes(5);
+
+    private final Map<OrderStatus, LongAdder> counts = new EnumMap<>(OrderStatus.class);
+    private volatile Instant reconciledAt;
+    private ScheduledFuture<?> reconcileTask;
+
+    public OrderStatusCounters() {
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, new LongAdder());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        reconcileTask = taskScheduler.scheduleWithFixedDelay(this::reconcile, Instant.now(), reconcileInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reconcileTask != null) {
+            reconcileTask.cancel(false);
+        }
+    }
+
+    /**
+     * 訂單寫入提交後套用狀態異動
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        event.changes().forEach(change -> record(change.beforeStatus(), change.afterStatus(), 1));
+    }
+
+    /**
+     * 記錄訂單狀態異動（需在寫入提交之後呼叫）
+     *
+     * @param from 原狀態，新建訂單為 null
+     * @param to 新狀態，刪除訂單為 null
+     * @param count 訂單筆數
+     */
+    public void record(OrderStatus from, OrderStatus to, long count) {
+        if (from == to || count == 0) {
+            return;
+        }
+        if (from != null) {
+            counts.get(from).add(-count);
+        }
+        if (to != null) {
+            counts.get(to).add(count);
+        }
+    }
+
+    /**
+     * 取得各狀態目前的筆數
+     *
+     * @return 每個狀態的筆數（包含筆數為 0 的狀態）
+     */
+    public Map<OrderStatus, Long> snapshot() {
+        Map<OrderStatus, Long> snapshot = new EnumMap<>(OrderStatus.class);
+        counts.forEach((status, adder) -> snapshot.put(status, adder.sum()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * 最後一次成功對帳的時間，尚未對帳時返回 null
+     */
+    public Instant getReconciledAt() {
+        return reconciledAt;
+    }
+
+    /**
+     * 以資料庫的各狀態筆數校正計數器
+     * 使用讀寫交易，讓查詢在啟用讀寫分離時也由主庫回應
+     */
+    public void reconcile() {
+        try {
+            Map<OrderStatus, Long> before = snapshot();
+            List<Object[]> rows = new TransactionTemplate(transactionManager)
+                .execute(status -> orderRepository.countGroupByStatus());
+            Map<OrderStatus, Long> actual = new EnumMap<>(OrderStatus.class);
+            for (Object[] row : rows) {
+                if (row[0] instanceof OrderStatus status) {
+                    actual.put(status, ((Number) row[1]).longValue());
+                }
+            }
+            for (OrderStatus status : OrderStatus.values()) {
+                long drift = actual.getOrDefault(status, 0L) - before.get(status);
+                if (drift != 0) {
+                    counts.get(status).add(drift);
+                    if (reconciledAt != null) {
+                        logger.info("訂單狀態 {} 筆數校正 {}", status, drift);
+                    }
+                }
+            }
+            reconciledAt = Instant.now();
+        } catch (Exception e) {
+            logger.warn("訂單狀態筆數對帳失敗，下次排程時重試: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.RateSnapshot;
+import com.example.ordersystem.model.Currency;
+import com.example.ordersystem.model.CurrencyCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 匯率近端快取（near cache）
+ * 在本節點記憶體保存 Redis 中的匯率，透過 Redis keyspace notification 得知其他節點的寫入後立即失效，
+ * 讓大部分讀取不必經過網路，同時維持跨節點一致
+ *
+ * 一致性：
+ * - 每次失效都會遞增世代號；從 Redis 讀取前先取得世代號，寫入近端快取時若世代已變更則放棄，
+ *   避免「讀取途中收到失效通知」後仍寫入舊值
+ * - 訂閱連線中斷期間的通知會遺失，因此每筆資料最多保留 max-age，作為最後的保障
+ *
+ * 未啟用（app.rate-cache.near-cache.enabled=false）時不保存任何資料
+ */
+@Component
+public class RateNearCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateNearCache.class);
+
+    @Value("${app.rate-cache.near-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.rate-cache.near-cache.max-age:PT60S}")
+    private Duration maxAge = Duration.ofSeconds(60);
+
+    private final Map<CurrencyCode, RateSnapshot> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 取得近端快取中的匯率
+     *
+     * @param currencyCode 幣別代碼 Enum
+     * @return 匯率快照（來源為 NEAR_CACHE，確認時間為由 Redis 載入的時間），
+     *         未啟用、不存在或已超過 max-age 時返回 null
+     */
+    public RateSnapshot get(CurrencyCode currencyCode) {
+        if (!enabled) {
+            return null;
+        }
+        RateSnapshot entry = entries.get(currencyCode);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isStale(maxAge)) {
+            entries.remove(currencyCode, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * 從 Redis 讀取前呼叫，取得目前的世代號
+     */
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * 寫入近端快取；若讀取期間已有失效通知（世代號變更）則不寫入
+     *
+     * @param currency 從 Redis 讀到的匯率（呼叫端不應再修改此物件）
+     * @param expectedGeneration 讀取前取得的世代號
+     */
+    public void put(Currency currency, long expectedGeneration) {
+        if (!enabled) {
+            return;
+        }
+        entries.compute(currency.getCurrencyCode(), (code, existing) ->
+            generation.get() == expectedGeneration
+                ? new RateSnapshot(currency, RateSnapshot.Source.NEAR_CACHE, Instant.now())
+                : existing);
+    }
+
+    /**
+     * 使指定幣別失效
+     */
+    public void invalidate(CurrencyCode currencyCode) {
+        generation.incrementAndGet();
+        entries.remove(currencyCode);
+    }
+
+    /**
+     * 清除所有資料
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * 處理 keyspace notification
+     * 頻道格式：__keyspace@{db}__:currency:rate:{code}，訊息內容為事件名稱（set、del、expired 等）
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        CurrencyCode currencyCode = CurrencyCode.fromCode(channel.substring(channel.lastIndexOf(':') + 1));
+        if (currencyCode == null) {
+            // 無法辨識的鍵，保守起見全部失效
+            invalidateAll();
+            return;
+        }
+        logger.debug("收到匯率快取異動通知: {} ({})", currencyCode, new String(message.getBody(), StandardCharsets.UTF_8));
+        invalidate(currencyCode);
+    }
+}
@@ -0,0 +1,523 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.config.NodeIdentity;
+import com.example.ordersystem.dto.RateStreamEvent;
+import com.example.ordersystem.dto.RateUpdate;
+import com.example.ordersystem.exception.ServiceUnavailableException;
+import com.example.ordersystem.model.Currency;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.repository.CurrencyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 匯率異動推送（GET /api/currencies/stream）
+ * 匯率寫入提交後，將異動的幣別推送給所有 SSE 訂閱者，取代輪詢 GET /api/currencies
+ *
+ * 流程：
+ * - CurrencyService 寫入匯率的交易提交後處理 CurrencyChangedEvent，加入等待中的異動；
+ *   app.rate-stream.batch-window 內的異動合併為一個事件（一次刷新的各幣別分別提交，但只推送一次）
+ * - flush：與本節點目前的匯率比較，只推送匯率有變動的幣別並遞增版本；
+ *   本節點寫入的異動同時發布到 Redis 頻道 currency:rate:changed，其他節點收到後推送給各自的訂閱者
+ * - 每 app.rate-stream.resync-interval 由資料庫重新比對一次，補上遺失的通知與直接修改資料庫的異動
+ *
+ * 推送：
+ * - 每個訂閱者一個 SseEmitter（Servlet 非同步請求），閒置的訂閱者不佔用執行緒
+ * - 每個訂閱者一個待送信箱：同一時間最多一個傳送中的事件，傳送期間的新異動合併到信箱（同一幣別只保留最新匯率），
+ *   由固定大小的傳送執行緒池（app.rate-stream.send-threads）送出，慢的用戶端只會收到較少、合併後的事件
+ * - 單次傳送超過 app.rate-stream.max-send-time 仍未完成時斷開該訂閱者，用戶端重新連線後由快照重新開始；
+ *   斷開只停止再交給該訂閱者事件，阻塞在 emitter.send 的傳送執行緒要等到 Servlet 容器的寫入逾時
+ *   （Tomcat 為 server.tomcat.connection-timeout，未設定時 60 秒）才會釋放。
+ *   同時有 send-threads 個以上不讀取的用戶端時，其他訂閱者的推送最多延遲到該逾時，
+ *   send-threads 需大於預期同時停滯的用戶端數
+ * - 每 app.rate-stream.heartbeat 送出註解行，讓代理伺服器不因閒置而斷線，也藉此發現已斷線的用戶端
+ */
+@Service
+public class RateStreamBroadcaster implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateStreamBroadcaster.class);
+    public static final String CHANGED_CHANNEL = "currency:rate:changed";
+    private static final String EVENT_NAME = "rates";
+
+    /**
+     * 節點之間的異動通知
+     *
+     * @param node 寫入的節點（收到自己發出的通知時略過）
+     * @param rates 異動的幣別
+     */
+    private record ChangeMessage(String node, List<RateUpdate> rates) {
+    }
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${app.rate-stream.redis.enabled:true}")
+    private boolean redisEnabled = true;
+
+    /** SSE 連線的最長時間，逾時後用戶端（EventSource）自動重新連線 */
+    @Value("${app.rate-stream.timeout:PT30M}")
+    private Duration timeout = Duration.ofMinutes(30);
+
+    @Value("${app.rate-stream.heartbeat:PT30S}")
+    private Duration heartbeat = Duration.ofSeconds(30);
+
+    @Value("${app.rate-stream.batch-window:PT0.2S}")
+    private Duration batchWindow = Duration.ofMillis(200);
+
+    @Value("${app.rate-stream.max-send-time:PT10S}")
+    private Duration maxSendTime = Duration.ofSeconds(10);
+
+    @Value("${app.rate-stream.send-threads:4}")
+    private int sendThreads = 4;
+
+    @Value("${app.rate-stream.resync-interval:PT5M}")
+    private Duration resyncInterval = Duration.ofMinutes(5);
+
+    /** 本節點的訂閱者上限；串流不需要登入，達到上限後新的連線回應 503 */
+    @Value("${app.rate-stream.max-subscribers:1000}")
+    private int maxSubscribers = 1000;
+
+    private final Object lock = new Object();
+    // 以下由 lock 保護
+    private final Map<CurrencyCode, RateUpdate> latest = new EnumMap<>(CurrencyCode.class);
+    private final Map<CurrencyCode, RateUpdate> pending = new EnumMap<>(CurrencyCode.class);
+    private final Map<CurrencyCode, RateUpdate> outgoing = new EnumMap<>(CurrencyCode.class);
+    private boolean loaded;
+    /** 第一個訂閱者正在由資料庫讀取匯率，期間 flush 保留等待中的異動，讀取完成後再套用 */
+    private boolean loading;
+    private boolean flushScheduled;
+    private long version;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private ThreadPoolTaskExecutor sendExecutor;
+    private ScheduledFuture<?> heartbeatTask;
+    private ScheduledFuture<?> resyncTask;
+
+    @PostConstruct
+    public void start() {
+        sendExecutor = new ThreadPoolTaskExecutor();
+        sendExecutor.setCorePoolSize(sendThreads);
+        sendExecutor.setMaxPoolSize(sendThreads);
+        sendExecutor.setThreadNamePrefix("rate-stream-");
+        sendExecutor.initialize();
+        heartbeatTask = taskScheduler.scheduleWithFixedDelay(this::sendHeartbeats, Instant.now().plus(heartbeat), heartbeat);
+        resyncTask = taskScheduler.scheduleWithFixedDelay(this::resync, Instant.now().plus(resyncInterval), resyncInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel(false);
+        }
+        if (resyncTask != null) {
+            resyncTask.cancel(false);
+        }
+        subscribers.forEach(Subscriber::close);
+        if (sendExecutor != null) {
+            sendExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 新增訂閱者，第一個事件為所有幣別的快照
+     *
+     * @throws ServiceUnavailableException 如果訂閱者已達 app.rate-stream.max-subscribers
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        boolean load;
+        synchronized (lock) {
+            checkCapacity();
+            load = !loaded;
+            loading |= load;
+        }
+        if (load) {
+            loadSnapshot();
+        }
+        synchronized (lock) {
+            checkCapacity();
+            subscribers.add(subscriber);
+            subscriber.offer(version, true, latest.values());
+        }
+        return emitter;
+    }
+
+    private void checkCapacity() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("匯率串流連線數已達上限，請稍後再試", (int) heartbeat.toSeconds());
+        }
+    }
+
+    /**
+     * 第一個訂閱者連線時由資料庫載入目前的匯率；查詢在 lock 之外執行，不阻擋其他執行緒加入或推送異動
+     * 查詢期間提交的異動保留在 pending，載入後由下一次 flush 與讀到的匯率比較
+     */
+    private void loadSnapshot() {
+        List<Currency> currencies;
+        try {
+            currencies = currencyRepository.findAll();
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                if (!loaded) {
+                    loading = false;
+                }
+            }
+            throw e;
+        }
+        synchronized (lock) {
+            if (loaded) {
+                return;
+            }
+            currencies.forEach(currency -> latest.put(currency.getCurrencyCode(), RateUpdate.of(currency)));
+            loaded = true;
+            loading = false;
+            if (!pending.isEmpty() && !flushScheduled) {
+                flushScheduled = true;
+                taskScheduler.schedule(this::flush, Instant.now().plus(batchWindow));
+            }
+        }
+    }
+
+    /** 目前的訂閱者數 */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * 匯率寫入或幣別刪除提交後加入等待中的異動
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCurrencyChanged(CurrencyChangedEvent event) {
+        RateUpdate update = event.currency() != null
+            ? RateUpdate.of(event.currency())
+            : RateUpdate.deleted(event.currencyCode());
+        enqueue(List.of(update), true);
+    }
+
+    /**
+     * 處理其他節點的異動通知，訊息內容為 ChangeMessage 的 JSON
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            ChangeMessage change = objectMapper.readValue(message.getBody(), ChangeMessage.class);
+            if (!nodeIdentity.getNodeId().equals(change.node())) {
+                enqueue(change.rates(), false);
+            }
+        } catch (Exception e) {
+            logger.warn("無法解析匯率異動通知，留待重新同步: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 加入等待中的異動，batch-window 後 flush
+     *
+     * @param local 是否為本節點的寫入（需通知其他節點）
+     */
+    private void enqueue(Collection<RateUpdate> updates, boolean local) {
+        synchronized (lock) {
+            for (RateUpdate update : updates) {
+                if (!isOlder(update, pending.get(update.getCurrencyCode()))) {
+                    pending.put(update.getCurrencyCode(), update);
+                }
+                if (local) {
+                    outgoing.put(update.getCurrencyCode(), update);
+                }
+            }
+            if (!flushScheduled) {
+                flushScheduled = true;
+                taskScheduler.schedule(this::flush, Instant.now().plus(batchWindow));
+            }
+        }
+    }
+
+    /**
+     * 套用等待中的異動：推送匯率有變動的幣別，並將本節點的寫入通知其他節點
+     */
+    public void flush() {
+        List<RateUpdate> forward;
+        synchronized (lock) {
+            flushScheduled = false;
+            forward = new ArrayList<>(outgoing.values());
+            outgoing.clear();
+            // 尚未有訂閱者時不維護目前的匯率，第一個訂閱者連線時由資料庫載入
+            if (loaded) {
+                List<RateUpdate> changed = new ArrayList<>();
+                for (RateUpdate update : pending.values()) {
+                    RateUpdate previous = latest.get(update.getCurrencyCode());
+                    if (isOlder(update, previous)) {
+                        continue;
+                    }
+                    if (update.isDeleted()) {
+                        if (latest.remove(update.getCurrencyCode()) != null) {
+                            changed.add(update);
+                        }
+                    } else {
+                        latest.put(update.getCurrencyCode(), update);
+                        if (!update.sameRateAs(previous)) {
+                            changed.add(update);
+                        }
+                    }
+                }
+                if (!changed.isEmpty()) {
+                    version++;
+                    for (Subscriber subscriber : subscribers) {
+                        subscriber.offer(version, false, changed);
+                    }
+                    logger.debug("推送匯率異動（版本 {}）：{} 種幣別，{} 個訂閱者", version, changed.size(), subscribers.size());
+                }
+            }
+            // 第一個訂閱者載入期間保留，載入完成後再套用
+            if (!loading) {
+                pending.clear();
+            }
+        }
+        if (!forward.isEmpty() && redisEnabled && stringRedisTemplate != null) {
+            try {
+                stringRedisTemplate.convertAndSend(CHANGED_CHANNEL,
+                    objectMapper.writeValueAsString(new ChangeMessage(nodeIdentity.getNodeId(), forward)));
+            } catch (Exception e) {
+                logger.warn("無法通知其他節點匯率異動，其他節點將於重新同步時推送: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 由資料庫重新比對目前的匯率，只推送有差異的幣別
+     */
+    public void resync() {
+        synchronized (lock) {
+            if (!loaded) {
+                return;
+            }
+        }
+        try {
+            LocalDateTime readAt = LocalDateTime.now();
+            List<RateUpdate> updates = new ArrayList<>();
+            Set<CurrencyCode> present = new HashSet<>();
+            for (Currency currency : currencyRepository.findAll()) {
+                updates.add(RateUpdate.of(currency));
+                present.add(currency.getCurrencyCode());
+            }
+            synchronized (lock) {
+                // 讀取之後才新增的幣別不在結果中，不視為刪除
+                latest.values().stream()
+                    .filter(rate -> !present.contains(rate.getCurrencyCode()))
+                    .filter(rate -> rate.getLastUpdate() != null && rate.getLastUpdate().isBefore(readAt))
+                    .forEach(rate -> updates.add(RateUpdate.deleted(rate.getCurrencyCode())));
+            }
+            enqueue(updates, false);
+        } catch (Exception e) {
+            logger.warn("匯率串流重新同步失敗: {}", e.getMessage());
+        }
+    }
+
+    private void sendHeartbeats() {
+        subscribers.forEach(Subscriber::offerHeartbeat);
+    }
+
+    /**
+     * 是否比已知的異動舊（重新同步讀到的資料可能早於剛提交的寫入）
+     */
+    private static boolean isOlder(RateUpdate update, RateUpdate known) {
+        return known != null && update.getLastUpdate() != null && known.getLastUpdate() != null
+            && update.getLastUpdate().isBefore(known.getLastUpdate());
+    }
+
+    /**
+     * 訂閱者與其待送信箱
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        // 以下由 this 保護
+        private final Map<CurrencyCode, RateUpdate> rates = new EnumMap<>(CurrencyCode.class);
+        private long pendingVersion = -1;
+        private boolean snapshot;
+        private boolean heartbeatDue;
+        private boolean sending;
+        private boolean closed;
+        private long sendStartedNanos;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(long eventVersion, boolean isSnapshot, Collection<RateUpdate> updates) {
+            boolean start;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (isStuck()) {
+                    drop();
+                    return;
+                }
+                updates.forEach(update -> rates.put(update.getCurrencyCode(), update));
+                pendingVersion = eventVersion;
+                snapshot |= isSnapshot;
+                start = startSending();
+            }
+            if (start) {
+                execute();
+            }
+        }
+
+        void offerHeartbeat() {
+            boolean start;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (isStuck()) {
+                    drop();
+                    return;
+                }
+                heartbeatDue = true;
+                start = startSending();
+            }
+            if (start) {
+                execute();
+            }
+        }
+
+        /**
+         * 結束連線（逾時或節點關閉）
+         */
+        void close() {
+            synchronized (this) {
+                closed = true;
+                if (sending) {
+                    // 傳送中的執行緒結束時完成
+                    return;
+                }
+            }
+            subscribers.remove(this);
+            emitter.complete();
+        }
+
+        private boolean isStuck() {
+            return sending && System.nanoTime() - sendStartedNanos > maxSendTime.toNanos();
+        }
+
+        /**
+         * 斷開傳送過慢的訂閱者；不在這裡等待阻塞中的傳送，由傳送執行緒結束時完成連線
+         * 阻塞中的 emitter.send 無法由其他執行緒中斷，該傳送執行緒要到容器的寫入逾時才會釋放
+         */
+        private void drop() {
+            closed = true;
+            subscribers.remove(this);
+            logger.info("匯率串流訂閱者超過 {} 未完成傳送，斷開連線", maxSendTime);
+        }
+
+        private boolean startSending() {
+            if (sending) {
+                return false;
+            }
+            sending = true;
+            sendStartedNanos = System.nanoTime();
+            return true;
+        }
+
+        private void execute() {
+            try {
+                sendExecutor.execute(this::drain);
+            } catch (Exception e) {
+                synchronized (this) {
+                    sending = false;
+                }
+                subscribers.remove(this);
+                emitter.complete();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                RateStreamEvent event = null;
+                synchronized (this) {
+                    if (closed || (pendingVersion < 0 && !heartbeatDue)) {
+                        sending = false;
+                        break;
+                    }
+                    if (pendingVersion >= 0) {
+                        event = new RateStreamEvent(pendingVersion, snapshot, List.copyOf(rates.values()));
+                        rates.clear();
+                        pendingVersion = -1;
+                        snapshot = false;
+                    }
+                    // 有事件要送時不另外送心跳
+                    heartbeatDue = false;
+                    sendStartedNanos = System.nanoTime();
+                }
+                try {
+                    if (event != null) {
+                        emitter.send(SseEmitter.event().name(EVENT_NAME).id(String.valueOf(event.getVersion())).data(event));
+                    } else {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (Exception e) {
+                    // 用戶端已斷線；IOException 由 Servlet 容器通知後完成請求，不需在此完成
+                    synchronized (this) {
+                        closed = true;
+                        sending = false;
+                    }
+                    subscribers.remove(this);
+                    logger.debug("匯率串流訂閱者已斷線: {}", e.getMessage());
+                    return;
+                }
+            }
+            boolean finished;
+            synchronized (this) {
+                finished = closed;
+            }
+            if (finished) {
+                subscribers.remove(this);
+                emitter.complete();
+            }
+        }
+    }
+}
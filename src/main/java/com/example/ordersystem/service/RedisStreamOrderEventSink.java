@@ -0,0 +1,187 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderEvent;
+import com.example.ordersystem.dto.OrderEventBatch;
+import com.example.ordersystem.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 以 Redis Streams 實作的訂單異動事件串流
+ *
+ * 實作方式：
+ * - 發布：以 pipeline 對 order-events 逐筆 XADD（欄位 event 為事件 JSON），位置即為串流的 entry ID
+ * - 裁剪：發布後以 XTRIM MINID ~ 刪除所有消費者都已提交的事件（早於最小的已提交位置）；
+ *   另以 XTRIM MAXLEN ~ app.order-outbox.stream.max-length 作為上限，避免停止消費的消費者讓串流無限成長
+ * - 讀取：XRANGE (offset + COUNT limit（需要 Redis 6.2 以上的排除起點語法）；位置早於保留的第一筆時
+ *   （超過上限被裁剪）回應 gap
+ * - 消費位置：HSET order-events:offsets {consumer} {offset}
+ *
+ * 不使用 consumer group：消費者可能只透過 REST API（OrderEventController）讀取，位置由消費者自行提交；
+ * 可直接連線 Redis 的消費者也可以自行建立 consumer group 讀取同一個串流
+ */
+@Component
+@ConditionalOnProperty(name = "app.order-outbox.sink.type", havingValue = "redis", matchIfMissing = true)
+public class RedisStreamOrderEventSink implements OrderEventSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisStreamOrderEventSink.class);
+
+    static final String STREAM_KEY = "order-events";
+    private static final String OFFSETS_KEY = "order-events:offsets";
+    private static final String EVENT_FIELD = "event";
+
+    /** Spring Data Redis 3.2 沒有 XTRIM MINID 的 API */
+    private static final DefaultRedisScript<Long> TRIM_SCRIPT = new DefaultRedisScript<>(
+        "return redis.call('XTRIM', KEYS[1], 'MINID', '~', ARGV[1])", Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /** 串流保留的事件數上限（近似值），消費者落後超過此數時會遺漏最舊的事件（讀取時回應 gap） */
+    @Value("${app.order-outbox.stream.max-length:100000}")
+    private long maxLength = 100_000;
+
+    @Override
+    public void publish(List<OrderEvent> events) {
+        Optional<String> minCommitted = minCommittedOffset();
+        List<MapRecord<String, String, String>> records = new ArrayList<>(events.size());
+        for (OrderEvent event : events) {
+            records.add(StreamRecords.string(Map.of(EVENT_FIELD, toJson(event))).withStreamKey(STREAM_KEY));
+        }
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+                records.forEach(record -> redis.opsForStream().add(record));
+                redis.opsForStream().trim(STREAM_KEY, maxLength, true);
+                return null;
+            }
+        });
+        minCommitted.ifPresent(offset ->
+            stringRedisTemplate.execute(TRIM_SCRIPT, List.of(STREAM_KEY), offset));
+    }
+
+    /**
+     * 所有消費者已提交位置中最早的一個；沒有消費者時只依上限裁剪
+     */
+    private Optional<String> minCommittedOffset() {
+        String min = null;
+        for (Object value : stringRedisTemplate.opsForHash().values(OFFSETS_KEY)) {
+            String offset = (String) value;
+            if (!isValidId(offset)) {
+                logger.warn("略過無效的消費位置: {}", offset);
+                continue;
+            }
+            if (min == null || compareIds(offset, min) < 0) {
+                min = offset;
+            }
+        }
+        return Optional.ofNullable(min);
+    }
+
+    @Override
+    public OrderEventBatch read(String afterOffset, int limit) {
+        Range<String> range = Range.unbounded();
+        boolean gap = false;
+        if (afterOffset != null) {
+            if (!isValidId(afterOffset)) {
+                throw new BadRequestException("無效的事件位置: " + afterOffset);
+            }
+            List<MapRecord<String, Object, Object>> first =
+                stringRedisTemplate.opsForStream().range(STREAM_KEY, Range.unbounded(), Limit.limit().count(1));
+            gap = first != null && !first.isEmpty() && compareIds(afterOffset, first.get(0).getId().getValue()) < 0;
+            if (!gap) {
+                range = Range.of(Range.Bound.exclusive(afterOffset), Range.Bound.unbounded());
+            }
+        }
+        List<MapRecord<String, Object, Object>> records =
+            stringRedisTemplate.opsForStream().range(STREAM_KEY, range, Limit.limit().count(limit));
+        List<OrderEvent> events = new ArrayList<>();
+        if (records != null) {
+            for (MapRecord<String, Object, Object> record : records) {
+                OrderEvent event = fromJson((String) record.getValue().get(EVENT_FIELD));
+                event.setOffset(record.getId().getValue());
+                events.add(event);
+            }
+        }
+        if (gap) {
+            logger.warn("位置 {} 之後的訂單異動事件已被裁剪，由保留的第一筆開始讀取", afterOffset);
+        }
+        return new OrderEventBatch(gap, events);
+    }
+
+    @Override
+    public Optional<String> committedOffset(String consumer) {
+        return Optional.ofNullable((String) stringRedisTemplate.opsForHash().get(OFFSETS_KEY, consumer));
+    }
+
+    @Override
+    public void commitOffset(String consumer, String offset) {
+        stringRedisTemplate.opsForHash().put(OFFSETS_KEY, consumer, offset);
+    }
+
+    private static boolean isValidId(String id) {
+        if (id == null) {
+            return false;
+        }
+        try {
+            return idMillis(id) >= 0 && idSequence(id) >= 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 依串流 entry ID（毫秒時間-序號，序號可省略）的先後比較
+     */
+    private static int compareIds(String a, String b) {
+        int c = Long.compare(idMillis(a), idMillis(b));
+        return c != 0 ? c : Long.compare(idSequence(a), idSequence(b));
+    }
+
+    private static long idMillis(String id) {
+        int separator = id.indexOf('-');
+        return Long.parseLong(separator < 0 ? id : id.substring(0, separator));
+    }
+
+    private static long idSequence(String id) {
+        int separator = id.indexOf('-');
+        return separator < 0 ? 0 : Long.parseLong(id.substring(separator + 1));
+    }
+
+    private static String toJson(OrderEvent event) {
+        try {
+            return OrderOutbox.JSON.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("無法序列化訂單異動事件 " + event.getEventId(), e);
+        }
+    }
+
+    private static OrderEvent fromJson(String json) {
+        try {
+            return OrderOutbox.JSON.readValue(json, OrderEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("無法解析訂單異動事件", e);
+        }
+    }
+}
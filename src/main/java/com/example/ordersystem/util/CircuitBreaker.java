@@ -0,0 +1,151 @@
+package com.example.ordersystem.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 簡易斷路器
+ * 保護對外部相依（Redis、資料庫）的呼叫，相依服務故障或變慢時快速失敗，避免每個請求都等到逾時
+ *
+ * 狀態轉換：
+ * - CLOSED：正常放行；連續失敗（或慢呼叫）達到門檻時轉為 OPEN
+ * - OPEN：直接拒絕，經過 openDuration 後轉為 HALF_OPEN
+ * - HALF_OPEN：只放行一個試探呼叫，成功則回到 CLOSED，失敗則再次 OPEN
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * 斷路器狀態
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * 斷路器開啟時拋出的異常
+     */
+    public static class OpenException extends RuntimeException {
+        public OpenException(String name) {
+            super("斷路器 " + name + " 已開啟，暫停呼叫");
+        }
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final long slowCallThresholdNanos;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+    private final AtomicBoolean open = new AtomicBoolean();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+
+    /**
+     * @param name 名稱（用於日誌）
+     * @param failureThreshold 連續失敗幾次後開啟
+     * @param openDuration 開啟後多久允許試探呼叫
+     * @param slowCallThreshold 呼叫耗時超過此值視為失敗（Duration.ZERO 表示不檢查）
+     */
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, Duration slowCallThreshold) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+    }
+
+    /**
+     * 透過斷路器執行呼叫
+     *
+     * @param call 實際呼叫
+     * @return 呼叫結果
+     * @throws OpenException 如果斷路器開啟中
+     */
+    public <T> T execute(Supplier<T> call) {
+        boolean trial = acquirePermission();
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            long elapsed = System.nanoTime() - start;
+            if (slowCallThresholdNanos > 0 && elapsed > slowCallThresholdNanos) {
+                logger.warn("斷路器 {} 偵測到慢呼叫: {} ms", name, elapsed / 1_000_000);
+                onFailure();
+            } else {
+                onSuccess();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            onFailure();
+            throw e;
+        } finally {
+            if (trial) {
+                trialInFlight.set(false);
+            }
+        }
+    }
+
+    /**
+     * 判斷目前是否會放行呼叫（不佔用試探名額）
+     */
+    public boolean isCallPermitted() {
+        State current = getState();
+        return current == State.CLOSED || (current == State.HALF_OPEN && !trialInFlight.get());
+    }
+
+    public State getState() {
+        if (!open.get()) {
+            return State.CLOSED;
+        }
+        return System.nanoTime() - openedAt.get() >= openDurationNanos ? State.HALF_OPEN : State.OPEN;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 此呼叫是否為 HALF_OPEN 狀態下的試探呼叫
+     */
+    private boolean acquirePermission() {
+        State current = getState();
+        if (current == State.CLOSED) {
+            return false;
+        }
+        if (current == State.HALF_OPEN && trialInFlight.compareAndSet(false, true)) {
+            logger.info("斷路器 {} 進入半開狀態，放行試探呼叫", name);
+            return true;
+        }
+        throw new OpenException(name);
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (open.compareAndSet(true, false)) {
+            logger.info("斷路器 {} 已關閉，恢復正常呼叫", name);
+        }
+    }
+
+    private void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (open.get()) {
+            // 試探失敗，重新計時
+            openedAt.set(System.nanoTime());
+            return;
+        }
+        if (failures >= failureThreshold) {
+            openedAt.set(System.nanoTime());
+            open.set(true);
+            logger.warn("斷路器 {} 連續失敗 {} 次，已開啟，{} ms 內不再呼叫",
+                name, failures, openDurationNanos / 1_000_000);
+        }
+    }
+}
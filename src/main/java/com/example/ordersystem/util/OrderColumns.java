@@ -0,0 +1,357 @@
+package com.example.ordersystem.util;
+
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * 欄式儲存的訂單快照（供記憶體內分析）
+ * 每個欄位一個基本型別陣列，同一列的索引即為同一筆訂單：
+ * - 金額以「分」（AMOUNT × 100）、折扣以萬分之一（DISCOUNT × 100）存成整數，加總不會有浮點誤差
+ * - 幣別、狀態存成列舉序號（byte），使用者名稱存成字典索引（int）
+ * - 建立時間存成以 UTC 換算的秒數，只用於比較大小
+ *
+ * 刪除的列標記為空列並重複使用；訂單ID到列索引以開放定址的雜湊表對應，不必為每筆訂單建立物件
+ * 不是執行緒安全的：修改需與 {@link #reduce} 互斥，由呼叫端以讀寫鎖保護
+ */
+public final class OrderColumns {
+
+    /** 沒有建立時間 */
+    public static final long NO_CREATED_AT = Long.MIN_VALUE;
+
+    private static final byte FREE = -1;
+    private static final byte NO_STATUS = -2;
+    private static final int MIN_LEAF_ROWS = 16_384;
+
+    private long[] ids;
+    private long[] amounts;
+    private int[] discounts;
+    private byte[] currencies;
+    private byte[] statuses;
+    private long[] createdAt;
+    private int[] users;
+
+    /** 已使用過的列數（含空列） */
+    private int rowCount;
+    private int size;
+    private int[] freeRows = new int[16];
+    private int freeCount;
+
+    private final LongIntMap rowOf;
+    private final List<String> usernames = new ArrayList<>();
+    private final Map<String, Integer> userIndex = new HashMap<>();
+
+    public OrderColumns(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        ids = new long[capacity];
+        amounts = new long[capacity];
+        discounts = new int[capacity];
+        currencies = new byte[capacity];
+        statuses = new byte[capacity];
+        createdAt = new long[capacity];
+        users = new int[capacity];
+        rowOf = new LongIntMap(capacity);
+    }
+
+    /**
+     * 篩選條件（幣別、狀態的序號，-1 表示不限；建立時間的秒數範圍，包含兩端），以 {@link #of} 建立
+     */
+    public record Filter(int currency, int status, long fromEpochSecond, long toEpochSecond) {
+
+        public static final Filter ALL = new Filter(-1, -1, Long.MIN_VALUE, Long.MAX_VALUE);
+
+        public static Filter of(CurrencyCode currency, OrderStatus status, LocalDate from, LocalDate to) {
+            return new Filter(
+                currency != null ? currency.ordinal() : -1,
+                status != null ? status.ordinal() : -1,
+                from != null ? epochSecond(from.atStartOfDay()) : Long.MIN_VALUE,
+                to != null ? epochSecond(to.plusDays(1).atStartOfDay()) - 1 : Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * 將一列累加到部分結果
+     */
+    @FunctionalInterface
+    public interface RowAccumulator<A> {
+        void accept(A partial, int row);
+    }
+
+    public static long epochSecond(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toEpochSecond(ZoneOffset.UTC) : NO_CREATED_AT;
+    }
+
+    public static long toCents(BigDecimal value) {
+        return value != null ? value.movePointRight(2).longValue() : 0;
+    }
+
+    /**
+     * 新增訂單或以新的內容取代既有的列
+     */
+    public void upsert(long orderId, String username, BigDecimal amount, BigDecimal discount,
+                       CurrencyCode currency, OrderStatus status, LocalDateTime created) {
+        int row = rowOf.get(orderId);
+        if (row < 0) {
+            row = allocateRow();
+            rowOf.put(orderId, row);
+            size++;
+        }
+        ids[row] = orderId;
+        amounts[row] = toCents(amount);
+        discounts[row] = (int) toCents(discount);
+        currencies[row] = (byte) currency.ordinal();
+        statuses[row] = status != null ? (byte) status.ordinal() : NO_STATUS;
+        createdAt[row] = epochSecond(created);
+        users[row] = userOf(username);
+    }
+
+    /**
+     * 變更訂單狀態
+     *
+     * @return 訂單不在快照中時返回 false
+     */
+    public boolean updateStatus(long orderId, OrderStatus status) {
+        int row = rowOf.get(orderId);
+        if (row < 0) {
+            return false;
+        }
+        statuses[row] = (byte) status.ordinal();
+        return true;
+    }
+
+    /**
+     * 移除訂單
+     *
+     * @return 訂單不在快照中時返回 false
+     */
+    public boolean remove(long orderId) {
+        int row = rowOf.remove(orderId);
+        if (row < 0) {
+            return false;
+        }
+        statuses[row] = FREE;
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        }
+        freeRows[freeCount++] = row;
+        size--;
+        return true;
+    }
+
+    /** 訂單筆數 */
+    public int size() {
+        return size;
+    }
+
+    /** 目前的使用者數（使用者索引小於此數） */
+    public int userCount() {
+        return usernames.size();
+    }
+
+    public String username(int user) {
+        return usernames.get(user);
+    }
+
+    public long amountCents(int row) {
+        return amounts[row];
+    }
+
+    public int discountBasisPoints(int row) {
+        return discounts[row];
+    }
+
+    public int currencyOrdinal(int row) {
+        return currencies[row];
+    }
+
+    public int user(int row) {
+        return users[row];
+    }
+
+    /**
+     * 在指定的 ForkJoinPool 中平行走訪符合條件的列：
+     * 切成最多約 4 × 平行度 段（每段至少 16384 列），各段累加到自己的部分結果後兩兩合併，
+     * 因此部分結果可以是與使用者數同大小的陣列而不會佔用過多記憶體
+     *
+     * @param pool 執行的 ForkJoinPool
+     * @param filter 篩選條件
+     * @param identity 建立空的部分結果
+     * @param accumulator 將一列累加到部分結果
+     * @param combiner 合併兩個部分結果（可修改並返回第一個）
+     * @return 合併後的結果
+     */
+    public <A> A reduce(ForkJoinPool pool, Filter filter, Supplier<A> identity,
+                        RowAccumulator<A> accumulator, BinaryOperator<A> combiner) {
+        int leafRows = Math.max(MIN_LEAF_ROWS, rowCount / (pool.getParallelism() * 4) + 1);
+        return pool.invoke(new ReduceTask<>(0, rowCount, leafRows, filter, identity, accumulator, combiner));
+    }
+
+    private final class ReduceTask<A> extends RecursiveTask<A> {
+        private final int from;
+        private final int to;
+        private final int leafRows;
+        private final Filter filter;
+        private final Supplier<A> identity;
+        private final RowAccumulator<A> accumulator;
+        private final BinaryOperator<A> combiner;
+
+        ReduceTask(int from, int to, int leafRows, Filter filter, Supplier<A> identity,
+                   RowAccumulator<A> accumulator, BinaryOperator<A> combiner) {
+            this.from = from;
+            this.to = to;
+            this.leafRows = leafRows;
+            this.filter = filter;
+            this.identity = identity;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= leafRows) {
+                A partial = identity.get();
+                for (int row = from; row < to; row++) {
+                    byte status = statuses[row];
+                    if (status == FREE
+                        || (filter.status() >= 0 && status != filter.status())
+                        || (filter.currency() >= 0 && currencies[row] != filter.currency())
+                        || createdAt[row] < filter.fromEpochSecond()
+                        || createdAt[row] > filter.toEpochSecond()) {
+                        continue;
+                    }
+                    accumulator.accept(partial, row);
+                }
+                return partial;
+            }
+            int middle = (from + to) >>> 1;
+            ReduceTask<A> left = new ReduceTask<>(from, middle, leafRows, filter, identity, accumulator, combiner);
+            left.fork();
+            A right = new ReduceTask<>(middle, to, leafRows, filter, identity, accumulator, combiner).compute();
+            return combiner.apply(left.join(), right);
+        }
+    }
+
+    private int allocateRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if (rowCount == ids.length) {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            discounts = Arrays.copyOf(discounts, capacity);
+            currencies = Arrays.copyOf(currencies, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            users = Arrays.copyOf(users, capacity);
+        }
+        return rowCount++;
+    }
+
+    private int userOf(String username) {
+        return userIndex.computeIfAbsent(username, name -> {
+            usernames.add(name);
+            return usernames.size() - 1;
+        });
+    }
+
+    /**
+     * long → int 的開放定址雜湊表（線性探測，刪除時往回搬移，不留墓碑）
+     */
+    private static final class LongIntMap {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys;
+        private int[] values;
+        private int count;
+
+        LongIntMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            values = new int[capacity];
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if ((count + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                count++;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != key) {
+                if (keys[slot] == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int value = values[slot];
+            // 將後續同一串的鍵往回搬，讓查詢不會在空位提早停止
+            int gap = slot;
+            for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                int home = slot(keys[next], mask);
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+            keys[gap] = EMPTY;
+            count--;
+            return value;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            values = new int[oldValues.length * 2];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.ordersystem.util;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * 壓縮的訂單ID集合（不可變）
+ * 與 Roaring bitmap 相同，依ID的高位（id >>> 16）分組，每組依筆數選擇儲存方式：
+ * - 不超過 4096 筆：排序後的低 16 位元陣列（每筆 2 bytes）
+ * - 超過 4096 筆：65536 位元的點陣圖（固定 8 KB）
+ * 訂單ID由序號配置，多半集中且連續，因此大量ID也只需要少量記憶體
+ *
+ * 只支援非負的ID
+ */
+public final class OrderIdBitmap {
+
+    private static final int ARRAY_CONTAINER_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    public static final OrderIdBitmap EMPTY = new OrderIdBitmap(new long[0], new Object[0], new int[0], 0);
+
+    /** 各組的高位，遞增排列 */
+    private final long[] keys;
+    /** 各組的內容：char[]（排序後的低 16 位元）或 long[1024]（點陣圖） */
+    private final Object[] containers;
+    private final int[] cardinalities;
+    private final long cardinality;
+
+    private OrderIdBitmap(long[] keys, Object[] containers, int[] cardinalities, long cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinalities = cardinalities;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * 由任意順序的ID建立（重複的ID只保留一筆）
+     */
+    public static OrderIdBitmap of(long[] ids) {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        Builder builder = new Builder();
+        for (long id : sorted) {
+            builder.add(id);
+        }
+        return builder.build();
+    }
+
+    public long cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(long id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, id >>> 16);
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) id;
+        if (containers[index] instanceof char[] values) {
+            return Arrays.binarySearch(values, low) >= 0;
+        }
+        long[] words = (long[]) containers[index];
+        return (words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    /**
+     * 保留符合條件的ID，返回新的集合
+     */
+    public OrderIdBitmap filter(LongPredicate predicate) {
+        Builder builder = new Builder();
+        for (int i = 0; i < keys.length; i++) {
+            long high = keys[i] << 16;
+            if (containers[i] instanceof char[] values) {
+                for (char low : values) {
+                    if (predicate.test(high | low)) {
+                        builder.add(high | low);
+                    }
+                }
+            } else {
+                long[] words = (long[]) containers[i];
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    long bits = words[word];
+                    while (bits != 0) {
+                        long id = high | ((long) word << 6) | Long.numberOfTrailingZeros(bits);
+                        if (predicate.test(id)) {
+                            builder.add(id);
+                        }
+                        bits &= bits - 1;
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 依ID降序取得一段ID
+     *
+     * @param offset 略過的筆數
+     * @param limit 最多筆數
+     */
+    public long[] descending(long offset, int limit) {
+        long[] page = new long[(int) Math.max(0, Math.min(limit, cardinality - offset))];
+        int filled = 0;
+        long skip = offset;
+        for (int i = keys.length - 1; i >= 0 && filled < page.length; i--) {
+            // 整組略過時不必逐筆走訪
+            if (skip >= cardinalities[i]) {
+                skip -= cardinalities[i];
+                continue;
+            }
+            long high = keys[i] << 16;
+            if (containers[i] instanceof char[] values) {
+                for (int j = values.length - 1 - (int) skip; j >= 0 && filled < page.length; j--) {
+                    page[filled++] = high | values[j];
+                }
+            } else {
+                long[] words = (long[]) containers[i];
+                for (int word = BITMAP_WORDS - 1; word >= 0 && filled < page.length; word--) {
+                    long bits = words[word];
+                    while (bits != 0 && filled < page.length) {
+                        int bit = 63 - Long.numberOfLeadingZeros(bits);
+                        bits &= ~(1L << bit);
+                        if (skip > 0) {
+                            skip--;
+                        } else {
+                            page[filled++] = high | ((long) word << 6) | bit;
+                        }
+                    }
+                }
+            }
+            skip = 0;
+        }
+        return page;
+    }
+
+    /**
+     * 估計佔用的記憶體（bytes），用於記錄
+     */
+    public long sizeInBytes() {
+        long bytes = keys.length * 16L;
+        for (Object container : containers) {
+            bytes += container instanceof char[] values ? values.length * 2L : BITMAP_WORDS * 8L;
+        }
+        return bytes;
+    }
+
+    /**
+     * 依遞增順序加入ID的建構器
+     */
+    public static final class Builder {
+
+        private long[] keys = new long[8];
+        private Object[] containers = new Object[8];
+        private int[] cardinalities = new int[8];
+        private int size;
+        private long cardinality;
+
+        private long currentKey = -1;
+        private char[] currentValues = new char[16];
+        private long[] currentWords;
+        private int currentCount;
+        private long lastId = -1;
+
+        /**
+         * @throws IllegalArgumentException 如果ID為負數或小於上一個加入的ID
+         */
+        public Builder add(long id) {
+            if (id < 0 || id < lastId) {
+                throw new IllegalArgumentException("ID 必須為非負數並依遞增順序加入: " + id);
+            }
+            if (id == lastId) {
+                return this;
+            }
+            lastId = id;
+            long key = id >>> 16;
+            if (key != currentKey) {
+                flush();
+                currentKey = key;
+            }
+            char low = (char) id;
+            if (currentWords != null) {
+                currentWords[low >>> 6] |= 1L << low;
+            } else if (currentCount < ARRAY_CONTAINER_MAX) {
+                if (currentCount == currentValues.length) {
+                    currentValues = Arrays.copyOf(currentValues, currentValues.length * 2);
+                }
+                currentValues[currentCount] = low;
+            } else {
+                // 超過 4096 筆改用點陣圖
+                currentWords = new long[BITMAP_WORDS];
+                for (int i = 0; i < currentCount; i++) {
+                    currentWords[currentValues[i] >>> 6] |= 1L << currentValues[i];
+                }
+                currentWords[low >>> 6] |= 1L << low;
+            }
+            currentCount++;
+            return this;
+        }
+
+        public OrderIdBitmap build() {
+            flush();
+            return new OrderIdBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size),
+                Arrays.copyOf(cardinalities, size), cardinality);
+        }
+
+        private void flush() {
+            if (currentCount == 0) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+                cardinalities = Arrays.copyOf(cardinalities, size * 2);
+            }
+            keys[size] = currentKey;
+            containers[size] = currentWords != null ? currentWords : Arrays.copyOf(currentValues, currentCount);
+            cardinalities[size] = currentCount;
+            size++;
+            cardinality += currentCount;
+            currentWords = null;
+            currentCount = 0;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.ordersystem.util;
+
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 訂單寫入日誌（append-only journal）
+ * 非同步接收的訂單先寫入本機的記憶體映射檔案再回應，寫入資料庫前程序中止也能在重啟後重新寫入
+ *
+ * 檔案配置：
+ * - 區段檔 orders-{序號}.journal：固定大小、預先填 0，寫滿後換下一個區段
+ * - 紀錄格式：長度（int）、CRC32（int）、內容；長度為 0 表示區段結尾
+ * - 內容的新欄位只附加在結尾（台幣金額與匯率版本），讀取舊紀錄時視為 NULL
+ * - checkpoint：已寫入資料庫的位置（區段序號 + 位移），其之前的區段會被刪除
+ *
+ * 重啟時從 checkpoint 開始讀取，遇到長度為 0 或 CRC 不符（寫到一半中止）即停止
+ * 非執行緒安全的方法由呼叫端（OrderIngestionService）以鎖保護
+ */
+public class OrderJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderJournal.class);
+    private static final String SEGMENT_PREFIX = "orders-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_LENGTH = 8;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    /**
+     * 紀錄結尾在日誌中的位置
+     */
+    public record Position(long segment, int offset) {
+    }
+
+    /**
+     * 重啟時讀回的紀錄與其位置
+     */
+    public record Entry(OrderView order, Position position) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean forceOnAppend;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segment;
+
+    /**
+     * @param directory 日誌目錄
+     * @param segmentSize 每個區段檔的大小（bytes）
+     * @param forceOnAppend 每次寫入後是否強制寫回磁碟（關閉時只保證程序中止不遺失，主機斷電可能遺失）
+     */
+    public OrderJournal(Path directory, int segmentSize, boolean forceOnAppend) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forceOnAppend = forceOnAppend;
+    }
+
+    /**
+     * 開啟日誌並讀回尚未寫入資料庫的紀錄
+     *
+     * @return 依寫入順序排列的未完成紀錄
+     */
+    public List<Entry> open() {
+        try {
+            Files.createDirectories(directory);
+            Position checkpoint = readCheckpoint();
+            List<Long> segments = listSegments();
+            List<Entry> entries = new ArrayList<>();
+            long lastSegment = checkpoint.segment();
+            int lastOffset = checkpoint.offset();
+            for (long seq : segments) {
+                if (seq < checkpoint.segment()) {
+                    deleteSegment(seq);
+                    continue;
+                }
+                int start = seq == checkpoint.segment() ? checkpoint.offset() : 0;
+                lastOffset = readSegment(seq, start, entries);
+                lastSegment = seq;
+            }
+            mapSegment(lastSegment);
+            buffer.position(lastOffset);
+            if (!entries.isEmpty()) {
+                logger.info("訂單日誌中有 {} 筆尚未寫入資料庫的訂單", entries.size());
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法開啟訂單日誌: " + directory, e);
+        }
+    }
+
+    /**
+     * 寫入一筆訂單
+     *
+     * @return 紀錄結尾的位置，寫入資料庫後以此更新 checkpoint
+     */
+    public Position append(OrderView order) {
+        byte[] payload = encode(order);
+        int recordLength = HEADER_LENGTH + payload.length;
+        if (recordLength + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("訂單紀錄超過日誌區段大小: " + recordLength);
+        }
+        try {
+            // 保留 4 bytes 給區段結尾的 0
+            if (buffer.remaining() < recordLength + Integer.BYTES) {
+                forceQuietly();
+                mapSegment(segment + 1);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            int start = buffer.position();
+            // 先寫內容與 CRC，最後才寫長度，讓寫到一半的紀錄在重啟時被視為結尾
+            buffer.position(start + HEADER_LENGTH);
+            buffer.put(payload);
+            buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+            buffer.putInt(start, payload.length);
+            if (forceOnAppend) {
+                buffer.force();
+            }
+            return new Position(segment, buffer.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException("寫入訂單日誌失敗", e);
+        }
+    }
+
+    /**
+     * 記錄已寫入資料庫的位置，並刪除其之前的區段
+     */
+    public void checkpoint(Position position) {
+        try {
+            Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            ByteBuffer data = ByteBuffer.allocate(Long.BYTES + Integer.BYTES)
+                .putLong(position.segment())
+                .putInt(position.offset());
+            Files.write(temp, data.array());
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (long seq : listSegments()) {
+                if (seq < position.segment()) {
+                    deleteSegment(seq);
+                }
+            }
+        } catch (IOException e) {
+            // 下次 checkpoint 會再更新；重啟時重複的紀錄由寫入端略過
+            logger.warn("更新訂單日誌 checkpoint 失敗: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        forceQuietly();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("關閉訂單日誌失敗: {}", e.getMessage());
+        }
+        channel = null;
+        buffer = null;
+    }
+
+    private void mapSegment(long seq) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(segmentPath(seq),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment = seq;
+    }
+
+    private int readSegment(long seq, int start, List<Entry> entries) throws IOException {
+        Path path = segmentPath(seq);
+        long size = Files.size(path);
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer data = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int offset = start;
+            while (offset + HEADER_LENGTH <= size) {
+                int length = data.getInt(offset);
+                if (length <= 0 || offset + HEADER_LENGTH + length > size) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                data.get(offset + HEADER_LENGTH, payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != data.getInt(offset + Integer.BYTES)) {
+                    logger.warn("訂單日誌 {} 位移 {} 的紀錄不完整，忽略其後內容", path.getFileName(), offset);
+                    break;
+                }
+                offset += HEADER_LENGTH + length;
+                entries.add(new Entry(decode(payload), new Position(seq, offset)));
+            }
+            return offset;
+        }
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return new Position(0, 0);
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        return new Position(data.getLong(), data.getInt());
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private void deleteSegment(long seq) {
+        try {
+            Files.deleteIfExists(segmentPath(seq));
+        } catch (IOException e) {
+            // 仍被映射時部分作業系統無法刪除，下次 checkpoint 再試
+            logger.debug("刪除訂單日誌區段 {} 失敗: {}", seq, e.getMessage());
+        }
+    }
+
+    private Path segmentPath(long seq) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX));
+    }
+
+    private void forceQuietly() {
+        try {
+            buffer.force();
+        } catch (RuntimeException e) {
+            logger.warn("訂單日誌寫回磁碟失敗: {}", e.getMessage());
+        }
+    }
+
+    static byte[] encode(OrderView order) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(order.getOrderId());
+            out.writeUTF(order.getUsername());
+            writeDecimal(out, order.getAmount());
+            out.writeUTF(order.getCurrency().name());
+            out.writeUTF(order.getStatus() != null ? order.getStatus().name() : "");
+            writeDecimal(out, order.getDiscount());
+            writeDecimal(out, order.getFinalAmount());
+            writeTimestamp(out, order.getCreatedAt());
+            writeTimestamp(out, order.getUpdatedAt());
+            writeDecimal(out, order.getFinalAmountTwd());
+            writeTimestamp(out, order.getTwdRateVersion());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static OrderView decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        Order order = new Order();
+        order.setOrderId(in.readLong());
+        order.setUsername(in.readUTF());
+        order.setAmount(readDecimal(in));
+        order.setCurrency(CurrencyCode.valueOf(in.readUTF()));
+        String status = in.readUTF();
+        order.setStatus(status.isEmpty() ? null : OrderStatus.valueOf(status));
+        order.setDiscount(readDecimal(in));
+        order.setFinalAmount(readDecimal(in));
+        order.setCreatedAt(readTimestamp(in));
+        order.setUpdatedAt(readTimestamp(in));
+        if (in.available() > 0) {
+            order.setFinalAmountTwd(readDecimal(in));
+            order.setTwdRateVersion(readTimestamp(in));
+        }
+        // 日誌中的訂單都尚未寫入資料庫，版本固定為初始值
+        order.setVersion(0L);
+        return OrderView.from(order);
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        out.writeUTF(value != null ? value.toPlainString() : "");
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        String value = in.readUTF();
+        return value.isEmpty() ? null : new BigDecimal(value);
+    }
+
+    private static void writeTimestamp(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeLong(value != null ? value.toInstant(ZoneOffset.UTC).toEpochMilli() : NULL_TIMESTAMP);
+    }
+
+    private static LocalDateTime readTimestamp(DataInputStream in) throws IOException {
+        long epochMillis = in.readLong();
+        return epochMillis != NULL_TIMESTAMP
+            ? LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC)
+            : null;
+    }
+}
@@ -4,10 +4,23 @@
 CREATE TABLE CURRENCIES (
     CURRENCY_CODE VARCHAR2(3) PRIMARY KEY,
     RATE_TO_TWD NUMBER(19, 6) NOT NULL,
-    LAST_UPDATE TIMESTAMP
+    LAST_UPDATE TIMESTAMP,
+    REFRESH_FENCE NUMBER(19)
 );
+-- REFRESH_FENCE：最後一次寫入此匯率的刷新租約 fencing token，token 較小的刷新寫入時由條件更新拒絕
+-- 既有資料庫升級：ALTER TABLE CURRENCIES ADD (REFRESH_FENCE NUMBER(19));
+-- 刷新取得租約時以 MAX(REFRESH_FENCE) 作為 token 下限，Redis 計數器遺失後仍由此接續，不需要手動清除
 
 -- 建立訂單表
+-- 依 CREATED_AT 每月一個分區（INTERVAL 分區，新月份的分區由資料庫自動建立），索引除主鍵外皆為 LOCAL：
+-- 各分區的索引只涵蓋該月份，不會隨總筆數無限加深；依建立時間降序的查詢由最新的分區依序讀取，讀滿一頁即停止
+-- 已結案的舊訂單由 OrderArchiveJob 搬移到 ORDERS_ARCHIVE
+-- 既有資料庫升級（Oracle 12.2 以上，可線上執行）：
+--   ALTER TABLE ORDERS MODIFY CREATED_AT NOT NULL;
+--   ALTER TABLE ORDERS MODIFY PARTITION BY RANGE (CREATED_AT) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+--     (PARTITION P_ORDERS_INITIAL VALUES LESS THAN (TIMESTAMP '2024-01-01 00:00:00'))
+--     ONLINE UPDATE INDEXES (IDX_ORDERS_USERNAME_CREATED LOCAL, IDX_ORDERS_STATUS_CREATED LOCAL,
+--       IDX_ORDERS_CURRENCY_CREATED LOCAL, IDX_ORDERS_CREATED_AT LOCAL, IDX_ORDERS_ORDER_ID_STR LOCAL);
 CREATE TABLE ORDERS (
     ORDER_ID NUMBER PRIMARY KEY,
     USERNAME VARCHAR2(50) NOT NULL,
@@ -16,9 +29,22 @@ CREATE TABLE ORDERS (
     STATUS VARCHAR2(20) DEFAULT 'PENDING',
     DISCOUNT NUMBER(5, 2) DEFAULT 0,
     FINAL_AMOUNT NUMBER(19, 2),
-    CREATED_AT TIMESTAMP,
-    UPDATED_AT TIMESTAMP
-);
+    FINAL_AMOUNT_TWD NUMBER(19, 2),
+    TWD_RATE_VERSION TIMESTAMP,
+    CREATED_AT TIMESTAMP NOT NULL,
+    UPDATED_AT TIMESTAMP,
+    VERSION NUMBER(19) DEFAULT 0 NOT NULL
+)
+PARTITION BY RANGE (CREATED_AT) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+(PARTITION P_ORDERS_INITIAL VALUES LESS THAN (TIMESTAMP '2024-01-01 00:00:00'));
+
+-- 既有資料庫升級：ALTER TABLE ORDERS ADD VERSION NUMBER(19) DEFAULT 0 NOT NULL;
+
+-- FINAL_AMOUNT_TWD：寫入時依當時匯率換算的台幣金額；TWD_RATE_VERSION：換算所用匯率的 CURRENCIES.LAST_UPDATE
+-- 寫入時取不到匯率或非同步接收的訂單先為 NULL，由 OrderTwdBackfillJob 補上
+-- 既有資料庫升級（加欄位不需改寫既有資料，既有訂單由 OrderTwdBackfillJob 分批補上）：
+--   ALTER TABLE ORDERS ADD (FINAL_AMOUNT_TWD NUMBER(19, 2), TWD_RATE_VERSION TIMESTAMP);
+--   ALTER TABLE ORDERS_ARCHIVE ADD (FINAL_AMOUNT_TWD NUMBER(19, 2), TWD_RATE_VERSION TIMESTAMP);
 
 -- 建立訂單序號
 CREATE SEQUENCE ORDER_SEQ
@@ -27,17 +53,113 @@ CREATE SEQUENCE ORDER_SEQ
     NOCACHE
     NOCYCLE;
 
--- 建立索引
-CREATE INDEX IDX_ORDERS_USERNAME ON ORDERS(USERNAME);
-CREATE INDEX IDX_ORDERS_STATUS ON ORDERS(STATUS);
-CREATE INDEX IDX_ORDERS_CURRENCY ON ORDERS(CURRENCY);
+-- 建立複合索引（用於多條件搜尋，見 OrderSearchPlanner）
+-- 以 (欄位, CREATED_AT, ORDER_ID) 排列，條件欄位相等時索引順序即為 keyset 分頁的排序，不需額外排序；
+-- 也涵蓋只依 USERNAME / STATUS / CURRENCY 查詢的情況
+-- 既有資料庫升級：DROP INDEX IDX_ORDERS_USERNAME; DROP INDEX IDX_ORDERS_STATUS; DROP INDEX IDX_ORDERS_CURRENCY;
+CREATE INDEX IDX_ORDERS_USERNAME_CREATED ON ORDERS(USERNAME, CREATED_AT, ORDER_ID) LOCAL;
+CREATE INDEX IDX_ORDERS_STATUS_CREATED ON ORDERS(STATUS, CREATED_AT, ORDER_ID) LOCAL;
+CREATE INDEX IDX_ORDERS_CURRENCY_CREATED ON ORDERS(CURRENCY, CREATED_AT, ORDER_ID) LOCAL;
 
--- 建立 CREATED_AT 索引（用於排序，提升查詢效能）
-CREATE INDEX IDX_ORDERS_CREATED_AT ON ORDERS(CREATED_AT DESC);
+-- 建立 CREATED_AT 索引（用於排序，提升查詢效能；ORDER_ID 為 keyset 分頁同一時間的次要排序）
+-- 既有資料庫升級：DROP INDEX IDX_ORDERS_CREATED_AT; 後重新建立
+CREATE INDEX IDX_ORDERS_CREATED_AT ON ORDERS(CREATED_AT DESC, ORDER_ID DESC) LOCAL;
 
 -- 建立函數索引（用於 ORDER_ID 字串搜尋，大幅提升 LIKE 查詢效能）
 -- 這個索引會將 ORDER_ID 轉換為字串後建立索引，讓 LIKE '%...%' 查詢可以使用索引
-CREATE INDEX IDX_ORDERS_ORDER_ID_STR ON ORDERS(TO_CHAR(ORDER_ID));
+CREATE INDEX IDX_ORDERS_ORDER_ID_STR ON ORDERS(TO_CHAR(ORDER_ID)) LOCAL;
+
+-- 建立 FINAL_AMOUNT_TWD 索引（用於台幣金額的範圍條件與排序）
+-- 含 ORDER_ID 使 FINAL_AMOUNT_TWD 為 NULL 的訂單也在索引中，OrderTwdBackfillJob 找待補訂單時不需掃描全表
+CREATE INDEX IDX_ORDERS_FINAL_AMOUNT_TWD ON ORDERS(FINAL_AMOUNT_TWD, ORDER_ID) LOCAL;
+
+-- 建立已封存訂單表（OrderArchiveJob 寫入，OrderArchive 查詢）
+-- 欄位與 ORDERS 相同，另加封存時間；同樣每月一個分區，只新增、不修改
+CREATE TABLE ORDERS_ARCHIVE (
+    ORDER_ID NUMBER PRIMARY KEY,
+    USERNAME VARCHAR2(50) NOT NULL,
+    AMOUNT NUMBER(19, 2) NOT NULL,
+    CURRENCY VARCHAR2(3) NOT NULL,
+    STATUS VARCHAR2(20),
+    DISCOUNT NUMBER(5, 2),
+    FINAL_AMOUNT NUMBER(19, 2),
+    FINAL_AMOUNT_TWD NUMBER(19, 2),
+    TWD_RATE_VERSION TIMESTAMP,
+    CREATED_AT TIMESTAMP NOT NULL,
+    UPDATED_AT TIMESTAMP,
+    VERSION NUMBER(19) NOT NULL,
+    ARCHIVED_AT TIMESTAMP NOT NULL
+)
+PARTITION BY RANGE (CREATED_AT) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+(PARTITION P_ORDERS_ARCHIVE_INITIAL VALUES LESS THAN (TIMESTAMP '2024-01-01 00:00:00'));
+
+-- 封存表的多條件搜尋（OrderService.searchOrders 查詢範圍早於封存界線時）
+CREATE INDEX IDX_ORDERS_ARCHIVE_USERNAME ON ORDERS_ARCHIVE(USERNAME, CREATED_AT, ORDER_ID) LOCAL;
+CREATE INDEX IDX_ORDERS_ARCHIVE_CREATED_AT ON ORDERS_ARCHIVE(CREATED_AT DESC, ORDER_ID DESC) LOCAL;
+
+-- 建立訂單每日彙總表（OrderRollupCompactionJob 寫入，OrderReportService 查詢）
+-- 每個 (建立日期, 幣別, 狀態, 使用者) 一列；平均折扣 = TOTAL_DISCOUNT / ORDER_COUNT
+CREATE TABLE ORDER_DAILY_ROLLUP (
+    ORDER_DATE DATE NOT NULL,
+    CURRENCY VARCHAR2(3) NOT NULL,
+    STATUS VARCHAR2(20) NOT NULL,
+    USERNAME VARCHAR2(50) NOT NULL,
+    ORDER_COUNT NUMBER(19) NOT NULL,
+    TOTAL_AMOUNT NUMBER(19, 2) NOT NULL,
+    TOTAL_FINAL_AMOUNT NUMBER(19, 2) NOT NULL,
+    TOTAL_DISCOUNT NUMBER(19, 2) NOT NULL,
+    CONSTRAINT PK_ORDER_DAILY_ROLLUP PRIMARY KEY (ORDER_DATE, CURRENCY, STATUS, USERNAME)
+);
+
+-- 一般用戶的報表只查詢自己的訂單
+CREATE INDEX IDX_ORDER_DAILY_ROLLUP_USERNAME ON ORDER_DAILY_ROLLUP(USERNAME, ORDER_DATE);
+
+-- 建立訂單每日彙總增量表（訂單寫入時由 OrderRollupRecorder 在同一個交易中新增，只新增不修改）
+-- 每晚由 OrderRollupCompactionJob 合併到 ORDER_DAILY_ROLLUP 後刪除；報表查詢時與彙總表一併加總
+CREATE TABLE ORDER_ROLLUP_DELTA (
+    DELTA_ID NUMBER PRIMARY KEY,
+    ORDER_DATE DATE NOT NULL,
+    CURRENCY VARCHAR2(3) NOT NULL,
+    STATUS VARCHAR2(20) NOT NULL,
+    USERNAME VARCHAR2(50) NOT NULL,
+    ORDER_COUNT NUMBER(19) NOT NULL,
+    TOTAL_AMOUNT NUMBER(19, 2) NOT NULL,
+    TOTAL_FINAL_AMOUNT NUMBER(19, 2) NOT NULL,
+    TOTAL_DISCOUNT NUMBER(19, 2) NOT NULL
+);
+
+-- 與 OrderRollupDelta 的 allocationSize 相同，每次取號可配置 50 個ID
+CREATE SEQUENCE ORDER_ROLLUP_DELTA_SEQ
+    START WITH 1
+    INCREMENT BY 50
+    NOCYCLE;
+
+CREATE INDEX IDX_ORDER_ROLLUP_DELTA_DATE ON ORDER_ROLLUP_DELTA(ORDER_DATE);
+
+-- 建立訂單異動事件 outbox（訂單寫入時由 OrderOutbox 在同一個交易中新增）
+-- 由 OrderOutboxRelay 依 EVENT_ID 順序發布到事件串流後刪除，正常情況下只有尚未發布的少量資料
+CREATE TABLE ORDER_OUTBOX (
+    EVENT_ID NUMBER PRIMARY KEY,
+    EVENT_TYPE VARCHAR2(20) NOT NULL,
+    ORDER_ID NUMBER NOT NULL,
+    USERNAME VARCHAR2(50) NOT NULL,
+    ORDER_VERSION NUMBER,
+    PAYLOAD CLOB NOT NULL,
+    CREATED_AT TIMESTAMP NOT NULL
+);
+
+-- 與 OrderOutboxEvent 的 allocationSize 相同，每次取號可配置 50 個ID
+CREATE SEQUENCE ORDER_OUTBOX_SEQ
+    START WITH 1
+    INCREMENT BY 50
+    NOCYCLE;
+
+-- 既有資料庫升級：建立上述兩張表後、部署新版本前，以既有訂單初始化彙總（ORDERS 與 ORDERS_ARCHIVE 皆需計入）
+--   INSERT INTO ORDER_DAILY_ROLLUP (ORDER_DATE, CURRENCY, STATUS, USERNAME, ORDER_COUNT, TOTAL_AMOUNT, TOTAL_FINAL_AMOUNT, TOTAL_DISCOUNT)
+--   SELECT TRUNC(CREATED_AT), CURRENCY, STATUS, USERNAME, COUNT(*), SUM(AMOUNT), SUM(NVL(FINAL_AMOUNT, 0)), SUM(NVL(DISCOUNT, 0))
+--   FROM (SELECT CREATED_AT, CURRENCY, STATUS, USERNAME, AMOUNT, FINAL_AMOUNT, DISCOUNT FROM ORDERS
+--         UNION ALL SELECT CREATED_AT, CURRENCY, STATUS, USERNAME, AMOUNT, FINAL_AMOUNT, DISCOUNT FROM ORDERS_ARCHIVE)
+--   WHERE STATUS IS NOT NULL GROUP BY TRUNC(CREATED_AT), CURRENCY, STATUS, USERNAME;
 
 -- ============================================
 -- 用戶和權限管理相關表
@@ -0,0 +1,65 @@
+package com.example.ordersystem.config;
+
+import com.example.ordersystem.model.Currency;
+import com.example.ordersystem.model.CurrencyCode;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 匯率快取序列化器比較
+ * 比較 CurrencyRedisSerializer 與通用 JSON 序列化器的每筆大小與編碼/解碼耗時
+ *
+ * 不屬於單元測試（surefire 不會執行），手動執行：
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.example.ordersystem.config.CurrencyRedisSerializerBenchmark
+ * </pre>
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+public class CurrencyRedisSerializerBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURE_ITERATIONS = 1_000_000;
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        Currency currency = new Currency();
+        currency.setCurrencyCode(CurrencyCode.JPY);
+        currency.setRateToTwd(new BigDecimal("0.213456"));
+        currency.setLastUpdate(LocalDateTime.now());
+
+        run("binary", new CurrencyRedisSerializer(), currency);
+        run("json", RedisConfig.jsonRedisSerializer(), currency);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void run(String name, RedisSerializer<?> serializer, Currency currency) {
+        RedisSerializer<Object> s = (RedisSerializer<Object>) serializer;
+        byte[] bytes = s.serialize(currency);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = s.deserialize(s.serialize(currency));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            sink = s.serialize(currency);
+        }
+        long encodeNs = (System.nanoTime() - start) / MEASURE_ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            sink = s.deserialize(bytes);
+        }
+        long decodeNs = (System.nanoTime() - start) / MEASURE_ITERATIONS;
+
+        System.out.printf("%-6s %4d bytes/entry  encode %6d ns/op  decode %6d ns/op%n",
+            name, bytes.length, encodeNs, decodeNs);
+    }
+}
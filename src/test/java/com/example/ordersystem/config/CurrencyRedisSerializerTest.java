@@ -0,0 +1,96 @@
+package com.example.ordersystem.config;
+
+import com.example.ordersystem.model.Currency;
+import com.example.ordersystem.model.CurrencyCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CurrencyRedisSerializer 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@DisplayName("CurrencyRedisSerializer 測試")
+class CurrencyRedisSerializerTest {
+
+    private final CurrencyRedisSerializer serializer = new CurrencyRedisSerializer();
+
+    private Currency testCurrency;
+
+    @BeforeEach
+    void setUp() {
+        testCurrency = new Currency();
+        testCurrency.setCurrencyCode(CurrencyCode.USD);
+        testCurrency.setRateToTwd(new BigDecimal("31.250000"));
+        testCurrency.setLastUpdate(LocalDateTime.of(2024, 1, 15, 10, 30, 45, 123_000_000));
+    }
+
+    @Test
+    @DisplayName("測試序列化 - 往返後欄位相同")
+    void testRoundTrip() {
+        // Act
+        byte[] bytes = serializer.serialize(testCurrency);
+        Currency result = serializer.deserialize(bytes);
+
+        // Assert
+        assertEquals(CurrencyRedisSerializer.ENCODED_LENGTH, bytes.length);
+        assertEquals(CurrencyCode.USD, result.getCurrencyCode());
+        assertEquals(new BigDecimal("31.250000"), result.getRateToTwd());
+        assertEquals(testCurrency.getLastUpdate(), result.getLastUpdate());
+    }
+
+    @Test
+    @DisplayName("測試序列化 - 最後更新時間為 null")
+    void testRoundTrip_NullLastUpdate() {
+        // Arrange
+        testCurrency.setLastUpdate(null);
+
+        // Act
+        Currency result = serializer.deserialize(serializer.serialize(testCurrency));
+
+        // Assert
+        assertNull(result.getLastUpdate());
+        assertEquals(new BigDecimal("31.250000"), result.getRateToTwd());
+    }
+
+    @Test
+    @DisplayName("測試序列化 - 比 JSON 序列化器精簡")
+    void testSmallerThanJson() {
+        // Act
+        byte[] binary = serializer.serialize(testCurrency);
+        byte[] json = RedisConfig.jsonRedisSerializer().serialize(testCurrency);
+
+        // Assert
+        assertTrue(binary.length < json.length / 4,
+            "binary=" + binary.length + " bytes, json=" + json.length + " bytes");
+    }
+
+    @Test
+    @DisplayName("測試反序列化 - 舊版 JSON 格式視為未命中")
+    void testDeserialize_LegacyJson() {
+        // Arrange
+        byte[] json = RedisConfig.jsonRedisSerializer().serialize(testCurrency);
+
+        // Act & Assert
+        assertNull(serializer.deserialize(json));
+        assertNull(serializer.deserialize(null));
+    }
+
+    @Test
+    @DisplayName("測試序列化 - 匯率為 null")
+    void testSerialize_NullRate() {
+        // Arrange
+        testCurrency.setRateToTwd(null);
+
+        // Act & Assert
+        assertThrows(SerializationException.class, () -> serializer.serialize(testCurrency));
+    }
+}
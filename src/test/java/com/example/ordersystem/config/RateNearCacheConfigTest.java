@@ -0,0 +1,30 @@
+package com.example.ordersystem.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * RateNearCacheConfig 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@DisplayName("RateNearCacheConfig 測試")
+class RateNearCacheConfigTest {
+
+    @Test
+    @DisplayName("合併 notify-keyspace-events - 保留伺服器既有的旗標，只加入缺少的")
+    void testMergeKeyspaceEvents_KeepsExistingFlags() {
+        assertEquals("K$gx", RateNearCacheConfig.mergeKeyspaceEvents("", "K$gx"));
+        assertEquals("ExK$g", RateNearCacheConfig.mergeKeyspaceEvents("Ex", "K$gx"));
+    }
+
+    @Test
+    @DisplayName("合併 notify-keyspace-events - 已包含（含 A 別名）時不變更")
+    void testMergeKeyspaceEvents_AlreadyEnabled() {
+        assertEquals("KEA", RateNearCacheConfig.mergeKeyspaceEvents("KEA", "K$gx"));
+        assertEquals("xg$K", RateNearCacheConfig.mergeKeyspaceEvents("xg$K", "K$gx"));
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.ordersystem.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ReplicaRoutingDataSource 測試
+ * 以兩個 H2 記憶體資料庫模擬主庫與備庫，各放一筆標記資料判斷查詢落在哪一邊
+ */
+@DisplayName("ReplicaRoutingDataSource 測試")
+class ReplicaRoutingDataSourceTest {
+
+    private ReadYourWritesGuard readYourWritesGuard;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = markedDatabase("routing_primary", "PRIMARY");
+        DataSource replica = markedDatabase("routing_replica", "REPLICA");
+
+        readYourWritesGuard = new ReadYourWritesGuard();
+        ReflectionTestUtils.setField(readYourWritesGuard, "window", Duration.ofMillis(200));
+
+        DataSource routing = DataSourceRoutingConfig.routingDataSource(primary, replica, readYourWritesGuard);
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("唯讀交易 - 導向備庫")
+    void testReadOnlyTransactionUsesReplica() {
+        assertEquals("REPLICA", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    @DisplayName("讀寫交易 - 導向主庫")
+    void testReadWriteTransactionUsesPrimary() {
+        assertEquals("PRIMARY", readWriteTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    @DisplayName("寫入後保護時間內 - 唯讀交易改讀主庫，逾時後恢復讀備庫")
+    void testReadYourWritesWindow() throws InterruptedException {
+        authenticate("user1");
+
+        readWriteTransaction.executeWithoutResult(status -> readYourWritesGuard.recordWrite());
+
+        assertEquals("PRIMARY", readOnlyTransaction.execute(status -> currentNode()));
+
+        Thread.sleep(250);
+
+        assertEquals("REPLICA", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    @DisplayName("寫入交易回滾 - 不影響後續讀取")
+    void testRolledBackWriteIsNotRecorded() {
+        authenticate("user1");
+
+        readWriteTransaction.executeWithoutResult(status -> {
+            readYourWritesGuard.recordWrite();
+            status.setRollbackOnly();
+        });
+
+        assertEquals("REPLICA", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    @DisplayName("其他使用者的寫入 - 不影響目前使用者")
+    void testWriteByAnotherUserDoesNotAffectCurrentUser() {
+        authenticate("user1");
+        readWriteTransaction.executeWithoutResult(status -> readYourWritesGuard.recordWrite());
+
+        authenticate("user2");
+
+        assertEquals("REPLICA", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    @DisplayName("readFromPrimary - 唯讀交易中尚未取得連線時改讀主庫，結束後恢復讀備庫")
+    void testReadFromPrimary() {
+        assertEquals("PRIMARY", readOnlyTransaction.execute(status -> readYourWritesGuard.readFromPrimary(this::currentNode)));
+
+        assertEquals("REPLICA", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT NODE FROM ROUTING_MARKER", String.class);
+    }
+
+    private static DataSource markedDatabase(String name, String node) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE IF NOT EXISTS ROUTING_MARKER (NODE VARCHAR(10))");
+        template.update("DELETE FROM ROUTING_MARKER");
+        template.update("INSERT INTO ROUTING_MARKER (NODE) VALUES (?)", node);
+        return dataSource;
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+}
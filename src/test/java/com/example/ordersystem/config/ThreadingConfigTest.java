@@ -0,0 +1,75 @@
+package com.example.ordersystem.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ThreadingConfig 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@DisplayName("ThreadingConfig 測試")
+class ThreadingConfigTest {
+
+    private ThreadingConfig threadingConfig;
+
+    @BeforeEach
+    void setUp() {
+        threadingConfig = new ThreadingConfig();
+        ReflectionTestUtils.setField(threadingConfig, "backgroundMaxConcurrency", 4);
+    }
+
+    @Test
+    @DisplayName("測試屬性未開啟 - 使用平台執行緒池")
+    void testVirtualThreadsDisabled_UsesPlatformThreads() {
+        // Arrange
+        ReflectionTestUtils.setField(threadingConfig, "virtualThreadsEnabled", false);
+        ReflectionTestUtils.setField(threadingConfig, "javaVersion", 21);
+
+        // Act
+        TaskScheduler scheduler = threadingConfig.taskScheduler();
+        TaskExecutor executor = threadingConfig.backgroundTaskExecutor();
+
+        // Assert
+        assertFalse(threadingConfig.isVirtualThreadsAvailable());
+        assertInstanceOf(ThreadPoolTaskScheduler.class, scheduler);
+        assertEquals(4, assertInstanceOf(ThreadPoolTaskExecutor.class, executor).getMaxPoolSize());
+    }
+
+    @Test
+    @DisplayName("測試屬性開啟但 Java 版本低於 21 - 退回平台執行緒池")
+    void testVirtualThreadsEnabled_FallsBackBelowJava21() {
+        // Arrange
+        ReflectionTestUtils.setField(threadingConfig, "virtualThreadsEnabled", true);
+        ReflectionTestUtils.setField(threadingConfig, "javaVersion", 17);
+
+        // Act
+        TaskScheduler scheduler = threadingConfig.taskScheduler();
+        TaskExecutor executor = threadingConfig.backgroundTaskExecutor();
+
+        // Assert
+        assertFalse(threadingConfig.isVirtualThreadsAvailable());
+        assertInstanceOf(ThreadPoolTaskScheduler.class, scheduler);
+        assertEquals(4, assertInstanceOf(ThreadPoolTaskExecutor.class, executor).getMaxPoolSize());
+    }
+
+    @Test
+    @DisplayName("測試屬性開啟且 Java 21 以上 - 使用虛擬執行緒")
+    void testVirtualThreadsEnabled_Java21() {
+        // Arrange
+        ReflectionTestUtils.setField(threadingConfig, "virtualThreadsEnabled", true);
+        ReflectionTestUtils.setField(threadingConfig, "javaVersion", 21);
+
+        // Act & Assert
+        assertTrue(threadingConfig.isVirtualThreadsAvailable());
+    }
+}
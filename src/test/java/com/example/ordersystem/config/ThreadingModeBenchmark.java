@@ -0,0 +1,132 @@
+package com.example.ordersystem.config;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 平台執行緒與虛擬執行緒的請求吞吐量比較
+ * 以內嵌 Tomcat 處理每次阻塞 200ms 的請求（模擬較慢的 Oracle 查詢或 ExchangeRate-API 呼叫），
+ * 讓 CPU 不是瓶頸時比較執行緒數量的上限（200 條平台執行緒約為 1000 req/s），
+ * 在不同並行數下比較每秒請求數與 p99 延遲：
+ * - platform：Tomcat 預設的 200 條工作執行緒（spring.threads.virtual.enabled=false）
+ * - virtual：與 Spring Boot 開啟 spring.threads.virtual.enabled=true 時相同，每個請求一條虛擬執行緒
+ *
+ * 不屬於單元測試（surefire 不會執行），需以 Java 21 手動執行（可由參數指定模式與順序，預設 platform virtual）：
+ * <pre>
+ * mvn -q -Pjava21 test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     -Dstdout.encoding=UTF-8 com.example.ordersystem.config.ThreadingModeBenchmark
+ * </pre>
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+public class ThreadingModeBenchmark {
+
+    private static final long IO_MILLIS = 200;
+    private static final int[] CONCURRENCY = {100, 400, 1000};
+    private static final long WARMUP_MILLIS = 5_000;
+    private static final long MEASURE_MILLIS = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("需以 Java 21 以上執行，目前為 " + Runtime.version().feature());
+        }
+        System.out.printf("Java %s, %d CPU, 每個請求阻塞 %d ms%n",
+            Runtime.version(), Runtime.getRuntime().availableProcessors(), IO_MILLIS);
+        for (String mode : args.length > 0 ? List.of(args) : List.of("platform", "virtual")) {
+            WebServer server = start("virtual".equals(mode));
+            try {
+                for (int concurrency : CONCURRENCY) {
+                    run(mode, server.getPort(), concurrency);
+                }
+            } finally {
+                server.stop();
+                server.destroy();
+            }
+        }
+    }
+
+    private static WebServer start(boolean virtualThreads) {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        if (virtualThreads) {
+            // 與 Spring Boot 的 TomcatVirtualThreadsWebServerFactoryCustomizer 相同
+            factory.addProtocolHandlerCustomizers(protocol -> protocol.setExecutor(new VirtualThreadExecutor("tomcat-handler-")));
+        }
+        WebServer server = factory.getWebServer(context -> context.addServlet("io", new BlockingIoServlet()).addMapping("/io"));
+        server.start();
+        return server;
+    }
+
+    private static void run(String mode, int port, int concurrency) {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/io")).build();
+
+        load(client, request, concurrency, WARMUP_MILLIS, new ArrayList<>());
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        long start = System.nanoTime();
+        load(client, request, concurrency, MEASURE_MILLIS, latencies);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("%-8s 並行 %5d  %8.0f req/s  p50 %5d ms  p99 %5d ms%n", mode, concurrency,
+            sorted.size() / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99));
+    }
+
+    /**
+     * 每個用戶端在回應後立即送出下一個請求，直到時間結束
+     */
+    private static void load(HttpClient client, HttpRequest request, int concurrency, long millis, List<Long> latencies) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        CompletableFuture<?>[] users = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            users[i] = send(client, request, deadline, latencies);
+        }
+        CompletableFuture.allOf(users).join();
+    }
+
+    private static CompletableFuture<Void> send(HttpClient client, HttpRequest request, long deadline, List<Long> latencies) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .thenCompose(response -> {
+                latencies.add((System.nanoTime() - start) / 1_000_000);
+                return send(client, request, deadline, latencies);
+            });
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        return sorted.isEmpty() ? 0 : sorted.get((int) Math.min(sorted.size() - 1, Math.floor(sorted.size() * p)));
+    }
+
+    private static class BlockingIoServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            try {
+                Thread.sleep(IO_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.getWriter().write("ok");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ordersystem.controller;
+
+import com.example.ordersystem.service.CacheStatisticsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * CacheStatisticsController 測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@WebMvcTest(controllers = CacheStatisticsController.class, excludeAutoConfiguration = {
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+@org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc(addFilters = false)
+@DisplayName("CacheStatisticsController 測試")
+class CacheStatisticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CacheStatisticsService cacheStatisticsService;
+
+    @MockBean
+    private com.example.ordersystem.filter.JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Test
+    @DisplayName("測試取得快取統計 - 成功")
+    void testGetStatistics_Success() throws Exception {
+        // Arrange
+        Map<String, Object> role = new LinkedHashMap<>();
+        role.put("hits", 9L);
+        role.put("misses", 1L);
+        role.put("hitRatio", 0.9);
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("statisticsEnabled", true);
+        statistics.put("regions", Map.of("role", role));
+        when(cacheStatisticsService.getSecondLevelCacheStatistics()).thenReturn(statistics);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/admin/cache/statistics"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.statisticsEnabled").value(true))
+            .andExpect(jsonPath("$.regions.role.hitRatio").value(0.9));
+    }
+
+    @Test
+    @DisplayName("測試重設快取統計 - 成功")
+    void testResetStatistics_Success() throws Exception {
+        // Act & Assert
+        mockMvc.perform(delete("/api/admin/cache/statistics"))
+            .andExpect(status().isNoContent());
+
+        verify(cacheStatisticsService, times(1)).resetStatistics();
+    }
+}
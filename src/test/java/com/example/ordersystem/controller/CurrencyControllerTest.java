@@ -2,8 +2,14 @@ package com.example.ordersystem.controller;
 
 import com.example.ordersystem.model.Currency;
 import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.dto.RateRefreshJob;
+import com.example.ordersystem.dto.RateSnapshot;
+import com.example.ordersystem.exception.ConflictException;
+import com.example.ordersystem.exception.ServiceUnavailableException;
 import com.example.ordersystem.scheduler.CurrencyRateUpdateScheduler;
+import com.example.ordersystem.scheduler.RateRefreshJobManager;
 import com.example.ordersystem.service.CurrencyService;
+import com.example.ordersystem.service.RateStreamBroadcaster;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,6 +21,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -53,6 +61,15 @@ class CurrencyControllerTest {
     
     @MockBean
     private com.example.ordersystem.filter.JwtAuthenticationFilter jwtAuthenticationFilter;
+    
+    @MockBean(name = "backgroundTaskExecutor")
+    private org.springframework.core.task.TaskExecutor backgroundTaskExecutor;
+    
+    @MockBean
+    private RateRefreshJobManager rateRefreshJobManager;
+
+    @MockBean
+    private RateStreamBroadcaster rateStreamBroadcaster;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -65,6 +82,9 @@ class CurrencyControllerTest {
         testCurrency.setCurrencyCode(CurrencyCode.USD);
         testCurrency.setRateToTwd(new BigDecimal("31.25"));
         testCurrency.setLastUpdate(LocalDateTime.now());
+        
+        when(rateRefreshJobManager.submit(any())).thenReturn(new RateRefreshJob("job-1", "MANUAL"));
+        when(currencyService.getFreshFor()).thenReturn(Duration.ofSeconds(30));
     }
 
     @Test
@@ -88,15 +108,34 @@ class CurrencyControllerTest {
     @DisplayName("測試取得單一匯率 - 公開訪問")
     void testGetCurrencyByCode_Public() throws Exception {
         // Arrange
-        when(currencyService.getCurrencyByCode(CurrencyCode.USD)).thenReturn(Optional.of(testCurrency));
+        when(currencyService.getRateSnapshot(CurrencyCode.USD)).thenReturn(Optional.of(
+            new RateSnapshot(testCurrency, RateSnapshot.Source.REDIS, Instant.now())));
 
         // Act & Assert
         mockMvc.perform(get("/api/currencies/USD"))
             .andExpect(status().isOk())
             .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
-            .andExpect(jsonPath("$.currencyCode").value("USD"));
+            .andExpect(jsonPath("$.currencyCode").value("USD"))
+            .andExpect(header().string("X-Rate-Source", "REDIS"))
+            .andExpect(header().string("X-Rate-Freshness", "fresh"));
 
-        verify(currencyService, times(1)).getCurrencyByCode(CurrencyCode.USD);
+        verify(currencyService, times(1)).getRateSnapshot(CurrencyCode.USD);
+    }
+
+    @Test
+    @DisplayName("測試取得單一匯率 - Redis 無法使用時回應過期快照")
+    void testGetCurrencyByCode_StaleSnapshot() throws Exception {
+        // Arrange
+        when(currencyService.getRateSnapshot(CurrencyCode.USD)).thenReturn(Optional.of(
+            new RateSnapshot(testCurrency, RateSnapshot.Source.SNAPSHOT, Instant.now().minusSeconds(120))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/currencies/USD"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.currencyCode").value("USD"))
+            .andExpect(header().string("X-Rate-Source", "SNAPSHOT"))
+            .andExpect(header().string("X-Rate-Freshness", "stale"))
+            .andExpect(header().exists("Age"));
     }
 
     @Test
@@ -126,6 +165,30 @@ class CurrencyControllerTest {
         );
     }
 
+    @Test
+    @DisplayName("測試匯率轉換 - 附上最舊匯率的新鮮度")
+    void testConvertCurrency_FreshnessHeaders() throws Exception {
+        // Arrange
+        Currency eur = new Currency();
+        eur.setCurrencyCode(CurrencyCode.EUR);
+        eur.setRateToTwd(new BigDecimal("34.00"));
+        when(currencyService.convertCurrency(any(), eq(CurrencyCode.USD), eq(CurrencyCode.EUR)))
+            .thenReturn(new BigDecimal("91.91"));
+        when(currencyService.peekRateSnapshot(CurrencyCode.USD)).thenReturn(Optional.of(
+            new RateSnapshot(testCurrency, RateSnapshot.Source.REDIS, Instant.now())));
+        when(currencyService.peekRateSnapshot(CurrencyCode.EUR)).thenReturn(Optional.of(
+            new RateSnapshot(eur, RateSnapshot.Source.SNAPSHOT, Instant.now().minusSeconds(300))));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/currencies/convert")
+                .param("amount", "100.00")
+                .param("sourceCurrency", "USD")
+                .param("targetCurrency", "EUR"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Rate-Source", "SNAPSHOT"))
+            .andExpect(header().string("X-Rate-Freshness", "stale"));
+    }
+
     @Test
     @DisplayName("測試創建匯率 - ADMIN角色 - 成功")
     void testCreateCurrency_Admin_Success() throws Exception {
@@ -210,7 +273,77 @@ class CurrencyControllerTest {
             .andExpect(status().isOk())
             .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.status").value("processing"))
-            .andExpect(jsonPath("$.message").exists());
+            .andExpect(jsonPath("$.message").exists())
+            .andExpect(jsonPath("$.jobId").value("job-1"));
+    }
+
+    @Test
+    @DisplayName("測試刷新匯率 - 進行中任務合併請求")
+    void testRefreshRates_Coalesced() throws Exception {
+        // Arrange
+        RateRefreshJob inFlightJob = new RateRefreshJob("job-1", "MANUAL");
+        inFlightJob.incrementCoalescedRequests();
+        when(rateRefreshJobManager.submit("MANUAL")).thenReturn(inFlightJob);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/currencies/refresh"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.jobId").value("job-1"))
+            .andExpect(jsonPath("$.coalesced").value(true));
+    }
+
+    @Test
+    @DisplayName("測試刷新匯率 - 其他節點正在執行刷新時回應 409 與原因")
+    void testRefreshRates_RunningElsewhere() throws Exception {
+        // Arrange
+        when(rateRefreshJobManager.submit("MANUAL"))
+            .thenThrow(new ConflictException("其他節點正在執行匯率刷新，租約於 90 秒內到期，請稍後再試"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/currencies/refresh"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.message").value("其他節點正在執行匯率刷新，租約於 90 秒內到期，請稍後再試"));
+    }
+
+    @Test
+    @DisplayName("測試匯率串流 - 訂閱者已達上限時回應 503 與 Retry-After")
+    void testStreamRates_TooManySubscribers() throws Exception {
+        // Arrange
+        when(rateStreamBroadcaster.subscribe())
+            .thenThrow(new ServiceUnavailableException("匯率串流連線數已達上限，請稍後再試", 30));
+
+        // Act & Assert：EventSource 只接受 text/event-stream
+        mockMvc.perform(get("/api/currencies/stream").accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "30"));
+    }
+
+    @Test
+    @DisplayName("測試查詢刷新任務 - 成功")
+    void testGetRefreshJob_Success() throws Exception {
+        // Arrange
+        RateRefreshJob job = new RateRefreshJob("job-1", "MANUAL");
+        job.markRunning();
+        job.markSucceeded("更新 5 種幣別，新增 0 種幣別");
+        when(rateRefreshJobManager.getJob("job-1")).thenReturn(Optional.of(job));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/currencies/refresh/job-1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.jobId").value("job-1"))
+            .andExpect(jsonPath("$.status").value("SUCCEEDED"))
+            .andExpect(jsonPath("$.durationMs").exists());
+    }
+
+    @Test
+    @DisplayName("測試查詢刷新任務 - 不存在")
+    void testGetRefreshJob_NotFound() throws Exception {
+        // Arrange
+        when(rateRefreshJobManager.getJob("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/currencies/refresh/missing"))
+            .andExpect(status().isNotFound());
     }
 
     @Test
@@ -274,5 +407,38 @@ class CurrencyControllerTest {
             .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.status").value("disabled"));
     }
-}
 
+    @Test
+    @DisplayName("測試更新刷新策略 - 成功")
+    void testUpdateRefreshPolicy_Success() throws Exception {
+        // Arrange
+        com.example.ordersystem.dto.RateRefreshPolicy policy =
+            new com.example.ordersystem.dto.RateRefreshPolicy(1800, 120, 30, 1800, 2.0, 900);
+        when(currencyRateUpdateScheduler.getPolicy()).thenReturn(policy);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/currencies/auto-update/policy")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(policy)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.intervalSeconds").value(1800));
+
+        verify(currencyRateUpdateScheduler, times(1)).updatePolicy(any());
+    }
+
+    @Test
+    @DisplayName("測試更新刷新策略 - 抖動大於間隔應該失敗")
+    void testUpdateRefreshPolicy_JitterTooLarge() throws Exception {
+        // Arrange
+        com.example.ordersystem.dto.RateRefreshPolicy policy =
+            new com.example.ordersystem.dto.RateRefreshPolicy(600, 900, 30, 1800, 2.0, 900);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/currencies/auto-update/policy")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(policy)))
+            .andExpect(status().isBadRequest());
+
+        verify(currencyRateUpdateScheduler, never()).updatePolicy(any());
+    }
+}
@@ -1,8 +1,24 @@
 package com.example.ordersystem.controller;
 
+import com.example.ordersystem.dto.OrderChange;
+import com.example.ordersystem.dto.OrderChangeBatch;
+import com.example.ordersystem.dto.OrderIdSearchResult;
+import com.example.ordersystem.dto.OrderPatchRequest;
+import com.example.ordersystem.dto.OrderSearchCriteria;
+import com.example.ordersystem.dto.OrderSearchResult;
+import com.example.ordersystem.dto.StatusTransitionRequest;
+import com.example.ordersystem.dto.StatusTransitionResult;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.exception.ConflictException;
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.model.OrderStatus;
+import com.example.ordersystem.service.IdempotencyService;
+import com.example.ordersystem.service.OrderChangeFeed;
+import com.example.ordersystem.service.OrderIdSearchService;
 import com.example.ordersystem.service.OrderService;
+import com.example.ordersystem.service.OrderStatusCounters;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,17 +31,23 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -53,6 +75,18 @@ class OrderControllerTest {
 
     @MockBean
     private OrderService orderService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private OrderStatusCounters orderStatusCounters;
+
+    @MockBean
+    private OrderIdSearchService orderIdSearchService;
+
+    @MockBean
+    private OrderChangeFeed orderChangeFeed;
     
     @MockBean
     private com.example.ordersystem.util.JwtUtil jwtUtil;
@@ -72,7 +106,7 @@ class OrderControllerTest {
         testOrder.setUsername("testuser");
         testOrder.setAmount(new BigDecimal("1000.00"));
         testOrder.setCurrency(CurrencyCode.USD);
-        testOrder.setStatus("PENDING");
+        testOrder.setStatus(OrderStatus.PENDING);
         testOrder.setDiscount(new BigDecimal("10.00"));
         testOrder.setFinalAmount(new BigDecimal("900.00"));
         testOrder.setCreatedAt(LocalDateTime.now());
@@ -260,6 +294,95 @@ class OrderControllerTest {
         verify(orderService, times(1)).createOrder(any(Order.class));
     }
     
+    @Test
+    @DisplayName("測試建立訂單 - 非同步接收 - 返回 202 與訂單ID")
+    void testCreateOrder_AcceptedAsync() throws Exception {
+        // Arrange
+        setupAdminAuthentication();
+        Order newOrder = new Order();
+        newOrder.setUsername("newuser");
+        newOrder.setAmount(new BigDecimal("2000.00"));
+        newOrder.setCurrency(CurrencyCode.EUR);
+
+        Order acceptedOrder = new Order();
+        acceptedOrder.setOrderId(3L);
+        acceptedOrder.setUsername("newuser");
+        acceptedOrder.setAmount(newOrder.getAmount());
+        acceptedOrder.setCurrency(newOrder.getCurrency());
+        acceptedOrder.setFinalAmount(newOrder.getAmount());
+
+        when(orderService.acceptOrder(any(Order.class))).thenReturn(Optional.of(acceptedOrder));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newOrder)))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string("Location", "/api/orders/3"))
+            .andExpect(jsonPath("$.orderId").value(3));
+
+        verify(orderService, never()).createOrder(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("測試建立訂單 - Idempotency-Key 第一次請求 - 建立並記錄結果")
+    void testCreateOrder_IdempotencyKey_FirstRequest() throws Exception {
+        // Arrange
+        setupAdminAuthentication();
+        when(idempotencyService.begin("admin", "key-1")).thenReturn(Optional.empty());
+        when(orderService.createOrder(any(Order.class))).thenReturn(testOrder);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrder)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.orderId").value(1));
+
+        verify(idempotencyService, times(1)).complete("admin", "key-1", 201, 1L);
+    }
+
+    @Test
+    @DisplayName("測試建立訂單 - Idempotency-Key 重送 - 返回原訂單且不重複建立")
+    void testCreateOrder_IdempotencyKey_Replayed() throws Exception {
+        // Arrange
+        setupAdminAuthentication();
+        when(idempotencyService.begin("admin", "key-1"))
+            .thenReturn(Optional.of(new IdempotencyService.Outcome(201, 1L)));
+        when(orderService.getOrderById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrder)))
+            .andExpect(status().isCreated())
+            .andExpect(header().string("Idempotent-Replayed", "true"))
+            .andExpect(jsonPath("$.orderId").value(1));
+
+        verify(orderService, never()).createOrder(any(Order.class));
+        verify(orderService, never()).acceptOrder(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("測試建立訂單 - Idempotency-Key 仍在處理中 - 返回 409")
+    void testCreateOrder_IdempotencyKey_InProgress() throws Exception {
+        // Arrange
+        setupAdminAuthentication();
+        when(idempotencyService.begin("admin", "key-1"))
+            .thenThrow(new ConflictException("相同 Idempotency-Key 的請求仍在處理中"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrder)))
+            .andExpect(status().isConflict());
+
+        verify(orderService, never()).createOrder(any(Order.class));
+    }
+
     @Test
     @DisplayName("測試建立訂單 - USER角色 - 強制使用當前用戶名")
     void testCreateOrder_User_ForcedUsername() throws Exception {
@@ -303,7 +426,7 @@ class OrderControllerTest {
         updateData.setUsername("updateduser");
         updateData.setAmount(new BigDecimal("2000.00"));
         updateData.setCurrency(CurrencyCode.EUR);
-        updateData.setStatus("CONFIRMED");
+        updateData.setStatus(OrderStatus.CONFIRMED);
         updateData.setDiscount(new BigDecimal("15.00"));
 
         testOrder.setUsername(updateData.getUsername());
@@ -326,6 +449,270 @@ class OrderControllerTest {
         verify(orderService, times(1)).updateOrder(eq(1L), any(Order.class));
     }
 
+    @Test
+    @DisplayName("測試部分更新訂單 - 成功")
+    void testPatchOrder_Success() throws Exception {
+        // Arrange
+        testOrder.setStatus(OrderStatus.CONFIRMED);
+        testOrder.setVersion(4L);
+        when(orderService.patchOrder(eq(1L), any(OrderPatchRequest.class))).thenReturn(testOrder);
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/orders/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"CONFIRMED\",\"version\":3}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("CONFIRMED"))
+            .andExpect(jsonPath("$.version").value(4));
+
+        verify(orderService, times(1)).patchOrder(eq(1L),
+            argThat(patch -> patch.getStatus() == OrderStatus.CONFIRMED && patch.getAmount() == null
+                && Long.valueOf(3L).equals(patch.getVersion())));
+    }
+
+    @Test
+    @DisplayName("測試部分更新訂單 - 版本衝突 - 返回 409")
+    void testPatchOrder_Conflict() throws Exception {
+        // Arrange
+        when(orderService.patchOrder(eq(1L), any(OrderPatchRequest.class)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L));
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/orders/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"CONFIRMED\"}"))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("測試部分更新訂單 - 金額不合法 - 返回 400")
+    void testPatchOrder_InvalidAmount() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/api/orders/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":-1}"))
+            .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).patchOrder(any(), any());
+    }
+
+    @Test
+    @DisplayName("測試批次變更狀態 - 返回實際變更與略過的訂單")
+    void testTransitionStatus_Success() throws Exception {
+        // Arrange
+        when(orderService.transitionStatus(List.of(1L, 2L), OrderStatus.PENDING, OrderStatus.CONFIRMED))
+            .thenReturn(new StatusTransitionResult(OrderStatus.PENDING, OrderStatus.CONFIRMED, List.of(1L), List.of(2L)));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders/status-transitions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                    new StatusTransitionRequest(List.of(1L, 2L), OrderStatus.PENDING, OrderStatus.CONFIRMED))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.transitioned[0]").value(1))
+            .andExpect(jsonPath("$.skipped[0]").value(2));
+    }
+
+    @Test
+    @DisplayName("測試批次變更狀態 - 不允許的狀態變更 - 返回 400")
+    void testTransitionStatus_InvalidTransition() throws Exception {
+        // Arrange
+        when(orderService.transitionStatus(List.of(1L), OrderStatus.COMPLETED, OrderStatus.PENDING))
+            .thenThrow(new BadRequestException("不允許將訂單狀態由 COMPLETED 變更為 PENDING"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders/status-transitions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                    new StatusTransitionRequest(List.of(1L), OrderStatus.COMPLETED, OrderStatus.PENDING))))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("測試各狀態筆數 - 返回計數器的值")
+    void testGetStatusCounts() throws Exception {
+        // Arrange
+        when(orderStatusCounters.snapshot()).thenReturn(Map.of(
+            OrderStatus.PENDING, 3L, OrderStatus.CONFIRMED, 1L, OrderStatus.CANCELLED, 0L, OrderStatus.COMPLETED, 2L));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/status-counts"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.PENDING").value(3))
+            .andExpect(jsonPath("$.COMPLETED").value(2));
+    }
+
+    @Test
+    @DisplayName("測試多條件搜尋 - ADMIN角色 - 依請求條件搜尋")
+    void testMultiCriteriaSearch_Admin() throws Exception {
+        // Arrange
+        setupAdminAuthentication();
+        when(orderService.searchOrders(any(OrderSearchCriteria.class)))
+            .thenReturn(new OrderSearchResult(List.of(testOrder), "next", "IDX_ORDERS_STATUS_CREATED"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/search")
+                .param("username", "someone")
+                .param("status", "PENDING")
+                .param("currency", "USD")
+                .param("minAmount", "100")
+                .param("maxAmount", "2000")
+                .param("createdFrom", "2025-01-01T00:00:00")
+                .param("size", "50"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders[0].orderId").value(1))
+            .andExpect(jsonPath("$.nextCursor").value("next"))
+            .andExpect(jsonPath("$.accessPath").value("IDX_ORDERS_STATUS_CREATED"));
+
+        verify(orderService, times(1)).searchOrders(argThat(criteria ->
+            "someone".equals(criteria.getUsername())
+                && criteria.getStatus() == OrderStatus.PENDING
+                && criteria.getCurrency() == CurrencyCode.USD
+                && new BigDecimal("100").equals(criteria.getMinAmount())
+                && LocalDateTime.of(2025, 1, 1, 0, 0).equals(criteria.getCreatedFrom())
+                && criteria.getSize() == 50));
+    }
+
+    @Test
+    @DisplayName("測試多條件搜尋 - USER角色 - 只能搜尋自己的訂單")
+    void testMultiCriteriaSearch_User_OnlyOwnOrders() throws Exception {
+        // Arrange
+        setupUserAuthentication();
+        when(orderService.searchOrders(any(OrderSearchCriteria.class)))
+            .thenReturn(new OrderSearchResult(List.of(testOrder), null, "IDX_ORDERS_USERNAME_CREATED"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/search")
+                .param("username", "someone"))
+            .andExpect(status().isOk());
+
+        verify(orderService, times(1)).searchOrders(argThat(criteria -> "testuser".equals(criteria.getUsername())));
+    }
+
+    @Test
+    @DisplayName("測試多條件搜尋 - 每頁筆數超過上限 - 返回 400")
+    void testMultiCriteriaSearch_SizeTooLarge() throws Exception {
+        // Arrange
+        setupAdminAuthentication();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/search")
+                .param("size", "1000"))
+            .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).searchOrders(any());
+    }
+
+    @Test
+    @DisplayName("測試訂單ID漸進式搜尋 - ADMIN角色 - 帶回工作階段")
+    void testOrderIdSearch_Admin() throws Exception {
+        // Arrange
+        setupAdminAuthentication();
+        when(orderIdSearchService.search("123", "abc", "admin", null, 1, 10))
+            .thenReturn(new OrderIdSearchResult("abc", List.of(testOrder), 1, 10, 11));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/id-search")
+                .param("term", "123")
+                .param("session", "abc")
+                .param("page", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.session").value("abc"))
+            .andExpect(jsonPath("$.content[0].orderId").value(1))
+            .andExpect(jsonPath("$.totalElements").value(11))
+            .andExpect(jsonPath("$.totalPages").value(2));
+    }
+
+    @Test
+    @DisplayName("測試訂單ID漸進式搜尋 - USER角色 - 只能搜尋自己的訂單")
+    void testOrderIdSearch_User_OnlyOwnOrders() throws Exception {
+        // Arrange
+        setupUserAuthentication();
+        when(orderIdSearchService.search("12", null, "testuser", "testuser", 0, 10))
+            .thenReturn(new OrderIdSearchResult("abc", List.of(testOrder), 0, 10, 1));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/id-search")
+                .param("term", "12"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.session").value("abc"));
+
+        verify(orderIdSearchService, times(1)).search("12", null, "testuser", "testuser", 0, 10);
+    }
+
+    @Test
+    @DisplayName("測試訂單ID漸進式搜尋 - 每頁筆數超過上限 - 返回 400")
+    void testOrderIdSearch_SizeTooLarge() throws Exception {
+        // Arrange
+        setupAdminAuthentication();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/id-search")
+                .param("term", "12")
+                .param("size", "1000"))
+            .andExpect(status().isBadRequest());
+
+        verify(orderIdSearchService, never()).search(any(), any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("測試訂單異動長輪詢 - USER角色 - 只查詢自己的訂單異動")
+    void testGetOrderChanges_User_OnlyOwnOrders() throws Exception {
+        // Arrange
+        setupUserAuthentication();
+        DeferredResult<OrderChangeBatch> result = new DeferredResult<>();
+        result.setResult(new OrderChangeBatch("abc-5", false,
+            List.of(new OrderChange(1L, "testuser", OrderEventType.ORDER_UPDATED, OrderStatus.CONFIRMED, 2L))));
+        when(orderChangeFeed.poll("abc-3", "testuser", Duration.ofSeconds(10))).thenReturn(result);
+
+        // Act
+        MvcResult mvcResult = mockMvc.perform(get("/api/orders/changes")
+                .param("cursor", "abc-3")
+                .param("wait", "10"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cursor").value("abc-5"))
+            .andExpect(jsonPath("$.reset").value(false))
+            .andExpect(jsonPath("$.changes[0].orderId").value(1))
+            .andExpect(jsonPath("$.changes[0].status").value("CONFIRMED"));
+    }
+
+    @Test
+    @DisplayName("測試訂單異動長輪詢 - ADMIN角色 - 查詢所有訂單的異動")
+    void testGetOrderChanges_Admin_AllOrders() throws Exception {
+        // Arrange
+        setupAdminAuthentication();
+        DeferredResult<OrderChangeBatch> result = new DeferredResult<>();
+        result.setResult(new OrderChangeBatch("abc-0", false, List.of()));
+        when(orderChangeFeed.poll(null, null, Duration.ofSeconds(25))).thenReturn(result);
+
+        // Act & Assert
+        MvcResult mvcResult = mockMvc.perform(get("/api/orders/changes"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cursor").value("abc-0"));
+
+        verify(orderChangeFeed, times(1)).poll(null, null, Duration.ofSeconds(25));
+    }
+
+    @Test
+    @DisplayName("測試部分更新訂單 - 無效的狀態 - 返回 400")
+    void testPatchOrder_UnknownStatus() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/api/orders/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"SHIPPED\"}"))
+            .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).patchOrder(any(), any());
+    }
+
     @Test
     @DisplayName("測試刪除訂單 - ADMIN角色 - 成功")
     void testDeleteOrder_Admin_Success() throws Exception {
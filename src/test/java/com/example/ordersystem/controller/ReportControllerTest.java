@@ -0,0 +1,114 @@
+package com.example.ordersystem.controller;
+
+import com.example.ordersystem.dto.OrderReportCriteria;
+import com.example.ordersystem.dto.OrderReportRow;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.service.OrderReportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * ReportController 測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@WebMvcTest(controllers = ReportController.class, excludeAutoConfiguration = {
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+@org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc(addFilters = false)
+@DisplayName("ReportController 測試")
+class ReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OrderReportService orderReportService;
+
+    @MockBean
+    private com.example.ordersystem.filter.JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("測試訂單每日報表 - 管理員可查詢所有使用者並指定分組")
+    void testDailyOrders_Admin() throws Exception {
+        // Arrange
+        authenticate("admin", "ROLE_ADMIN");
+        when(orderReportService.dailyOrders(any(OrderReportCriteria.class))).thenReturn(List.of(
+            new OrderReportRow(LocalDate.of(2025, 3, 1), CurrencyCode.USD, null, null, 2,
+                new BigDecimal("300.00"), new BigDecimal("270.00"), new BigDecimal("10.00"))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/reports/orders/daily")
+                .param("from", "2025-03-01")
+                .param("to", "2025-03-31")
+                .param("groupBy", "DATE,CURRENCY"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].date").value("2025-03-01"))
+            .andExpect(jsonPath("$[0].currency").value("USD"))
+            .andExpect(jsonPath("$[0].orderCount").value(2))
+            .andExpect(jsonPath("$[0].averageDiscount").value(10.00));
+
+        verify(orderReportService, times(1)).dailyOrders(argThat(criteria -> criteria.getUsername() == null
+            && List.of(OrderReportCriteria.Dimension.DATE, OrderReportCriteria.Dimension.CURRENCY).equals(criteria.getGroupBy())));
+    }
+
+    @Test
+    @DisplayName("測試訂單每日報表 - 一般用戶只能查詢自己的訂單")
+    void testDailyOrders_User_OnlyOwnOrders() throws Exception {
+        // Arrange
+        authenticate("testuser", "ROLE_USER");
+        when(orderReportService.dailyOrders(any(OrderReportCriteria.class))).thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/reports/orders/daily")
+                .param("from", "2025-03-01")
+                .param("to", "2025-03-31")
+                .param("username", "someoneelse"))
+            .andExpect(status().isOk());
+
+        verify(orderReportService, times(1)).dailyOrders(argThat(criteria -> "testuser".equals(criteria.getUsername())
+            && List.of(OrderReportCriteria.Dimension.DATE).equals(criteria.getGroupBy())));
+    }
+
+    @Test
+    @DisplayName("測試訂單每日報表 - 缺少日期範圍時返回 400")
+    void testDailyOrders_MissingRange() throws Exception {
+        // Arrange
+        authenticate("admin", "ROLE_ADMIN");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/reports/orders/daily").param("from", "2025-03-01"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(orderReportService);
+    }
+
+    private static void authenticate(String username, String role) {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(username, null, List.of(new SimpleGrantedAuthority(role))));
+    }
+}
@@ -2,6 +2,7 @@ package com.example.ordersystem.integration;
 
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
 import com.example.ordersystem.repository.OrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -62,7 +63,7 @@ class OrderControllerGetAllOrdersIntegrationTest {
         testOrder.setUsername("testuser");
         testOrder.setAmount(new BigDecimal("1000.00"));
         testOrder.setCurrency(CurrencyCode.USD);
-        testOrder.setStatus("PENDING");
+        testOrder.setStatus(OrderStatus.PENDING);
         testOrder.setDiscount(new BigDecimal("10.00"));
         testOrder.setFinalAmount(new BigDecimal("900.00"));
         testOrder.setCreatedAt(LocalDateTime.now());
@@ -128,21 +129,21 @@ class OrderControllerGetAllOrdersIntegrationTest {
         order1.setUsername("user1");
         order1.setAmount(new BigDecimal("1000.00"));
         order1.setCurrency(CurrencyCode.USD);
-        order1.setStatus("PENDING");
+        order1.setStatus(OrderStatus.PENDING);
         orderRepository.save(order1);
 
         Order order2 = new Order();
         order2.setUsername("user2");
         order2.setAmount(new BigDecimal("2000.00"));
         order2.setCurrency(CurrencyCode.EUR);
-        order2.setStatus("CONFIRMED");
+        order2.setStatus(OrderStatus.CONFIRMED);
         orderRepository.save(order2);
 
         Order order3 = new Order();
         order3.setUsername("user3");
         order3.setAmount(new BigDecimal("3000.00"));
         order3.setCurrency(CurrencyCode.JPY);
-        order3.setStatus("COMPLETED");
+        order3.setStatus(OrderStatus.COMPLETED);
         orderRepository.save(order3);
 
         // Act & Assert
@@ -2,6 +2,7 @@ package com.example.ordersystem.integration;
 
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
 import com.example.ordersystem.repository.OrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -57,7 +58,7 @@ class OrderControllerGetAllOrdersOracleIntegrationTest {
         testOrder.setUsername("testuser_" + System.currentTimeMillis());  // 使用時間戳記避免重複
         testOrder.setAmount(new BigDecimal("1000.00"));
         testOrder.setCurrency(CurrencyCode.USD);
-        testOrder.setStatus("PENDING");
+        testOrder.setStatus(OrderStatus.PENDING);
         testOrder.setDiscount(new BigDecimal("10.00"));
         testOrder.setFinalAmount(new BigDecimal("900.00"));
         testOrder.setCreatedAt(LocalDateTime.now());
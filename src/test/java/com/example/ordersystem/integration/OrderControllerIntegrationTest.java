@@ -2,6 +2,7 @@ package com.example.ordersystem.integration;
 
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
 import com.example.ordersystem.repository.CurrencyRepository;
 import com.example.ordersystem.repository.OrderRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -65,7 +66,7 @@ class OrderControllerIntegrationTest {
         newOrder.setUsername("integrationtest");
         newOrder.setAmount(new BigDecimal("1000.00"));
         newOrder.setCurrency(CurrencyCode.USD);
-        newOrder.setStatus("PENDING");
+        newOrder.setStatus(OrderStatus.PENDING);
         newOrder.setDiscount(new BigDecimal("10.00"));
 
         // Act: 建立訂單
@@ -100,7 +101,7 @@ class OrderControllerIntegrationTest {
         order.setUsername("testuser");
         order.setAmount(new BigDecimal("1000.00"));
         order.setCurrency(CurrencyCode.USD);
-        order.setStatus("PENDING");
+        order.setStatus(OrderStatus.PENDING);
         order.setDiscount(new BigDecimal("10.00"));
         Order savedOrder = orderRepository.save(order);
         Long orderId = savedOrder.getOrderId();
@@ -110,7 +111,7 @@ class OrderControllerIntegrationTest {
         updateData.setUsername("updateduser");
         updateData.setAmount(new BigDecimal("2000.00"));
         updateData.setCurrency(CurrencyCode.EUR);
-        updateData.setStatus("CONFIRMED");
+        updateData.setStatus(OrderStatus.CONFIRMED);
         updateData.setDiscount(new BigDecimal("15.00"));
 
         // Act & Assert: 更新訂單
@@ -131,7 +132,7 @@ class OrderControllerIntegrationTest {
         order.setUsername("testuser");
         order.setAmount(new BigDecimal("1000.00"));
         order.setCurrency(CurrencyCode.USD);
-        order.setStatus("PENDING");
+        order.setStatus(OrderStatus.PENDING);
         order.setDiscount(new BigDecimal("10.00"));
         Order savedOrder = orderRepository.save(order);
         Long orderId = savedOrder.getOrderId();
@@ -0,0 +1,94 @@
+package com.example.ordersystem.integration;
+
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
+import com.example.ordersystem.repository.OrderRepository;
+import com.example.ordersystem.repository.OrderSearchRepository;
+import com.example.ordersystem.repository.OrderSpecifications;
+import com.example.ordersystem.service.OrderSearchPlanner;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OrderSearchRepository 整合測試
+ * H2 不加入索引提示，這裡確認查詢結果與提示所依賴的 SQL 別名（Hibernate 升級時可能改變）
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@SpringBootTest(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.ordersystem.integration.OrderSearchRepositoryIntegrationTest$SqlRecorder")
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("OrderSearchRepository 整合測試")
+class OrderSearchRepositoryIntegrationTest {
+
+    /**
+     * 記錄執行的 SQL
+     */
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final List<Long> savedIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        // 建立時間由 @PrePersist 設定，依序寫入即為建立時間遞增
+        for (int i = 0; i < 3; i++) {
+            Order order = new Order();
+            order.setUsername("alice");
+            order.setAmount(new BigDecimal("100.00"));
+            order.setCurrency(CurrencyCode.USD);
+            order.setStatus(OrderStatus.PENDING);
+            order.setDiscount(BigDecimal.ZERO);
+            order.setFinalAmount(new BigDecimal("100.00"));
+            savedIds.add(orderRepository.save(order).getOrderId());
+        }
+        orderRepository.flush();
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("測試 keyset 查詢 - 依建立時間降序取前幾筆，SQL 使用索引提示的別名")
+    void testFindKeysetPage() {
+        // Act
+        List<Order> orders = orderRepository.findKeysetPage(
+            OrderSpecifications.statusEquals(OrderStatus.PENDING),
+            OrderSearchPlanner.AccessPath.STATUS.getIndexHint(), 2);
+
+        // Assert
+        assertEquals(List.of(savedIds.get(2), savedIds.get(1)), orders.stream().map(Order::getOrderId).toList());
+        assertEquals(1, SqlRecorder.STATEMENTS.size());
+        assertTrue(SqlRecorder.STATEMENTS.get(0).toLowerCase(Locale.ROOT)
+                .contains("from orders " + OrderSearchRepository.ORDER_ALIAS + " "),
+            SqlRecorder.STATEMENTS.get(0));
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.ordersystem.scheduler;
+
+import com.example.ordersystem.dto.RateRefreshJob;
+import com.example.ordersystem.dto.RateRefreshPolicy;
+import com.example.ordersystem.exception.ExchangeRateApiRateLimitedException;
+import com.example.ordersystem.model.Currency;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.service.CurrencyService;
+import com.example.ordersystem.service.ExchangeRateApiService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * CurrencyRateUpdateScheduler 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CurrencyRateUpdateScheduler 測試")
+class CurrencyRateUpdateSchedulerTest {
+
+    @Mock
+    private ExchangeRateApiService exchangeRateApiService;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private LeaseLock leaseLock;
+
+    @InjectMocks
+    private CurrencyRateUpdateScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduler, "leaseTtl", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(scheduler, "followerGrace", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(scheduler, "autoUpdateEnabled", false);
+    }
+
+    @Test
+    @DisplayName("測試更新匯率 - 其他節點持有租約時跳過")
+    void testUpdateExchangeRates_LeaseHeldElsewhere() {
+        // Arrange
+        when(leaseLock.tryAcquire(eq("rate-refresh"), any(), anyLong())).thenReturn(Optional.empty());
+        RateRefreshJob job = new RateRefreshJob("job-1", "MANUAL");
+
+        // Act
+        scheduler.updateExchangeRates(job);
+
+        // Assert
+        assertEquals(RateRefreshJob.Status.SKIPPED, job.getStatus());
+        verifyNoInteractions(exchangeRateApiService);
+        verify(currencyService).getMaxRefreshFence();
+        verifyNoMoreInteractions(currencyService);
+    }
+
+    @Test
+    @DisplayName("測試更新匯率 - 取得租約後更新並釋放")
+    void testUpdateExchangeRates_LeaseAcquired() {
+        // Arrange
+        LeaseLock.Lease lease = new LeaseLock.Lease("rate-refresh", "node-a", 7L);
+        when(leaseLock.tryAcquire(eq("rate-refresh"), any(), anyLong())).thenReturn(Optional.of(lease));
+        when(leaseLock.isHeld(lease)).thenReturn(true);
+        when(exchangeRateApiService.fetchLatestRates()).thenReturn(Map.of("USD", new BigDecimal("31.5")));
+        Currency usd = new Currency();
+        usd.setCurrencyCode(CurrencyCode.USD);
+        usd.setRateToTwd(new BigDecimal("31.25"));
+        when(currencyService.getCurrencyByCode(any())).thenReturn(Optional.empty());
+        when(currencyService.getCurrencyByCode(CurrencyCode.USD)).thenReturn(Optional.of(usd));
+        when(currencyService.updateRefreshedRate(CurrencyCode.USD, new BigDecimal("31.5"), 7L)).thenReturn(Optional.of(usd));
+        RateRefreshJob job = new RateRefreshJob("job-1", "MANUAL");
+
+        // Act
+        scheduler.updateExchangeRates(job);
+
+        // Assert
+        assertEquals(RateRefreshJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(7L, job.getFencingToken());
+        assertEquals(1, job.getUpdatedCount());
+        verify(currencyService).updateRefreshedRate(CurrencyCode.USD, new BigDecimal("31.5"), 7L);
+        // 手動刷新完成後立即釋放租約
+        verify(leaseLock).release(lease, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("測試更新匯率 - 租約失效時停止寫入")
+    void testUpdateExchangeRates_LeaseLost() {
+        // Arrange
+        LeaseLock.Lease lease = new LeaseLock.Lease("rate-refresh", "node-a", 7L);
+        when(leaseLock.tryAcquire(eq("rate-refresh"), any(), anyLong())).thenReturn(Optional.of(lease));
+        when(leaseLock.isHeld(lease)).thenReturn(false);
+        when(exchangeRateApiService.fetchLatestRates()).thenReturn(Map.of("USD", new BigDecimal("31.5")));
+        RateRefreshJob job = new RateRefreshJob("job-1", "MANUAL");
+
+        // Act
+        scheduler.updateExchangeRates(job);
+
+        // Assert
+        assertEquals(RateRefreshJob.Status.FAILED, job.getStatus());
+        verify(currencyService, never()).updateRefreshedRate(any(), any(), anyLong());
+        verify(leaseLock).release(lease, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("測試更新匯率 - 較新的刷新已寫入時資料庫拒絕寫入，停止並標記失敗")
+    void testUpdateExchangeRates_FencedWriteRejected() {
+        // Arrange
+        LeaseLock.Lease lease = new LeaseLock.Lease("rate-refresh", "node-a", 7L);
+        when(leaseLock.tryAcquire(eq("rate-refresh"), any(), anyLong())).thenReturn(Optional.of(lease));
+        when(leaseLock.isHeld(lease)).thenReturn(true);
+        when(exchangeRateApiService.fetchLatestRates())
+            .thenReturn(Map.of("TWD", BigDecimal.ONE, "USD", new BigDecimal("31.5")));
+        Currency twd = new Currency();
+        twd.setCurrencyCode(CurrencyCode.TWD);
+        twd.setRateToTwd(BigDecimal.ONE);
+        when(currencyService.getCurrencyByCode(CurrencyCode.TWD)).thenReturn(Optional.of(twd));
+        when(currencyService.updateRefreshedRate(CurrencyCode.TWD, BigDecimal.ONE, 7L)).thenReturn(Optional.empty());
+        RateRefreshJob job = new RateRefreshJob("job-1", "MANUAL");
+
+        // Act
+        scheduler.updateExchangeRates(job);
+
+        // Assert
+        assertEquals(RateRefreshJob.Status.FAILED, job.getStatus());
+        assertEquals(0, job.getUpdatedCount());
+        verify(currencyService, never()).updateRefreshedRate(eq(CurrencyCode.USD), any(), anyLong());
+        verify(leaseLock).release(lease, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("測試刷新租約 - 以資料庫已寫入的最大 fencing token 作為下限")
+    void testUpdateExchangeRates_FencingTokenFloorFromDatabase() {
+        // Arrange
+        when(currencyService.getMaxRefreshFence()).thenReturn(41L);
+        when(leaseLock.tryAcquire(eq("rate-refresh"), any(), anyLong())).thenReturn(Optional.empty());
+
+        // Act
+        scheduler.updateExchangeRates(new RateRefreshJob("job-1", "MANUAL"));
+
+        // Assert
+        verify(leaseLock).tryAcquire(eq("rate-refresh"), any(), eq(41L));
+    }
+
+    @Test
+    @DisplayName("測試租約計數器重設 - 由資料庫已寫入的 token 接續，之後的刷新仍可寫入")
+    void testUpdateExchangeRates_CounterResetStillWrites() {
+        // Arrange：以條件更新模擬 CURRENCIES.REFRESH_FENCE，只接受不小於已寫入者的 token
+        AtomicLong storedFence = new AtomicLong(0L);
+        Currency usd = new Currency();
+        usd.setCurrencyCode(CurrencyCode.USD);
+        usd.setRateToTwd(new BigDecimal("31.25"));
+        when(exchangeRateApiService.fetchLatestRates()).thenReturn(Map.of("USD", new BigDecimal("31.5")));
+        when(currencyService.getCurrencyByCode(any())).thenReturn(Optional.empty());
+        when(currencyService.getCurrencyByCode(CurrencyCode.USD)).thenReturn(Optional.of(usd));
+        when(currencyService.getMaxRefreshFence()).thenAnswer(invocation -> storedFence.get());
+        when(currencyService.updateRefreshedRate(eq(CurrencyCode.USD), any(), anyLong())).thenAnswer(invocation -> {
+            long token = invocation.getArgument(2);
+            if (token < storedFence.get()) {
+                return Optional.empty();
+            }
+            storedFence.set(token);
+            return Optional.of(usd);
+        });
+        ReflectionTestUtils.setField(scheduler, "leaseLock", new InMemoryLeaseLock("node-a"));
+        for (int i = 0; i < 5; i++) {
+            scheduler.updateExchangeRates(new RateRefreshJob("job-" + i, "MANUAL"));
+        }
+        long fenceBeforeReset = storedFence.get();
+
+        // Act：計數器遺失（Redis 清除或重新啟動），由 0 重新起算
+        ReflectionTestUtils.setField(scheduler, "leaseLock", new InMemoryLeaseLock("node-b"));
+        RateRefreshJob job = new RateRefreshJob("job-after-reset", "MANUAL");
+        scheduler.updateExchangeRates(job);
+
+        // Assert
+        assertEquals(5L, fenceBeforeReset);
+        assertEquals(RateRefreshJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(1, job.getUpdatedCount());
+        assertEquals(6L, job.getFencingToken());
+        assertEquals(6L, storedFence.get());
+    }
+
+    @Test
+    @DisplayName("測試手動刷新 - 外部 API 限流時標記失敗並釋放租約，不計入連續失敗次數也不改變排程")
+    void testUpdateExchangeRates_RateLimited() {
+        // Arrange
+        LeaseLock.Lease lease = new LeaseLock.Lease("rate-refresh", "node-a", 7L);
+        when(leaseLock.tryAcquire(eq("rate-refresh"), any(), anyLong())).thenReturn(Optional.of(lease));
+        when(exchangeRateApiService.fetchLatestRates())
+            .thenThrow(new ExchangeRateApiRateLimitedException("429", Duration.ofSeconds(120)));
+        RateRefreshJob job = new RateRefreshJob("job-1", "MANUAL");
+
+        // Act
+        scheduler.updateExchangeRates(job);
+
+        // Assert
+        assertEquals(RateRefreshJob.Status.FAILED, job.getStatus());
+        assertEquals(0, scheduler.getConsecutiveFailures());
+        verify(leaseLock).release(lease, Duration.ZERO);
+        verify(leaseLock, never()).tryAcquire(eq("rate-refresh:schedule"), any());
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    @DisplayName("測試排程刷新 - 成功後保留時段租約到下一次執行前 follower-grace/2")
+    void testScheduledRefresh_HoldsSlotUntilNextRun() {
+        // Arrange
+        ReflectionTestUtils.setField(scheduler, "policy", new RateRefreshPolicy(3600, 0, 30, 1800, 2.0, 900));
+        ReflectionTestUtils.setField(scheduler, "autoUpdateEnabled", true);
+        LeaseLock.Lease slot = new LeaseLock.Lease("rate-refresh:schedule", "node-a", 3L);
+        LeaseLock.Lease lease = new LeaseLock.Lease("rate-refresh", "node-a", 4L);
+        when(leaseLock.tryAcquire(eq("rate-refresh:schedule"), any())).thenReturn(Optional.of(slot));
+        when(leaseLock.tryAcquire(eq("rate-refresh"), any(), anyLong())).thenReturn(Optional.of(lease));
+        when(leaseLock.isHeld(lease)).thenReturn(true);
+        when(exchangeRateApiService.fetchLatestRates()).thenReturn(Map.of("USD", new BigDecimal("31.5")));
+        when(currencyService.getCurrencyByCode(any())).thenReturn(Optional.empty());
+
+        // Act
+        Instant before = Instant.now();
+        scheduler.updateExchangeRates();
+
+        // Assert
+        verify(leaseLock).release(lease, Duration.ZERO);
+        verify(leaseLock).release(slot, Duration.ofSeconds(3600 - 60));
+        ArgumentCaptor<Instant> runAt = ArgumentCaptor.forClass(Instant.class);
+        verify(taskScheduler).schedule(any(Runnable.class), runAt.capture());
+        assertFalse(runAt.getValue().isBefore(before.plusSeconds(3600)));
+    }
+
+    @Test
+    @DisplayName("測試排程刷新 - 其他節點持有時段時，依租約剩餘時間加上 follower-grace 安排下一次嘗試")
+    void testScheduledRefresh_FollowsHolder() {
+        // Arrange
+        ReflectionTestUtils.setField(scheduler, "autoUpdateEnabled", true);
+        ReflectionTestUtils.setField(scheduler, "consecutiveFailures", 3);
+        when(leaseLock.tryAcquire(eq("rate-refresh:schedule"), any())).thenReturn(Optional.empty());
+        when(leaseLock.remaining("rate-refresh:schedule")).thenReturn(Optional.of(Duration.ofMinutes(40)));
+
+        // Act
+        Instant before = Instant.now();
+        scheduler.updateExchangeRates();
+
+        // Assert
+        verifyNoInteractions(exchangeRateApiService, currencyService);
+        verify(leaseLock, never()).tryAcquire(eq("rate-refresh"), any(), anyLong());
+        ArgumentCaptor<Instant> runAt = ArgumentCaptor.forClass(Instant.class);
+        verify(taskScheduler).schedule(any(Runnable.class), runAt.capture());
+        Duration delay = Duration.between(before, runAt.getValue());
+        assertTrue(delay.compareTo(Duration.ofMinutes(42)) >= 0 && delay.compareTo(Duration.ofMinutes(43)) < 0,
+            "delay=" + delay);
+        assertEquals(0, scheduler.getConsecutiveFailures());
+    }
+
+    @Test
+    @DisplayName("測試計算等待時間 - 成功時為間隔加上抖動")
+    void testComputeDelay_Success() {
+        RateRefreshPolicy policy = new RateRefreshPolicy(3600, 300, 30, 1800, 2.0, 900);
+
+        for (int i = 0; i < 50; i++) {
+            long seconds = CurrencyRateUpdateScheduler.computeDelay(
+                policy, CurrencyRateUpdateScheduler.RefreshOutcome.SUCCEEDED, 0, null).toSeconds();
+            assertTrue(seconds >= 3600 && seconds <= 3900, "delay=" + seconds);
+        }
+    }
+
+    @Test
+    @DisplayName("測試計算等待時間 - 失敗時指數退避且不超過上限")
+    void testComputeDelay_ExponentialBackoff() {
+        RateRefreshPolicy policy = new RateRefreshPolicy(3600, 0, 30, 1800, 2.0, 900);
+
+        assertEquals(30, CurrencyRateUpdateScheduler.computeDelay(
+            policy, CurrencyRateUpdateScheduler.RefreshOutcome.FAILED, 1, null).toSeconds());
+        assertEquals(60, CurrencyRateUpdateScheduler.computeDelay(
+            policy, CurrencyRateUpdateScheduler.RefreshOutcome.FAILED, 2, null).toSeconds());
+        assertEquals(240, CurrencyRateUpdateScheduler.computeDelay(
+            policy, CurrencyRateUpdateScheduler.RefreshOutcome.FAILED, 4, null).toSeconds());
+        assertEquals(1800, CurrencyRateUpdateScheduler.computeDelay(
+            policy, CurrencyRateUpdateScheduler.RefreshOutcome.FAILED, 20, null).toSeconds());
+    }
+
+    @Test
+    @DisplayName("測試計算等待時間 - 限流時取限流退避與 Retry-After 的較大者")
+    void testComputeDelay_RateLimited() {
+        RateRefreshPolicy policy = new RateRefreshPolicy(3600, 0, 30, 1800, 2.0, 900);
+
+        assertEquals(900, CurrencyRateUpdateScheduler.computeDelay(
+            policy, CurrencyRateUpdateScheduler.RefreshOutcome.RATE_LIMITED, 1, null).toSeconds());
+        assertEquals(1200, CurrencyRateUpdateScheduler.computeDelay(
+            policy, CurrencyRateUpdateScheduler.RefreshOutcome.RATE_LIMITED, 1, Duration.ofSeconds(1200)).toSeconds());
+    }
+
+    @Test
+    @DisplayName("測試計算等待時間 - Retry-After 不超過最大退避與限流退避的較大者")
+    void testComputeDelay_RetryAfterCapped() {
+        RateRefreshPolicy policy = new RateRefreshPolicy(3600, 0, 30, 1800, 2.0, 900);
+
+        assertEquals(1800, CurrencyRateUpdateScheduler.computeDelay(
+            policy, CurrencyRateUpdateScheduler.RefreshOutcome.RATE_LIMITED, 1, Duration.ofDays(1)).toSeconds());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.ordersystem.scheduler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InMemoryLeaseLock 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@DisplayName("InMemoryLeaseLock 測試")
+class InMemoryLeaseLockTest {
+
+    private final InMemoryLeaseLock leaseLock = new InMemoryLeaseLock("node-a");
+
+    @Test
+    @DisplayName("測試取得租約 - 已被持有時返回空")
+    void testTryAcquire_MutualExclusion() {
+        Optional<LeaseLock.Lease> first = leaseLock.tryAcquire("rate-refresh", Duration.ofMinutes(1));
+        Optional<LeaseLock.Lease> second = leaseLock.tryAcquire("rate-refresh", Duration.ofMinutes(1));
+
+        assertTrue(first.isPresent());
+        assertTrue(second.isEmpty());
+        assertTrue(leaseLock.isHeld(first.get()));
+    }
+
+    @Test
+    @DisplayName("測試 fencing token - 每次取得租約都遞增")
+    void testFencingToken_Monotonic() {
+        LeaseLock.Lease first = leaseLock.tryAcquire("rate-refresh", Duration.ofMinutes(1)).orElseThrow();
+        leaseLock.release(first, Duration.ZERO);
+        LeaseLock.Lease second = leaseLock.tryAcquire("rate-refresh", Duration.ofMinutes(1)).orElseThrow();
+
+        assertTrue(second.getFencingToken() > first.getFencingToken());
+        assertFalse(leaseLock.isHeld(first));
+        assertTrue(leaseLock.isHeld(second));
+    }
+
+    @Test
+    @DisplayName("測試 fencing token 下限 - 計數器重新起算後由下限接續，之後仍繼續遞增")
+    void testFencingToken_ResumesFromFloor() {
+        LeaseLock.Lease first = leaseLock.tryAcquire("rate-refresh", Duration.ofMinutes(1), 41L).orElseThrow();
+        leaseLock.release(first, Duration.ZERO);
+        LeaseLock.Lease second = leaseLock.tryAcquire("rate-refresh", Duration.ofMinutes(1), 10L).orElseThrow();
+
+        assertEquals(42L, first.getFencingToken());
+        assertEquals(43L, second.getFencingToken());
+    }
+
+    @Test
+    @DisplayName("測試租約過期 - 其他持有者可取得，舊租約失效")
+    void testExpiredLease_CanBeTakenOver() throws InterruptedException {
+        LeaseLock.Lease first = leaseLock.tryAcquire("rate-refresh", Duration.ofMillis(10)).orElseThrow();
+        Thread.sleep(30);
+
+        LeaseLock.Lease second = leaseLock.tryAcquire("rate-refresh", Duration.ofMinutes(1)).orElseThrow();
+
+        assertFalse(leaseLock.isHeld(first));
+        assertTrue(leaseLock.isHeld(second));
+        // 舊持有者釋放時不能刪除新持有者的租約
+        leaseLock.release(first, Duration.ZERO);
+        assertTrue(leaseLock.isHeld(second));
+    }
+
+    @Test
+    @DisplayName("測試釋放租約 - 保留一段時間內不可重新取得")
+    void testRelease_HoldFor() {
+        LeaseLock.Lease lease = leaseLock.tryAcquire("rate-refresh", Duration.ofMinutes(1)).orElseThrow();
+        leaseLock.release(lease, Duration.ofMinutes(5));
+
+        assertTrue(leaseLock.tryAcquire("rate-refresh", Duration.ofMinutes(1)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試剩餘時間 - 釋放後保留中的租約仍有剩餘時間，立即釋放後為空")
+    void testRemaining() {
+        LeaseLock.Lease lease = leaseLock.tryAcquire("rate-refresh", Duration.ofMinutes(1)).orElseThrow();
+        leaseLock.release(lease, Duration.ofMinutes(10));
+
+        Duration remaining = leaseLock.remaining("rate-refresh").orElseThrow();
+        assertTrue(remaining.compareTo(Duration.ofMinutes(9)) > 0 && remaining.compareTo(Duration.ofMinutes(10)) <= 0);
+
+        LeaseLock.Lease other = leaseLock.tryAcquire("order-archive", Duration.ofMinutes(1)).orElseThrow();
+        leaseLock.release(other, Duration.ZERO);
+        assertTrue(leaseLock.remaining("order-archive").isEmpty());
+    }
+}
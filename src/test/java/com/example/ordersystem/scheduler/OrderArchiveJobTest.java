@@ -0,0 +1,148 @@
+package com.example.ordersystem.scheduler;
+
+import com.example.ordersystem.model.OrderStatus;
+import com.example.ordersystem.service.OrderAnalyticsService;
+import com.example.ordersystem.service.OrderArchive;
+import com.example.ordersystem.service.OrderCache;
+import com.example.ordersystem.service.OrderSearchCache;
+import com.example.ordersystem.service.OrderStatusCounters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderArchiveJob 單元測試
+ * 資料庫操作以 Mock 的 NamedParameterJdbcTemplate 驗證，租約使用 InMemoryLeaseLock
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderArchiveJob 測試")
+class OrderArchiveJobTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private OrderArchive orderArchive;
+
+    @Mock
+    private OrderStatusCounters orderStatusCounters;
+
+    @Mock
+    private OrderAnalyticsService orderAnalyticsService;
+
+    @Mock
+    private OrderCache orderCache;
+
+    @Mock
+    private OrderSearchCache orderSearchCache;
+
+    @InjectMocks
+    private OrderArchiveJob orderArchiveJob;
+
+    private final InMemoryLeaseLock leaseLock = new InMemoryLeaseLock("node-a");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderArchiveJob, "leaseLock", leaseLock);
+        ReflectionTestUtils.setField(orderArchiveJob, "batchSize", 2);
+        lenient().when(orderArchive.boundary()).thenReturn(LocalDateTime.of(2025, 1, 1, 0, 0));
+    }
+
+    @Test
+    @DisplayName("測試封存 - 分批搬移直到不足一批，並更新計數器與快取")
+    void testArchive_MovesInBatches() throws Exception {
+        // Arrange：第一批 2 筆、第二批 1 筆
+        List<List<Object[]>> batches = new ArrayList<>(List.of(
+            List.of(new Object[] {1L, "COMPLETED"}, new Object[] {2L, "CANCELLED"}),
+            List.<Object[]>of(new Object[] {3L, "COMPLETED"})));
+        doAnswer(invocation -> {
+            RowMapper<?> rowMapper = invocation.getArgument(2);
+            List<Object> rows = new ArrayList<>();
+            for (Object[] row : batches.remove(0)) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("ORDER_ID")).thenReturn((Long) row[0]);
+                when(rs.getString("STATUS")).thenReturn((String) row[1]);
+                rows.add(rowMapper.mapRow(rs, rows.size()));
+            }
+            return rows;
+        }).when(namedParameterJdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowMapper.class));
+
+        // Act
+        int archived = orderArchiveJob.archive();
+
+        // Assert
+        assertEquals(3, archived);
+        verify(namedParameterJdbcTemplate, times(2)).query(anyString(),
+            argThat((SqlParameterSource params) -> List.of("CANCELLED", "COMPLETED").equals(params.getValue("statuses"))),
+            any(RowMapper.class));
+        verify(namedParameterJdbcTemplate, times(1)).update(startsWith("INSERT INTO ORDERS_ARCHIVE"),
+            argThat((MapSqlParameterSource params) -> List.of(1L, 2L).equals(params.getValue("ids"))));
+        verify(namedParameterJdbcTemplate, times(1)).update(startsWith("DELETE FROM ORDERS"),
+            argThat((MapSqlParameterSource params) -> List.of(3L).equals(params.getValue("ids"))));
+        verify(orderStatusCounters, times(2)).record(OrderStatus.COMPLETED, null, 1L);
+        verify(orderStatusCounters, times(1)).record(OrderStatus.CANCELLED, null, 1L);
+        verify(orderCache, times(1)).invalidateAll(List.of(1L, 2L));
+        verify(orderAnalyticsService, times(1)).recordRemoved(List.of(3L));
+        verify(orderSearchCache, times(2)).bumpEpoch();
+        // 完成後釋放租約
+        assertTrue(leaseLock.tryAcquire("order-archive", Duration.ofMinutes(1)).isPresent());
+    }
+
+    @Test
+    @DisplayName("測試其他節點正在封存 - 本節點跳過")
+    void testArchive_LeaseHeldElsewhere() {
+        // Arrange
+        leaseLock.tryAcquire("order-archive", Duration.ofMinutes(1));
+
+        // Act
+        int archived = orderArchiveJob.archive();
+
+        // Assert
+        assertEquals(0, archived);
+        verifyNoInteractions(namedParameterJdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("測試沒有符合條件的訂單 - 不寫入")
+    void testArchive_NothingToArchive() {
+        // Arrange
+        when(namedParameterJdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+            .thenReturn(List.of());
+
+        // Act
+        int archived = orderArchiveJob.archive();
+
+        // Assert
+        assertEquals(0, archived);
+        verify(namedParameterJdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+        verify(orderSearchCache, never()).bumpEpoch();
+    }
+}
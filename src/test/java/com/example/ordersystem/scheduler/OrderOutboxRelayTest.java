@@ -0,0 +1,141 @@
+package com.example.ordersystem.scheduler;
+
+import com.example.ordersystem.dto.OrderEvent;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.service.InMemoryOrderEventSink;
+import com.example.ordersystem.service.OrderEventSink;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderOutboxRelay 單元測試
+ * outbox 以 Mock 的 NamedParameterJdbcTemplate 模擬，事件發布到 InMemoryOrderEventSink，租約使用 InMemoryLeaseLock
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderOutboxRelay 測試")
+class OrderOutboxRelayTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private OrderOutboxRelay orderOutboxRelay;
+
+    private final InMemoryLeaseLock leaseLock = new InMemoryLeaseLock("node-a");
+    private final InMemoryOrderEventSink orderEventSink = new InMemoryOrderEventSink();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderOutboxRelay, "leaseLock", leaseLock);
+        ReflectionTestUtils.setField(orderOutboxRelay, "orderEventSink", orderEventSink);
+        ReflectionTestUtils.setField(orderOutboxRelay, "batchSize", 2);
+    }
+
+    @Test
+    @DisplayName("測試發布 - 依 EVENT_ID 順序分批發布後刪除，直到不足一批")
+    void testRelay_PublishesInBatches() throws Exception {
+        // Arrange：第一批 2 筆、第二批 1 筆
+        stubOutbox(new ArrayList<>(List.of(List.of(10L, 11L), List.of(60L))));
+
+        // Act
+        int published = orderOutboxRelay.relay();
+
+        // Assert
+        assertEquals(3, published);
+        List<OrderEvent> events = orderEventSink.read(null, 10).getEvents();
+        assertEquals(List.of(10L, 11L, 60L), events.stream().map(OrderEvent::getEventId).toList());
+        assertEquals(OrderEventType.ORDER_UPDATED, events.get(0).getType());
+        assertEquals(3L, events.get(0).getOrderVersion());
+        assertEquals("alice", events.get(0).getOrder().getUsername());
+        verify(namedParameterJdbcTemplate, times(1)).update(startsWith("DELETE FROM ORDER_OUTBOX"),
+            argThat((MapSqlParameterSource params) -> List.of(10L, 11L).equals(params.getValue("ids"))));
+        verify(namedParameterJdbcTemplate, times(1)).update(startsWith("DELETE FROM ORDER_OUTBOX"),
+            argThat((MapSqlParameterSource params) -> List.of(60L).equals(params.getValue("ids"))));
+        // 完成後釋放租約
+        assertTrue(leaseLock.tryAcquire("order-outbox-relay", Duration.ofMinutes(1)).isPresent());
+    }
+
+    @Test
+    @DisplayName("測試發布失敗 - 不刪除 outbox，事件留待下次重送")
+    void testRelay_SinkFailureKeepsEvents() throws Exception {
+        // Arrange
+        OrderEventSink failingSink = mock(OrderEventSink.class);
+        doThrow(new IllegalStateException("Redis 無法連線")).when(failingSink).publish(anyList());
+        ReflectionTestUtils.setField(orderOutboxRelay, "orderEventSink", failingSink);
+        stubOutbox(new ArrayList<>(List.of(List.of(10L))));
+
+        // Act
+        int published = orderOutboxRelay.relay();
+
+        // Assert
+        assertEquals(0, published);
+        verify(namedParameterJdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+        assertTrue(leaseLock.tryAcquire("order-outbox-relay", Duration.ofMinutes(1)).isPresent());
+    }
+
+    @Test
+    @DisplayName("測試其他節點正在發布 - 本節點跳過")
+    void testRelay_LeaseHeldElsewhere() {
+        // Arrange
+        leaseLock.tryAcquire("order-outbox-relay", Duration.ofMinutes(1));
+
+        // Act
+        int published = orderOutboxRelay.relay();
+
+        // Assert
+        assertEquals(0, published);
+        verifyNoInteractions(namedParameterJdbcTemplate);
+        assertTrue(orderEventSink.read(null, 10).getEvents().isEmpty());
+    }
+
+    private void stubOutbox(List<List<Long>> batches) throws Exception {
+        doAnswer(invocation -> {
+            RowMapper<?> rowMapper = invocation.getArgument(2);
+            List<Object> rows = new ArrayList<>();
+            for (Long eventId : batches.remove(0)) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("EVENT_ID")).thenReturn(eventId);
+                when(rs.getString("EVENT_TYPE")).thenReturn("ORDER_UPDATED");
+                when(rs.getLong("ORDER_ID")).thenReturn(1L);
+                when(rs.getString("USERNAME")).thenReturn("alice");
+                when(rs.getObject("ORDER_VERSION")).thenReturn(3L);
+                when(rs.getLong("ORDER_VERSION")).thenReturn(3L);
+                when(rs.getTimestamp("CREATED_AT")).thenReturn(Timestamp.valueOf(LocalDateTime.of(2025, 3, 1, 10, 0)));
+                when(rs.getString("PAYLOAD")).thenReturn("{\"orderId\":1,\"username\":\"alice\",\"version\":3}");
+                rows.add(rowMapper.mapRow(rs, rows.size()));
+            }
+            return rows;
+        }).when(namedParameterJdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowMapper.class));
+    }
+}
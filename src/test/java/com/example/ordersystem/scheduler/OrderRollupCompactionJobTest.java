@@ -0,0 +1,86 @@
+package com.example.ordersystem.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderRollupCompactionJob 單元測試
+ * 資料庫操作以 Mock 的 JdbcTemplate 驗證，租約使用 InMemoryLeaseLock
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderRollupCompactionJob 測試")
+class OrderRollupCompactionJobTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private OrderRollupCompactionJob orderRollupCompactionJob;
+
+    private final InMemoryLeaseLock leaseLock = new InMemoryLeaseLock("node-a");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderRollupCompactionJob, "leaseLock", leaseLock);
+    }
+
+    @Test
+    @DisplayName("測試壓縮 - 在 SERIALIZABLE 交易中合併增量後刪除增量與歸零的彙總列")
+    void testCompact_MergesThenDeletes() {
+        // Arrange
+        lenient().when(jdbcTemplate.update(anyString())).thenReturn(2);
+        when(jdbcTemplate.update("DELETE FROM ORDER_ROLLUP_DELTA")).thenReturn(9);
+
+        // Act
+        int compacted = orderRollupCompactionJob.compact();
+
+        // Assert
+        assertEquals(9, compacted);
+        verify(transactionManager).getTransaction(argThat((TransactionDefinition definition) ->
+            definition.getIsolationLevel() == TransactionDefinition.ISOLATION_SERIALIZABLE));
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update(startsWith("MERGE INTO ORDER_DAILY_ROLLUP"));
+        inOrder.verify(jdbcTemplate).update("DELETE FROM ORDER_ROLLUP_DELTA");
+        inOrder.verify(jdbcTemplate).update("DELETE FROM ORDER_DAILY_ROLLUP WHERE ORDER_COUNT = 0");
+        // 完成後釋放租約
+        assertTrue(leaseLock.tryAcquire("order-rollup-compaction", Duration.ofMinutes(1)).isPresent());
+    }
+
+    @Test
+    @DisplayName("測試其他節點正在壓縮 - 本節點跳過")
+    void testCompact_LeaseHeldElsewhere() {
+        // Arrange
+        leaseLock.tryAcquire("order-rollup-compaction", Duration.ofMinutes(1));
+
+        // Act
+        int compacted = orderRollupCompactionJob.compact();
+
+        // Assert
+        assertEquals(0, compacted);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
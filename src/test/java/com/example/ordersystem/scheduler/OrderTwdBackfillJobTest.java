@@ -0,0 +1,165 @@
+package com.example.ordersystem.scheduler;
+
+import com.example.ordersystem.exception.RateUnavailableException;
+import com.example.ordersystem.model.Currency;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.service.CurrencyService;
+import com.example.ordersystem.service.OrderCache;
+import com.example.ordersystem.service.OrderSearchCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderTwdBackfillJob 單元測試
+ * 資料庫操作以 Mock 的 NamedParameterJdbcTemplate 驗證，租約使用 InMemoryLeaseLock
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderTwdBackfillJob 測試")
+class OrderTwdBackfillJobTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private OrderCache orderCache;
+
+    @Mock
+    private OrderSearchCache orderSearchCache;
+
+    @InjectMocks
+    private OrderTwdBackfillJob orderTwdBackfillJob;
+
+    private final InMemoryLeaseLock leaseLock = new InMemoryLeaseLock("node-a");
+
+    /** 各幣別待補值的訂單ID，每次查詢取出一批 */
+    private final Map<String, List<List<Long>>> pending = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderTwdBackfillJob, "leaseLock", leaseLock);
+        ReflectionTestUtils.setField(orderTwdBackfillJob, "batchSize", 2);
+        lenient().when(currencyService.getCurrencyByCode(any())).thenReturn(Optional.empty());
+        lenient().doAnswer(invocation -> {
+            MapSqlParameterSource params = invocation.getArgument(1);
+            RowMapper<?> rowMapper = invocation.getArgument(2);
+            List<List<Long>> batches = pending.getOrDefault((String) params.getValue("currency"), new ArrayList<>());
+            List<Object> rows = new ArrayList<>();
+            if (!batches.isEmpty()) {
+                for (Long id : batches.remove(0)) {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getLong("ORDER_ID")).thenReturn(id);
+                    rows.add(rowMapper.mapRow(rs, rows.size()));
+                }
+            }
+            return rows;
+        }).when(namedParameterJdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowMapper.class));
+    }
+
+    @Test
+    @DisplayName("測試補值 - 依幣別分批以目前匯率更新，並記錄匯率版本")
+    void testBackfill_UpdatesInBatchesPerCurrency() {
+        // Arrange：USD 第一批 2 筆、第二批 1 筆；TWD 1 筆
+        LocalDateTime rateVersion = LocalDateTime.of(2025, 3, 1, 9, 0);
+        when(currencyService.getCurrencyByCode(CurrencyCode.USD))
+            .thenReturn(Optional.of(currency(CurrencyCode.USD, "31.500000", rateVersion)));
+        pending.put("USD", new ArrayList<>(List.of(List.of(1L, 2L), List.of(3L))));
+        pending.put("TWD", new ArrayList<>(List.of(List.of(4L))));
+
+        // Act
+        int filled = orderTwdBackfillJob.backfill();
+
+        // Assert
+        assertEquals(4, filled);
+        verify(namedParameterJdbcTemplate, times(1)).update(startsWith("UPDATE ORDERS"),
+            argThat((MapSqlParameterSource params) -> List.of(1L, 2L).equals(params.getValue("ids"))
+                && new BigDecimal("31.500000").equals(params.getValue("rate"))
+                && Timestamp.valueOf(rateVersion).equals(params.getValue("rateVersion"))));
+        verify(namedParameterJdbcTemplate, times(1)).update(startsWith("UPDATE ORDERS"),
+            argThat((MapSqlParameterSource params) -> List.of(4L).equals(params.getValue("ids"))
+                && BigDecimal.ONE.equals(params.getValue("rate"))
+                && params.getValue("rateVersion") == null));
+        verify(orderCache, times(1)).invalidateAll(List.of(1L, 2L));
+        verify(orderCache, times(1)).invalidateAll(List.of(3L));
+        verify(orderSearchCache, times(3)).bumpEpoch();
+        // 完成後釋放租約
+        assertTrue(leaseLock.tryAcquire("order-twd-backfill", Duration.ofMinutes(1)).isPresent());
+    }
+
+    @Test
+    @DisplayName("測試取不到匯率 - 略過該幣別，其他幣別照常補值")
+    void testBackfill_SkipsCurrencyWithoutRate() {
+        // Arrange
+        when(currencyService.getCurrencyByCode(CurrencyCode.USD))
+            .thenThrow(new RateUnavailableException(CurrencyCode.USD, "Redis 與資料庫皆無法使用"));
+        pending.put("USD", new ArrayList<>(List.of(List.of(1L))));
+        pending.put("TWD", new ArrayList<>(List.of(List.of(2L))));
+
+        // Act
+        int filled = orderTwdBackfillJob.backfill();
+
+        // Assert
+        assertEquals(1, filled);
+        verify(namedParameterJdbcTemplate, never()).query(anyString(),
+            argThat((SqlParameterSource params) -> "USD".equals(params.getValue("currency"))), any(RowMapper.class));
+        verify(orderCache, times(1)).invalidateAll(List.of(2L));
+    }
+
+    @Test
+    @DisplayName("測試其他節點正在補值 - 本節點跳過")
+    void testBackfill_LeaseHeldElsewhere() {
+        // Arrange
+        leaseLock.tryAcquire("order-twd-backfill", Duration.ofMinutes(1));
+
+        // Act
+        int filled = orderTwdBackfillJob.backfill();
+
+        // Assert
+        assertEquals(0, filled);
+        verifyNoInteractions(namedParameterJdbcTemplate);
+    }
+
+    private static Currency currency(CurrencyCode code, String rateToTwd, LocalDateTime lastUpdate) {
+        Currency currency = new Currency();
+        currency.setCurrencyCode(code);
+        currency.setRateToTwd(new BigDecimal(rateToTwd));
+        currency.setLastUpdate(lastUpdate);
+        return currency;
+    }
+}
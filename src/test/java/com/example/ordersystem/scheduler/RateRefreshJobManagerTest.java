@@ -0,0 +1,113 @@
+package com.example.ordersystem.scheduler;
+
+import com.example.ordersystem.dto.RateRefreshJob;
+import com.example.ordersystem.exception.ConflictException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * RateRefreshJobManager 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateRefreshJobManager 測試")
+class RateRefreshJobManagerTest {
+
+    @Mock
+    private CurrencyRateUpdateScheduler currencyRateUpdateScheduler;
+
+    @Mock
+    private TaskExecutor backgroundTaskExecutor;
+
+    @InjectMocks
+    private RateRefreshJobManager rateRefreshJobManager;
+
+    @Test
+    @DisplayName("測試提交刷新 - 進行中任務合併請求")
+    void testSubmit_CoalescesInFlightJob() {
+        // Act
+        RateRefreshJob first = rateRefreshJobManager.submit("MANUAL");
+        RateRefreshJob second = rateRefreshJobManager.submit("MANUAL");
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(2, first.getCoalescedRequests());
+        assertEquals(RateRefreshJob.Status.QUEUED, first.getStatus());
+        verify(backgroundTaskExecutor, times(1)).execute(any());
+    }
+
+    @Test
+    @DisplayName("測試提交刷新 - 任務完成後建立新任務")
+    void testSubmit_NewJobAfterCompletion() {
+        // Arrange
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        RateRefreshJob first = rateRefreshJobManager.submit("MANUAL");
+        verify(backgroundTaskExecutor).execute(captor.capture());
+        doAnswer(invocation -> {
+            RateRefreshJob job = invocation.getArgument(0);
+            job.markRunning();
+            job.markSucceeded("完成");
+            return null;
+        }).when(currencyRateUpdateScheduler).updateExchangeRates(first);
+
+        // Act
+        captor.getValue().run();
+        RateRefreshJob second = rateRefreshJobManager.submit("MANUAL");
+
+        // Assert
+        assertEquals(RateRefreshJob.Status.SUCCEEDED, first.getStatus());
+        assertNotEquals(first.getJobId(), second.getJobId());
+        assertTrue(rateRefreshJobManager.getJob(first.getJobId()).isPresent());
+        assertTrue(rateRefreshJobManager.getJob(second.getJobId()).isPresent());
+    }
+
+    @Test
+    @DisplayName("測試任務執行 - 發生例外時標記失敗")
+    void testRun_ExceptionMarksFailed() {
+        // Arrange
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        RateRefreshJob job = rateRefreshJobManager.submit("MANUAL");
+        verify(backgroundTaskExecutor).execute(captor.capture());
+        doThrow(new RuntimeException("API 錯誤")).when(currencyRateUpdateScheduler).updateExchangeRates(job);
+
+        // Act
+        captor.getValue().run();
+
+        // Assert
+        assertEquals(RateRefreshJob.Status.FAILED, job.getStatus());
+        assertFalse(job.isInFlight());
+    }
+
+    @Test
+    @DisplayName("測試提交刷新 - 其他節點正在執行刷新時拒絕並說明原因")
+    void testSubmit_RunningElsewhere() {
+        // Arrange
+        when(currencyRateUpdateScheduler.getRunningRefreshRemaining()).thenReturn(Optional.of(Duration.ofSeconds(90)));
+
+        // Act & Assert
+        ConflictException e = assertThrows(ConflictException.class, () -> rateRefreshJobManager.submit("MANUAL"));
+        assertTrue(e.getMessage().contains("90 秒"));
+        verifyNoInteractions(backgroundTaskExecutor);
+    }
+
+    @Test
+    @DisplayName("測試查詢任務 - 不存在")
+    void testGetJob_NotFound() {
+        assertTrue(rateRefreshJobManager.getJob("missing").isEmpty());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.ordersystem.service;
 
+import com.example.ordersystem.dto.RateSnapshot;
 import com.example.ordersystem.model.Currency;
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.repository.CurrencyRepository;
@@ -10,6 +11,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -20,6 +25,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -35,6 +42,18 @@ class CurrencyServiceTest {
     @Mock
     private CurrencyRepository currencyRepository;
 
+    @Mock
+    private RedisTemplate<String, Currency> currencyRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, Currency> valueOperations;
+
+    @Mock
+    private RateNearCache rateNearCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CurrencyService currencyService;
 
@@ -516,5 +535,177 @@ class CurrencyServiceTest {
         verify(currencyRepository, times(1)).findByCurrencyCode(testCurrencyCode);
         verify(currencyRepository, never()).save(any());
     }
-}
 
+    @Test
+    @DisplayName("測試取得匯率快照 - Redis 命中不查資料庫")
+    void testGetRateSnapshot_RedisHit() {
+        // Arrange
+        when(currencyRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("currency:rate:USD")).thenReturn(testCurrency);
+
+        // Act
+        Optional<RateSnapshot> result = currencyService.getRateSnapshot(testCurrencyCode);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(RateSnapshot.Source.REDIS, result.get().getSource());
+        assertEquals(testCurrency.getRateToTwd(), result.get().getCurrency().getRateToTwd());
+        verify(currencyRepository, never()).findByCurrencyCode(any());
+    }
+
+    @Test
+    @DisplayName("測試取得匯率快照 - Redis 失敗且無快照時改查資料庫")
+    void testGetRateSnapshot_RedisDownFallsBackToDatabase() {
+        // Arrange
+        when(currencyRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("連線失敗"));
+        when(currencyRepository.findByCurrencyCode(testCurrencyCode)).thenReturn(Optional.of(testCurrency));
+
+        // Act
+        Optional<RateSnapshot> result = currencyService.getRateSnapshot(testCurrencyCode);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(RateSnapshot.Source.DATABASE, result.get().getSource());
+        verify(currencyRepository, times(1)).findByCurrencyCode(testCurrencyCode);
+    }
+
+    @Test
+    @DisplayName("測試取得匯率快照 - Redis 失敗時以最後已知快照回應")
+    void testGetRateSnapshot_RedisDownServesLastKnownSnapshot() {
+        // Arrange
+        when(currencyRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("currency:rate:USD"))
+            .thenReturn(testCurrency)
+            .thenThrow(new RedisConnectionFailureException("連線失敗"));
+        currencyService.getRateSnapshot(testCurrencyCode);
+
+        // Act
+        Optional<RateSnapshot> result = currencyService.getRateSnapshot(testCurrencyCode);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(RateSnapshot.Source.SNAPSHOT, result.get().getSource());
+        assertEquals(testCurrency.getRateToTwd(), result.get().getCurrency().getRateToTwd());
+        assertNotSame(testCurrency, result.get().getCurrency());
+        verify(currencyRepository, never()).findByCurrencyCode(any());
+    }
+
+    @Test
+    @DisplayName("測試取得匯率快照 - 連續失敗後斷路器開啟不再呼叫 Redis")
+    void testGetRateSnapshot_BreakerOpensAfterFailures() {
+        // Arrange
+        when(currencyRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("連線失敗"));
+        when(currencyRepository.findByCurrencyCode(testCurrencyCode)).thenReturn(Optional.of(testCurrency));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            currencyService.getRateSnapshot(testCurrencyCode);
+        }
+
+        // Assert：第 1 次失敗後由快照回應，預設門檻 3 次後斷路器開啟
+        verify(valueOperations, times(3)).get(anyString());
+        verify(currencyRepository, times(1)).findByCurrencyCode(testCurrencyCode);
+    }
+
+    @Test
+    @DisplayName("測試更新匯率 - Redis 寫入失敗不影響資料庫更新")
+    void testUpdateRate_RedisDownStillSaves() {
+        // Arrange
+        BigDecimal newRate = new BigDecimal("32.000000");
+        when(currencyRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenReturn(null);
+        doThrow(new RedisConnectionFailureException("連線失敗"))
+            .when(valueOperations).set(anyString(), any(), any(java.time.Duration.class));
+        when(currencyRepository.findByCurrencyCode(testCurrencyCode)).thenReturn(Optional.of(testCurrency));
+        when(currencyRepository.save(any(Currency.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Currency result = currencyService.updateRate(testCurrencyCode, newRate);
+
+        // Assert
+        assertEquals(newRate, result.getRateToTwd());
+        verify(currencyRepository, times(1)).save(any(Currency.class));
+        assertEquals(newRate, currencyService.peekRateSnapshot(testCurrencyCode).get().getCurrency().getRateToTwd());
+    }
+
+    @Test
+    @DisplayName("測試取得匯率快照 - 近端快取命中不呼叫 Redis，並更新最後已知快照")
+    void testGetRateSnapshot_NearCacheHit() {
+        // Arrange
+        java.time.Instant confirmedAt = java.time.Instant.now();
+        when(rateNearCache.get(testCurrencyCode)).thenReturn(
+            new RateSnapshot(testCurrency, RateSnapshot.Source.NEAR_CACHE, confirmedAt));
+
+        // Act
+        Optional<RateSnapshot> result = currencyService.getRateSnapshot(testCurrencyCode);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(RateSnapshot.Source.NEAR_CACHE, result.get().getSource());
+        assertNotSame(testCurrency, result.get().getCurrency());
+        assertEquals(confirmedAt, currencyService.peekRateSnapshot(testCurrencyCode).get().getConfirmedAt());
+        verifyNoInteractions(currencyRedisTemplate);
+        verify(currencyRepository, never()).findByCurrencyCode(any());
+    }
+
+    @Test
+    @DisplayName("測試取得匯率快照 - Redis 命中後寫入近端快取")
+    void testGetRateSnapshot_RedisHitPopulatesNearCache() {
+        // Arrange
+        when(rateNearCache.currentGeneration()).thenReturn(7L);
+        when(currencyRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("currency:rate:USD")).thenReturn(testCurrency);
+
+        // Act
+        currencyService.getRateSnapshot(testCurrencyCode);
+
+        // Assert
+        verify(rateNearCache, times(1)).put(any(Currency.class), eq(7L));
+    }
+
+    @Test
+    @DisplayName("測試已寫入的最大 fencing token - 沒有刷新寫入過時為 0")
+    void testGetMaxRefreshFence() {
+        // Arrange
+        when(currencyRepository.findMaxRefreshFence()).thenReturn(null, 42L);
+
+        // Act & Assert
+        assertEquals(0L, currencyService.getMaxRefreshFence());
+        assertEquals(42L, currencyService.getMaxRefreshFence());
+    }
+
+    @Test
+    @DisplayName("測試刷新寫入匯率 - 較新的刷新已寫入時不更新快取也不推送")
+    void testUpdateRefreshedRate_Fenced() {
+        // Arrange
+        when(currencyRepository.updateRateIfNotFenced(eq(testCurrencyCode), any(), any(), eq(7L))).thenReturn(0);
+        when(currencyRepository.existsById(testCurrencyCode)).thenReturn(true);
+
+        // Act
+        Optional<Currency> result = currencyService.updateRefreshedRate(testCurrencyCode, new BigDecimal("31.5"), 7L);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(currencyRepository, never()).save(any());
+        verifyNoInteractions(currencyRedisTemplate, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("測試刷新寫入匯率 - 條件更新成功後更新快取並推送")
+    void testUpdateRefreshedRate_Applied() {
+        // Arrange
+        when(currencyRepository.updateRateIfNotFenced(eq(testCurrencyCode), any(), any(), eq(8L))).thenReturn(1);
+        when(currencyRepository.findById(testCurrencyCode)).thenReturn(Optional.of(testCurrency));
+        when(currencyRedisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        // Act
+        Optional<Currency> result = currencyService.updateRefreshedRate(testCurrencyCode, new BigDecimal("31.25"), 8L);
+
+        // Assert
+        assertEquals(Optional.of(testCurrency), result);
+        verify(eventPublisher).publishEvent(CurrencyChangedEvent.saved(testCurrency));
+        verify(valueOperations).set(eq("currency:rate:USD"), eq(testCurrency), any());
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.exception.ConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * IdempotencyService 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyService 測試")
+class IdempotencyServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private TaskExecutor backgroundTaskExecutor;
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotencyService, "bloomExpectedInsertions", 10_000L);
+    }
+
+    @Test
+    @DisplayName("測試新的 key - 返回空值並登記為處理中")
+    void testBegin_NewKey() {
+        // Arrange
+        useLocalOnly();
+
+        // Act
+        Optional<IdempotencyService.Outcome> result = idempotencyService.begin("user1", "key-1");
+
+        // Assert
+        assertFalse(result.isPresent());
+        assertThrows(ConflictException.class, () -> idempotencyService.begin("user1", "key-1"));
+    }
+
+    @Test
+    @DisplayName("測試完成後重送 - 返回第一次的結果")
+    void testBegin_AfterComplete() {
+        // Arrange
+        useLocalOnly();
+        idempotencyService.begin("user1", "key-1");
+        idempotencyService.complete("user1", "key-1", 201, 42L);
+
+        // Act
+        Optional<IdempotencyService.Outcome> result = idempotencyService.begin("user1", "key-1");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(201, result.get().status());
+        assertEquals(42L, result.get().orderId());
+    }
+
+    @Test
+    @DisplayName("測試失敗後重送 - 可用相同 key 重新建立")
+    void testBegin_AfterAbandon() {
+        // Arrange
+        useLocalOnly();
+        idempotencyService.begin("user1", "key-1");
+        idempotencyService.abandon("user1", "key-1");
+
+        // Act & Assert
+        assertFalse(idempotencyService.begin("user1", "key-1").isPresent());
+    }
+
+    @Test
+    @DisplayName("測試不同使用者 - 相同 key 互不影響")
+    void testBegin_ScopedByUser() {
+        // Arrange
+        useLocalOnly();
+        idempotencyService.begin("user1", "key-1");
+        idempotencyService.complete("user1", "key-1", 201, 42L);
+
+        // Act & Assert
+        assertFalse(idempotencyService.begin("user2", "key-1").isPresent());
+    }
+
+    @Test
+    @DisplayName("測試 Bloom filter 已載入且判斷沒看過 - 不先查詢，直接以 SET NX 登記")
+    void testBegin_BloomNegativeSkipsRedis() {
+        // Arrange
+        idempotencyService.init();
+        ReflectionTestUtils.setField(idempotencyService, "bloomWarm", true);
+        clearInvocations(backgroundTaskExecutor);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("idempotency:order:user1:key-1"), eq("PENDING"), any(Duration.class)))
+            .thenReturn(true);
+
+        // Act
+        Optional<IdempotencyService.Outcome> result = idempotencyService.begin("user1", "key-1");
+
+        // Assert
+        assertFalse(result.isPresent());
+        verify(valueOperations, never()).get(anyString());
+        verify(backgroundTaskExecutor, times(1)).execute(any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("測試 SET NX 失敗 - 其他節點已完成時返回第一次的結果，仍在處理中時回應 409")
+    void testBegin_ClaimedElsewhere() {
+        // Arrange：Bloom filter 沒有收到其他節點的通知
+        idempotencyService.init();
+        ReflectionTestUtils.setField(idempotencyService, "bloomWarm", true);
+        clearInvocations(backgroundTaskExecutor);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), eq("PENDING"), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("idempotency:order:user1:key-1")).thenReturn("201:42");
+        when(valueOperations.get("idempotency:order:user1:key-2")).thenReturn("PENDING");
+
+        // Act
+        Optional<IdempotencyService.Outcome> result = idempotencyService.begin("user1", "key-1");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(42L, result.get().orderId());
+        assertThrows(ConflictException.class, () -> idempotencyService.begin("user1", "key-2"));
+        verify(backgroundTaskExecutor, never()).execute(any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("測試其他節點處理過的 key - 由通知加入 Bloom filter 後查詢 Redis 取得結果")
+    void testBegin_SeenOnAnotherNode() {
+        // Arrange
+        idempotencyService.init();
+        ReflectionTestUtils.setField(idempotencyService, "bloomWarm", true);
+        idempotencyService.onMessage(new DefaultMessage(
+            IdempotencyService.SEEN_CHANNEL.getBytes(StandardCharsets.UTF_8),
+            "user1:key-1".getBytes(StandardCharsets.UTF_8)), null);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("idempotency:order:user1:key-1")).thenReturn("202:7");
+
+        // Act
+        Optional<IdempotencyService.Outcome> result = idempotencyService.begin("user1", "key-1");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(202, result.get().status());
+        assertEquals(7L, result.get().orderId());
+        verify(valueOperations, never()).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("測試 Redis 無法連線 - 依本節點紀錄判斷")
+    void testBegin_RedisFailureFallsBackToLocal() {
+        // Arrange
+        idempotencyService.init();
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString()))
+            .thenThrow(new org.springframework.data.redis.RedisConnectionFailureException("connection refused"));
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+            .thenThrow(new org.springframework.data.redis.RedisConnectionFailureException("connection refused"));
+
+        // Act
+        Optional<IdempotencyService.Outcome> result = idempotencyService.begin("user1", "key-1");
+
+        // Assert
+        assertFalse(result.isPresent());
+    }
+
+    private void useLocalOnly() {
+        ReflectionTestUtils.setField(idempotencyService, "redisEnabled", false);
+        idempotencyService.init();
+    }
+}
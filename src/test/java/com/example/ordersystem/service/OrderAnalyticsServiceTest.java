@@ -0,0 +1,256 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderAnalyticsFilter;
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.model.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderAnalyticsService 單元測試
+ * 載入以 Mock 的 JdbcTemplate 逐列回呼，查詢在真實的 ForkJoinPool 中執行
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderAnalyticsService 測試")
+class OrderAnalyticsServiceTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @InjectMocks
+    private OrderAnalyticsService orderAnalyticsService;
+
+    /** ORDERS 目前的內容：ORDER_ID, USERNAME, AMOUNT, CURRENCY, STATUS, DISCOUNT */
+    private final List<Object[]> table = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(orderAnalyticsService, "parallelism", 2);
+        orderAnalyticsService.start();
+        table.add(new Object[] {1L, "alice", "100.00", "USD", "PENDING", "0.00"});
+        table.add(new Object[] {2L, "alice", "300.00", "USD", "COMPLETED", "10.00"});
+        table.add(new Object[] {3L, "bob", "1000.00", "USD", "PENDING", "25.00"});
+        table.add(new Object[] {4L, "carol", "50.00", "TWD", "CANCELLED", "5.50"});
+        lenient().doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] row : table) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("ORDER_ID")).thenReturn((Long) row[0]);
+                when(rs.getString("USERNAME")).thenReturn((String) row[1]);
+                when(rs.getBigDecimal("AMOUNT")).thenReturn(new BigDecimal((String) row[2]));
+                when(rs.getString("CURRENCY")).thenReturn((String) row[3]);
+                when(rs.getString("STATUS")).thenReturn((String) row[4]);
+                when(rs.getBigDecimal("DISCOUNT")).thenReturn(new BigDecimal((String) row[5]));
+                when(rs.getTimestamp("CREATED_AT")).thenReturn(Timestamp.valueOf(CREATED_AT));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderAnalyticsService.stop();
+    }
+
+    @Test
+    @DisplayName("測試折扣分布 - 第一次查詢時載入並依區間計算筆數")
+    void testDiscountDistribution() {
+        // Act
+        OrderAnalyticsService.DiscountDistribution result =
+            orderAnalyticsService.discountDistribution(new OrderAnalyticsFilter(), new BigDecimal("10"));
+
+        // Assert
+        assertEquals(4, result.orderCount());
+        assertEquals(new BigDecimal("10.13"), result.averageDiscount());
+        assertEquals(10, result.buckets().size());
+        assertEquals(2, result.buckets().get(0).orderCount());
+        assertEquals(1, result.buckets().get(1).orderCount());
+        assertEquals(1, result.buckets().get(2).orderCount());
+        assertEquals(new BigDecimal("90.00"), result.buckets().get(9).fromPercent());
+        assertNull(result.buckets().get(9).toPercent());
+        assertNotNull(orderAnalyticsService.getLoadedAt());
+    }
+
+    @Test
+    @DisplayName("測試寫入異動 - 載入後的新增、狀態變更與刪除套用到快照，不重新載入")
+    void testChangesAppliedIncrementally() {
+        // Arrange：載入前的異動不記錄
+        orderAnalyticsService.recordRemoved(List.of(1L));
+        OrderAnalyticsFilter filter = new OrderAnalyticsFilter();
+        filter.setCurrency(CurrencyCode.USD);
+        assertEquals(3, orderAnalyticsService.discountDistribution(filter, BigDecimal.TEN).orderCount());
+
+        Order created = usdOrder(5L, "bob", "2000.00", "0.00", OrderStatus.PENDING);
+        List<OrderChangedEvent.Change> confirmed = List.of(
+            new OrderChangedEvent.Change(null, OrderView.from(usdOrder(1L, "alice", "100.00", "0.00", OrderStatus.CONFIRMED))),
+            new OrderChangedEvent.Change(null, OrderView.from(usdOrder(3L, "bob", "1000.00", "25.00", OrderStatus.CONFIRMED))));
+
+        // Act
+        orderAnalyticsService.onOrderChanged(OrderChangedEvent.created(created));
+        orderAnalyticsService.onOrderChanged(OrderChangedEvent.deleted(usdOrder(2L, "alice", "300.00", "10.00", OrderStatus.COMPLETED)));
+        orderAnalyticsService.onOrderChanged(new OrderChangedEvent(OrderEventType.ORDER_UPDATED, confirmed));
+        filter.setStatus(OrderStatus.CONFIRMED);
+        List<OrderAnalyticsService.UserTotal> top =
+            orderAnalyticsService.topUsers(filter, OrderAnalyticsService.Ranking.AMOUNT, 10);
+
+        // Assert
+        assertEquals(2, top.size());
+        assertEquals(new OrderAnalyticsService.UserTotal("bob", 1, new BigDecimal("1000.00")), top.get(0));
+        assertEquals(new OrderAnalyticsService.UserTotal("alice", 1, new BigDecimal("100.00")), top.get(1));
+        filter.setStatus(null);
+        assertEquals(3, orderAnalyticsService.discountDistribution(filter, BigDecimal.TEN).orderCount());
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("測試批次新增與重新載入 - 重新載入後以資料庫內容為準")
+    void testInsertedAndReload() {
+        // Arrange
+        orderAnalyticsService.topUsers(new OrderAnalyticsFilter(), OrderAnalyticsService.Ranking.COUNT, 10);
+        OrderView inserted = OrderView.from(order(6L, "dave", "10.00"));
+
+        // Act
+        orderAnalyticsService.onOrderChanged(OrderChangedEvent.created(List.of(inserted)));
+        List<OrderAnalyticsService.UserTotal> beforeReload =
+            orderAnalyticsService.topUsers(new OrderAnalyticsFilter(), OrderAnalyticsService.Ranking.COUNT, 10);
+        orderAnalyticsService.reload();
+        List<OrderAnalyticsService.UserTotal> afterReload =
+            orderAnalyticsService.topUsers(new OrderAnalyticsFilter(), OrderAnalyticsService.Ranking.COUNT, 10);
+
+        // Assert：依筆數排名，未指定幣別時不加總金額
+        assertEquals(4, beforeReload.size());
+        assertTrue(beforeReload.stream().anyMatch(user -> user.username().equals("dave")));
+        assertEquals("alice", beforeReload.get(0).username());
+        assertEquals(2, beforeReload.get(0).orderCount());
+        assertNull(beforeReload.get(0).totalAmount());
+        assertEquals(3, afterReload.size());
+        assertTrue(afterReload.stream().noneMatch(user -> user.username().equals("dave")));
+        verify(jdbcTemplate, times(2)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("測試金額百分位數 - 依幣別（列舉順序）以最近排名法計算")
+    void testAmountPercentiles() {
+        // Act
+        List<OrderAnalyticsService.AmountPercentiles> result = orderAnalyticsService.amountPercentiles(
+            new OrderAnalyticsFilter(), List.of(new BigDecimal("50"), new BigDecimal("99.9")));
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(CurrencyCode.TWD, result.get(0).currency());
+        OrderAnalyticsService.AmountPercentiles usd = result.get(1);
+        assertEquals(CurrencyCode.USD, usd.currency());
+        assertEquals(3, usd.orderCount());
+        assertEquals(new BigDecimal("100.00"), usd.min());
+        assertEquals(new BigDecimal("1000.00"), usd.max());
+        assertEquals(new BigDecimal("300.00"), usd.percentiles().get("p50"));
+        assertEquals(new BigDecimal("1000.00"), usd.percentiles().get("p99.9"));
+    }
+
+    @Test
+    @DisplayName("測試不合法的條件 - 拋出異常且不載入快照")
+    void testInvalidArguments() {
+        // Arrange
+        OrderAnalyticsFilter filter = new OrderAnalyticsFilter();
+
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+            () -> orderAnalyticsService.topUsers(filter, OrderAnalyticsService.Ranking.AMOUNT, 10));
+        assertThrows(BadRequestException.class,
+            () -> orderAnalyticsService.topUsers(filter, OrderAnalyticsService.Ranking.COUNT, 0));
+        assertThrows(BadRequestException.class,
+            () -> orderAnalyticsService.discountDistribution(filter, new BigDecimal("0.001")));
+        assertThrows(BadRequestException.class,
+            () -> orderAnalyticsService.amountPercentiles(filter, List.of(BigDecimal.ZERO)));
+        filter.setFrom(CREATED_AT.toLocalDate());
+        filter.setTo(CREATED_AT.toLocalDate().minusDays(1));
+        assertThrows(BadRequestException.class,
+            () -> orderAnalyticsService.discountDistribution(filter, BigDecimal.TEN));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("測試使用者數超過陣列上限 - 每段只記錄出現過的使用者，合計與陣列相同")
+    void testUserTotals_SparseAboveDenseLimit() {
+        // Arrange
+        int userCount = OrderAnalyticsService.DENSE_USER_LIMIT + 1;
+        OrderAnalyticsService.UserTotals left = new OrderAnalyticsService.UserTotals(userCount);
+        OrderAnalyticsService.UserTotals right = new OrderAnalyticsService.UserTotals(userCount);
+        left.add(0, 100);
+        left.add(userCount - 1, 250);
+        right.add(userCount - 1, 50);
+        right.add(7, 10);
+
+        // Act
+        OrderAnalyticsService.UserTotals totals = left.addAll(right);
+        List<Integer> users = new ArrayList<>();
+        totals.forEachUser(users::add);
+
+        // Assert
+        assertEquals(3, users.size());
+        assertEquals(2, totals.count(userCount - 1));
+        assertEquals(300, totals.cents(userCount - 1));
+        assertEquals(1, totals.count(7));
+        assertEquals(0, totals.count(1));
+        assertEquals(0, totals.cents(1));
+    }
+
+    private static Order usdOrder(Long orderId, String username, String amount, String discount, OrderStatus status) {
+        Order order = order(orderId, username, amount);
+        order.setCurrency(CurrencyCode.USD);
+        order.setDiscount(new BigDecimal(discount));
+        order.setStatus(status);
+        return order;
+    }
+
+    private static Order order(Long orderId, String username, String amount) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setUsername(username);
+        order.setAmount(new BigDecimal(amount));
+        order.setCurrency(CurrencyCode.TWD);
+        order.setStatus(OrderStatus.PENDING);
+        order.setDiscount(BigDecimal.ZERO);
+        order.setCreatedAt(CREATED_AT);
+        return order;
+    }
+}
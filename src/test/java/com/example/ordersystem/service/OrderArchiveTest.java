@@ -0,0 +1,48 @@
+package com.example.ordersystem.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OrderArchive 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@DisplayName("OrderArchive 測試")
+class OrderArchiveTest {
+
+    @Test
+    @DisplayName("測試封存界線 - 保留月數前的月初")
+    void testBoundary_AlignedToMonth() {
+        // Arrange
+        OrderArchive orderArchive = new OrderArchive();
+        ReflectionTestUtils.setField(orderArchive, "retentionMonths", 3);
+
+        // Act
+        LocalDateTime boundary = orderArchive.boundary();
+
+        // Assert
+        assertEquals(LocalDate.now().minusMonths(3).withDayOfMonth(1).atStartOfDay(), boundary);
+    }
+
+    @Test
+    @DisplayName("測試查詢範圍 - 起點不早於界線時不需查詢封存表")
+    void testMayContain() {
+        // Arrange
+        OrderArchive orderArchive = new OrderArchive();
+        LocalDateTime boundary = orderArchive.boundary();
+
+        // Act & Assert
+        assertTrue(orderArchive.mayContain(null));
+        assertTrue(orderArchive.mayContain(boundary.minusSeconds(1)));
+        assertFalse(orderArchive.mayContain(boundary));
+        assertFalse(orderArchive.mayContain(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.model.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderCache 單元測試
+ * 未啟用 Redis L2 的測試只涵蓋本節點 L1；
+ * L2 的測試以兩個節點共用記憶體中的 hash 模擬 Redis，依 FILL_SCRIPT 與 TOMBSTONE_SCRIPT 的規則寫入
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@DisplayName("OrderCache 測試")
+class OrderCacheTest {
+
+    private OrderCache orderCache;
+
+    @BeforeEach
+    void setUp() {
+        orderCache = new OrderCache();
+    }
+
+    @Test
+    @DisplayName("測試寫入後讀取 - 命中")
+    void testPutAndGet() {
+        // Act
+        orderCache.put(view(1L, OrderStatus.PENDING), orderCache.currentGeneration());
+        OrderView result = orderCache.get(1L);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(OrderStatus.PENDING, result.getStatus());
+        assertEquals(CurrencyCode.USD, result.getCurrency());
+    }
+
+    @Test
+    @DisplayName("測試讀取途中失效 - 不寫入舊值")
+    void testPut_StaleGenerationIgnored() {
+        // Arrange
+        long generation = orderCache.currentGeneration();
+        orderCache.invalidateAll(List.of(1L));
+
+        // Act
+        orderCache.put(view(1L, OrderStatus.PENDING), generation);
+
+        // Assert
+        assertNull(orderCache.get(1L));
+    }
+
+    @Test
+    @DisplayName("測試超過上限 - 淘汰最久未使用的訂單")
+    void testMaxSize_EvictsLeastRecentlyUsed() {
+        // Arrange
+        ReflectionTestUtils.setField(orderCache, "maxSize", 2);
+        orderCache.put(view(1L, OrderStatus.PENDING), orderCache.currentGeneration());
+        orderCache.put(view(2L, OrderStatus.PENDING), orderCache.currentGeneration());
+        orderCache.get(1L);
+
+        // Act
+        orderCache.put(view(3L, OrderStatus.PENDING), orderCache.currentGeneration());
+
+        // Assert
+        assertNotNull(orderCache.get(1L));
+        assertNull(orderCache.get(2L));
+        assertNotNull(orderCache.get(3L));
+    }
+
+    @Test
+    @DisplayName("測試超過保留時間 - 未命中")
+    void testTtlExpired() {
+        // Arrange
+        ReflectionTestUtils.setField(orderCache, "ttl", Duration.ZERO);
+        orderCache.put(view(1L, OrderStatus.PENDING), orderCache.currentGeneration());
+
+        // Act & Assert
+        assertNull(orderCache.get(1L));
+    }
+
+    @Test
+    @DisplayName("測試訂單寫入事件 - 更新與刪除時失效，新增時不失效")
+    void testOnOrderChanged() {
+        // Arrange
+        orderCache.put(view(1L, OrderStatus.PENDING), orderCache.currentGeneration());
+        orderCache.put(view(2L, OrderStatus.PENDING), orderCache.currentGeneration());
+
+        // Act
+        orderCache.onOrderChanged(new OrderChangedEvent(OrderEventType.ORDER_CREATED,
+            List.of(new OrderChangedEvent.Change(null, view(2L, OrderStatus.PENDING)))));
+        orderCache.onOrderChanged(new OrderChangedEvent(OrderEventType.ORDER_UPDATED,
+            List.of(new OrderChangedEvent.Change(view(1L, OrderStatus.PENDING), view(1L, OrderStatus.CONFIRMED)))));
+
+        // Assert
+        assertNull(orderCache.get(1L));
+        assertNotNull(orderCache.get(2L));
+    }
+
+    @Test
+    @DisplayName("測試其他節點的失效通知 - 清除對應訂單")
+    void testInvalidationMessage() {
+        // Arrange
+        orderCache.put(view(1L, OrderStatus.PENDING), orderCache.currentGeneration());
+        orderCache.put(view(2L, OrderStatus.PENDING), orderCache.currentGeneration());
+
+        // Act
+        orderCache.onMessage(new DefaultMessage(
+            OrderCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+            "\"1\"".getBytes(StandardCharsets.UTF_8)), null);
+
+        // Assert
+        assertNull(orderCache.get(1L));
+        assertNotNull(orderCache.get(2L));
+    }
+
+    @Test
+    @DisplayName("測試批次失效與多筆失效通知 - 清除所有指定訂單")
+    void testInvalidateAll() {
+        // Arrange
+        for (long id = 1; id <= 4; id++) {
+            orderCache.put(view(id, OrderStatus.PENDING), orderCache.currentGeneration());
+        }
+
+        // Act
+        orderCache.invalidateAll(List.of(1L, 2L));
+        orderCache.onMessage(new DefaultMessage(
+            OrderCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+            "\"3,5\"".getBytes(StandardCharsets.UTF_8)), null);
+
+        // Assert
+        assertNull(orderCache.get(1L));
+        assertNull(orderCache.get(2L));
+        assertNull(orderCache.get(3L));
+        assertNotNull(orderCache.get(4L));
+    }
+
+    @Test
+    @DisplayName("測試未啟用 - 不保存任何資料")
+    void testDisabled() {
+        // Arrange
+        ReflectionTestUtils.setField(orderCache, "enabled", false);
+
+        // Act
+        orderCache.put(view(1L, OrderStatus.PENDING), orderCache.currentGeneration());
+
+        // Assert
+        assertNull(orderCache.get(1L));
+    }
+
+    @Test
+    @DisplayName("測試讀取途中其他節點失效 - 舊值不寫回 L2")
+    void testRedis_FillInterleavedWithRemoteInvalidation() {
+        // Arrange：節點 A 讀取資料庫前取得世代號並讀到版本 1，節點 B 提交版本 2
+        Map<String, Map<String, Object>> redis = new HashMap<>();
+        List<String> published = new ArrayList<>();
+        OrderCache nodeA = redisNode(redis, published);
+        OrderCache nodeB = redisNode(redis, published);
+        assertNull(nodeA.get(1L));
+        long generation = nodeA.currentGeneration();
+        OrderView stale = view(1L, OrderStatus.PENDING, 1L);
+
+        // Act：B 的失效在 A 寫入之前，失效通知在 A 寫入之後才送達
+        nodeB.onOrderChanged(new OrderChangedEvent(OrderEventType.ORDER_UPDATED,
+            List.of(new OrderChangedEvent.Change(stale, view(1L, OrderStatus.CONFIRMED, 2L)))));
+        nodeA.put(stale, generation);
+        published.forEach(message -> nodeA.onMessage(new DefaultMessage(
+            OrderCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+            ("\"" + message + "\"").getBytes(StandardCharsets.UTF_8)), null));
+
+        // Assert：L2 只留下版本 2 的墓碑，兩個節點都不會讀到版本 1
+        assertEquals(Map.of("v", 2L), redis.get("order:view:1"));
+        assertNull(nodeB.get(1L));
+        assertNull(nodeA.get(1L));
+
+        // 之後讀到版本 2 的節點可以寫入
+        nodeA.put(view(1L, OrderStatus.CONFIRMED, 2L), nodeA.currentGeneration());
+        assertEquals(OrderStatus.CONFIRMED, nodeB.get(1L).getStatus());
+    }
+
+    @Test
+    @DisplayName("測試 L2 已有較新版本 - 不覆蓋")
+    void testRedis_OlderVersionDoesNotOverwrite() {
+        // Arrange
+        Map<String, Map<String, Object>> redis = new HashMap<>();
+        OrderCache nodeA = redisNode(redis, new ArrayList<>());
+        OrderCache nodeB = redisNode(redis, new ArrayList<>());
+        nodeB.put(view(1L, OrderStatus.CONFIRMED, 3L), nodeB.currentGeneration());
+
+        // Act
+        nodeA.put(view(1L, OrderStatus.PENDING, 2L), nodeA.currentGeneration());
+
+        // Assert
+        assertEquals(3L, redis.get("order:view:1").get("v"));
+        assertEquals(OrderStatus.CONFIRMED, redisNode(redis, new ArrayList<>()).get(1L).getStatus());
+    }
+
+    @Test
+    @DisplayName("測試不帶版本的失效與刪除 - 墓碑拒絕所有或刪除前的版本")
+    void testRedis_TombstoneVersions() {
+        // Arrange
+        Map<String, Map<String, Object>> redis = new HashMap<>();
+        OrderCache node = redisNode(redis, new ArrayList<>());
+        node.put(view(1L, OrderStatus.PENDING, 1L), node.currentGeneration());
+        node.put(view(2L, OrderStatus.PENDING, 5L), node.currentGeneration());
+
+        // Act
+        node.invalidateAll(List.of(1L));
+        node.onOrderChanged(OrderChangedEvent.deleted(order(2L, OrderStatus.PENDING, 5L)));
+        node.put(view(1L, OrderStatus.PENDING, 1L), node.currentGeneration());
+        node.put(view(2L, OrderStatus.PENDING, 5L), node.currentGeneration());
+
+        // Assert
+        assertEquals(Map.of("v", OrderCache.ANY_VERSION), redis.get("order:view:1"));
+        assertEquals(Map.of("v", 6L), redis.get("order:view:2"));
+    }
+
+    /**
+     * 啟用 L2 的節點，Redis 以共用的 map 模擬（key -> hash），發布的失效訊息記錄在 published
+     */
+    @SuppressWarnings("unchecked")
+    private static OrderCache redisNode(Map<String, Map<String, Object>> redis, List<String> published) {
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+        lenient().when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        lenient().when(hashOperations.get(anyString(), any())).thenAnswer(invocation ->
+            redis.getOrDefault(invocation.<String>getArgument(0), Map.of()).get(invocation.getArgument(1)));
+        lenient().when(redisTemplate.execute(eq(OrderCache.FILL_SCRIPT), anyList(), any(Object[].class))).thenAnswer(invocation -> {
+            String key = invocation.<List<String>>getArgument(1).get(0);
+            Object[] args = (Object[]) invocation.getRawArguments()[2];
+            long version = (Long) args[1];
+            Map<String, Object> hash = redis.computeIfAbsent(key, k -> new HashMap<>());
+            if (hash.containsKey("v") && version < (Long) hash.get("v")) {
+                return 0L;
+            }
+            hash.put("v", version);
+            hash.put("d", args[0]);
+            return 1L;
+        });
+        lenient().when(redisTemplate.execute(eq(OrderCache.TOMBSTONE_SCRIPT), anyList(), any(Object[].class))).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(1);
+            Object[] args = (Object[]) invocation.getRawArguments()[2];
+            for (int i = 0; i < keys.size(); i++) {
+                Map<String, Object> previous = redis.getOrDefault(keys.get(i), Map.of());
+                long floor = Math.max((Long) args[i], (Long) previous.getOrDefault("v", -1L));
+                redis.put(keys.get(i), new HashMap<>(Map.of("v", floor)));
+            }
+            return (long) keys.size();
+        });
+        lenient().doAnswer(invocation -> published.add(invocation.<String>getArgument(1)))
+            .when(redisTemplate).convertAndSend(eq(OrderCache.INVALIDATION_CHANNEL), any());
+
+        OrderCache cache = new OrderCache();
+        ReflectionTestUtils.setField(cache, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(cache, "redisEnabled", true);
+        return cache;
+    }
+
+    private static OrderView view(Long orderId, OrderStatus status) {
+        return OrderView.from(order(orderId, status, null));
+    }
+
+    private static OrderView view(Long orderId, OrderStatus status, Long version) {
+        return OrderView.from(order(orderId, status, version));
+    }
+
+    private static Order order(Long orderId, OrderStatus status, Long version) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setUsername("testuser");
+        order.setAmount(new BigDecimal("1000.00"));
+        order.setCurrency(CurrencyCode.USD);
+        order.setStatus(status);
+        order.setDiscount(BigDecimal.ZERO);
+        order.setFinalAmount(new BigDecimal("1000.00"));
+        order.setVersion(version);
+        return order;
+    }
+}
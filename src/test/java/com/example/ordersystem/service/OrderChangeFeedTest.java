@@ -0,0 +1,199 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderChangeBatch;
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.model.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderChangeFeed 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderChangeFeed 測試")
+class OrderChangeFeedTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(10);
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @InjectMocks
+    private OrderChangeFeed orderChangeFeed;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderChangeFeed, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(orderChangeFeed, "capacity", 4);
+        ReflectionTestUtils.setField(orderChangeFeed, "redisEnabled", false);
+        orderChangeFeed.start();
+    }
+
+    @Test
+    @DisplayName("測試查詢異動 - 只回應該用戶的訂單，同一筆訂單只保留最後一次")
+    void testPoll_OwnOrdersCoalesced() {
+        // Arrange
+        String cursor = cursor(orderChangeFeed.poll(null, "alice", WAIT));
+        orderChangeFeed.onOrderChanged(event(OrderEventType.ORDER_CREATED, order(1L, "alice", OrderStatus.PENDING)));
+        orderChangeFeed.onOrderChanged(event(OrderEventType.ORDER_CREATED, order(2L, "bob", OrderStatus.PENDING)));
+        orderChangeFeed.onOrderChanged(event(OrderEventType.ORDER_UPDATED, order(1L, "alice", OrderStatus.CONFIRMED)));
+
+        // Act
+        OrderChangeBatch batch = batch(orderChangeFeed.poll(cursor, "alice", WAIT));
+        OrderChangeBatch next = batch(orderChangeFeed.poll(batch.getCursor(), "alice", Duration.ZERO));
+
+        // Assert
+        assertFalse(batch.isReset());
+        assertEquals(1, batch.getChanges().size());
+        assertEquals(1L, batch.getChanges().get(0).getOrderId());
+        assertEquals(OrderEventType.ORDER_UPDATED, batch.getChanges().get(0).getType());
+        assertEquals(OrderStatus.CONFIRMED, batch.getChanges().get(0).getStatus());
+        assertTrue(next.getChanges().isEmpty());
+        assertEquals(batch.getCursor(), next.getCursor());
+    }
+
+    @Test
+    @DisplayName("測試長輪詢 - 沒有異動時等待，該用戶的訂單異動後才回應")
+    void testPoll_WaitsForOwnChange() {
+        // Arrange
+        String cursor = cursor(orderChangeFeed.poll(null, "alice", WAIT));
+        DeferredResult<OrderChangeBatch> alice = orderChangeFeed.poll(cursor, "alice", WAIT);
+        DeferredResult<OrderChangeBatch> admin = orderChangeFeed.poll(cursor, null, WAIT);
+
+        // Act
+        orderChangeFeed.onOrderChanged(event(OrderEventType.ORDER_CREATED, order(2L, "bob", OrderStatus.PENDING)));
+
+        // Assert：管理員收到所有訂單的異動，alice 繼續等待
+        assertFalse(alice.hasResult());
+        assertEquals(2L, batch(admin).getChanges().get(0).getOrderId());
+        assertEquals(1, orderChangeFeed.getWaiterCount());
+
+        // Act
+        orderChangeFeed.onOrderChanged(event(OrderEventType.ORDER_DELETED, order(1L, "alice", OrderStatus.PENDING)));
+
+        // Assert
+        assertEquals(OrderEventType.ORDER_DELETED, batch(alice).getChanges().get(0).getType());
+        assertEquals(0, orderChangeFeed.getWaiterCount());
+    }
+
+    @Test
+    @DisplayName("測試無法接續的游標 - 其他節點的游標或已被覆蓋的異動回應 reset")
+    void testPoll_Reset() {
+        // Arrange
+        String cursor = cursor(orderChangeFeed.poll(null, "alice", WAIT));
+        for (long orderId = 1; orderId <= 5; orderId++) {
+            orderChangeFeed.onOrderChanged(event(OrderEventType.ORDER_CREATED, order(orderId, "alice", OrderStatus.PENDING)));
+        }
+
+        // Act
+        OrderChangeBatch overwritten = batch(orderChangeFeed.poll(cursor, "alice", WAIT));
+        OrderChangeBatch foreign = batch(orderChangeFeed.poll("other-3", "alice", WAIT));
+        OrderChangeBatch resumed = batch(orderChangeFeed.poll(overwritten.getCursor(), "alice", Duration.ZERO));
+
+        // Assert
+        assertTrue(overwritten.isReset());
+        assertTrue(overwritten.getChanges().isEmpty());
+        assertTrue(foreign.isReset());
+        assertEquals(overwritten.getCursor(), foreign.getCursor());
+        assertFalse(resumed.isReset());
+    }
+
+    @Test
+    @DisplayName("測試啟用 Redis - 異動由指令稿取得全叢集序號後發布，本節點也由訂閱加入")
+    void testRedis_PublishedThroughScript() {
+        // Arrange
+        ReflectionTestUtils.setField(orderChangeFeed, "redisEnabled", true);
+        String cursor = cursor(orderChangeFeed.poll(null, null, WAIT));
+
+        // Act
+        orderChangeFeed.onOrderChanged(event(OrderEventType.ORDER_CREATED, order(1L, "alice", OrderStatus.PENDING)));
+
+        // Assert：尚未收到通知前不在緩衝區中
+        verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class), anyList(), eq("1"),
+            eq(OrderChangeFeed.CHANGED_CHANNEL), anyString(), contains("\"orderId\":1"));
+        assertTrue(batch(orderChangeFeed.poll(cursor, null, Duration.ZERO)).getChanges().isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試跨節點 - 依全叢集序號加入，其他節點的游標可以接續，序號不連續時回應 reset")
+    void testRedis_SharedSequence() {
+        // Arrange：第一筆通知帶入叢集的代號與序號
+        orderChangeFeed.onMessage(message("{\"epoch\":\"c1\",\"seq\":11,\"changes\":"
+            + "[{\"orderId\":1,\"username\":\"alice\",\"type\":\"ORDER_CREATED\",\"status\":\"PENDING\"}]}"), null);
+        DeferredResult<OrderChangeBatch> waiting = orderChangeFeed.poll("c1-11", null, WAIT);
+
+        // Act：其他節點發出的游標 c1-10
+        OrderChangeBatch fromOtherNode = batch(orderChangeFeed.poll("c1-10", null, WAIT));
+        orderChangeFeed.onMessage(message("{\"epoch\":\"c1\",\"seq\":14,\"changes\":"
+            + "[{\"orderId\":2,\"username\":\"bob\",\"type\":\"ORDER_UPDATED\",\"status\":\"CANCELLED\"}]}"), null);
+
+        // Assert
+        assertFalse(fromOtherNode.isReset());
+        assertEquals(1L, fromOtherNode.getChanges().get(0).getOrderId());
+        assertEquals("c1-11", fromOtherNode.getCursor());
+        // 序號 12、13 遺失：等待中的長輪詢回應 reset，新的游標可以接續
+        assertTrue(batch(waiting).isReset());
+        assertEquals("c1-14", batch(waiting).getCursor());
+        OrderChangeBatch resumed = batch(orderChangeFeed.poll("c1-14", null, Duration.ZERO));
+        assertFalse(resumed.isReset());
+        assertTrue(resumed.getChanges().isEmpty());
+    }
+
+    private static Order order(Long orderId, String username, OrderStatus status) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setUsername(username);
+        order.setStatus(status);
+        order.setVersion(0L);
+        return order;
+    }
+
+    private static OrderChangedEvent event(OrderEventType type, Order order) {
+        OrderView view = OrderView.from(order);
+        return new OrderChangedEvent(type, List.of(type == OrderEventType.ORDER_DELETED
+            ? new OrderChangedEvent.Change(view, null)
+            : new OrderChangedEvent.Change(null, view)));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(OrderChangeFeed.CHANGED_CHANNEL.getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static OrderChangeBatch batch(DeferredResult<OrderChangeBatch> result) {
+        assertTrue(result.hasResult(), "尚未回應");
+        return (OrderChangeBatch) result.getResult();
+    }
+
+    private static String cursor(DeferredResult<OrderChangeBatch> result) {
+        return batch(result).getCursor();
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderIdSearchResult;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderIdSearchService 單元測試
+ * 候選訂單ID以 Mock 的 JdbcTemplate 返回，訂單以 Mock 的 OrderRepository 依主鍵返回
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderIdSearchService 測試")
+class OrderIdSearchServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderService orderService;
+
+    @InjectMocks
+    private OrderIdSearchService orderIdSearchService;
+
+    @BeforeEach
+    void setUp() {
+        // 以較短的訂單ID測試工作階段
+        ReflectionTestUtils.setField(orderIdSearchService, "minTermLength", 1);
+    }
+
+    @Test
+    @DisplayName("測試新的搜尋 - 只讀取訂單ID，依主鍵讀取該頁訂單")
+    void testSearch_NewSession() throws SQLException {
+        // Arrange
+        givenCandidates(120L, 312L, 5120L, 1200L);
+        givenOrdersById();
+
+        // Act
+        OrderIdSearchResult result = orderIdSearchService.search("12", null, "admin", null, 0, 3);
+
+        // Assert：訂單ID降序
+        assertNotNull(result.getSession());
+        assertEquals(List.of(5120L, 1200L, 312L), ids(result));
+        assertEquals(4, result.getTotalElements());
+        assertEquals(2, result.getTotalPages());
+        PreparedStatement statement = candidateStatement();
+        verify(statement).setFetchSize(OrderIdSearchService.CANDIDATE_FETCH_SIZE);
+        verify(statement).setString(1, "%12%");
+        verify(statement).setInt(2, 50_001);
+    }
+
+    @Test
+    @DisplayName("測試延伸搜尋字串 - 在記憶體中縮小範圍，不再查詢訂單ID")
+    void testSearch_ExtendedTermNarrowsInMemory() throws SQLException {
+        // Arrange
+        givenCandidates(10L, 120L, 123L, 1230L, 4123L, 5001L);
+        givenOrdersById();
+        String session = orderIdSearchService.search("1", null, "admin", null, 0, 10).getSession();
+
+        // Act
+        OrderIdSearchResult extended = orderIdSearchService.search("12", session, "admin", null, 0, 10);
+        OrderIdSearchResult exact = orderIdSearchService.search("123", session, "admin", null, 0, 10);
+
+        // Assert
+        assertEquals(session, extended.getSession());
+        assertEquals(List.of(4123L, 1230L, 123L, 120L), ids(extended));
+        // 搜尋字串即為訂單ID時只返回該筆
+        assertEquals(session, exact.getSession());
+        assertEquals(List.of(123L), ids(exact));
+        assertEquals(1, exact.getTotalElements());
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("測試其他使用者的工作階段 - 視為新的搜尋")
+    void testSearch_SessionOfOtherUserIgnored() throws SQLException {
+        // Arrange
+        givenCandidates(12L);
+        givenOrdersById();
+        String session = orderIdSearchService.search("1", null, "admin", null, 0, 10).getSession();
+
+        // Act
+        OrderIdSearchResult result = orderIdSearchService.search("12", session, "testuser", "testuser", 0, 10);
+
+        // Assert
+        assertNotEquals(session, result.getSession());
+        ArgumentCaptor<PreparedStatementCreator> creators = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate, times(2)).query(creators.capture(), any(RowCallbackHandler.class));
+        PreparedStatement statement = statementOf(creators.getValue());
+        verify(statement).setString(1, "%12%");
+        verify(statement).setString(2, "testuser");
+    }
+
+    @Test
+    @DisplayName("測試搜尋字串短於下限 - 不讀取訂單ID，直接改用分頁搜尋")
+    void testSearch_ShortTermFallsBackWithoutCandidates() {
+        // Arrange
+        ReflectionTestUtils.setField(orderIdSearchService, "minTermLength", 3);
+        when(orderService.searchOrdersByOrderId(eq("12"), any()))
+            .thenReturn(new PageImpl<>(List.of(order(12L)), PageRequest.of(0, 10), 1));
+
+        // Act
+        OrderIdSearchResult result = orderIdSearchService.search("12", null, "admin", null, 0, 10);
+
+        // Assert
+        assertNull(result.getSession());
+        assertEquals(List.of(12L), ids(result));
+        verifyNoInteractions(jdbcTemplate, orderRepository);
+    }
+
+    @Test
+    @DisplayName("測試符合筆數超過上限 - 不建立工作階段，改用分頁搜尋")
+    void testSearch_TooManyCandidatesFallsBack() throws SQLException {
+        // Arrange
+        ReflectionTestUtils.setField(orderIdSearchService, "maxCandidates", 3);
+        givenCandidates(1L, 10L, 11L, 12L);
+        Order order = order(12L);
+        when(orderService.searchOrdersByOrderId(eq("1"), any()))
+            .thenReturn(new PageImpl<>(List.of(order), PageRequest.of(0, 1), 4));
+
+        // Act
+        OrderIdSearchResult result = orderIdSearchService.search("1", null, "admin", null, 0, 1);
+
+        // Assert
+        assertNull(result.getSession());
+        assertEquals(List.of(12L), ids(result));
+        assertEquals(4, result.getTotalElements());
+        verify(orderRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("測試非數字或空白的搜尋字串")
+    void testSearch_InvalidTerm() {
+        // Act
+        OrderIdSearchResult result = orderIdSearchService.search("abc", null, "admin", null, 0, 10);
+
+        // Assert
+        assertEquals(0, result.getTotalElements());
+        assertThrows(BadRequestException.class, () -> orderIdSearchService.search("  ", null, "admin", null, 0, 10));
+        verifyNoInteractions(jdbcTemplate, orderRepository);
+    }
+
+    private void givenCandidates(long... orderIds) throws SQLException {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (long orderId : orderIds) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn(orderId);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    /**
+     * 以 Mock 的連線執行讀取訂單ID的 PreparedStatementCreator，返回設定參數後的 PreparedStatement
+     */
+    private PreparedStatement candidateStatement() throws SQLException {
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate, times(1)).query(creator.capture(), any(RowCallbackHandler.class));
+        return statementOf(creator.getValue());
+    }
+
+    private static PreparedStatement statementOf(PreparedStatementCreator creator) throws SQLException {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        return creator.createPreparedStatement(connection);
+    }
+
+    private void givenOrdersById() {
+        // 依主鍵讀取不保證順序：以相反順序返回
+        when(orderRepository.findAllById(any())).thenAnswer(invocation -> {
+            Iterable<Long> orderIds = invocation.getArgument(0);
+            List<Order> orders = new ArrayList<>();
+            orderIds.forEach(orderId -> orders.add(0, order(orderId)));
+            return orders;
+        });
+    }
+
+    private static Order order(long orderId) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        return order;
+    }
+
+    private static List<Long> ids(OrderIdSearchResult result) {
+        return result.getContent().stream().map(Order::getOrderId).toList();
+    }
+}
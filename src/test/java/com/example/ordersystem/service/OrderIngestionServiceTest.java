@@ -0,0 +1,255 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.exception.ServiceUnavailableException;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.model.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderIngestionService 單元測試
+ * 日誌寫入暫存目錄，資料庫寫入以 Mock 的 JdbcTemplate 驗證
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderIngestionService 測試")
+class OrderIngestionServiceTest {
+
+    @Mock
+    private OrderIdAllocator orderIdAllocator;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private OrderCache orderCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private OrderIngestionService orderIngestionService;
+
+    @TempDir
+    Path journalDirectory;
+
+    private final AtomicLong nextId = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderIngestionService, "mode", "async");
+        ReflectionTestUtils.setField(orderIngestionService, "journalDirectory", journalDirectory.toString());
+        ReflectionTestUtils.setField(orderIngestionService, "segmentSize", 4096);
+        lenient().when(orderIdAllocator.next()).thenAnswer(invocation -> nextId.getAndIncrement());
+        orderIngestionService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderIngestionService.stop();
+    }
+
+    @Test
+    @DisplayName("測試接收訂單 - 配置ID並可在寫入前查詢")
+    void testSubmit_PendingVisible() {
+        // Act
+        OrderView accepted = orderIngestionService.submit(newOrder());
+
+        // Assert
+        assertEquals(100L, accepted.getOrderId());
+        assertNotNull(accepted.getCreatedAt());
+        assertSame(accepted, orderIngestionService.findPending(100L));
+        verify(taskScheduler, times(1)).scheduleWithFixedDelay(any(Runnable.class), eq(Duration.ofMillis(200)));
+    }
+
+    @Test
+    @DisplayName("測試批次寫入 - 以單一批次寫入並移出待寫入清單")
+    void testFlushPending_BatchInsert() {
+        // Arrange
+        orderIngestionService.submit(newOrder());
+        orderIngestionService.submit(newOrder());
+
+        // Act
+        orderIngestionService.flushPending();
+
+        // Assert
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), argThat((List<Object[]> rows) -> rows.size() == 2));
+        verify(orderCache, times(2)).put(any(OrderView.class), anyLong());
+        verify(eventPublisher, times(1)).publishEvent(argThat((OrderChangedEvent event) ->
+            event.type() == OrderEventType.ORDER_CREATED && event.orderIds().equals(List.of(100L, 101L))));
+        assertNull(orderIngestionService.findPending(100L));
+        assertNull(orderIngestionService.findPending(101L));
+    }
+
+    @Test
+    @DisplayName("測試批次寫入失敗 - 保留在待寫入清單，下次重試")
+    void testFlushPending_FailureKeepsPending() {
+        // Arrange
+        orderIngestionService.submit(newOrder());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+            .thenThrow(new org.springframework.dao.DataAccessResourceFailureException("connection refused"))
+            .thenReturn(new int[] {1});
+
+        // Act
+        orderIngestionService.flushPending();
+
+        // Assert
+        assertNotNull(orderIngestionService.findPending(100L));
+
+        // Act
+        orderIngestionService.flushPending();
+
+        // Assert
+        assertNull(orderIngestionService.findPending(100L));
+    }
+
+    @Test
+    @DisplayName("測試寫入前確認 - 以獨立交易寫入，資料庫無法使用時拋出可重試的 503")
+    void testEnsureFlushed_UnavailableThrows() {
+        // Arrange
+        orderIngestionService.submit(newOrder());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+            .thenThrow(new org.springframework.dao.DataAccessResourceFailureException("connection refused"));
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> orderIngestionService.ensureFlushed(100L));
+        assertNotNull(orderIngestionService.findPending(100L));
+        verify(transactionManager, atLeastOnce()).getTransaction(argThat(definition ->
+            definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(orderCache, never()).put(any(OrderView.class), anyLong());
+    }
+
+    @Test
+    @DisplayName("測試批次寫入 - 無法寫入的訂單被隔離，不阻擋後續訂單")
+    void testFlushPending_QuarantinesFailingRow() throws Exception {
+        // Arrange
+        orderIngestionService.submit(newOrder());
+        orderIngestionService.submit(newOrder());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+            .thenThrow(new DataIntegrityViolationException("value too large"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+            .thenThrow(new DataIntegrityViolationException("value too large"))
+            .thenReturn(1);
+
+        // Act
+        orderIngestionService.flushPending();
+
+        // Assert
+        assertNull(orderIngestionService.findPending(100L));
+        assertNull(orderIngestionService.findPending(101L));
+        List<String> quarantined = Files.readAllLines(journalDirectory.resolve("quarantine.jsonl"));
+        assertEquals(1, quarantined.size());
+        assertTrue(quarantined.get(0).contains("\"orderId\":100"));
+        verify(orderCache, times(1)).put(argThat(order -> order.getOrderId() == 101L), anyLong());
+        verify(eventPublisher, times(1)).publishEvent(argThat((OrderChangedEvent event) ->
+            event.orderIds().equals(List.of(101L))));
+    }
+
+    @Test
+    @DisplayName("測試重啟 - 重新寫入日誌中的訂單，略過已存在者")
+    void testRestart_ReplaysJournal() {
+        // Arrange
+        orderIngestionService.submit(newOrder());
+        orderIngestionService.submit(newOrder());
+        // 模擬寫入資料庫前程序中止：停止前的寫入失敗
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+            .thenThrow(new org.springframework.dao.DataAccessResourceFailureException("connection refused"));
+        orderIngestionService.stop();
+
+        // Act
+        OrderIngestionService restarted = new OrderIngestionService();
+        ReflectionTestUtils.setField(restarted, "orderIdAllocator", orderIdAllocator);
+        ReflectionTestUtils.setField(restarted, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(restarted, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(restarted, "taskScheduler", taskScheduler);
+        ReflectionTestUtils.setField(restarted, "orderCache", orderCache);
+        ReflectionTestUtils.setField(restarted, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(restarted, "mode", "async");
+        ReflectionTestUtils.setField(restarted, "journalDirectory", journalDirectory.toString());
+        ReflectionTestUtils.setField(restarted, "segmentSize", 4096);
+        restarted.start();
+
+        // Assert
+        assertNotNull(restarted.findPending(100L));
+        assertNotNull(restarted.findPending(101L));
+
+        // Act：批次中有訂單已寫入過
+        reset(jdbcTemplate);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DuplicateKeyException("ORDER_ID"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+            .thenThrow(new DuplicateKeyException("ORDER_ID"))
+            .thenReturn(1);
+        restarted.flushPending();
+        restarted.stop();
+
+        // Assert
+        assertNull(restarted.findPending(100L));
+        assertNull(restarted.findPending(101L));
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+        // 已存在而略過的訂單不發布寫入事件（不計入狀態筆數與每日彙總，也不新增 outbox 事件）
+        verify(eventPublisher, times(1)).publishEvent(argThat((OrderChangedEvent event) ->
+            event.orderIds().equals(List.of(101L))));
+    }
+
+    @Test
+    @DisplayName("測試待寫入已滿 - 返回 null 由呼叫端改走同步寫入")
+    void testSubmit_QueueFull() {
+        // Arrange
+        ReflectionTestUtils.setField(orderIngestionService, "maxPending", 1);
+        orderIngestionService.submit(newOrder());
+
+        // Act & Assert
+        assertNull(orderIngestionService.submit(newOrder()));
+    }
+
+    private static Order newOrder() {
+        Order order = new Order();
+        order.setUsername("testuser");
+        order.setAmount(new BigDecimal("1000.00"));
+        order.setCurrency(CurrencyCode.USD);
+        order.setStatus(OrderStatus.PENDING);
+        order.setDiscount(BigDecimal.ZERO);
+        order.setFinalAmount(new BigDecimal("1000.00"));
+        return order;
+    }
+}
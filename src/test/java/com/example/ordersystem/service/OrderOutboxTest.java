@@ -0,0 +1,115 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderEvent;
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.model.OrderOutboxEvent;
+import com.example.ordersystem.model.OrderStatus;
+import com.example.ordersystem.repository.OrderOutboxRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderOutbox 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderOutbox 測試")
+class OrderOutboxTest {
+
+    @Mock
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @InjectMocks
+    private OrderOutbox orderOutbox;
+
+    @Test
+    @DisplayName("測試記錄更新 - 事件帶有寫入後的版本，內容可還原為事件")
+    void testOnOrderChanged_UpdatedRoundTrip() {
+        // Arrange
+        Order order = new Order();
+        order.setOrderId(7L);
+        order.setUsername("alice");
+        order.setAmount(new BigDecimal("100.00"));
+        order.setCurrency(CurrencyCode.USD);
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setCreatedAt(LocalDateTime.of(2025, 3, 1, 10, 0));
+        order.setVersion(2L);
+
+        // Act
+        orderOutbox.onOrderChanged(OrderChangedEvent.updated(new OrderView(), order));
+
+        // Assert
+        OrderOutboxEvent saved = savedEvents().get(0);
+        assertEquals(2L, saved.getOrderVersion());
+        OrderEvent event = OrderOutbox.toEvent(1L, saved.getEventType(), saved.getOrderId(), saved.getUsername(),
+            saved.getOrderVersion(), saved.getCreatedAt(), saved.getPayload());
+        assertEquals(OrderEventType.ORDER_UPDATED, event.getType());
+        assertEquals(7L, event.getOrder().getOrderId());
+        assertEquals(0, new BigDecimal("100.00").compareTo(event.getOrder().getAmount()));
+        assertEquals(OrderStatus.CONFIRMED, event.getOrder().getStatus());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 10, 0), event.getOrder().getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("測試記錄刪除 - 內容為刪除前的訂單")
+    void testOnOrderChanged_Deleted() {
+        // Arrange
+        Order order = new Order();
+        order.setOrderId(7L);
+        order.setUsername("alice");
+        order.setCurrency(CurrencyCode.USD);
+        order.setVersion(4L);
+
+        // Act
+        orderOutbox.onOrderChanged(OrderChangedEvent.deleted(order));
+
+        // Assert
+        OrderOutboxEvent saved = savedEvents().get(0);
+        assertEquals(OrderEventType.ORDER_DELETED, saved.getEventType());
+        assertEquals(7L, saved.getOrderId());
+        assertEquals(4L, saved.getOrderVersion());
+    }
+
+    @Test
+    @DisplayName("測試批次新增 - 非同步接收的訂單版本記為 0")
+    void testOnOrderChanged_BatchCreated() {
+        // Arrange
+        OrderView view = new OrderView();
+        ReflectionTestUtils.setField(view, "orderId", 100L);
+        ReflectionTestUtils.setField(view, "username", "bob");
+
+        // Act
+        orderOutbox.onOrderChanged(OrderChangedEvent.created(List.of(view)));
+
+        // Assert
+        List<OrderOutboxEvent> saved = savedEvents();
+        assertEquals(1, saved.size());
+        assertEquals(OrderEventType.ORDER_CREATED, saved.get(0).getEventType());
+        assertEquals(0L, saved.get(0).getOrderVersion());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OrderOutboxEvent> savedEvents() {
+        ArgumentCaptor<List<OrderOutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orderOutboxRepository, times(1)).saveAll(captor.capture());
+        return captor.getValue();
+    }
+}
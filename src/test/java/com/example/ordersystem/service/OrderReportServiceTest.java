@@ -0,0 +1,112 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderReportCriteria;
+import com.example.ordersystem.dto.OrderReportRow;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.model.CurrencyCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderReportService 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderReportService 測試")
+class OrderReportServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @InjectMocks
+    private OrderReportService orderReportService;
+
+    @Test
+    @DisplayName("測試報表查詢 - 依分組欄位加總彙總與增量並計算平均折扣")
+    void testDailyOrders_GroupByDateAndCurrency() {
+        // Arrange
+        OrderReportCriteria criteria = criteria(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+        criteria.setGroupBy(List.of(OrderReportCriteria.Dimension.CURRENCY, OrderReportCriteria.Dimension.DATE));
+        criteria.setCurrency(CurrencyCode.USD);
+        doAnswer(invocation -> {
+            RowMapper<?> rowMapper = invocation.getArgument(2);
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getDate("ORDER_DATE")).thenReturn(Date.valueOf(LocalDate.of(2025, 3, 2)));
+            when(rs.getString("CURRENCY")).thenReturn("USD");
+            when(rs.getLong("ORDER_COUNT")).thenReturn(3L);
+            when(rs.getBigDecimal("TOTAL_AMOUNT")).thenReturn(new BigDecimal("600"));
+            when(rs.getBigDecimal("TOTAL_FINAL_AMOUNT")).thenReturn(new BigDecimal("560"));
+            when(rs.getBigDecimal("TOTAL_DISCOUNT")).thenReturn(new BigDecimal("40"));
+            return List.of(rowMapper.mapRow(rs, 0));
+        }).when(namedParameterJdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowMapper.class));
+
+        // Act
+        List<OrderReportRow> rows = orderReportService.dailyOrders(criteria);
+
+        // Assert
+        assertEquals(1, rows.size());
+        OrderReportRow row = rows.get(0);
+        assertEquals(LocalDate.of(2025, 3, 2), row.getDate());
+        assertEquals(CurrencyCode.USD, row.getCurrency());
+        assertNull(row.getStatus());
+        assertNull(row.getUsername());
+        assertEquals(3, row.getOrderCount());
+        assertEquals(new BigDecimal("600.00"), row.getTotalAmount());
+        assertEquals(new BigDecimal("13.33"), row.getAverageDiscount());
+        verify(namedParameterJdbcTemplate).query(
+            argThat((String sql) -> sql.contains("FROM ORDER_DAILY_ROLLUP") && sql.contains("FROM ORDER_ROLLUP_DELTA")
+                && sql.contains("GROUP BY ORDER_DATE, CURRENCY") && sql.contains("CURRENCY = :currency")),
+            argThat((SqlParameterSource params) -> "USD".equals(params.getValue("currency"))),
+            any(RowMapper.class));
+    }
+
+    @Test
+    @DisplayName("測試報表查詢 - 起日晚於迄日時拋出異常")
+    void testDailyOrders_FromAfterTo() {
+        // Arrange
+        OrderReportCriteria criteria = criteria(LocalDate.of(2025, 3, 31), LocalDate.of(2025, 3, 1));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> orderReportService.dailyOrders(criteria));
+        verifyNoInteractions(namedParameterJdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("測試報表查詢 - 日期範圍超過上限時拋出異常")
+    void testDailyOrders_RangeTooLong() {
+        // Arrange
+        OrderReportCriteria criteria = criteria(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 3, 1));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> orderReportService.dailyOrders(criteria));
+        verifyNoInteractions(namedParameterJdbcTemplate);
+    }
+
+    private static OrderReportCriteria criteria(LocalDate from, LocalDate to) {
+        OrderReportCriteria criteria = new OrderReportCriteria();
+        criteria.setFrom(from);
+        criteria.setTo(to);
+        return criteria;
+    }
+}
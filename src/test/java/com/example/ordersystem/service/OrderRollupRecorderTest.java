@@ -0,0 +1,121 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.OrderRollupDelta;
+import com.example.ordersystem.model.OrderStatus;
+import com.example.ordersystem.repository.OrderRollupDeltaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderRollupRecorder 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderRollupRecorder 測試")
+class OrderRollupRecorderTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+
+    @Mock
+    private OrderRollupDeltaRepository orderRollupDeltaRepository;
+
+    @InjectMocks
+    private OrderRollupRecorder orderRollupRecorder;
+
+    @Test
+    @DisplayName("測試狀態變更 - 原狀態減一筆、新狀態加一筆")
+    void testRecord_StatusChange() {
+        // Arrange
+        OrderRollupRecorder.Snapshot before = snapshot(OrderStatus.PENDING, "1000.00", "900.00");
+
+        // Act
+        orderRollupRecorder.record(before, before.withStatus(OrderStatus.CONFIRMED));
+
+        // Assert
+        List<OrderRollupDelta> rows = savedRows();
+        assertEquals(2, rows.size());
+        assertEquals(OrderStatus.PENDING, rows.get(0).getStatus());
+        assertEquals(-1, rows.get(0).getOrderCount());
+        assertEquals(0, new BigDecimal("-900.00").compareTo(rows.get(0).getTotalFinalAmount()));
+        assertEquals(OrderStatus.CONFIRMED, rows.get(1).getStatus());
+        assertEquals(1, rows.get(1).getOrderCount());
+    }
+
+    @Test
+    @DisplayName("測試同一彙總鍵的金額變更 - 合併為一筆只含差額的增量")
+    void testRecord_AmountChangeMerged() {
+        // Arrange
+        OrderRollupRecorder.Snapshot before = snapshot(OrderStatus.PENDING, "1000.00", "900.00");
+        OrderRollupRecorder.Snapshot after = snapshot(OrderStatus.PENDING, "2000.00", "1800.00");
+
+        // Act
+        orderRollupRecorder.record(before, after);
+
+        // Assert
+        List<OrderRollupDelta> rows = savedRows();
+        assertEquals(1, rows.size());
+        assertEquals(0, rows.get(0).getOrderCount());
+        assertEquals(0, new BigDecimal("1000.00").compareTo(rows.get(0).getTotalAmount()));
+        assertEquals(0, new BigDecimal("900.00").compareTo(rows.get(0).getTotalFinalAmount()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(rows.get(0).getTotalDiscount()));
+    }
+
+    @Test
+    @DisplayName("測試沒有影響彙總的更新 - 不新增增量")
+    void testRecord_NoChange() {
+        // Arrange
+        OrderRollupRecorder.Snapshot snapshot = snapshot(OrderStatus.PENDING, "1000.00", "900.00");
+
+        // Act
+        orderRollupRecorder.record(snapshot, snapshot);
+        orderRollupRecorder.record((OrderRollupRecorder.Snapshot) null, null);
+
+        // Assert
+        verify(orderRollupDeltaRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("測試多筆新增 - 依彙總鍵合併")
+    void testRecord_BatchAggregated() {
+        // Act
+        orderRollupRecorder.record(List.of(), List.of(
+            snapshot(OrderStatus.PENDING, "100.00", "90.00"),
+            snapshot(OrderStatus.PENDING, "200.00", "180.00")));
+
+        // Assert
+        List<OrderRollupDelta> rows = savedRows();
+        assertEquals(1, rows.size());
+        assertEquals(2, rows.get(0).getOrderCount());
+        assertEquals(0, new BigDecimal("300.00").compareTo(rows.get(0).getTotalAmount()));
+        assertEquals(0, new BigDecimal("20.00").compareTo(rows.get(0).getTotalDiscount()));
+        assertEquals(DAY, rows.get(0).getOrderDate());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OrderRollupDelta> savedRows() {
+        ArgumentCaptor<List<OrderRollupDelta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orderRollupDeltaRepository, times(1)).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static OrderRollupRecorder.Snapshot snapshot(OrderStatus status, String amount, String finalAmount) {
+        return new OrderRollupRecorder.Snapshot(DAY, CurrencyCode.USD, status, "testuser",
+            new BigDecimal(amount), new BigDecimal("10.00"), new BigDecimal(finalAmount));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.model.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OrderSearchCache 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@DisplayName("OrderSearchCache 測試")
+class OrderSearchCacheTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+
+    private OrderSearchCache orderSearchCache;
+
+    @BeforeEach
+    void setUp() {
+        orderSearchCache = new OrderSearchCache();
+    }
+
+    @Test
+    @DisplayName("測試寫入後讀取 - 依使用者範圍與頁碼區分")
+    void testPutAndGet() {
+        // Arrange
+        Page<Order> result = page(FIRST_PAGE, 25, 12L, 120L);
+        orderSearchCache.put("12", "testuser", FIRST_PAGE, result, orderSearchCache.currentEpoch());
+
+        // Act & Assert
+        assertSame(result, orderSearchCache.get("12", "testuser", FIRST_PAGE));
+        assertNull(orderSearchCache.get("12", null, FIRST_PAGE));
+        assertNull(orderSearchCache.get("12", "testuser", PageRequest.of(1, 10)));
+    }
+
+    @Test
+    @DisplayName("測試訂單寫入 - 清除結果，查詢途中寫入時不寫入舊結果")
+    void testBumpEpoch_InvalidatesAll() {
+        // Arrange
+        orderSearchCache.put("12", null, FIRST_PAGE, page(FIRST_PAGE, 1, 12L), orderSearchCache.currentEpoch());
+        long epoch = orderSearchCache.currentEpoch();
+
+        // Act
+        orderSearchCache.bumpEpoch();
+        orderSearchCache.put("13", null, FIRST_PAGE, page(FIRST_PAGE, 1, 13L), epoch);
+
+        // Assert
+        assertNull(orderSearchCache.get("12", null, FIRST_PAGE));
+        assertNull(orderSearchCache.get("13", null, FIRST_PAGE));
+    }
+
+    @Test
+    @DisplayName("測試訂單寫入事件 - 提交後清除結果")
+    void testOnOrderChanged_InvalidatesAll() {
+        // Arrange
+        orderSearchCache.put("12", null, FIRST_PAGE, page(FIRST_PAGE, 1, 12L), orderSearchCache.currentEpoch());
+        long epoch = orderSearchCache.currentEpoch();
+
+        // Act
+        orderSearchCache.onOrderChanged(OrderChangedEvent.created(page(FIRST_PAGE, 1, 13L).map(OrderView::from).getContent()));
+
+        // Assert
+        assertNull(orderSearchCache.get("12", null, FIRST_PAGE));
+        assertNotEquals(epoch, orderSearchCache.currentEpoch());
+    }
+
+    @Test
+    @DisplayName("測試延伸查詢 - 由較短搜尋字串的完整結果過濾")
+    void testGet_NarrowsFromCompletePrefix() {
+        // Arrange：搜尋 "1" 的全部結果
+        orderSearchCache.put("1", null, FIRST_PAGE, page(FIRST_PAGE, 4, 210L, 121L, 31L, 412L), orderSearchCache.currentEpoch());
+
+        // Act
+        Page<Order> extended = orderSearchCache.get("12", null, FIRST_PAGE);
+        Page<Order> exact = orderSearchCache.get("121", null, FIRST_PAGE);
+
+        // Assert：保留原本的排序
+        assertNotNull(extended);
+        assertEquals(List.of(121L, 412L), ids(extended));
+        assertEquals(2, extended.getTotalElements());
+        // 搜尋字串即為訂單ID時只返回該筆
+        assertEquals(List.of(121L), ids(exact));
+    }
+
+    @Test
+    @DisplayName("測試延伸查詢 - 較短搜尋字串的結果不完整時不過濾")
+    void testGet_IncompletePrefixNotUsed() {
+        // Arrange：搜尋 "1" 共 25 筆，只快取第一頁
+        orderSearchCache.put("1", null, FIRST_PAGE,
+            page(FIRST_PAGE, 25, LongStream.rangeClosed(1, 10).map(i -> i * 10 + 1).toArray()),
+            orderSearchCache.currentEpoch());
+        // 搜尋 "5" 時精確比對到訂單 5，不代表包含 "5" 的全部訂單
+        orderSearchCache.put("5", null, FIRST_PAGE, page(FIRST_PAGE, 1, 5L), orderSearchCache.currentEpoch());
+
+        // Act & Assert
+        assertNull(orderSearchCache.get("12", null, FIRST_PAGE));
+        assertNull(orderSearchCache.get("51", null, FIRST_PAGE));
+    }
+
+    @Test
+    @DisplayName("測試超過保留時間 - 未命中")
+    void testTtl_Expired() {
+        // Arrange
+        ReflectionTestUtils.setField(orderSearchCache, "ttl", Duration.ZERO);
+        orderSearchCache.put("12", null, FIRST_PAGE, page(FIRST_PAGE, 1, 12L), orderSearchCache.currentEpoch());
+
+        // Act & Assert
+        assertNull(orderSearchCache.get("12", null, FIRST_PAGE));
+    }
+
+    @Test
+    @DisplayName("測試其他節點的失效通知 - 清除結果")
+    void testOnMessage_InvalidatesAll() {
+        // Arrange
+        orderSearchCache.put("12", null, FIRST_PAGE, page(FIRST_PAGE, 1, 12L), orderSearchCache.currentEpoch());
+
+        // Act
+        orderSearchCache.onMessage(new DefaultMessage(
+            "order:cache:invalidate".getBytes(StandardCharsets.UTF_8), "12".getBytes(StandardCharsets.UTF_8)), null);
+
+        // Assert
+        assertNull(orderSearchCache.get("12", null, FIRST_PAGE));
+    }
+
+    private static Page<Order> page(Pageable pageable, long total, long... orderIds) {
+        List<Order> content = LongStream.of(orderIds).mapToObj(orderId -> {
+            Order order = new Order();
+            order.setOrderId(orderId);
+            return order;
+        }).toList();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static List<Long> ids(Page<Order> page) {
+        return page.getContent().stream().map(Order::getOrderId).toList();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderSearchCriteria;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderSearchPlanner 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderSearchPlanner 測試")
+class OrderSearchPlannerTest {
+
+    @Mock
+    private OrderStatusCounters orderStatusCounters;
+
+    @InjectMocks
+    private OrderSearchPlanner orderSearchPlanner;
+
+    @Test
+    @DisplayName("測試沒有相等條件 - 由建立時間索引帶頭")
+    void testPlan_NoEqualityUsesCreatedAtIndex() {
+        // Arrange
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        criteria.setMinAmount(new BigDecimal("100"));
+
+        // Act
+        OrderSearchPlanner.Plan plan = orderSearchPlanner.plan(criteria);
+
+        // Assert
+        assertEquals(OrderSearchPlanner.AccessPath.CREATED_AT, plan.accessPath());
+        assertEquals(20, plan.size());
+        verifyNoInteractions(orderStatusCounters);
+    }
+
+    @Test
+    @DisplayName("測試使用者名稱與常見狀態 - 由使用者名稱索引帶頭")
+    void testPlan_UsernamePreferredOverCommonStatus() {
+        // Arrange
+        when(orderStatusCounters.snapshot()).thenReturn(counts(900, 50, 45, 5));
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        criteria.setUsername(" testuser ");
+        criteria.setStatus(OrderStatus.PENDING);
+        criteria.setCurrency(CurrencyCode.USD);
+
+        // Act
+        OrderSearchPlanner.Plan plan = orderSearchPlanner.plan(criteria);
+
+        // Assert
+        assertEquals(OrderSearchPlanner.AccessPath.USERNAME, plan.accessPath());
+        assertEquals("IDX_ORDERS_USERNAME_CREATED", plan.accessPath().getIndexName());
+    }
+
+    @Test
+    @DisplayName("測試少見的狀態 - 依狀態筆數選擇狀態索引")
+    void testPlan_RareStatusPreferred() {
+        // Arrange：COMPLETED 只佔 0.5%
+        when(orderStatusCounters.snapshot()).thenReturn(counts(900, 50, 45, 5));
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        criteria.setUsername("testuser");
+        criteria.setStatus(OrderStatus.COMPLETED);
+
+        // Act
+        OrderSearchPlanner.Plan plan = orderSearchPlanner.plan(criteria);
+
+        // Assert
+        assertEquals(OrderSearchPlanner.AccessPath.STATUS, plan.accessPath());
+    }
+
+    @Test
+    @DisplayName("測試常見狀態與幣別 - 選擇估計筆數較少的幣別索引")
+    void testPlan_CurrencyPreferredOverCommonStatus() {
+        // Arrange
+        when(orderStatusCounters.snapshot()).thenReturn(counts(900, 50, 45, 5));
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        criteria.setStatus(OrderStatus.PENDING);
+        criteria.setCurrency(CurrencyCode.JPY);
+
+        // Act
+        OrderSearchPlanner.Plan plan = orderSearchPlanner.plan(criteria);
+
+        // Assert
+        assertEquals(OrderSearchPlanner.AccessPath.CURRENCY, plan.accessPath());
+    }
+
+    @Test
+    @DisplayName("測試範圍條件下限大於上限 - 拋出 BadRequestException")
+    void testPlan_InvalidRanges() {
+        // Arrange
+        OrderSearchCriteria amounts = new OrderSearchCriteria();
+        amounts.setMinAmount(new BigDecimal("500"));
+        amounts.setMaxAmount(new BigDecimal("100"));
+        OrderSearchCriteria dates = new OrderSearchCriteria();
+        dates.setCreatedFrom(LocalDateTime.of(2025, 2, 1, 0, 0));
+        dates.setCreatedTo(LocalDateTime.of(2025, 1, 1, 0, 0));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> orderSearchPlanner.plan(amounts));
+        assertThrows(BadRequestException.class, () -> orderSearchPlanner.plan(dates));
+    }
+
+    @Test
+    @DisplayName("測試游標 - 編碼後可還原，格式錯誤時拋出 BadRequestException")
+    void testCursor_RoundTrip() {
+        // Arrange
+        Order order = new Order();
+        order.setOrderId(42L);
+        order.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0, 0, 123_456_000));
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        criteria.setCursor("not-a-cursor");
+
+        // Act
+        OrderSearchPlanner.Cursor decoded = OrderSearchPlanner.Cursor.decode(OrderSearchPlanner.Cursor.of(order).encode());
+
+        // Assert
+        assertEquals(order.getCreatedAt(), decoded.createdAt());
+        assertEquals(42L, decoded.orderId());
+        assertThrows(BadRequestException.class, () -> orderSearchPlanner.plan(criteria));
+    }
+
+    private static Map<OrderStatus, Long> counts(long pending, long confirmed, long cancelled, long completed) {
+        return Map.of(OrderStatus.PENDING, pending, OrderStatus.CONFIRMED, confirmed,
+            OrderStatus.CANCELLED, cancelled, OrderStatus.COMPLETED, completed);
+    }
+}
@@ -1,29 +1,51 @@
 package com.example.ordersystem.service;
 
+import com.example.ordersystem.config.ReadYourWritesGuard;
+import com.example.ordersystem.dto.OrderPatchRequest;
+import com.example.ordersystem.dto.OrderSearchCriteria;
+import com.example.ordersystem.dto.OrderSearchResult;
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.dto.StatusTransitionResult;
+import com.example.ordersystem.exception.BadRequestException;
+import com.example.ordersystem.exception.ConflictException;
+import com.example.ordersystem.exception.RateUnavailableException;
+import com.example.ordersystem.model.Currency;
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.model.OrderStatus;
 import com.example.ordersystem.repository.OrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -43,6 +65,30 @@ class OrderServiceTest {
     @Mock
     private CurrencyService currencyService;
 
+    @Mock
+    private ReadYourWritesGuard readYourWritesGuard;
+
+    @Mock
+    private OrderCache orderCache;
+
+    @Mock
+    private OrderIngestionService orderIngestionService;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OrderSearchPlanner orderSearchPlanner;
+
+    @Mock
+    private OrderSearchCache orderSearchCache;
+
+    @Mock
+    private OrderArchive orderArchive;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -56,12 +102,15 @@ class OrderServiceTest {
         testOrder.setUsername("testuser");
         testOrder.setAmount(new BigDecimal("1000.00"));
         testOrder.setCurrency(CurrencyCode.USD);
-        testOrder.setStatus("PENDING");
+        testOrder.setStatus(OrderStatus.PENDING);
         testOrder.setDiscount(new BigDecimal("10.00"));
         testOrder.setCreatedAt(LocalDateTime.now());
         testOrder.setUpdatedAt(LocalDateTime.now());
+        testOrder.setVersion(3L);
 
         testCurrency = CurrencyCode.USD;
+        lenient().when(readYourWritesGuard.readFromPrimary(any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
     }
 
     @Test
@@ -112,6 +161,54 @@ class OrderServiceTest {
         verify(orderRepository, times(1)).findById(orderId);
     }
 
+    @Test
+    @DisplayName("測試根據ID取得訂單 - 快取命中時不查詢資料庫")
+    void testGetOrderById_CacheHit() {
+        // Arrange
+        Long orderId = 1L;
+        when(orderCache.get(orderId)).thenReturn(OrderView.from(testOrder));
+
+        // Act
+        Optional<Order> result = orderService.getOrderById(orderId);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(testOrder.getFinalAmount(), result.get().getFinalAmount());
+        verify(orderRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("測試根據ID取得訂單 - 快取未命中時由主庫載入並寫入快取")
+    void testGetOrderById_CacheMissPopulatesCache() {
+        // Arrange
+        Long orderId = 1L;
+        when(orderCache.currentGeneration()).thenReturn(7L);
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
+
+        // Act
+        orderService.getOrderById(orderId);
+
+        // Assert
+        verify(readYourWritesGuard, times(1)).readFromPrimary(any());
+        verify(orderCache, times(1)).put(argThat(view -> orderId.equals(view.getOrderId())), eq(7L));
+    }
+
+    @Test
+    @DisplayName("測試根據ID取得訂單 - 尚未寫入資料庫的訂單")
+    void testGetOrderById_PendingIngestion() {
+        // Arrange
+        Long orderId = 1L;
+        when(orderIngestionService.findPending(orderId)).thenReturn(OrderView.from(testOrder));
+
+        // Act
+        Optional<Order> result = orderService.getOrderById(orderId);
+
+        // Assert
+        assertTrue(result.isPresent());
+        verify(orderCache, never()).get(any());
+        verify(orderRepository, never()).findById(any());
+    }
+
     @Test
     @DisplayName("測試根據使用者名稱取得訂單 - 成功")
     void testGetOrdersByUsername_Success() {
@@ -134,7 +231,7 @@ class OrderServiceTest {
     @DisplayName("測試根據狀態取得訂單 - 成功")
     void testGetOrdersByStatus_Success() {
         // Arrange
-        String status = "PENDING";
+        OrderStatus status = OrderStatus.PENDING;
         List<Order> expectedOrders = Arrays.asList(testOrder);
         when(orderRepository.findByStatus(status)).thenReturn(expectedOrders);
 
@@ -201,6 +298,40 @@ class OrderServiceTest {
         verify(orderRepository, times(1)).findAll(any(Sort.class));
     }
 
+    @Test
+    @DisplayName("測試訂單ID搜尋（分頁） - 快取命中時不查詢資料庫")
+    void testSearchOrdersByOrderIdPaged_CacheHit() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Order> cached = new PageImpl<>(List.of(testOrder), pageable, 1);
+        when(orderSearchCache.get("12", null, pageable)).thenReturn(cached);
+
+        // Act
+        Page<Order> result = orderService.searchOrdersByOrderId(" 12 ", pageable);
+
+        // Assert
+        assertSame(cached, result);
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    @DisplayName("測試訂單ID搜尋（分頁） - 未命中時查詢資料庫並以查詢前的世代寫入快取")
+    void testSearchOrdersByOrderIdAndUsernamePaged_CacheMiss() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Order> found = new PageImpl<>(List.of(testOrder), pageable, 1);
+        when(orderSearchCache.currentEpoch()).thenReturn(7L);
+        when(orderRepository.findByOrderId(12L)).thenReturn(Optional.empty());
+        when(orderRepository.searchByOrderIdContainingAndUsername("12", "testuser", pageable)).thenReturn(found);
+
+        // Act
+        Page<Order> result = orderService.searchOrdersByOrderIdAndUsername("12", "testuser", pageable);
+
+        // Assert
+        assertSame(found, result);
+        verify(orderSearchCache, times(1)).put("12", "testuser", pageable, found, 7L);
+    }
+
     @Test
     @DisplayName("測試建立訂單 - 成功")
     void testCreateOrder_Success() {
@@ -219,7 +350,7 @@ class OrderServiceTest {
         savedOrder.setDiscount(newOrder.getDiscount());
         savedOrder.setFinalAmount(new BigDecimal("475.00"));
 
-        when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(savedOrder);
 
         // Act
         Order result = orderService.createOrder(newOrder);
@@ -227,7 +358,9 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         assertNotNull(result.getFinalAmount());
-        verify(orderRepository, times(1)).save(any(Order.class));
+        verify(orderRepository, times(1)).saveAndFlush(any(Order.class));
+        verify(eventPublisher, times(1)).publishEvent(argThat((OrderChangedEvent event) ->
+            event.type() == OrderEventType.ORDER_CREATED && event.orderIds().equals(List.of(2L))));
     }
 
     @Test
@@ -239,11 +372,11 @@ class OrderServiceTest {
         updateData.setUsername("updateduser");
         updateData.setAmount(new BigDecimal("2000.00"));
         updateData.setCurrency(CurrencyCode.EUR);
-        updateData.setStatus("CONFIRMED");
+        updateData.setStatus(OrderStatus.CONFIRMED);
         updateData.setDiscount(new BigDecimal("15.00"));
 
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(testOrder);
 
         // Act
         Order result = orderService.updateOrder(orderId, updateData);
@@ -251,7 +384,404 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         verify(orderRepository, times(1)).findById(orderId);
-        verify(orderRepository, times(1)).save(any(Order.class));
+        verify(orderRepository, times(1)).saveAndFlush(any(Order.class));
+        verify(eventPublisher, times(1)).publishEvent(argThat((OrderChangedEvent event) ->
+            event.type() == OrderEventType.ORDER_UPDATED && event.orderIds().equals(List.of(orderId))));
+    }
+
+    @Test
+    @DisplayName("測試更新訂單 - 寫入事件帶有更新前後的內容")
+    void testUpdateOrder_PublishesBeforeAndAfter() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        testOrder.setCreatedAt(createdAt);
+        testOrder.setFinalAmount(new BigDecimal("900.00"));
+        Order updateData = new Order();
+        updateData.setUsername("testuser");
+        updateData.setAmount(new BigDecimal("2000.00"));
+        updateData.setCurrency(CurrencyCode.USD);
+        updateData.setStatus(OrderStatus.CONFIRMED);
+        updateData.setDiscount(new BigDecimal("10.00"));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.saveAndFlush(testOrder)).thenReturn(testOrder);
+
+        // Act
+        orderService.updateOrder(1L, updateData);
+
+        // Assert
+        OrderChangedEvent.Change change = publishedEvent().changes().get(0);
+        assertEquals(OrderStatus.PENDING, change.beforeStatus());
+        assertEquals(new BigDecimal("1000.00"), change.before().getAmount());
+        assertEquals(new BigDecimal("900.00"), change.before().getFinalAmount());
+        assertEquals(OrderStatus.CONFIRMED, change.afterStatus());
+        assertEquals(new BigDecimal("2000.00"), change.after().getAmount());
+        assertEquals(new BigDecimal("1800.00"), change.after().getFinalAmount());
+        assertEquals(createdAt, change.after().getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("測試更新訂單 - 版本不同時拋出衝突")
+    void testUpdateOrder_StaleVersion() {
+        // Arrange
+        Order updateData = new Order();
+        updateData.setVersion(2L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> orderService.updateOrder(1L, updateData));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("測試部分更新訂單 - 只修改提供的欄位")
+    void testPatchOrder_OnlyProvidedFields() {
+        // Arrange
+        OrderPatchRequest patch = new OrderPatchRequest();
+        patch.setStatus(OrderStatus.CONFIRMED);
+        patch.setVersion(3L);
+        testOrder.setFinalAmount(new BigDecimal("900.00"));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.saveAndFlush(testOrder)).thenReturn(testOrder);
+
+        // Act
+        Order result = orderService.patchOrder(1L, patch);
+
+        // Assert
+        assertEquals(OrderStatus.CONFIRMED, result.getStatus());
+        assertEquals("testuser", result.getUsername());
+        assertEquals(new BigDecimal("1000.00"), result.getAmount());
+        assertEquals(CurrencyCode.USD, result.getCurrency());
+        assertEquals(new BigDecimal("900.00"), result.getFinalAmount());
+        verify(orderIngestionService, times(1)).ensureFlushed(1L);
+        OrderChangedEvent.Change change = publishedEvent().changes().get(0);
+        assertEquals(OrderStatus.PENDING, change.beforeStatus());
+        assertEquals(OrderStatus.CONFIRMED, change.afterStatus());
+    }
+
+    @Test
+    @DisplayName("測試部分更新訂單 - 不允許的狀態變更時拋出衝突")
+    void testPatchOrder_InvalidTransition() {
+        // Arrange
+        testOrder.setStatus(OrderStatus.COMPLETED);
+        OrderPatchRequest patch = new OrderPatchRequest();
+        patch.setStatus(OrderStatus.PENDING);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> orderService.patchOrder(1L, patch));
+        assertEquals(OrderStatus.COMPLETED, testOrder.getStatus());
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("測試部分更新訂單 - 修改金額時重新計算最終金額")
+    void testPatchOrder_RecalculatesFinalAmount() {
+        // Arrange
+        OrderPatchRequest patch = new OrderPatchRequest();
+        patch.setAmount(new BigDecimal("2000.00"));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.saveAndFlush(testOrder)).thenReturn(testOrder);
+
+        // Act
+        Order result = orderService.patchOrder(1L, patch);
+
+        // Assert
+        assertEquals(new BigDecimal("1800.00"), result.getFinalAmount());
+    }
+
+    @Test
+    @DisplayName("測試建立訂單 - 以匯率快照計算台幣金額與匯率版本")
+    void testCreateOrder_ComputesFinalAmountTwd() {
+        // Arrange
+        LocalDateTime rateVersion = LocalDateTime.of(2025, 3, 1, 9, 0);
+        when(currencyService.getCurrencyByCode(CurrencyCode.USD))
+            .thenReturn(Optional.of(currency(CurrencyCode.USD, "31.234567", rateVersion)));
+        when(orderRepository.saveAndFlush(testOrder)).thenReturn(testOrder);
+
+        // Act
+        Order result = orderService.createOrder(testOrder);
+
+        // Assert：900.00 × 31.234567 = 28111.1103 → 28111.11
+        assertEquals(new BigDecimal("900.00"), result.getFinalAmount());
+        assertEquals(new BigDecimal("28111.11"), result.getFinalAmountTwd());
+        assertEquals(rateVersion, result.getTwdRateVersion());
+    }
+
+    @Test
+    @DisplayName("測試建立訂單 - 取不到匯率時台幣金額留空，仍建立訂單")
+    void testCreateOrder_RateUnavailable() {
+        // Arrange
+        testOrder.setFinalAmountTwd(new BigDecimal("1.00"));
+        when(currencyService.getCurrencyByCode(CurrencyCode.USD))
+            .thenThrow(new RateUnavailableException(CurrencyCode.USD, "Redis 與資料庫皆無法使用"));
+        when(orderRepository.saveAndFlush(testOrder)).thenReturn(testOrder);
+
+        // Act
+        Order result = orderService.createOrder(testOrder);
+
+        // Assert
+        assertNull(result.getFinalAmountTwd());
+        assertNull(result.getTwdRateVersion());
+        verify(orderRepository, times(1)).saveAndFlush(testOrder);
+    }
+
+    @Test
+    @DisplayName("測試部分更新訂單 - 只修改幣別時重新計算台幣金額")
+    void testPatchOrder_CurrencyChangeRecalculatesTwd() {
+        // Arrange
+        OrderPatchRequest patch = new OrderPatchRequest();
+        patch.setCurrency(CurrencyCode.TWD);
+        testOrder.setFinalAmountTwd(new BigDecimal("28111.11"));
+        testOrder.setTwdRateVersion(LocalDateTime.of(2025, 3, 1, 9, 0));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.saveAndFlush(testOrder)).thenReturn(testOrder);
+
+        // Act
+        Order result = orderService.patchOrder(1L, patch);
+
+        // Assert：台幣訂單直接使用最終金額，不查詢匯率
+        assertEquals(new BigDecimal("900.00"), result.getFinalAmountTwd());
+        assertNull(result.getTwdRateVersion());
+        verify(currencyService, never()).getCurrencyByCode(any());
+    }
+
+    @Test
+    @DisplayName("測試部分更新訂單 - 版本不同時拋出衝突")
+    void testPatchOrder_StaleVersion() {
+        // Arrange
+        OrderPatchRequest patch = new OrderPatchRequest();
+        patch.setStatus(OrderStatus.CANCELLED);
+        patch.setVersion(2L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> orderService.patchOrder(1L, patch));
+        assertEquals(OrderStatus.PENDING, testOrder.getStatus());
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("測試多條件搜尋 - 多讀一筆判斷下一頁並返回游標")
+    void testMultiCriteriaSearch_NextCursor() {
+        // Arrange
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        criteria.setStatus(OrderStatus.PENDING);
+        criteria.setSize(2);
+        Specification<Order> specification = Specification.where(null);
+        when(orderSearchPlanner.plan(criteria))
+            .thenReturn(new OrderSearchPlanner.Plan(OrderSearchPlanner.AccessPath.STATUS, specification, 2));
+        List<Order> rows = LongStream.of(3L, 2L, 1L).mapToObj(id -> {
+            Order order = new Order();
+            order.setOrderId(id);
+            order.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+            return order;
+        }).toList();
+        when(orderRepository.findKeysetPage(specification, OrderSearchPlanner.AccessPath.STATUS.getIndexHint(), 3))
+            .thenReturn(rows);
+
+        // Act
+        OrderSearchResult result = orderService.searchOrders(criteria);
+
+        // Assert
+        assertEquals(List.of(3L, 2L), result.getOrders().stream().map(Order::getOrderId).toList());
+        assertEquals("IDX_ORDERS_STATUS_CREATED", result.getAccessPath());
+        OrderSearchPlanner.Cursor next = OrderSearchPlanner.Cursor.decode(result.getNextCursor());
+        assertEquals(2L, next.orderId());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 12, 0), next.createdAt());
+    }
+
+    @Test
+    @DisplayName("測試多條件搜尋 - 最後一頁沒有游標")
+    void testMultiCriteriaSearch_LastPage() {
+        // Arrange
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        Specification<Order> specification = Specification.where(null);
+        when(orderSearchPlanner.plan(criteria))
+            .thenReturn(new OrderSearchPlanner.Plan(OrderSearchPlanner.AccessPath.CREATED_AT, specification, 20));
+        when(orderRepository.findKeysetPage(eq(specification), anyString(), eq(21))).thenReturn(List.of(testOrder));
+
+        // Act
+        OrderSearchResult result = orderService.searchOrders(criteria);
+
+        // Assert
+        assertEquals(1, result.getOrders().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("測試多條件搜尋 - 範圍早於封存界線時合併已封存的訂單")
+    void testMultiCriteriaSearch_MergesArchive() {
+        // Arrange
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        criteria.setSize(2);
+        Specification<Order> specification = Specification.where(null);
+        when(orderSearchPlanner.plan(criteria))
+            .thenReturn(new OrderSearchPlanner.Plan(OrderSearchPlanner.AccessPath.CREATED_AT, specification, 2));
+        when(orderArchive.mayContain(null)).thenReturn(true);
+        when(orderRepository.findKeysetPage(eq(specification), anyString(), eq(3)))
+            .thenReturn(List.of(order(5L, LocalDateTime.of(2025, 3, 1, 0, 0))));
+        when(orderArchive.search(specification, 3)).thenReturn(List.of(
+            order(4L, LocalDateTime.of(2024, 12, 1, 0, 0)),
+            order(3L, LocalDateTime.of(2024, 11, 1, 0, 0))));
+
+        // Act
+        OrderSearchResult result = orderService.searchOrders(criteria);
+
+        // Assert
+        assertEquals(List.of(5L, 4L), result.getOrders().stream().map(Order::getOrderId).toList());
+        assertEquals(4L, OrderSearchPlanner.Cursor.decode(result.getNextCursor()).orderId());
+    }
+
+    @Test
+    @DisplayName("測試多條件搜尋 - 一頁都在封存界線之後時不查詢封存表")
+    void testMultiCriteriaSearch_PageNewerThanArchive() {
+        // Arrange
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        criteria.setSize(2);
+        Specification<Order> specification = Specification.where(null);
+        when(orderSearchPlanner.plan(criteria))
+            .thenReturn(new OrderSearchPlanner.Plan(OrderSearchPlanner.AccessPath.CREATED_AT, specification, 2));
+        when(orderArchive.mayContain(null)).thenReturn(true);
+        when(orderArchive.boundary()).thenReturn(LocalDateTime.of(2025, 1, 1, 0, 0));
+        when(orderRepository.findKeysetPage(eq(specification), anyString(), eq(3)))
+            .thenReturn(LongStream.of(3L, 2L, 1L).mapToObj(id -> order(id, LocalDateTime.of(2025, 6, 1, 0, 0))).toList());
+
+        // Act
+        OrderSearchResult result = orderService.searchOrders(criteria);
+
+        // Assert
+        assertEquals(List.of(3L, 2L), result.getOrders().stream().map(Order::getOrderId).toList());
+        verify(orderArchive, never()).search(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("測試根據ID取得訂單 - 已封存的訂單")
+    void testGetOrderById_Archived() {
+        // Arrange
+        testOrder.setStatus(OrderStatus.COMPLETED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        when(orderArchive.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act
+        Optional<Order> result = orderService.getOrderById(1L);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(OrderStatus.COMPLETED, result.get().getStatus());
+        verify(orderCache, times(1)).put(any(OrderView.class), anyLong());
+    }
+
+    @Test
+    @DisplayName("測試部分更新訂單 - 已封存的訂單 - 拋出衝突")
+    void testPatchOrder_Archived() {
+        // Arrange
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        when(orderArchive.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> orderService.patchOrder(1L, new OrderPatchRequest()));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("測試批次變更狀態 - 返回實際變更的訂單並失效快取")
+    void testTransitionStatus_Success() {
+        // Arrange：訂單 2 不是 PENDING、訂單 4 不存在
+        when(namedParameterJdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+            .thenReturn(List.of(lockedOrder(1L), lockedOrder(3L)));
+        when(namedParameterJdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(2);
+
+        // Act
+        StatusTransitionResult result = orderService.transitionStatus(List.of(1L, 2L, 3L, 4L, 1L), OrderStatus.PENDING, OrderStatus.CONFIRMED);
+
+        // Assert
+        assertEquals(List.of(1L, 3L), result.getTransitioned());
+        assertEquals(List.of(2L, 4L), result.getSkipped());
+        verify(namedParameterJdbcTemplate, times(1)).update(anyString(),
+            argThat((SqlParameterSource params) -> List.of(1L, 3L).equals(params.getValue("ids"))
+                && "CONFIRMED".equals(params.getValue("to")) && "PENDING".equals(params.getValue("from"))));
+        // 寫入事件帶有鎖定時讀取的內容與更新後的狀態、版本
+        OrderChangedEvent event = publishedEvent();
+        assertEquals(OrderEventType.ORDER_UPDATED, event.type());
+        assertEquals(List.of(1L, 3L), event.orderIds());
+        OrderChangedEvent.Change change = event.changes().get(0);
+        assertEquals(OrderStatus.PENDING, change.beforeStatus());
+        assertEquals(OrderStatus.CONFIRMED, change.afterStatus());
+        assertEquals(5L, change.before().getVersion());
+        assertEquals(6L, change.after().getVersion());
+        assertEquals(new BigDecimal("1000.00"), change.after().getAmount());
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("測試批次變更狀態 - 超過 1000 筆時分段處理")
+    void testTransitionStatus_Chunked() {
+        // Arrange
+        List<Long> orderIds = LongStream.rangeClosed(1, 2500).boxed().toList();
+        when(namedParameterJdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+            .thenAnswer(invocation -> ((List<?>) ((MapSqlParameterSource) invocation.getArgument(1)).getValue("ids"))
+                .stream().map(id -> lockedOrder((Long) id)).toList());
+
+        // Act
+        StatusTransitionResult result = orderService.transitionStatus(orderIds, OrderStatus.PENDING, OrderStatus.CANCELLED);
+
+        // Assert
+        assertEquals(2500, result.getTransitioned().size());
+        assertTrue(result.getSkipped().isEmpty());
+        verify(namedParameterJdbcTemplate, times(3)).query(anyString(),
+            argThat((SqlParameterSource params) -> ((List<?>) params.getValue("ids")).size() <= 1000), any(RowMapper.class));
+        verify(namedParameterJdbcTemplate, times(3)).update(anyString(), any(SqlParameterSource.class));
+        assertEquals(2500, publishedEvent().changes().size());
+    }
+
+    @Test
+    @DisplayName("測試批次變更狀態 - 不允許的狀態變更")
+    void testTransitionStatus_InvalidTransition() {
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+            () -> orderService.transitionStatus(List.of(1L), OrderStatus.COMPLETED, OrderStatus.PENDING));
+        verifyNoInteractions(namedParameterJdbcTemplate, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("測試非同步接收訂單 - 計算最終金額並交由接收服務")
+    void testAcceptOrder_Enabled() {
+        // Arrange
+        Order newOrder = new Order();
+        newOrder.setUsername("testuser");
+        newOrder.setAmount(new BigDecimal("1000.00"));
+        newOrder.setCurrency(CurrencyCode.USD);
+        newOrder.setDiscount(new BigDecimal("10.00"));
+        when(orderIngestionService.isEnabled()).thenReturn(true);
+        when(orderIngestionService.submit(newOrder)).thenAnswer(invocation -> {
+            newOrder.setOrderId(42L);
+            return OrderView.from(newOrder);
+        });
+
+        // Act
+        Optional<Order> result = orderService.acceptOrder(newOrder);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(42L, result.get().getOrderId());
+        assertEquals(new BigDecimal("900.00"), result.get().getFinalAmount());
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("測試非同步接收訂單 - 未啟用時返回空值")
+    void testAcceptOrder_Disabled() {
+        // Arrange
+        when(orderIngestionService.isEnabled()).thenReturn(false);
+
+        // Act
+        Optional<Order> result = orderService.acceptOrder(testOrder);
+
+        // Assert
+        assertFalse(result.isPresent());
+        verify(orderIngestionService, never()).submit(any());
     }
 
     @Test
@@ -267,7 +797,7 @@ class OrderServiceTest {
             orderService.updateOrder(orderId, updateData);
         });
         verify(orderRepository, times(1)).findById(orderId);
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -275,13 +805,17 @@ class OrderServiceTest {
     void testDeleteOrder_Success() {
         // Arrange
         Long orderId = 1L;
-        doNothing().when(orderRepository).deleteById(orderId);
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
 
         // Act
         orderService.deleteOrder(orderId);
 
         // Assert
-        verify(orderRepository, times(1)).deleteById(orderId);
+        verify(orderRepository, times(1)).delete(testOrder);
+        OrderChangedEvent event = publishedEvent();
+        assertEquals(OrderEventType.ORDER_DELETED, event.type());
+        assertEquals(OrderStatus.PENDING, event.changes().get(0).beforeStatus());
+        assertNull(event.changes().get(0).after());
     }
 
     @Test
@@ -309,6 +843,26 @@ class OrderServiceTest {
         );
     }
 
+    @Test
+    @DisplayName("測試轉換為TWD - 快取命中時不查詢資料庫")
+    void testConvertToTwd_CacheHit() {
+        // Arrange
+        Long orderId = 1L;
+        BigDecimal expectedTwdAmount = new BigDecimal("31250.00");
+        when(orderCache.get(orderId)).thenReturn(OrderView.from(testOrder));
+        when(currencyService.convertToTwd(
+            eq(testOrder.getFinalAmount()),
+            eq(testOrder.getCurrency())
+        )).thenReturn(expectedTwdAmount);
+
+        // Act
+        BigDecimal result = orderService.convertToTwd(orderId);
+
+        // Assert
+        assertEquals(expectedTwdAmount, result);
+        verify(orderRepository, never()).findById(any());
+    }
+
     @Test
     @DisplayName("測試轉換為TWD - 訂單不存在")
     void testConvertToTwd_NotFound() {
@@ -367,7 +921,37 @@ class OrderServiceTest {
         verify(orderRepository, times(1)).findById(orderId);
         verify(currencyService, never()).convertCurrency(any(), any(), any());
     }
-}
 
+    private OrderChangedEvent publishedEvent() {
+        ArgumentCaptor<OrderChangedEvent> captor = ArgumentCaptor.forClass(OrderChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(captor.capture());
+        return captor.getValue();
+    }
 
+    private static Order lockedOrder(Long orderId) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setUsername("testuser");
+        order.setAmount(new BigDecimal("1000.00"));
+        order.setCurrency(CurrencyCode.USD);
+        order.setStatus(OrderStatus.PENDING);
+        order.setCreatedAt(LocalDateTime.of(2025, 3, 1, 10, 0));
+        order.setVersion(5L);
+        return order;
+    }
 
+    private static Order order(long orderId, LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+
+    private static Currency currency(CurrencyCode code, String rateToTwd, LocalDateTime lastUpdate) {
+        Currency currency = new Currency();
+        currency.setCurrencyCode(code);
+        currency.setRateToTwd(new BigDecimal(rateToTwd));
+        currency.setLastUpdate(lastUpdate);
+        return currency;
+    }
+}
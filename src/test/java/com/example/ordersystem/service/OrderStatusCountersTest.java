@@ -0,0 +1,139 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderEventType;
+import com.example.ordersystem.model.OrderStatus;
+import com.example.ordersystem.repository.OrderRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderStatusCounters 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderStatusCounters 測試")
+class OrderStatusCountersTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @InjectMocks
+    private OrderStatusCounters orderStatusCounters;
+
+    @Test
+    @DisplayName("測試啟動 - 立即對帳並定期執行")
+    void testStart_SchedulesReconcile() {
+        // Act
+        orderStatusCounters.start();
+
+        // Assert
+        verify(taskScheduler, times(1)).scheduleWithFixedDelay(any(Runnable.class), any(Instant.class), eq(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    @DisplayName("測試記錄異動 - 建立、變更、刪除")
+    void testRecord() {
+        // Act
+        orderStatusCounters.record(null, OrderStatus.PENDING, 3);
+        orderStatusCounters.record(OrderStatus.PENDING, OrderStatus.CONFIRMED, 2);
+        orderStatusCounters.record(OrderStatus.CONFIRMED, null, 1);
+
+        // Assert
+        Map<OrderStatus, Long> counts = orderStatusCounters.snapshot();
+        assertEquals(1L, counts.get(OrderStatus.PENDING));
+        assertEquals(1L, counts.get(OrderStatus.CONFIRMED));
+        assertEquals(0L, counts.get(OrderStatus.CANCELLED));
+        assertEquals(0L, counts.get(OrderStatus.COMPLETED));
+    }
+
+    @Test
+    @DisplayName("測試訂單寫入事件 - 依每筆訂單寫入前後的狀態套用")
+    void testOnOrderChanged() {
+        // Arrange
+        orderStatusCounters.record(null, OrderStatus.PENDING, 2);
+        OrderChangedEvent event = new OrderChangedEvent(OrderEventType.ORDER_UPDATED, List.of(
+            new OrderChangedEvent.Change(view(1L, OrderStatus.PENDING), view(1L, OrderStatus.CONFIRMED)),
+            new OrderChangedEvent.Change(view(2L, OrderStatus.PENDING), view(2L, OrderStatus.CONFIRMED))));
+
+        // Act
+        orderStatusCounters.onOrderChanged(event);
+        orderStatusCounters.onOrderChanged(new OrderChangedEvent(OrderEventType.ORDER_DELETED,
+            List.of(new OrderChangedEvent.Change(view(2L, OrderStatus.CONFIRMED), null))));
+
+        // Assert
+        Map<OrderStatus, Long> counts = orderStatusCounters.snapshot();
+        assertEquals(0L, counts.get(OrderStatus.PENDING));
+        assertEquals(1L, counts.get(OrderStatus.CONFIRMED));
+    }
+
+    private static OrderView view(Long orderId, OrderStatus status) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setStatus(status);
+        return OrderView.from(order);
+    }
+
+    @Test
+    @DisplayName("測試對帳 - 以資料庫筆數校正計數器")
+    void testReconcile() {
+        // Arrange
+        orderStatusCounters.record(null, OrderStatus.PENDING, 5);
+        orderStatusCounters.record(null, OrderStatus.CANCELLED, 1);
+        when(orderRepository.countGroupByStatus()).thenReturn(List.of(
+            new Object[] {OrderStatus.PENDING, 3L},
+            new Object[] {OrderStatus.COMPLETED, 7L}));
+
+        // Act
+        orderStatusCounters.reconcile();
+
+        // Assert
+        Map<OrderStatus, Long> counts = orderStatusCounters.snapshot();
+        assertEquals(3L, counts.get(OrderStatus.PENDING));
+        assertEquals(0L, counts.get(OrderStatus.CONFIRMED));
+        assertEquals(0L, counts.get(OrderStatus.CANCELLED));
+        assertEquals(7L, counts.get(OrderStatus.COMPLETED));
+        assertNotNull(orderStatusCounters.getReconciledAt());
+    }
+
+    @Test
+    @DisplayName("測試對帳失敗 - 保留原計數")
+    void testReconcile_Failure() {
+        // Arrange
+        orderStatusCounters.record(null, OrderStatus.PENDING, 2);
+        when(orderRepository.countGroupByStatus())
+            .thenThrow(new org.springframework.dao.DataAccessResourceFailureException("connection refused"));
+
+        // Act
+        orderStatusCounters.reconcile();
+
+        // Assert
+        assertEquals(2L, orderStatusCounters.snapshot().get(OrderStatus.PENDING));
+        assertNull(orderStatusCounters.getReconciledAt());
+    }
+}
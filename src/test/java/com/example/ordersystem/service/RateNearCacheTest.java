@@ -0,0 +1,108 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.RateSnapshot;
+import com.example.ordersystem.model.Currency;
+import com.example.ordersystem.model.CurrencyCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RateNearCache 單元測試
+ * 以直接呼叫 onMessage 模擬 Redis keyspace notification
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@DisplayName("RateNearCache 測試")
+class RateNearCacheTest {
+
+    private RateNearCache rateNearCache;
+    private Currency usd;
+
+    @BeforeEach
+    void setUp() {
+        rateNearCache = new RateNearCache();
+        ReflectionTestUtils.setField(rateNearCache, "enabled", true);
+
+        usd = new Currency();
+        usd.setCurrencyCode(CurrencyCode.USD);
+        usd.setRateToTwd(new BigDecimal("31.25"));
+    }
+
+    @Test
+    @DisplayName("測試寫入後讀取 - 命中")
+    void testPutAndGet() {
+        // Act
+        rateNearCache.put(usd, rateNearCache.currentGeneration());
+        RateSnapshot result = rateNearCache.get(CurrencyCode.USD);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(RateSnapshot.Source.NEAR_CACHE, result.getSource());
+        assertEquals(new BigDecimal("31.25"), result.getCurrency().getRateToTwd());
+    }
+
+    @Test
+    @DisplayName("測試異動通知 - 使對應幣別失效")
+    void testKeyspaceNotification_Invalidates() {
+        // Arrange
+        rateNearCache.put(usd, rateNearCache.currentGeneration());
+
+        // Act
+        rateNearCache.onMessage(message("__keyspace@0__:currency:rate:USD", "set"), null);
+
+        // Assert
+        assertNull(rateNearCache.get(CurrencyCode.USD));
+    }
+
+    @Test
+    @DisplayName("測試讀取途中收到異動通知 - 不寫入舊值")
+    void testPut_GenerationChangedDuringRead() {
+        // Arrange：讀取 Redis 前取得世代號，讀取途中其他節點更新了匯率
+        long generation = rateNearCache.currentGeneration();
+        rateNearCache.onMessage(message("__keyspace@0__:currency:rate:USD", "set"), null);
+
+        // Act
+        rateNearCache.put(usd, generation);
+
+        // Assert
+        assertNull(rateNearCache.get(CurrencyCode.USD));
+    }
+
+    @Test
+    @DisplayName("測試超過 max-age - 視為未命中")
+    void testGet_ExpiredByMaxAge() {
+        // Arrange
+        ReflectionTestUtils.setField(rateNearCache, "maxAge", Duration.ZERO);
+        rateNearCache.put(usd, rateNearCache.currentGeneration());
+
+        // Act & Assert
+        assertNull(rateNearCache.get(CurrencyCode.USD));
+    }
+
+    @Test
+    @DisplayName("測試未啟用 - 不保存資料")
+    void testDisabled() {
+        // Arrange
+        ReflectionTestUtils.setField(rateNearCache, "enabled", false);
+
+        // Act
+        rateNearCache.put(usd, rateNearCache.currentGeneration());
+
+        // Assert
+        assertNull(rateNearCache.get(CurrencyCode.USD));
+    }
+
+    private static DefaultMessage message(String channel, String event) {
+        return new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), event.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.config.NodeIdentity;
+import com.example.ordersystem.dto.RateStreamEvent;
+import com.example.ordersystem.dto.RateUpdate;
+import com.example.ordersystem.exception.ServiceUnavailableException;
+import com.example.ordersystem.model.Currency;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.repository.CurrencyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * RateStreamBroadcaster 單元測試
+ * 以攔截 send 的 SseEmitter 取得推送的事件，flush 由測試直接呼叫
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateStreamBroadcaster 測試")
+class RateStreamBroadcasterTest {
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @InjectMocks
+    private RateStreamBroadcaster rateStreamBroadcaster;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rateStreamBroadcaster, "nodeIdentity", new NodeIdentity("node-a"));
+        ReflectionTestUtils.setField(rateStreamBroadcaster, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(rateStreamBroadcaster, "sendThreads", 1);
+        rateStreamBroadcaster.start();
+        when(currencyRepository.findAll()).thenReturn(List.of(
+            currency(CurrencyCode.USD, "31.50"), currency(CurrencyCode.JPY, "0.21")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateStreamBroadcaster.stop();
+    }
+
+    @Test
+    @DisplayName("測試訂閱 - 先送出快照，之後只推送匯率有變動的幣別")
+    void testSubscribe_SnapshotThenChangedOnly() throws Exception {
+        // Arrange
+        CapturingEmitter emitter = new CapturingEmitter(null);
+        rateStreamBroadcaster.subscribe(emitter);
+        RateStreamEvent snapshot = emitter.next();
+
+        // Act：USD 變動、JPY 相同
+        rateStreamBroadcaster.onCurrencyChanged(CurrencyChangedEvent.saved(currency(CurrencyCode.USD, "32.00")));
+        rateStreamBroadcaster.onCurrencyChanged(CurrencyChangedEvent.saved(currency(CurrencyCode.JPY, "0.2100")));
+        rateStreamBroadcaster.flush();
+        RateStreamEvent change = emitter.next();
+
+        // Assert
+        assertTrue(snapshot.isSnapshot());
+        assertEquals(2, snapshot.getRates().size());
+        assertFalse(change.isSnapshot());
+        assertEquals(snapshot.getVersion() + 1, change.getVersion());
+        assertEquals(1, change.getRates().size());
+        assertEquals(CurrencyCode.USD, change.getRates().get(0).getCurrencyCode());
+        assertEquals(0, new BigDecimal("32.00").compareTo(change.getRates().get(0).getRateToTwd()));
+    }
+
+    @Test
+    @DisplayName("測試第一個訂閱者載入快照 - 查詢不持有鎖，查詢期間提交的異動在載入後推送")
+    void testSubscribe_ChangeCommittedDuringLoad() throws Exception {
+        // Arrange：查詢讀到的是提交前的 USD
+        Currency beforeCommit = currency(CurrencyCode.USD, "31.50");
+        beforeCommit.setLastUpdate(LocalDateTime.now().minusSeconds(1));
+        when(currencyRepository.findAll()).thenAnswer(invocation -> {
+            Thread writer = new Thread(() -> {
+                rateStreamBroadcaster.onCurrencyChanged(CurrencyChangedEvent.saved(currency(CurrencyCode.USD, "32.00")));
+                rateStreamBroadcaster.flush();
+            });
+            writer.start();
+            writer.join(5_000);
+            assertFalse(writer.isAlive());
+            return List.of(beforeCommit);
+        });
+        CapturingEmitter emitter = new CapturingEmitter(null);
+
+        // Act
+        rateStreamBroadcaster.subscribe(emitter);
+        RateStreamEvent snapshot = emitter.next();
+        rateStreamBroadcaster.flush();
+        RateStreamEvent change = emitter.next();
+
+        // Assert
+        assertEquals(0, new BigDecimal("31.50").compareTo(snapshot.getRates().get(0).getRateToTwd()));
+        assertFalse(change.isSnapshot());
+        assertEquals(0, new BigDecimal("32.00").compareTo(change.getRates().get(0).getRateToTwd()));
+    }
+
+    @Test
+    @DisplayName("測試慢的訂閱者 - 傳送期間的異動合併為最新匯率")
+    void testSlowSubscriber_MergedToLatest() throws Exception {
+        // Arrange：快照的傳送卡住
+        CountDownLatch release = new CountDownLatch(1);
+        CapturingEmitter emitter = new CapturingEmitter(release);
+        rateStreamBroadcaster.subscribe(emitter);
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+
+        // Act
+        rateStreamBroadcaster.onCurrencyChanged(CurrencyChangedEvent.saved(currency(CurrencyCode.USD, "32.00")));
+        rateStreamBroadcaster.flush();
+        rateStreamBroadcaster.onCurrencyChanged(CurrencyChangedEvent.saved(currency(CurrencyCode.USD, "33.00")));
+        rateStreamBroadcaster.onCurrencyChanged(CurrencyChangedEvent.saved(currency(CurrencyCode.JPY, "0.22")));
+        rateStreamBroadcaster.flush();
+        release.countDown();
+
+        // Assert：快照之後只有一個合併後的事件
+        assertTrue(emitter.next().isSnapshot());
+        RateStreamEvent merged = emitter.next();
+        assertEquals(2, merged.getVersion());
+        Map<CurrencyCode, BigDecimal> rates = merged.getRates().stream()
+            .collect(Collectors.toMap(RateUpdate::getCurrencyCode, RateUpdate::getRateToTwd));
+        assertEquals(0, new BigDecimal("33.00").compareTo(rates.get(CurrencyCode.USD)));
+        assertEquals(0, new BigDecimal("0.22").compareTo(rates.get(CurrencyCode.JPY)));
+        assertNull(emitter.events.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("測試傳送卡住的訂閱者 - 超過 max-send-time 後斷開")
+    void testStuckSubscriber_Dropped() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(rateStreamBroadcaster, "maxSendTime", Duration.ofMillis(1));
+        CountDownLatch release = new CountDownLatch(1);
+        rateStreamBroadcaster.subscribe(new CapturingEmitter(release));
+        assertEquals(1, rateStreamBroadcaster.getSubscriberCount());
+        Thread.sleep(20);
+
+        // Act
+        rateStreamBroadcaster.onCurrencyChanged(CurrencyChangedEvent.saved(currency(CurrencyCode.USD, "32.00")));
+        rateStreamBroadcaster.flush();
+
+        // Assert
+        assertEquals(0, rateStreamBroadcaster.getSubscriberCount());
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("測試訂閱者上限 - 達到 max-subscribers 後拒絕新的連線並建議稍後重試")
+    void testSubscribe_MaxSubscribers() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(rateStreamBroadcaster, "maxSubscribers", 1);
+        CapturingEmitter first = new CapturingEmitter(null);
+        rateStreamBroadcaster.subscribe(first);
+        first.next();
+
+        // Act & Assert
+        ServiceUnavailableException rejected = assertThrows(ServiceUnavailableException.class,
+            () -> rateStreamBroadcaster.subscribe(new CapturingEmitter(null)));
+        assertEquals(30, rejected.getRetryAfterSeconds());
+        assertEquals(1, rateStreamBroadcaster.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("測試跨節點 - 本節點的寫入發布到 Redis，其他節點的通知推送給訂閱者")
+    void testCrossNode() throws Exception {
+        // Arrange
+        CapturingEmitter emitter = new CapturingEmitter(null);
+        rateStreamBroadcaster.subscribe(emitter);
+        emitter.next();
+
+        // Act：本節點寫入
+        rateStreamBroadcaster.onCurrencyChanged(CurrencyChangedEvent.saved(currency(CurrencyCode.USD, "32.00")));
+        rateStreamBroadcaster.flush();
+        // 其他節點寫入、以及自己發出的通知
+        String remote = "{\"node\":\"node-b\",\"rates\":[{\"currencyCode\":\"JPY\",\"rateToTwd\":0.25,\"deleted\":false}]}";
+        String own = "{\"node\":\"node-a\",\"rates\":[{\"currencyCode\":\"JPY\",\"rateToTwd\":0.30,\"deleted\":false}]}";
+        rateStreamBroadcaster.onMessage(message(own), null);
+        rateStreamBroadcaster.onMessage(message(remote), null);
+        rateStreamBroadcaster.flush();
+
+        // Assert
+        verify(stringRedisTemplate, times(1)).convertAndSend(eq(RateStreamBroadcaster.CHANGED_CHANNEL), contains("\"node\":\"node-a\""));
+        assertEquals(CurrencyCode.USD, emitter.next().getRates().get(0).getCurrencyCode());
+        RateStreamEvent remoteChange = emitter.next();
+        assertEquals(1, remoteChange.getRates().size());
+        assertEquals(0, new BigDecimal("0.25").compareTo(remoteChange.getRates().get(0).getRateToTwd()));
+    }
+
+    private static Currency currency(CurrencyCode code, String rate) {
+        Currency currency = new Currency();
+        currency.setCurrencyCode(code);
+        currency.setRateToTwd(new BigDecimal(rate));
+        currency.setLastUpdate(LocalDateTime.now());
+        return currency;
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(RateStreamBroadcaster.CHANGED_CHANNEL.getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 記錄送出的事件；指定 latch 時第一次傳送會等到 latch 釋放（模擬慢的用戶端）
+     */
+    private static class CapturingEmitter extends SseEmitter {
+        private final BlockingQueue<RateStreamEvent> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        CapturingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            builder.build().stream()
+                .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                .filter(RateStreamEvent.class::isInstance)
+                .forEach(data -> events.add((RateStreamEvent) data));
+        }
+
+        RateStreamEvent next() throws InterruptedException {
+            RateStreamEvent event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "未收到事件");
+            return event;
+        }
+    }
+}
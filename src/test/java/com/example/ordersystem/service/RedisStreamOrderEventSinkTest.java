@@ -0,0 +1,136 @@
+package com.example.ordersystem.service;
+
+import com.example.ordersystem.dto.OrderEvent;
+import com.example.ordersystem.dto.OrderEventBatch;
+import com.example.ordersystem.model.OrderEventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * RedisStreamOrderEventSink 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RedisStreamOrderEventSink 測試")
+class RedisStreamOrderEventSinkTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @InjectMocks
+    private RedisStreamOrderEventSink sink;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doReturn(streamOperations).when(stringRedisTemplate).opsForStream();
+        lenient().doReturn(hashOperations).when(stringRedisTemplate).opsForHash();
+    }
+
+    @Test
+    @DisplayName("測試發布 - 裁剪到所有消費者中最早的已提交位置，略過無效的位置")
+    void testPublish_TrimsToMinCommittedOffset() throws Exception {
+        // Arrange
+        when(hashOperations.values("order-events:offsets"))
+            .thenReturn(List.of("1700000000000-5", "1699999999999-12", "bogus", "1700000000000-0"));
+
+        // Act
+        sink.publish(List.of(event(1L)));
+
+        // Assert
+        verify(stringRedisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class),
+            eq(List.of(RedisStreamOrderEventSink.STREAM_KEY)), eq("1699999999999-12"));
+    }
+
+    @Test
+    @DisplayName("測試發布 - 沒有消費者提交位置時只依上限裁剪")
+    void testPublish_NoConsumers() throws Exception {
+        // Arrange
+        when(hashOperations.values("order-events:offsets")).thenReturn(List.of());
+
+        // Act
+        sink.publish(List.of(event(1L)));
+
+        // Assert
+        verify(stringRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("測試讀取 - 位置早於保留的第一筆時回應 gap，並由第一筆開始")
+    void testRead_Gap() throws Exception {
+        // Arrange
+        MapRecord<String, Object, Object> first = record("1700000000000-3", 7L);
+        when(streamOperations.range(eq(RedisStreamOrderEventSink.STREAM_KEY), eq(Range.unbounded()), any(Limit.class)))
+            .thenReturn(List.of(first));
+
+        // Act
+        OrderEventBatch batch = sink.read("1700000000000-1", 10);
+
+        // Assert
+        assertTrue(batch.isGap());
+        assertEquals(1, batch.getEvents().size());
+        assertEquals("1700000000000-3", batch.getEvents().get(0).getOffset());
+        assertEquals(7L, batch.getEvents().get(0).getEventId());
+    }
+
+    @Test
+    @DisplayName("測試讀取 - 位置仍在串流中時由位置之後繼續")
+    void testRead_Continues() throws Exception {
+        // Arrange
+        when(streamOperations.range(eq(RedisStreamOrderEventSink.STREAM_KEY), any(), any(Limit.class)))
+            .thenAnswer(invocation -> {
+                Range<String> range = invocation.getArgument(1);
+                return range.getLowerBound().isBounded()
+                    ? List.of(record("1700000000000-4", 8L))
+                    : List.of(record("1700000000000-3", 7L));
+            });
+
+        // Act
+        OrderEventBatch batch = sink.read("1700000000000-3", 10);
+
+        // Assert
+        assertFalse(batch.isGap());
+        assertEquals(List.of(8L), batch.getEvents().stream().map(OrderEvent::getEventId).toList());
+    }
+
+    private static OrderEvent event(Long eventId) {
+        return new OrderEvent(eventId, OrderEventType.ORDER_CREATED, 1L, "alice", 0L,
+            LocalDateTime.of(2025, 1, 1, 12, 0), null);
+    }
+
+    private static MapRecord<String, Object, Object> record(String id, Long eventId) throws Exception {
+        Map<Object, Object> value = Map.of("event", OrderOutbox.JSON.writeValueAsString(event(eventId)));
+        return StreamRecords.newRecord().in(RedisStreamOrderEventSink.STREAM_KEY).withId(id).ofMap(value);
+    }
+}
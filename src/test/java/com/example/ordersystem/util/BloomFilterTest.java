@@ -0,0 +1,52 @@
+package com.example.ordersystem.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BloomFilter 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@DisplayName("BloomFilter 測試")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("測試加入過的元素 - 一定判斷為可能存在")
+    void testNoFalseNegatives() {
+        // Arrange
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put("user:key-" + i);
+        }
+
+        // Act & Assert
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bloomFilter.mightContain("user:key-" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("測試未加入的元素 - 誤判率接近設定值")
+    void testFalsePositiveRate() {
+        // Arrange
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put("user:key-" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (bloomFilter.mightContain("user:other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert：設定 1%，容許到 2%
+        assertTrue(falsePositives < 2_000, "誤判次數: " + falsePositives);
+    }
+}
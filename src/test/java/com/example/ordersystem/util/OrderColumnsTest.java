@@ -0,0 +1,129 @@
+package com.example.ordersystem.util;
+
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OrderColumns 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@DisplayName("OrderColumns 測試")
+class OrderColumnsTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("測試新增、取代與移除 - 移除的列會被重複使用")
+    void testUpsertAndRemove() {
+        // Arrange
+        OrderColumns columns = new OrderColumns(4);
+        columns.upsert(1L, "alice", new BigDecimal("100.00"), new BigDecimal("10.00"), CurrencyCode.USD, OrderStatus.PENDING, CREATED_AT);
+        columns.upsert(2L, "bob", new BigDecimal("200.50"), BigDecimal.ZERO, CurrencyCode.TWD, OrderStatus.PENDING, CREATED_AT);
+
+        // Act
+        columns.upsert(1L, "alice", new BigDecimal("150.00"), new BigDecimal("12.50"), CurrencyCode.USD, OrderStatus.CONFIRMED, CREATED_AT);
+        assertTrue(columns.remove(2L));
+        assertFalse(columns.remove(2L));
+        columns.upsert(3L, "carol", new BigDecimal("1.00"), BigDecimal.ZERO, CurrencyCode.JPY, OrderStatus.PENDING, CREATED_AT);
+
+        // Assert
+        assertEquals(2, columns.size());
+        assertTrue(columns.updateStatus(3L, OrderStatus.CANCELLED));
+        assertFalse(columns.updateStatus(2L, OrderStatus.CANCELLED));
+        long[] totals = sum(columns, OrderColumns.Filter.ALL);
+        assertEquals(2, totals[0]);
+        assertEquals(15_100, totals[1]);
+        assertEquals(1_250, totals[2]);
+        assertEquals(1, sum(columns, OrderColumns.Filter.of(null, OrderStatus.CANCELLED, null, null))[0]);
+        assertEquals(0, sum(columns, OrderColumns.Filter.of(CurrencyCode.TWD, null, null, null))[0]);
+    }
+
+    @Test
+    @DisplayName("測試大量訂單 - 平行加總與逐列結果相同，移除後雜湊表仍可找到其餘訂單")
+    void testReduce_ManyRowsAcrossLeaves() {
+        // Arrange：200000 筆，金額為訂單ID（分），每 10 筆一天
+        OrderColumns columns = new OrderColumns(16);
+        for (long id = 1; id <= 200_000; id++) {
+            columns.upsert(id, "user" + (id % 7), BigDecimal.valueOf(id, 2), BigDecimal.ZERO,
+                id % 2 == 0 ? CurrencyCode.USD : CurrencyCode.TWD, OrderStatus.PENDING,
+                CREATED_AT.plusDays(id / 10));
+        }
+        for (long id = 1; id <= 200_000; id += 3) {
+            columns.remove(id);
+        }
+
+        // Act
+        long[] all = sum(columns, OrderColumns.Filter.ALL);
+        long[] usd = sum(columns, OrderColumns.Filter.of(CurrencyCode.USD, null, null, null));
+        long[] firstDay = sum(columns, OrderColumns.Filter.of(null, null, CREATED_AT.toLocalDate(), CREATED_AT.toLocalDate()));
+
+        // Assert
+        long expectedCount = 0;
+        long expectedAmount = 0;
+        long expectedUsd = 0;
+        for (long id = 1; id <= 200_000; id++) {
+            if ((id - 1) % 3 != 0) {
+                expectedCount++;
+                expectedAmount += id;
+                expectedUsd += id % 2 == 0 ? id : 0;
+                assertTrue(columns.updateStatus(id, OrderStatus.PENDING));
+            } else {
+                assertFalse(columns.updateStatus(id, OrderStatus.PENDING));
+            }
+        }
+        assertEquals(expectedCount, columns.size());
+        assertEquals(expectedCount, all[0]);
+        assertEquals(expectedAmount, all[1]);
+        assertEquals(expectedUsd, usd[1]);
+        // 第一天為訂單 2、3、5、6、8、9（1、4、7 已移除）
+        assertEquals(6, firstDay[0]);
+        assertEquals(7, columns.userCount());
+    }
+
+    @Test
+    @DisplayName("測試日期範圍 - 包含迄日整天，沒有建立時間的訂單只在不限日期時計入")
+    void testFilter_DateRange() {
+        // Arrange
+        OrderColumns columns = new OrderColumns(4);
+        columns.upsert(1L, "alice", BigDecimal.ONE, BigDecimal.ZERO, CurrencyCode.USD, OrderStatus.PENDING,
+            LocalDateTime.of(2025, 3, 31, 23, 59, 59));
+        columns.upsert(2L, "alice", BigDecimal.ONE, BigDecimal.ZERO, CurrencyCode.USD, OrderStatus.PENDING,
+            LocalDateTime.of(2025, 4, 1, 0, 0));
+        columns.upsert(3L, "alice", BigDecimal.ONE, BigDecimal.ZERO, CurrencyCode.USD, null, null);
+
+        // Act & Assert
+        assertEquals(1, sum(columns, OrderColumns.Filter.of(null, null, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31)))[0]);
+        assertEquals(3, sum(columns, OrderColumns.Filter.ALL)[0]);
+        assertEquals(2, sum(columns, OrderColumns.Filter.of(null, OrderStatus.PENDING, null, null))[0]);
+    }
+
+    /**
+     * @return [筆數, 金額合計（分）, 折扣合計（萬分之一）]
+     */
+    private long[] sum(OrderColumns columns, OrderColumns.Filter filter) {
+        return columns.reduce(pool, filter, () -> new long[3], (partial, row) -> {
+            partial[0]++;
+            partial[1] += columns.amountCents(row);
+            partial[2] += columns.discountBasisPoints(row);
+        }, (left, right) -> new long[] {left[0] + right[0], left[1] + right[1], left[2] + right[2]});
+    }
+}
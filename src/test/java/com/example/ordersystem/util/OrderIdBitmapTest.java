@@ -0,0 +1,82 @@
+package com.example.ordersystem.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OrderIdBitmap 單元測試
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@DisplayName("OrderIdBitmap 測試")
+class OrderIdBitmapTest {
+
+    @Test
+    @DisplayName("測試建立 - 任意順序與重複的ID")
+    void testOf_UnsortedWithDuplicates() {
+        // Act
+        OrderIdBitmap bitmap = OrderIdBitmap.of(new long[] {70000L, 5L, 12L, 5L, 65536L});
+
+        // Assert
+        assertEquals(4, bitmap.cardinality());
+        assertTrue(bitmap.contains(5L));
+        assertTrue(bitmap.contains(65536L));
+        assertTrue(bitmap.contains(70000L));
+        assertFalse(bitmap.contains(6L));
+        assertFalse(bitmap.contains(-1L));
+        assertArrayEquals(new long[] {70000L, 65536L, 12L, 5L}, bitmap.descending(0, 10));
+    }
+
+    @Test
+    @DisplayName("測試大量連續ID - 使用點陣圖並正確分頁")
+    void testDescending_AcrossContainers() {
+        // Arrange：第一組 10000 筆（點陣圖），第二組 3 筆（陣列）
+        long[] ids = LongStream.concat(LongStream.range(0, 10_000), LongStream.of(65536L, 65537L, 65538L)).toArray();
+        OrderIdBitmap bitmap = OrderIdBitmap.of(ids);
+
+        // Act & Assert
+        assertEquals(10_003, bitmap.cardinality());
+        assertArrayEquals(new long[] {65538L, 65537L, 65536L, 9999L, 9998L}, bitmap.descending(0, 5));
+        // 整組略過第二組
+        assertArrayEquals(new long[] {9999L, 9998L}, bitmap.descending(3, 2));
+        assertArrayEquals(new long[] {4999L, 4998L}, bitmap.descending(3 + 5000, 2));
+        assertArrayEquals(new long[] {0L}, bitmap.descending(10_002, 5));
+        assertEquals(0, bitmap.descending(10_003, 5).length);
+        // 點陣圖固定 8 KB，遠小於 10000 筆 long
+        assertTrue(bitmap.sizeInBytes() < 10_000 * 8L);
+    }
+
+    @Test
+    @DisplayName("測試過濾 - 返回新的集合且不影響原集合")
+    void testFilter() {
+        // Arrange
+        OrderIdBitmap bitmap = OrderIdBitmap.of(LongStream.rangeClosed(1, 20_000).toArray());
+
+        // Act
+        OrderIdBitmap filtered = bitmap.filter(id -> Long.toString(id).contains("123"));
+
+        // Assert
+        assertEquals(20_000, bitmap.cardinality());
+        assertArrayEquals(LongStream.rangeClosed(1, 20_000).filter(id -> Long.toString(id).contains("123"))
+            .boxed().sorted((a, b) -> Long.compare(b, a)).mapToLong(Long::longValue).toArray(),
+            filtered.descending(0, Integer.MAX_VALUE));
+        assertTrue(filtered.contains(12345L));
+        assertFalse(filtered.contains(12L));
+    }
+
+    @Test
+    @DisplayName("測試建構器 - ID未依遞增順序加入時拋出例外")
+    void testBuilder_RequiresAscendingOrder() {
+        // Arrange
+        OrderIdBitmap.Builder builder = new OrderIdBitmap.Builder().add(10L);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> builder.add(9L));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(-1L));
+    }
+}
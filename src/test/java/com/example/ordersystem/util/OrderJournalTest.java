@@ -0,0 +1,187 @@
+package com.example.ordersystem.util;
+
+import com.example.ordersystem.dto.OrderView;
+import com.example.ordersystem.model.CurrencyCode;
+import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OrderJournal 單元測試
+ * 以暫存目錄模擬寫入、重啟與 checkpoint
+ *
+ * @author Order Currency System
+ * @version 1.0
+ */
+@DisplayName("OrderJournal 測試")
+class OrderJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("測試重啟 - 讀回所有未 checkpoint 的訂單")
+    void testReopen_RecoversAppendedOrders() {
+        // Arrange
+        OrderJournal journal = new OrderJournal(directory, SEGMENT_SIZE, true);
+        journal.open();
+        journal.append(order(1L));
+        journal.append(order(2L));
+        journal.close();
+
+        // Act
+        OrderJournal reopened = new OrderJournal(directory, SEGMENT_SIZE, true);
+        List<OrderJournal.Entry> entries = reopened.open();
+        reopened.close();
+
+        // Assert
+        assertEquals(2, entries.size());
+        OrderView recovered = entries.get(1).order();
+        assertEquals(2L, recovered.getOrderId());
+        assertEquals("testuser", recovered.getUsername());
+        assertEquals(new BigDecimal("1000.00"), recovered.getAmount());
+        assertEquals(CurrencyCode.USD, recovered.getCurrency());
+        assertEquals(new BigDecimal("900.00"), recovered.getFinalAmount());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 12, 0), recovered.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("測試 checkpoint - 重啟後只讀回之後的訂單並可繼續寫入")
+    void testCheckpoint_SkipsFlushedOrders() {
+        // Arrange
+        OrderJournal journal = new OrderJournal(directory, SEGMENT_SIZE, true);
+        journal.open();
+        OrderJournal.Position first = journal.append(order(1L));
+        journal.append(order(2L));
+        journal.checkpoint(first);
+        journal.close();
+
+        // Act
+        OrderJournal reopened = new OrderJournal(directory, SEGMENT_SIZE, true);
+        List<OrderJournal.Entry> entries = reopened.open();
+        reopened.append(order(3L));
+        reopened.close();
+        OrderJournal again = new OrderJournal(directory, SEGMENT_SIZE, true);
+        List<OrderJournal.Entry> all = again.open();
+        again.close();
+
+        // Assert
+        assertEquals(List.of(2L), entries.stream().map(entry -> entry.order().getOrderId()).toList());
+        assertEquals(List.of(2L, 3L), all.stream().map(entry -> entry.order().getOrderId()).toList());
+    }
+
+    @Test
+    @DisplayName("測試區段寫滿 - 換到下一個區段，checkpoint 後刪除舊區段")
+    void testSegmentRoll_DeletesCheckpointedSegments() throws IOException {
+        // Arrange
+        OrderJournal journal = new OrderJournal(directory, 256, false);
+        journal.open();
+        OrderJournal.Position last = null;
+        for (long id = 1; id <= 20; id++) {
+            last = journal.append(order(id));
+        }
+        long segmentsBefore = countSegments();
+
+        // Act
+        journal.checkpoint(last);
+        journal.close();
+        OrderJournal reopened = new OrderJournal(directory, 256, false);
+        List<OrderJournal.Entry> entries = reopened.open();
+        reopened.close();
+
+        // Assert
+        assertTrue(segmentsBefore > 1);
+        assertEquals(1, countSegments());
+        assertTrue(entries.isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試寫到一半中止 - 忽略 CRC 不符的紀錄")
+    void testTornRecord_Ignored() throws IOException {
+        // Arrange
+        OrderJournal journal = new OrderJournal(directory, SEGMENT_SIZE, true);
+        journal.open();
+        OrderJournal.Position first = journal.append(order(1L));
+        journal.append(order(2L));
+        journal.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.toString().endsWith(".journal")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // 破壞第二筆紀錄的內容
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f}), first.offset() + 10);
+        }
+
+        // Act
+        OrderJournal reopened = new OrderJournal(directory, SEGMENT_SIZE, true);
+        List<OrderJournal.Entry> entries = reopened.open();
+        reopened.close();
+
+        // Assert
+        assertEquals(List.of(1L), entries.stream().map(entry -> entry.order().getOrderId()).toList());
+    }
+
+    @Test
+    @DisplayName("測試台幣金額 - 寫入後讀回，舊格式紀錄讀為 NULL")
+    void testDecode_FinalAmountTwd() throws IOException {
+        // Arrange
+        Order withTwd = order(1L).toOrder();
+        withTwd.setFinalAmountTwd(new BigDecimal("28111.11"));
+        withTwd.setTwdRateVersion(LocalDateTime.of(2025, 3, 1, 9, 0));
+        byte[] current = OrderJournal.encode(OrderView.from(withTwd));
+        byte[] withoutTwd = OrderJournal.encode(order(2L));
+        // 舊格式沒有結尾的台幣金額（空字串 2 bytes）與匯率版本（8 bytes）
+        byte[] legacy = Arrays.copyOf(withoutTwd, withoutTwd.length - 10);
+
+        // Act
+        OrderView decoded = OrderJournal.decode(current);
+        OrderView decodedLegacy = OrderJournal.decode(legacy);
+
+        // Assert
+        assertEquals(new BigDecimal("28111.11"), decoded.getFinalAmountTwd());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 9, 0), decoded.getTwdRateVersion());
+        assertEquals(2L, decodedLegacy.getOrderId());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 12, 0), decodedLegacy.getUpdatedAt());
+        assertNull(decodedLegacy.getFinalAmountTwd());
+        assertNull(decodedLegacy.getTwdRateVersion());
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".journal")).count();
+        }
+    }
+
+    private static OrderView order(Long orderId) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setUsername("testuser");
+        order.setAmount(new BigDecimal("1000.00"));
+        order.setCurrency(CurrencyCode.USD);
+        order.setStatus(OrderStatus.PENDING);
+        order.setDiscount(new BigDecimal("10.00"));
+        order.setFinalAmount(new BigDecimal("900.00"));
+        order.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        order.setUpdatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        return OrderView.from(order);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.ordersystem.util;
 
 import com.example.ordersystem.model.CurrencyCode;
 import com.example.ordersystem.model.Order;
+import com.example.ordersystem.model.OrderStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -19,7 +20,7 @@ public class OrderTestDataBuilder {
     private String username;
     private BigDecimal amount;
     private CurrencyCode currency;
-    private String status;
+    private OrderStatus status;
     private BigDecimal discount;
     private BigDecimal finalAmount;
     private LocalDateTime createdAt;
@@ -27,7 +28,7 @@ public class OrderTestDataBuilder {
     
     private OrderTestDataBuilder() {
         // 預設值
-        this.status = "PENDING";
+        this.status = OrderStatus.PENDING;
         this.discount = BigDecimal.ZERO;
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
@@ -62,7 +63,7 @@ public class OrderTestDataBuilder {
         return this;
     }
     
-    public OrderTestDataBuilder withStatus(String status) {
+    public OrderTestDataBuilder withStatus(OrderStatus status) {
         this.status = status;
         return this;
     }
@@ -117,7 +118,7 @@ public class OrderTestDataBuilder {
             .withUsername("testuser")
             .withAmount("1000.00")
             .withCurrency(CurrencyCode.USD)
-            .withStatus("PENDING")
+            .withStatus(OrderStatus.PENDING)
             .withDiscount("10.00")
             .withFinalAmount("900.00")
             .build();